@@ -0,0 +1,131 @@
+import { ref, onUnmounted } from 'vue'
+import { sessionService } from '@/services/session'
+
+interface UseEventStreamOptions {
+  reconnectInterval?: number
+  maxReconnectAttempts?: number
+  onMessage?: (event: MessageEvent) => void
+  // The server could not resume from the last event id; reload instead
+  onReset?: (event: MessageEvent) => void
+}
+
+/**
+ * Server-Sent Events on the main HTTP port, used for admin live updates when the
+ * WebSocket server is turned off.
+ *
+ * EventSource reconnects by itself and sends Last-Event-ID. When the server refuses a
+ * stream (e.g. too many streams) the browser gives up, so a new one is opened after
+ * reconnectInterval, passing the last id as ?lastEventId=.
+ */
+export function useEventStream(
+  urlOrFactory: string | (() => string),
+  options: UseEventStreamOptions = {}
+) {
+  const {
+    reconnectInterval = 3000,
+    maxReconnectAttempts = 5,
+    onMessage,
+    onReset
+  } = options
+
+  const isConnected = ref(false)
+
+  let source: EventSource | null = null
+  let lastEventId = ''
+  let reconnectAttempts = 0
+  let reconnectTimer: number | undefined
+  let shouldReconnect = true
+
+  const getUrl = () => {
+    const url = typeof urlOrFactory === 'function' ? urlOrFactory() : urlOrFactory
+    const params = new URLSearchParams()
+    // EventSource cannot send an Authorization header
+    const token = sessionService.getToken()
+    if (token) {
+      params.set('token', token)
+    }
+    if (lastEventId) {
+      params.set('lastEventId', lastEventId)
+    }
+    const query = params.toString()
+    if (!query) {
+      return url
+    }
+    return `${url}${url.includes('?') ? '&' : '?'}${query}`
+  }
+
+  const connect = () => {
+    shouldReconnect = true
+
+    if (reconnectTimer) {
+      clearTimeout(reconnectTimer)
+      reconnectTimer = undefined
+    }
+
+    if (source) {
+      return
+    }
+
+    const stream = new EventSource(getUrl())
+    source = stream
+
+    stream.onopen = () => {
+      isConnected.value = true
+      reconnectAttempts = 0
+    }
+
+    stream.onmessage = (event) => {
+      if (event.lastEventId) {
+        lastEventId = event.lastEventId
+      }
+      if (onMessage) onMessage(event)
+    }
+
+    stream.addEventListener('reset', (event) => {
+      const message = event as MessageEvent
+      lastEventId = message.lastEventId || ''
+      if (onReset) onReset(message)
+    })
+
+    stream.onerror = () => {
+      isConnected.value = false
+      // CONNECTING means the browser is already retrying on its own
+      if (stream.readyState !== EventSource.CLOSED) {
+        return
+      }
+      if (source === stream) {
+        source = null
+      }
+      if (shouldReconnect && reconnectAttempts < maxReconnectAttempts) {
+        reconnectTimer = window.setTimeout(() => {
+          reconnectAttempts++
+          connect()
+        }, reconnectInterval)
+      }
+    }
+  }
+
+  const disconnect = () => {
+    shouldReconnect = false
+
+    if (reconnectTimer) {
+      clearTimeout(reconnectTimer)
+      reconnectTimer = undefined
+    }
+    if (source) {
+      source.close()
+      source = null
+    }
+    isConnected.value = false
+  }
+
+  onUnmounted(() => {
+    disconnect()
+  })
+
+  return {
+    isConnected,
+    connect,
+    disconnect
+  }
+}
@@ -31,6 +31,8 @@ export interface ConfigResponse {
   announcement: string
   webServerPrefix: string
   wsPort?: number
+  wsEnabled?: boolean
+  eventsPath?: string
   usernameRegex: string
   authme: {
     enabled: boolean
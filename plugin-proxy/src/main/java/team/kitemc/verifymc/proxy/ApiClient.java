@@ -10,8 +10,6 @@ import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -23,17 +21,15 @@ public class ApiClient {
     @SuppressWarnings("unused")
     private final Gson gson = new Gson();
     
+    // Players whose whitelist status is cached at most; the oldest are dropped first
+    private static final int MAX_CACHED_STATUSES = 10000;
+    
     // Simple cache for whitelist status
-    private final Map<String, CachedStatus> statusCache = new ConcurrentHashMap<>();
+    private final ExpiringMap<String, WhitelistStatus> statusCache = new ExpiringMap<>(MAX_CACHED_STATUSES);
     
     public ApiClient(ProxyConfig config, Logger logger) {
         this.config = config;
         this.logger = logger;
-        
-        // Start cache cleanup thread
-        if (config.isCacheEnabled()) {
-            startCacheCleanup();
-        }
     }
     
     /**
@@ -44,12 +40,12 @@ public class ApiClient {
     public WhitelistStatus checkWhitelist(String username) {
         // Check cache first
         if (config.isCacheEnabled()) {
-            CachedStatus cached = statusCache.get(username.toLowerCase());
-            if (cached != null && !cached.isExpired()) {
+            WhitelistStatus cached = statusCache.get(username.toLowerCase());
+            if (cached != null) {
                 if (config.isDebug()) {
                     logger.info("[DEBUG] Cache hit for: " + username);
                 }
-                return cached.status;
+                return cached;
             }
         }
         
@@ -128,7 +124,7 @@ public class ApiClient {
                 
                 // Cache the result
                 if (config.isCacheEnabled()) {
-                    statusCache.put(username.toLowerCase(), new CachedStatus(status, config.getCacheExpireSeconds()));
+                    statusCache.put(username.toLowerCase(), status, config.getCacheExpireSeconds() * 1000L);
                 }
                 
                 return status;
@@ -143,30 +139,6 @@ public class ApiClient {
         }
     }
     
-    /**
-     * Start background thread to clean up expired cache entries
-     */
-    private void startCacheCleanup() {
-        Thread cleanupThread = new Thread(() -> {
-            while (true) {
-                try {
-                    Thread.sleep(60000); // Clean every minute
-                    
-                    statusCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-                    
-                    if (config.isDebug()) {
-                        logger.info("[DEBUG] Cache cleanup completed. Cache size: " + statusCache.size());
-                    }
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        });
-        cleanupThread.setDaemon(true);
-        cleanupThread.setName("VerifyMC-CacheCleanup");
-        cleanupThread.start();
-    }
-    
     /**
      * Clear the cache
      */
@@ -213,21 +185,4 @@ public class ApiClient {
             return found && "approved".equalsIgnoreCase(status);
         }
     }
-    
-    /**
-     * Cache entry with expiration
-     */
-    private static class CachedStatus {
-        final WhitelistStatus status;
-        final long expireTime;
-        
-        CachedStatus(WhitelistStatus status, int expireSeconds) {
-            this.status = status;
-            this.expireTime = System.currentTimeMillis() + (expireSeconds * 1000L);
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
-        }
-    }
 }
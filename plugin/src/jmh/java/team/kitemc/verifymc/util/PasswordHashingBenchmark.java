@@ -0,0 +1,72 @@
+package team.kitemc.verifymc.util;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hashing and verifying stored passwords in each format, plus the hex codec they share.
+ * PBKDF2 runs at its minimum iteration count; real hashes cost what startup calibrated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashingBenchmark {
+    private static final String PASSWORD = "correct horse battery";
+
+    private final Sha256PasswordHasher sha256 = new Sha256PasswordHasher();
+    private final Pbkdf2PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS);
+    private final byte[] digest = new byte[32];
+    private String sha256Stored;
+    private String pbkdf2Stored;
+    private String unsaltedStored;
+
+    @Setup
+    public void setUp() {
+        sha256Stored = sha256.hash(PASSWORD);
+        pbkdf2Stored = pbkdf2.hash(PASSWORD);
+        unsaltedStored = CryptoUtil.sha256Hex(PASSWORD);
+    }
+
+    @Benchmark
+    public String sha256Hash() {
+        return sha256.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean sha256Verify() {
+        return PasswordUtil.verify(PASSWORD, sha256Stored);
+    }
+
+    @Benchmark
+    public boolean unsaltedSha256Verify() {
+        return PasswordUtil.verify(PASSWORD, unsaltedStored);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean pbkdf2Verify() {
+        return PasswordUtil.verify(PASSWORD, pbkdf2Stored);
+    }
+
+    @Benchmark
+    public boolean pbkdf2NeedsRehash() {
+        return PasswordUtil.needsRehash(pbkdf2Stored);
+    }
+
+    @Benchmark
+    public String hexEncode() {
+        return CryptoUtil.hexEncode(digest);
+    }
+}
@@ -0,0 +1,53 @@
+package team.kitemc.verifymc.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Minting web session tokens: random store tokens and signed tokens, and checking the latter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenBenchmark {
+    private final SecureRandom random = new SecureRandom();
+    private SignedTokenCodec codec;
+    private String signedToken;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = "benchmark-secret-of-at-least-32-chars".getBytes(StandardCharsets.UTF_8);
+        codec = new SignedTokenCodec(Map.of("k1", secret), "k1", WebAuthHelper.TOKEN_EXPIRY_TIME, 10_000);
+        signedToken = codec.issue("Steve", WebAuthHelper.TOKEN_EXPIRY_TIME);
+    }
+
+    @Benchmark
+    public String randomToken() {
+        return WebAuthHelper.randomToken(random);
+    }
+
+    @Benchmark
+    public String signedTokenIssue() {
+        return codec.issue("Steve", WebAuthHelper.TOKEN_EXPIRY_TIME);
+    }
+
+    @Benchmark
+    public String signedTokenVerify() {
+        return codec.verify(signedToken);
+    }
+}
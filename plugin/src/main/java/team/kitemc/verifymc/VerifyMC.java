@@ -8,20 +8,32 @@ import team.kitemc.verifymc.db.*;
 import team.kitemc.verifymc.listener.PlayerLoginListener;
 import team.kitemc.verifymc.command.VmcCommandExecutor;
 import team.kitemc.verifymc.mail.MailService;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 import team.kitemc.verifymc.service.*;
 import team.kitemc.verifymc.sms.SmsService;
+import team.kitemc.verifymc.web.ReviewEventHub;
 import team.kitemc.verifymc.web.ReviewWebSocketServer;
 import team.kitemc.verifymc.web.ServerSslContextFactory;
+import team.kitemc.verifymc.web.SignedTokenCodec;
 import team.kitemc.verifymc.web.WebAuthHelper;
 import team.kitemc.verifymc.web.WebServer;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.net.ssl.SSLContext;
 import java.util.logging.Logger;
 import team.kitemc.verifymc.util.FoliaCompat;
+import team.kitemc.verifymc.util.PasswordHasher;
+import team.kitemc.verifymc.util.PasswordHashingExecutor;
+import team.kitemc.verifymc.util.PasswordUtil;
+import team.kitemc.verifymc.util.Pbkdf2PasswordHasher;
+import team.kitemc.verifymc.util.Sha256PasswordHasher;
 
 /**
  * VerifyMC plugin entrypoint — refactored from the 878-line god class
@@ -38,6 +50,12 @@ public class VerifyMC extends JavaPlugin {
     private WebServer webServer;
     private ReviewWebSocketServer wsServer;
     private Metrics metrics;
+    private PasswordHashingExecutor passwordHashing;
+    private static final long USER_FLUSH_INTERVAL_MILLIS = 5000L;
+    private static final long SESSION_PURGE_INTERVAL_MILLIS = 300_000L;
+    private static final long EXPIRED_STATE_PURGE_INTERVAL_MILLIS = 60_000L;
+
+    // Tasks that must run on the server's scheduler; background work uses the context's housekeeping
     private final List<Object> scheduledTasks = new ArrayList<>();
 
     @Override
@@ -50,6 +68,9 @@ public class VerifyMC extends JavaPlugin {
         context.getConfigManager().reloadConfig();
         context.getI18nManager().init(context.getConfigManager().getLanguage());
 
+        // --- Password hashing, before anything hashes ---
+        initPasswordHashing(log);
+
         // --- Data access layer ---
         initDataLayer(log);
 
@@ -90,6 +111,11 @@ public class VerifyMC extends JavaPlugin {
     public void onDisable() {
         Logger log = getLogger();
 
+        // End event streams first so the web server does not wait for them
+        if (context != null && context.getReviewEvents() != null) {
+            context.getReviewEvents().shutdown();
+        }
+
         // Stop web server
         if (webServer != null) {
             webServer.stop();
@@ -104,11 +130,12 @@ public class VerifyMC extends JavaPlugin {
             }
         }
 
-        // Stop service cleanup threads
+        // Stop scheduled and housekeeping tasks before the services they use
         if (context != null) {
             FoliaCompat.cancelTasks(this, scheduledTasks);
+            context.shutdown();
             if (context.getWebAuthHelper() != null) {
-                context.getWebAuthHelper().stopTokenCleanupTask();
+                context.getWebAuthHelper().close();
             }
             if (context.getVerifyCodeService() != null) {
                 context.getVerifyCodeService().stop();
@@ -116,7 +143,16 @@ public class VerifyMC extends JavaPlugin {
             if (context.getCaptchaService() != null) {
                 context.getCaptchaService().stop();
             }
-            context.shutdown();
+            if (context.getDiscordService() != null) {
+                context.getDiscordService().stop();
+            }
+        }
+
+        // Web and sync callers are stopped; new hashes are computed inline again
+        if (passwordHashing != null) {
+            PasswordUtil.configure(new Sha256PasswordHasher(), null);
+            passwordHashing.shutdown();
+            passwordHashing = null;
         }
 
         // Save and close data access layer
@@ -139,6 +175,34 @@ public class VerifyMC extends JavaPlugin {
         log.info("[VerifyMC] Plugin disabled.");
     }
 
+    private void initPasswordHashing(Logger log) {
+        ConfigManager config = context.getConfigManager();
+        String algorithm = config.getPasswordHashingAlgorithm();
+        if ("auto".equals(algorithm)) {
+            // AuthMe is handed the same hashes, and its default format is SHA256
+            algorithm = getConfig().getBoolean("authme.enabled", false)
+                    ? Sha256PasswordHasher.NAME : Pbkdf2PasswordHasher.NAME;
+        }
+        PasswordHasher hasher;
+        if (Sha256PasswordHasher.NAME.equals(algorithm)) {
+            hasher = new Sha256PasswordHasher();
+            log.info("[VerifyMC] Hashing new passwords with salted SHA-256 (AuthMe SHA256 format).");
+        } else {
+            if (!Pbkdf2PasswordHasher.NAME.equals(algorithm)) {
+                log.warning("[VerifyMC] Unsupported password_hashing.algorithm '" + algorithm + "', using pbkdf2.");
+            }
+            long start = System.nanoTime();
+            Pbkdf2PasswordHasher pbkdf2 = Pbkdf2PasswordHasher.calibrated(config.getPasswordHashingTargetMillis());
+            hasher = pbkdf2;
+            log.info("[VerifyMC] Hashing new passwords with PBKDF2-SHA256, " + pbkdf2.getIterations()
+                    + " iterations (calibrated in " + (System.nanoTime() - start) / 1_000_000L + " ms).");
+        }
+        passwordHashing = new PasswordHashingExecutor(config.getPasswordHashingMaxConcurrent(),
+                config.getPasswordHashingMaxQueue());
+        passwordHashing.registerMetrics(context.getMetrics());
+        PasswordUtil.configure(hasher, passwordHashing);
+    }
+
     private void initDataLayer(Logger log) {
         ConfigManager config = context.getConfigManager();
         String storageType = config.getStorageType();
@@ -162,23 +226,32 @@ public class VerifyMC extends JavaPlugin {
             context.setUserDao(new FileUserDao(new File(dataDir, "users.json"), this));
             context.setAuditDao(new FileAuditDao(new File(dataDir, "audits.json")));
         }
+        if (context.getUserDao() instanceof FileUserDao fileUserDao) {
+            context.getHousekeeping().schedule("user-flush", USER_FLUSH_INTERVAL_MILLIS, fileUserDao::flushIfDirty);
+        }
+
+        // Time every DAO call by method
+        MetricsRegistry metrics = context.getMetrics();
+        context.setUserDao(metrics.instrument(UserDao.class, context.getUserDao(), "dao_call_seconds", "dao", "user"));
+        context.setAuditDao(metrics.instrument(AuditDao.class, context.getAuditDao(), "dao_call_seconds", "dao", "audit"));
     }
 
     private void initServices(Logger log) {
         ConfigManager config = context.getConfigManager();
+        MetricsRegistry metrics = context.getMetrics();
 
         context.setOpsManager(new OpsManager(this));
 
         context.getResourceManager().setI18nManager(context.getI18nManager());
 
         // Mail service
-        context.setMailService(new MailService(this, context.getResourceManager()));
+        context.setMailService(new MailService(this, context.getResourceManager(), metrics));
 
         // SMS service
-        context.setSmsService(new SmsService(this, context.getConfigManager()));
+        context.setSmsService(new SmsService(this, context.getConfigManager(), metrics));
 
         // Verify code service
-        context.setVerifyCodeService(new VerifyCodeService(this, context.getConfigManager()));
+        context.setVerifyCodeService(new VerifyCodeService(this, context.getConfigManager(), metrics));
         // AuthMe service
         AuthmeService authmeService = new AuthmeService(this);
         authmeService.setUserDao(context.getUserDao());
@@ -192,30 +265,50 @@ public class VerifyMC extends JavaPlugin {
             // Schedule periodic sync
             int syncInterval = config.getAuthmeSyncInterval();
             if (syncInterval > 0) {
-                scheduledTasks.add(FoliaCompat.runTaskTimerAsync(this, () -> {
-                    authmeService.syncApprovedUsers();
-                }, syncInterval * 20L, syncInterval * 20L));
+                context.getHousekeeping().schedule("authme-sync", syncInterval * 1000L,
+                        authmeService::syncApprovedUsers);
                 log.info("[VerifyMC] AuthMe periodic sync scheduled every " + syncInterval + " seconds.");
             }
         }
 
         // Captcha service
-        context.setCaptchaService(new CaptchaService(this));
+        CaptchaService captchaService = new CaptchaService(this);
+        context.setCaptchaService(captchaService);
+        metrics.gauge("captchas_active", captchaService::getActiveCount);
+        captchaService.registerMetrics(metrics);
 
         // Questionnaire service
-        context.setQuestionnaireService(new QuestionnaireService(this));
+        context.setQuestionnaireService(new QuestionnaireService(this, metrics));
 
         // Discord service
         DiscordService discordService = new DiscordService(this);
         discordService.setUserDao(context.getUserDao());
+        discordService.registerMetrics(metrics);
         context.setDiscordService(discordService);
 
         // Version check service
         context.setVersionCheckService(new VersionCheckService(this));
-        context.setAccountSelectionService(new AccountSelectionService(
+        AccountSelectionService accountSelectionService = new AccountSelectionService(
                 Math.min(
                         context.getConfigManager().getEmailCodeExpireSeconds() * 1000L,
-                        context.getConfigManager().getSmsExpireSeconds() * 1000L)));
+                        context.getConfigManager().getSmsExpireSeconds() * 1000L));
+        accountSelectionService.registerMetrics(metrics);
+        context.setAccountSelectionService(accountSelectionService);
+
+        // Expiring maps drop entries as they are written; this releases idle ones
+        VerifyCodeService verifyCodeService = context.getVerifyCodeService();
+        context.getHousekeeping().schedule("expired-state", EXPIRED_STATE_PURGE_INTERVAL_MILLIS, () -> {
+            verifyCodeService.purgeExpired();
+            captchaService.purgeExpired();
+            discordService.purgeExpired();
+            accountSelectionService.cleanupExpiredSelections();
+        });
+
+        // Server status sampler, runs on the main thread so web requests never touch the Bukkit API
+        ServerStatusSampler statusSampler = new ServerStatusSampler(this, config.getServerStatusTpsHistorySize());
+        context.setServerStatusSampler(statusSampler);
+        scheduledTasks.add(FoliaCompat.runTaskTimerGlobal(this, statusSampler,
+                1L, config.getServerStatusSampleIntervalTicks()));
 
         // Registration application service
         context.setRegistrationApplicationService(new RegistrationApplicationService());
@@ -227,9 +320,69 @@ public class VerifyMC extends JavaPlugin {
         context.setQuestionnaireApplicationService(new QuestionnaireApplicationService());
 
         // --- Web auth ---
-        WebAuthHelper webAuthHelper = new WebAuthHelper(this, context.getI18nManager());
-        webAuthHelper.startTokenCleanupTask();
+        TokenStore tokenStore = createTokenStore(log);
+        if (tokenStore instanceof InMemoryTokenStore memoryStore) {
+            metrics.gauge("sessions_active", memoryStore::size);
+            memoryStore.registerMetrics(metrics);
+        } else if (tokenStore instanceof CachingTokenStore cachingStore) {
+            metrics.gauge("sessions_cached", cachingStore::cachedCount);
+        }
+        SignedTokenCodec signedTokens = createSignedTokenCodec(log);
+        if (signedTokens != null) {
+            metrics.gauge("session_revocations", signedTokens::revocationCount);
+        }
+        WebAuthHelper webAuthHelper = new WebAuthHelper(this, context.getI18nManager(), tokenStore, signedTokens);
         context.setWebAuthHelper(webAuthHelper);
+        context.getHousekeeping().schedule("session-purge", SESSION_PURGE_INTERVAL_MILLIS, webAuthHelper::purgeExpired);
+    }
+
+    private TokenStore createTokenStore(Logger log) {
+        ConfigManager config = context.getConfigManager();
+        if (!"mysql".equalsIgnoreCase(config.getSessionStore())) {
+            return new InMemoryTokenStore();
+        }
+        try {
+            TokenStore shared = new MysqlTokenStore(config.getMysqlProperties(), this);
+            log.info("[VerifyMC] Using MySQL web session store.");
+            return new CachingTokenStore(shared, config.getSessionNearCacheMillis(), config.getSessionNearCacheMaxEntries());
+        } catch (SQLException e) {
+            log.severe("[VerifyMC] Web session store initialization failed: " + e.getMessage());
+            log.info("[VerifyMC] Falling back to in-memory web sessions.");
+            return new InMemoryTokenStore();
+        }
+    }
+
+    private SignedTokenCodec createSignedTokenCodec(Logger log) {
+        ConfigManager config = context.getConfigManager();
+        if (!config.isSignedTokensEnabled()) {
+            return null;
+        }
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        config.getSignedTokenKeys().forEach((id, secret) -> {
+            if (secret.length() < 32) {
+                log.warning("[VerifyMC] Ignoring signing key '" + id + "': secrets need at least 32 characters.");
+            } else {
+                keys.put(id, secret.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        String activeKey = config.getSignedTokenActiveKey();
+        if (keys.isEmpty()) {
+            // Still valid across requests, but not across restarts or other nodes
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            activeKey = "local";
+            keys.put(activeKey, secret);
+            log.warning("[VerifyMC] No session.signed_tokens.keys configured; using a random key until restart.");
+        } else if (!keys.containsKey(activeKey)) {
+            activeKey = keys.keySet().iterator().next();
+            log.warning("[VerifyMC] Unknown session.signed_tokens.active_key, signing with '" + activeKey + "'.");
+        }
+        try {
+            return new SignedTokenCodec(keys, activeKey, WebAuthHelper.TOKEN_EXPIRY_TIME, config.getSignedTokenMaxRevocations());
+        } catch (IllegalArgumentException e) {
+            log.severe("[VerifyMC] Signed tokens disabled: " + e.getMessage());
+            return null;
+        }
     }
 
     private void initWebLayer(Logger log) {
@@ -244,23 +397,34 @@ public class VerifyMC extends JavaPlugin {
             }
         }
 
-        // WebSocket server for review notifications
-        int wsPort = context.getConfigManager().getWsPort();
-        try {
-            wsServer = new ReviewWebSocketServer(wsPort, context);
-            if (sslContext != null) {
-                wsServer.enableSsl(sslContext);
+        // Review notifications, streamed on the web port and optionally over WebSocket
+        ConfigManager config = context.getConfigManager();
+        // End streams before the response timeout closes them; clients reconnect with Last-Event-ID
+        long maxStreamMillis = Math.max(1, config.getHttpResponseTimeoutSeconds() - 5) * 1000L;
+        ReviewEventHub reviewEvents = new ReviewEventHub(config.getHttpEventsHistorySize(),
+                config.getHttpEventsMaxClients(), config.getHttpEventsHeartbeatSeconds(), maxStreamMillis, log);
+        context.setReviewEvents(reviewEvents);
+
+        if (config.isWebSocketEnabled()) {
+            int wsPort = config.getWsPort();
+            try {
+                wsServer = new ReviewWebSocketServer(wsPort, context);
+                if (sslContext != null) {
+                    wsServer.enableSsl(sslContext);
+                }
+                wsServer.start();
+                context.setWsServer(wsServer);
+                reviewEvents.addSink(wsServer::broadcastMessage);
+                String protocol = sslContext != null ? "WSS" : "WS";
+                log.info("[VerifyMC] " + protocol + " WebSocket server started on port " + wsPort);
+            } catch (Exception e) {
+                log.warning("[VerifyMC] WebSocket server failed to start: " + e.getMessage());
             }
-            wsServer.start();
-            context.setWsServer(wsServer);
-            String protocol = sslContext != null ? "WSS" : "WS";
-            log.info("[VerifyMC] " + protocol + " WebSocket server started on port " + wsPort);
-        } catch (Exception e) {
-            log.warning("[VerifyMC] WebSocket server failed to start: " + e.getMessage());
         }
 
         // HTTP server
         webServer = new WebServer(context, sslContext);
+        context.setWebServer(webServer);
         webServer.start();
     }
 
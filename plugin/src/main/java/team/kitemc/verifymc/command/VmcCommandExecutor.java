@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
  *   unban     — Unban a user
  *   list      — List users by status
  *   info      — Show user info
+ *   stats     — Show service metrics
  *   version   — Show plugin version
  */
 public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
@@ -38,13 +39,14 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             "ban", AdminAction.BAN,
             "unban", AdminAction.UNBAN,
             "list", AdminAction.LIST,
-            "info", AdminAction.INFO
+            "info", AdminAction.INFO,
+            "stats", AdminAction.AUDIT
     );
 
     private final PluginContext ctx;
 
     private static final List<String> SUBCOMMANDS = Arrays.asList(
-            "reload", "approve", "reject", "delete", "ban", "unban", "list", "info", "version"
+            "reload", "approve", "reject", "delete", "ban", "unban", "list", "info", "stats", "version"
     );
 
     public VmcCommandExecutor(PluginContext ctx) {
@@ -83,6 +85,7 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
             case "unban" -> handleUnban(sender, args);
             case "list" -> handleList(sender, args);
             case "info" -> handleInfo(sender, args);
+            case "stats" -> handleStats(sender, args);
             case "version" -> handleVersion(sender);
             default -> { }
         }
@@ -277,6 +280,23 @@ public class VmcCommandExecutor implements CommandExecutor, TabCompleter {
         sender.sendMessage("§7  Status: §e" + user.getOrDefault("status", "?"));
     }
 
+    private void handleStats(CommandSender sender, String[] args) {
+        String prefix = args.length > 1 ? args[1].toLowerCase() : "";
+        List<String> lines = ctx.getMetrics().describe().stream()
+                .filter(line -> line.startsWith(prefix))
+                .collect(Collectors.toList());
+
+        sender.sendMessage("§6[VerifyMC] §f--- Stats" + (prefix.isEmpty() ? "" : " (" + prefix + ")") + " ---");
+        if (lines.isEmpty()) {
+            sender.sendMessage("§7  No metrics recorded.");
+            return;
+        }
+        for (String line : lines) {
+            int split = line.indexOf(" = ");
+            sender.sendMessage("§7  " + line.substring(0, split) + " §f= §e" + line.substring(split + 3));
+        }
+    }
+
     private void handleVersion(CommandSender sender) {
         sender.sendMessage("§6[VerifyMC] §fVersion: " + ctx.getPlugin().getDescription().getVersion());
     }
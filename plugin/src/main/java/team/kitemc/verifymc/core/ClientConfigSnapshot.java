@@ -0,0 +1,118 @@
+package team.kitemc.verifymc.core;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The front-end configuration served by {@code /api/config}, captured once from
+ * {@link ConfigManager} and the optional services and kept as serialised response
+ * bytes. A new snapshot replaces the old one when the configuration is reloaded.
+ */
+public final class ClientConfigSnapshot {
+    private final byte[] responseBytes;
+
+    private ClientConfigSnapshot(byte[] responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * The state of optional services that the front-end configuration reports.
+     */
+    public record ServiceState(boolean questionnaireEnabled, int questionnairePassScore,
+                               boolean questionnaireHasTextQuestions, boolean discordEnabled,
+                               boolean discordRequired) {
+        public static final ServiceState NONE = new ServiceState(false, 60, false, false, false);
+    }
+
+    static ClientConfigSnapshot capture(ConfigManager config, ServiceState services) {
+        JSONObject json = new JSONObject();
+        json.put("authMethods", new JSONArray(config.getAuthMethods()));
+        JSONObject loginConfig = new JSONObject();
+        loginConfig.put("allowedMethods", new JSONArray(config.getAllowedLoginMethods()));
+        loginConfig.put("usernameCaseSensitive", config.isUsernameCaseSensitive());
+        json.put("login", loginConfig);
+
+        JSONObject forgotPasswordConfig = new JSONObject();
+        forgotPasswordConfig.put("enabled", config.isForgotPasswordEnabled());
+        forgotPasswordConfig.put("allowedMethods", new JSONArray(config.getForgotPasswordMethods()));
+        json.put("forgotPassword", forgotPasswordConfig);
+
+        JSONObject userConfig = new JSONObject();
+        userConfig.put("passwordResetMethods", new JSONArray(config.getUserPasswordResetMethods()));
+        json.put("user", userConfig);
+
+        JSONObject authConfig = new JSONObject();
+        authConfig.put("mustAuthMethods", new JSONArray(config.getMustAuthMethods()));
+        authConfig.put("optionAuthMethods", new JSONArray(config.getOptionAuthMethods()));
+        authConfig.put("minOptionAuthMethods", config.getMinOptionAuthMethods());
+        json.put("auth", authConfig);
+        json.put("theme", config.getTheme());
+        json.put("logoUrl", config.getLogoUrl());
+        json.put("announcement", config.getAnnouncement());
+        json.put("usernameRegex", config.getUsernameRegex());
+        json.put("webServerPrefix", config.getWebServerPrefix());
+        json.put("wsPort", config.getWsPort());
+        json.put("wsEnabled", config.isWebSocketEnabled());
+        json.put("eventsPath", "/api/admin/events");
+
+        JSONObject authmeConfig = new JSONObject();
+        authmeConfig.put("enabled", config.isAuthmeEnabled());
+        authmeConfig.put("passwordRegex", config.getAuthmePasswordRegex());
+        json.put("authme", authmeConfig);
+
+        JSONObject captchaConfig = new JSONObject();
+        captchaConfig.put("enabled", config.isCaptchaAuthEnabled());
+        captchaConfig.put("emailEnabled", config.isEmailAuthEnabled());
+        captchaConfig.put("type", config.getCaptchaType());
+        json.put("captcha", captchaConfig);
+
+        JSONObject smsConfig = new JSONObject();
+        smsConfig.put("enabled", config.isSmsAuthEnabled());
+        smsConfig.put("provider", config.getSmsProvider());
+        smsConfig.put("codeLength", config.getSmsCodeLength());
+        smsConfig.put("cooldownSeconds", config.getSmsSendCooldownSeconds());
+        json.put("sms", smsConfig);
+
+        JSONObject questionnaireConfig = new JSONObject();
+        questionnaireConfig.put("enabled", services.questionnaireEnabled());
+        questionnaireConfig.put("passScore", services.questionnairePassScore());
+        questionnaireConfig.put("hasTextQuestions", services.questionnaireHasTextQuestions());
+        json.put("questionnaire", questionnaireConfig);
+
+        JSONObject discordConfig = new JSONObject();
+        discordConfig.put("enabled", services.discordEnabled());
+        discordConfig.put("required", services.discordRequired());
+        json.put("discord", discordConfig);
+
+        JSONObject bedrockConfig = new JSONObject();
+        bedrockConfig.put("enabled", config.isBedrockEnabled());
+        bedrockConfig.put("prefix", config.getBedrockPrefix());
+        bedrockConfig.put("usernameRegex", config.getBedrockUsernameRegex());
+        json.put("bedrock", bedrockConfig);
+
+        if (config.isEmailDomainWhitelistEnabled()) {
+            json.put("emailDomainWhitelist", new JSONArray(config.getEmailDomainWhitelist()));
+        }
+        json.put("enableEmailDomainWhitelist", config.isEmailDomainWhitelistEnabled());
+        json.put("enableEmailAliasLimit", config.isEmailAliasLimitEnabled());
+        json.put("language", config.getLanguage());
+
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        resp.put("config", json);
+        return new ClientConfigSnapshot(resp.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The complete {@code /api/config} response body as UTF-8 JSON. Must not be modified.
+     */
+    public byte[] getResponseBytes() {
+        return responseBytes;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject(new String(responseBytes, StandardCharsets.UTF_8));
+    }
+}
@@ -3,6 +3,7 @@ package team.kitemc.verifymc.core;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import team.kitemc.verifymc.security.AdminAuthMode;
+import team.kitemc.verifymc.security.RateLimitPolicy;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -11,6 +12,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 /**
@@ -19,6 +22,9 @@ import java.util.logging.Level;
  */
 public class ConfigManager {
     private final JavaPlugin plugin;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile Supplier<ClientConfigSnapshot.ServiceState> clientServiceState = () -> ClientConfigSnapshot.ServiceState.NONE;
+    private volatile ClientConfigSnapshot clientConfig;
 
     private static final List<String> DEFAULT_EMAIL_DOMAIN_WHITELIST = Arrays.asList(
         "gmail.com", "qq.com", "163.com", "126.com", "outlook.com", "hotmail.com", "yahoo.com",
@@ -106,6 +112,48 @@ public class ConfigManager {
 
     public void reloadConfig() {
         plugin.reloadConfig();
+        refreshClientConfig();
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * The configuration served to the front-end, captured at the last load or reload.
+     */
+    public ClientConfigSnapshot getClientConfig() {
+        ClientConfigSnapshot snapshot = clientConfig;
+        if (snapshot == null) {
+            snapshot = refreshClientConfig();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Capture a new client configuration snapshot, e.g. after an optional service changed.
+     */
+    public ClientConfigSnapshot refreshClientConfig() {
+        ClientConfigSnapshot snapshot = ClientConfigSnapshot.capture(this, clientServiceState.get());
+        clientConfig = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Source of the optional services' state included in the client configuration.
+     */
+    public void setClientServiceState(Supplier<ClientConfigSnapshot.ServiceState> clientServiceState) {
+        this.clientServiceState = clientServiceState;
+        this.clientConfig = null;
+    }
+
+    /**
+     * Run the listener after every {@link #reloadConfig()}, e.g. to drop values derived
+     * from the previous configuration.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    public void removeReloadListener(Runnable listener) {
+        reloadListeners.remove(listener);
     }
 
     // --- General config ---
@@ -174,6 +222,297 @@ public class ConfigManager {
         }
     }
 
+    // --- Web sessions ---
+    /**
+     * Backend for web login tokens: "memory" (default) or "mysql" to share sessions between nodes.
+     */
+    public String getSessionStore() {
+        return getConfig().getString("session.store", "memory").trim().toLowerCase();
+    }
+
+    /**
+     * How long a token looked up from a shared store is trusted locally.
+     * This bounds how long a revoked token can still be accepted by another node.
+     */
+    public long getSessionNearCacheMillis() {
+        return Math.max(0L, getConfig().getLong("session.near_cache_ms", 5000L));
+    }
+
+    public int getSessionNearCacheMaxEntries() {
+        return Math.max(1, getConfig().getInt("session.near_cache_max_entries", 10000));
+    }
+
+    /**
+     * Whether login tokens are HMAC-signed and validated without a store lookup.
+     */
+    public boolean isSignedTokensEnabled() {
+        return getConfig().getBoolean("session.signed_tokens.enabled", false);
+    }
+
+    /**
+     * Id of the key in {@link #getSignedTokenKeys()} that signs new tokens.
+     */
+    public String getSignedTokenActiveKey() {
+        return getConfig().getString("session.signed_tokens.active_key", "").trim();
+    }
+
+    /**
+     * Signing secrets by key id. Keys other than the active one still validate the
+     * tokens they signed, so a retired key is removed only after its tokens expired.
+     */
+    public java.util.Map<String, String> getSignedTokenKeys() {
+        java.util.Map<String, String> keys = new java.util.LinkedHashMap<>();
+        org.bukkit.configuration.ConfigurationSection section = getConfig().getConfigurationSection("session.signed_tokens.keys");
+        if (section == null) {
+            return keys;
+        }
+        for (String id : section.getKeys(false)) {
+            String secret = section.getString(id, "");
+            if (secret != null && !secret.isBlank()) {
+                keys.put(id, secret);
+            }
+        }
+        return keys;
+    }
+
+    public int getSignedTokenMaxRevocations() {
+        return Math.max(1, getConfig().getInt("session.signed_tokens.max_revocations", 10000));
+    }
+
+    // --- Password hashing ---
+    /**
+     * Algorithm for new password hashes: "pbkdf2", "sha256", or "auto" (default), which
+     * picks sha256 while AuthMe integration is enabled and pbkdf2 otherwise.
+     */
+    public String getPasswordHashingAlgorithm() {
+        return getConfig().getString("password_hashing.algorithm", "auto").trim().toLowerCase();
+    }
+
+    /**
+     * Time one pbkdf2 hash should take on this machine; the iteration count is measured
+     * against it at startup.
+     */
+    public long getPasswordHashingTargetMillis() {
+        return Math.max(1L, getConfig().getLong("password_hashing.target_ms", 250L));
+    }
+
+    public int getPasswordHashingMaxConcurrent() {
+        return Math.max(1, getConfig().getInt("password_hashing.max_concurrent", 2));
+    }
+
+    public int getPasswordHashingMaxQueue() {
+        return Math.max(0, getConfig().getInt("password_hashing.max_queue", 32));
+    }
+
+    // --- HTTP server ---
+    /**
+     * HTTP engine: "jdk" (default, built-in server) or "netty" (event loop, HTTP/2 over TLS).
+     */
+    public String getHttpEngine() {
+        return getConfig().getString("http.engine", "jdk").trim().toLowerCase();
+    }
+
+    /**
+     * Executor mode for HTTP exchanges: "bounded" (default) or "virtual" (Java 21+).
+     */
+    public String getHttpExecutorMode() {
+        return getConfig().getString("http.executor.mode", "bounded").trim().toLowerCase();
+    }
+
+    /**
+     * Worker threads for the bounded executor; 0 means twice the number of CPU cores.
+     */
+    public int getHttpExecutorThreads() {
+        int threads = getConfig().getInt("http.executor.threads", 0);
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    public int getHttpExecutorQueueSize() {
+        return Math.max(1, getConfig().getInt("http.executor.queue_size", 256));
+    }
+
+    /**
+     * Worker threads of a named route bulkhead (http.bulkheads.NAME.max_concurrent).
+     */
+    public int getBulkheadMaxConcurrent(String name) {
+        return Math.max(1, getConfig().getInt("http.bulkheads." + name + ".max_concurrent", 4));
+    }
+
+    /**
+     * Requests allowed to wait for a named route bulkhead before it answers 503.
+     */
+    public int getBulkheadMaxQueue(String name) {
+        return Math.max(0, getConfig().getInt("http.bulkheads." + name + ".max_queue", 16));
+    }
+
+    public boolean isLoadSheddingEnabled() {
+        return getConfig().getBoolean("http.load_shedding.enabled", true);
+    }
+
+    /**
+     * Queueing delay above which the server counts as overloaded.
+     */
+    public long getLoadSheddingTargetDelayMillis() {
+        return Math.max(1L, getConfig().getLong("http.load_shedding.target_delay_ms", 100L));
+    }
+
+    /**
+     * How long the delay must stay above target before low-priority routes are shed.
+     */
+    public long getLoadSheddingIntervalMillis() {
+        return Math.max(1L, getConfig().getLong("http.load_shedding.interval_ms", 1000L));
+    }
+
+    /**
+     * Pending TCP connections queued by the OS before the server accepts them.
+     */
+    public int getHttpBacklog() {
+        return Math.max(1, getConfig().getInt("http.connections.backlog", 128));
+    }
+
+    /**
+     * Open connections allowed at once; further ones are closed right after accept. 0 disables the cap.
+     */
+    public int getHttpMaxConnections() {
+        return Math.max(0, getConfig().getInt("http.connections.max_connections", 512));
+    }
+
+    public int getHttpMaxIdleConnections() {
+        return Math.max(0, getConfig().getInt("http.connections.max_idle_connections", 200));
+    }
+
+    /**
+     * Seconds a client has to send the request line, headers and body.
+     */
+    public int getHttpRequestTimeoutSeconds() {
+        return Math.max(1, getConfig().getInt("http.connections.request_timeout_seconds", 15));
+    }
+
+    /**
+     * Seconds allowed between the end of the request and the last byte of the response.
+     */
+    public int getHttpResponseTimeoutSeconds() {
+        return Math.max(1, getConfig().getInt("http.connections.response_timeout_seconds", 300));
+    }
+
+    /**
+     * Seconds an idle keep-alive connection is kept open.
+     */
+    public int getHttpIdleTimeoutSeconds() {
+        return Math.max(1, getConfig().getInt("http.connections.idle_timeout_seconds", 30));
+    }
+
+    /**
+     * Maximum request body size in bytes for an API route: the route's entry under
+     * http.max_body_bytes.routes, or http.max_body_bytes.default.
+     */
+    public int getHttpMaxBodyBytes(String path) {
+        int defaultLimit = Math.max(1024, getConfig().getInt("http.max_body_bytes.default", 16384));
+        return Math.max(1024, getConfig().getInt("http.max_body_bytes.routes." + path, defaultLimit));
+    }
+
+    /**
+     * The largest body any API route accepts: http.max_body_bytes.default or the highest
+     * entry under http.max_body_bytes.routes.
+     */
+    public int getHttpMaxBodyBytesCeiling() {
+        int ceiling = getHttpMaxBodyBytes("");
+        org.bukkit.configuration.ConfigurationSection routes = getConfig().getConfigurationSection("http.max_body_bytes.routes");
+        if (routes != null) {
+            for (String path : routes.getKeys(false)) {
+                ceiling = Math.max(ceiling, getHttpMaxBodyBytes(path));
+            }
+        }
+        return ceiling;
+    }
+
+    public boolean isHttpCompressionEnabled() {
+        return getConfig().getBoolean("http.compression.enabled", true);
+    }
+
+    /**
+     * Smallest JSON response body, in bytes, that is gzip-compressed.
+     */
+    public int getHttpCompressionMinSize() {
+        return Math.max(0, getConfig().getInt("http.compression.min_size", 1024));
+    }
+
+    /**
+     * Deflate level from 1 (fastest) to 9 (smallest).
+     */
+    public int getHttpCompressionLevel() {
+        return Math.max(1, Math.min(9, getConfig().getInt("http.compression.level", 6)));
+    }
+
+    /**
+     * Rate limit of an API route from http.rate_limits.routes, or null if the route is not
+     * limited. A limit of 0 turns a default limit off.
+     */
+    public RateLimitPolicy getHttpRateLimit(String path) {
+        String base = "http.rate_limits.routes." + path;
+        if (!getConfig().isConfigurationSection(base) || getConfig().getInt(base + ".limit", 0) <= 0) {
+            return null;
+        }
+        return new RateLimitPolicy(
+                RateLimitPolicy.Algorithm.fromConfig(getConfig().getString(base + ".algorithm", "token_bucket")),
+                RateLimitPolicy.Key.fromConfig(getConfig().getString(base + ".key", "ip")),
+                getConfig().getInt(base + ".limit"),
+                Math.max(1L, getConfig().getLong(base + ".window_seconds", 60L)) * 1000L);
+    }
+
+    /**
+     * Clients or users tracked per rate-limited route before new ones share one budget.
+     */
+    public int getHttpRateLimitMaxKeys() {
+        return Math.max(100, getConfig().getInt("http.rate_limits.max_keys", 10000));
+    }
+
+    /**
+     * Prefix length, in bits, of the network a "subnet" rate limit key groups clients by.
+     */
+    public int getHttpRateLimitSubnetPrefix(boolean ipv6) {
+        return ipv6
+                ? Math.max(1, Math.min(128, getConfig().getInt("http.rate_limits.subnet_prefix.ipv6", 64)))
+                : Math.max(1, Math.min(32, getConfig().getInt("http.rate_limits.subnet_prefix.ipv4", 24)));
+    }
+
+    /**
+     * How long a GET route's JSON response is served from the response cache
+     * (http.response_cache.routes, in seconds); 0 if the route is not cached.
+     */
+    public long getHttpResponseCacheTtlMillis(String path) {
+        if (!getConfig().getBoolean("http.response_cache.enabled", true)) {
+            return 0L;
+        }
+        return Math.max(0L, getConfig().getLong("http.response_cache.routes." + path, 0L)) * 1000L;
+    }
+
+    public int getHttpResponseCacheMaxEntries() {
+        return Math.max(1, getConfig().getInt("http.response_cache.max_entries", 256));
+    }
+
+    /**
+     * Review events kept for clients that reconnect to /api/admin/events with Last-Event-ID.
+     */
+    public int getHttpEventsHistorySize() {
+        return Math.max(1, getConfig().getInt("http.events.history_size", 256));
+    }
+
+    public int getHttpEventsMaxClients() {
+        return Math.max(1, getConfig().getInt("http.events.max_clients", 50));
+    }
+
+    public int getHttpEventsHeartbeatSeconds() {
+        return Math.max(1, getConfig().getInt("http.events.heartbeat_seconds", 15));
+    }
+
+    /**
+     * Whether review events are also served by the WebSocket server on ws_port.
+     */
+    public boolean isWebSocketEnabled() {
+        return getConfig().getBoolean("http.events.websocket", true);
+    }
+
     // --- Frontend ---
     public String getTheme() {
         return getConfig().getString("frontend.theme", "glassx");
@@ -202,6 +541,20 @@ public class ConfigManager {
             .toList();
     }
 
+    /**
+     * Ticks between server status samples, at least one.
+     */
+    public long getServerStatusSampleIntervalTicks() {
+        return Math.max(1L, getConfig().getLong("frontend.server_status.sample_interval_ticks", 20L));
+    }
+
+    /**
+     * Number of TPS samples returned as history by /api/server/status.
+     */
+    public int getServerStatusTpsHistorySize() {
+        return Math.max(1, getConfig().getInt("frontend.server_status.tps_history_size", 60));
+    }
+
     public String getUsernameRegex() {
         return getConfig().getString("username_regex", "^[a-zA-Z0-9_-]{3,16}$");
     }
@@ -0,0 +1,140 @@
+package team.kitemc.verifymc.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+
+/**
+ * The plugin's one background thread for periodic housekeeping, such as flushing the user
+ * file, purging expired sessions and syncing AuthMe. Owned by {@link PluginContext} and
+ * stopped in {@code onDisable}, so a reload never leaves a thread behind.
+ * <p>
+ * Tasks run one at a time. Each is rescheduled after it finishes with its period plus up
+ * to 10% random jitter, so tasks sharing a period do not keep firing together. Runs are
+ * timed in {@code housekeeping_task_seconds{task=...}}; a failing run is logged and
+ * counted in {@code housekeeping_task_failures_total} and the task keeps its schedule.
+ */
+public class HousekeepingScheduler {
+    private static final double JITTER = 0.1;
+    private static final long SHUTDOWN_WAIT_MILLIS = 5000L;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final MetricsRegistry metrics;
+    private final Logger logger;
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    public HousekeepingScheduler(MetricsRegistry metrics, Logger logger) {
+        this.metrics = metrics;
+        this.logger = logger;
+        this.executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "VerifyMC-Housekeeping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        metrics.gauge("housekeeping_tasks", tasks::size);
+    }
+
+    /**
+     * Run {@code action} about every {@code periodMillis}, first after one period.
+     * A task of the same name is replaced.
+     */
+    public void schedule(String name, long periodMillis, Runnable action) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + name);
+        }
+        Task task = new Task(name, periodMillis, action);
+        Task previous = tasks.put(name, task);
+        if (previous != null) {
+            previous.cancel();
+        }
+        task.scheduleNext();
+    }
+
+    public void cancel(String name) {
+        Task task = tasks.remove(name);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Cancel every task and wait briefly for a running one to finish.
+     */
+    public void shutdown() {
+        tasks.values().forEach(Task::cancel);
+        tasks.clear();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                logger.warning("[VerifyMC] Housekeeping task still running at shutdown, interrupting it.");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Task implements Runnable {
+        private final String name;
+        private final long periodMillis;
+        private final Runnable action;
+        private final MetricsRegistry.Timer timer;
+        private final MetricsRegistry.Counter failures;
+        private volatile ScheduledFuture<?> future;
+        private volatile boolean cancelled;
+
+        private Task(String name, long periodMillis, Runnable action) {
+            this.name = name;
+            this.periodMillis = periodMillis;
+            this.action = action;
+            this.timer = metrics.timer("housekeeping_task_seconds", "task", name);
+            this.failures = metrics.counter("housekeeping_task_failures_total", "task", name);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } catch (Throwable e) {
+                failures.increment();
+                logger.log(Level.WARNING, "[VerifyMC] Housekeeping task '" + name + "' failed", e);
+            } finally {
+                timer.recordSince(start);
+            }
+            scheduleNext();
+        }
+
+        private void scheduleNext() {
+            if (cancelled) {
+                return;
+            }
+            long jitter = (long) (periodMillis * JITTER * ThreadLocalRandom.current().nextDouble());
+            try {
+                future = executor.schedule(this, periodMillis + jitter, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
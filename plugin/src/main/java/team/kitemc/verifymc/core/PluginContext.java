@@ -5,10 +5,14 @@ import team.kitemc.verifymc.security.AdminAccessManager;
 import team.kitemc.verifymc.db.AuditDao;
 import team.kitemc.verifymc.db.UserDao;
 import team.kitemc.verifymc.mail.MailService;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 import team.kitemc.verifymc.service.*;
 import team.kitemc.verifymc.sms.SmsService;
+import org.json.JSONObject;
+import team.kitemc.verifymc.web.ReviewEventHub;
 import team.kitemc.verifymc.web.ReviewWebSocketServer;
 import team.kitemc.verifymc.web.WebAuthHelper;
+import team.kitemc.verifymc.web.WebServer;
 
 /**
  * Central service container that holds references to all services.
@@ -21,6 +25,8 @@ public class PluginContext {
     private final I18nManager i18nManager;
     private final ResourceManager resourceManager;
     private final AdminAccessManager adminAccessManager;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final HousekeepingScheduler housekeeping;
     private OpsManager opsManager;
 
     // Data access
@@ -37,6 +43,7 @@ public class PluginContext {
      private DiscordService discordService;
      private VersionCheckService versionCheckService;
     private AccountSelectionService accountSelectionService;
+    private ServerStatusSampler serverStatusSampler;
 
     // Application services
     private RegistrationApplicationService registrationApplicationService;
@@ -45,7 +52,9 @@ public class PluginContext {
 
     // Web layer
     private ReviewWebSocketServer wsServer;
+    private ReviewEventHub reviewEvents;
     private WebAuthHelper webAuthHelper;
+    private WebServer webServer;
 
     public PluginContext(JavaPlugin plugin) {
         this.plugin = plugin;
@@ -53,7 +62,9 @@ public class PluginContext {
         this.i18nManager = new I18nManager(plugin);
         this.resourceManager = new ResourceManager(plugin);
         this.adminAccessManager = new AdminAccessManager(this);
+        this.housekeeping = new HousekeepingScheduler(metrics, plugin.getLogger());
         this.resourceManager.setConfigManager(configManager);
+        this.configManager.setClientServiceState(this::clientServiceState);
     }
 
     // --- Getters ---
@@ -62,6 +73,8 @@ public class PluginContext {
     public I18nManager getI18nManager() { return i18nManager; }
     public ResourceManager getResourceManager() { return resourceManager; }
     public AdminAccessManager getAdminAccessManager() { return adminAccessManager; }
+    public MetricsRegistry getMetrics() { return metrics; }
+    public HousekeepingScheduler getHousekeeping() { return housekeeping; }
     public OpsManager getOpsManager() { return opsManager; }
 
     public UserDao getUserDao() { return userDao; }
@@ -75,11 +88,14 @@ public class PluginContext {
     public DiscordService getDiscordService() { return discordService; }
     public VersionCheckService getVersionCheckService() { return versionCheckService; }
     public AccountSelectionService getAccountSelectionService() { return accountSelectionService; }
+    public ServerStatusSampler getServerStatusSampler() { return serverStatusSampler; }
     public RegistrationApplicationService getRegistrationApplicationService() { return registrationApplicationService; }
     public ReviewApplicationService getReviewApplicationService() { return reviewApplicationService; }
     public QuestionnaireApplicationService getQuestionnaireApplicationService() { return questionnaireApplicationService; }
     public ReviewWebSocketServer getWsServer() { return wsServer; }
+    public ReviewEventHub getReviewEvents() { return reviewEvents; }
     public WebAuthHelper getWebAuthHelper() { return webAuthHelper; }
+    public WebServer getWebServer() { return webServer; }
 
     // --- Setters (for initialization phase) ---
     public void setUserDao(UserDao userDao) { this.userDao = userDao; }
@@ -89,27 +105,48 @@ public class PluginContext {
     public void setVerifyCodeService(VerifyCodeService verifyCodeService) { this.verifyCodeService = verifyCodeService; }
     public void setAuthmeService(AuthmeService authmeService) { this.authmeService = authmeService; }
     public void setCaptchaService(CaptchaService captchaService) { this.captchaService = captchaService; }
-    public void setQuestionnaireService(QuestionnaireService questionnaireService) { this.questionnaireService = questionnaireService; }
-    public void setDiscordService(DiscordService discordService) { this.discordService = discordService; }
+    public void setQuestionnaireService(QuestionnaireService questionnaireService) { this.questionnaireService = questionnaireService; configManager.refreshClientConfig(); }
+    public void setDiscordService(DiscordService discordService) { this.discordService = discordService; configManager.refreshClientConfig(); }
     public void setVersionCheckService(VersionCheckService versionCheckService) { this.versionCheckService = versionCheckService; }
     public void setAccountSelectionService(AccountSelectionService accountSelectionService) { this.accountSelectionService = accountSelectionService; }
+    public void setServerStatusSampler(ServerStatusSampler serverStatusSampler) { this.serverStatusSampler = serverStatusSampler; }
     public void setRegistrationApplicationService(RegistrationApplicationService svc) { this.registrationApplicationService = svc; }
     public void setReviewApplicationService(ReviewApplicationService svc) { this.reviewApplicationService = svc; }
     public void setQuestionnaireApplicationService(QuestionnaireApplicationService svc) { this.questionnaireApplicationService = svc; }
     public void setWsServer(ReviewWebSocketServer wsServer) { this.wsServer = wsServer; }
+    public void setReviewEvents(ReviewEventHub reviewEvents) { this.reviewEvents = reviewEvents; }
     public void setWebAuthHelper(WebAuthHelper webAuthHelper) { this.webAuthHelper = webAuthHelper; }
+    public void setWebServer(WebServer webServer) { this.webServer = webServer; }
     public void setOpsManager(OpsManager opsManager) { this.opsManager = opsManager; }
 
     public boolean isDebug() {
         return configManager.isDebug();
     }
 
+    private ClientConfigSnapshot.ServiceState clientServiceState() {
+        return new ClientConfigSnapshot.ServiceState(
+                questionnaireService != null && questionnaireService.isEnabled(),
+                questionnaireService != null ? questionnaireService.getPassScore() : 60,
+                questionnaireService != null && questionnaireService.hasTextQuestions(),
+                discordService != null && discordService.isEnabled(),
+                discordService != null && discordService.isRequired());
+    }
+
     public void debugLog(String msg) {
         if (isDebug()) {
             plugin.getLogger().info("[DEBUG] " + msg);
         }
     }
 
+    /**
+     * Notify admin dashboards over the event stream and the WebSocket server.
+     */
+    public void publishReviewEvent(JSONObject event) {
+        if (reviewEvents != null) {
+            reviewEvents.publish(event);
+        }
+    }
+
     /**
      * Get i18n message by key and language.
      */
@@ -117,7 +154,10 @@ public class PluginContext {
         return i18nManager.getMessage(key, language);
     }
 
+    /**
+     * Stop background housekeeping; call before closing the services its tasks use.
+     */
     public void shutdown() {
-        // No-op for now. Reserved for future shutdown hooks.
+        housekeeping.shutdown();
     }
 }
@@ -4,6 +4,16 @@ import java.util.List;
 
 public interface AuditDao {
     void addAudit(AuditRecord audit);
+
+    /**
+     * Adds several records in one write.
+     */
+    default void addAudits(List<AuditRecord> audits) {
+        for (AuditRecord audit : audits) {
+            addAudit(audit);
+        }
+    }
+
     List<AuditRecord> getAllAudits();
     void save();
 
@@ -0,0 +1,107 @@
+package team.kitemc.verifymc.db;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Near-cache in front of a shared {@link TokenStore}.
+ * <p>
+ * Successful lookups are served from process memory for up to {@code refreshMillis};
+ * after that the entry is re-read from the backing store. A token revoked on another
+ * node therefore stops being accepted here within {@code refreshMillis}. Unknown tokens
+ * are never cached, so a token minted on another node is visible on first use.
+ */
+public class CachingTokenStore implements TokenStore {
+    private final TokenStore delegate;
+    private final long refreshMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, CachedToken> cache = new ConcurrentHashMap<>();
+
+    private record CachedToken(TokenRecord record, long loadedAt) {
+    }
+
+    public CachingTokenStore(TokenStore delegate, long refreshMillis, int maxEntries) {
+        this(delegate, refreshMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    CachingTokenStore(TokenStore delegate, long refreshMillis, int maxEntries, LongSupplier clock) {
+        this.delegate = delegate;
+        this.refreshMillis = Math.max(0L, refreshMillis);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    @Override
+    public void saveToken(String token, TokenRecord record) {
+        delegate.saveToken(token, record);
+        cache(token, record, clock.getAsLong());
+    }
+
+    @Override
+    public TokenRecord findToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        CachedToken cached = cache.get(token);
+        if (cached != null && now - cached.loadedAt() < refreshMillis) {
+            return cached.record();
+        }
+
+        TokenRecord record = delegate.findToken(token);
+        if (record == null) {
+            cache.remove(token);
+            return null;
+        }
+        cache(token, record, now);
+        return record;
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        delegate.revokeToken(token);
+        if (token != null) {
+            cache.remove(token);
+        }
+    }
+
+    @Override
+    public void revokeUserTokens(String username) {
+        delegate.revokeUserTokens(username);
+        if (username != null) {
+            cache.entrySet().removeIf(entry -> entry.getValue().record().username().equalsIgnoreCase(username));
+        }
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        cache.entrySet().removeIf(entry -> entry.getValue().record().isExpired(now)
+                || now - entry.getValue().loadedAt() >= refreshMillis);
+        return delegate.purgeExpired(now);
+    }
+
+    @Override
+    public void close() {
+        cache.clear();
+        delegate.close();
+    }
+
+    public int cachedCount() {
+        return cache.size();
+    }
+
+    private void cache(String token, TokenRecord record, long now) {
+        if (refreshMillis <= 0) {
+            return;
+        }
+        if (cache.size() >= maxEntries && !cache.containsKey(token)) {
+            cache.entrySet().removeIf(entry -> now - entry.getValue().loadedAt() >= refreshMillis);
+            if (cache.size() >= maxEntries) {
+                // Still full of fresh entries: skip caching rather than evicting hot sessions.
+                return;
+            }
+        }
+        cache.put(token, new CachedToken(record, now));
+    }
+}
@@ -102,6 +102,15 @@ public class FileAuditDao implements AuditDao {
         save();
     }
 
+    @Override
+    public synchronized void addAudits(List<AuditRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        audits.addAll(batch);
+        save();
+    }
+
     @Override
     public synchronized List<AuditRecord> getAllAudits() {
         return new ArrayList<>(audits);
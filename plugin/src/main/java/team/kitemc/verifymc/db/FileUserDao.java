@@ -2,19 +2,19 @@ package team.kitemc.verifymc.db;
 
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.Gson;
 import team.kitemc.verifymc.util.PasswordUtil;
 
 public class FileUserDao implements UserDao {
     private final File file;
-    private final Map<String, Map<String, Object>> users = new ConcurrentHashMap<>();
+    // Sorted by lower-case username, so exports walk the map in order without copying it
+    private final ConcurrentSkipListMap<String, Map<String, Object>> users = new ConcurrentSkipListMap<>();
     private final Gson gson = new Gson();
     private final boolean debug;
     private final org.bukkit.plugin.Plugin plugin;
     private volatile boolean dirty = false;
-    private volatile boolean running = true;
 
     public FileUserDao(File dataFile, org.bukkit.plugin.Plugin plugin) {
         this.plugin = plugin;
@@ -34,29 +34,20 @@ public class FileUserDao implements UserDao {
 
         this.file = dataFile;
         load();
-        startFlushThread();
     }
 
-    private void startFlushThread() {
-        Thread flushThread = new Thread(() -> {
-            while (running) {
-                try {
-                    Thread.sleep(5000);
-                    if (dirty) {
-                        save();
-                    }
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        });
-        flushThread.setDaemon(true);
-        flushThread.setName("FileUserDao-Flush");
-        flushThread.start();
+    /**
+     * Write pending changes, if any. The plugin's housekeeping task calls this every few
+     * seconds; {@link #close()} writes whatever is left.
+     */
+    public void flushIfDirty() {
+        if (dirty) {
+            save();
+        }
     }
 
     /**
-     * Mark data as dirty; will be flushed by background thread within 5s.
+     * Mark data as dirty; will be written by the next {@link #flushIfDirty()}.
      */
     private void saveLater() {
         dirty = true;
@@ -182,6 +173,8 @@ public class FileUserDao implements UserDao {
     @Override
     public synchronized void save() {
         debugLog("Saving " + users.size() + " users to: " + file.getAbsolutePath());
+        // Changes made while writing mark the file dirty again
+        dirty = false;
 
         // Use temporary file for atomic write operation
         File tempFile = new File(file.getAbsolutePath() + ".tmp");
@@ -210,6 +203,7 @@ public class FileUserDao implements UserDao {
             debugLog("Save successful");
         } catch (Exception e) {
             debugLog("Error saving users: " + e.getMessage());
+            dirty = true;
             // Clean up temp file if it exists
             if (tempFile.exists() && !tempFile.delete()) {
                 debugLog("Warning: failed to delete temporary file after error: " + tempFile.getAbsolutePath());
@@ -321,6 +315,23 @@ public class FileUserDao implements UserDao {
         return true;
     }
 
+    @Override
+    public Set<String> updateUserStatuses(Collection<String> usernames, String status, String operator) {
+        Set<String> updated = new LinkedHashSet<>();
+        for (String username : usernames) {
+            Map<String, Object> user = users.get(username.toLowerCase());
+            if (user != null) {
+                user.put("status", status);
+                updated.add(username);
+            }
+        }
+        if (!updated.isEmpty()) {
+            saveLater();
+        }
+        debugLog("User status set to " + status + " for " + updated.size() + " of " + usernames.size() + " users");
+        return updated;
+    }
+
     @Override
     public boolean updateUserPassword(String username, String plainPassword) {
         debugLog("updateUserPassword called: username=" + username);
@@ -533,6 +544,31 @@ public class FileUserDao implements UserDao {
         }
     }
 
+    @Override
+    public Set<String> deleteUsers(Collection<String> usernames) {
+        Set<String> deleted = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (users.remove(username.toLowerCase()) != null) {
+                deleted.add(username);
+            }
+        }
+        if (!deleted.isEmpty()) {
+            saveLater();
+        }
+        debugLog("Deleted " + deleted.size() + " of " + usernames.size() + " users");
+        return deleted;
+    }
+
+    @Override
+    public void forEachUser(String status, UserVisitor visitor) throws IOException {
+        boolean all = status == null || status.isEmpty() || "all".equalsIgnoreCase(status);
+        for (Map<String, Object> user : users.values()) {
+            if (all || status.equalsIgnoreCase(String.valueOf(user.get("status")))) {
+                visitor.visit(user);
+            }
+        }
+    }
+
     @Override
     public int countUsersByEmail(String email) {
         debugLog("Counting users by email: " + email);
@@ -815,7 +851,6 @@ public class FileUserDao implements UserDao {
 
     @Override
     public void close() {
-        running = false;
         // Flush any remaining dirty data on close
         if (dirty) {
             save();
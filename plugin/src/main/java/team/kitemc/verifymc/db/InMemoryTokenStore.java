@@ -0,0 +1,62 @@
+package team.kitemc.verifymc.db;
+
+import java.util.function.LongSupplier;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+import team.kitemc.verifymc.util.ExpiringMap;
+
+/**
+ * Process-local token store. Tokens are lost on restart and are not visible to other nodes.
+ */
+public class InMemoryTokenStore implements TokenStore {
+    private static final int MAX_TOKENS = 100_000;
+
+    private final ExpiringMap<String, TokenRecord> tokens;
+    private final LongSupplier clock;
+
+    public InMemoryTokenStore() {
+        this(System::currentTimeMillis);
+    }
+
+    InMemoryTokenStore(LongSupplier clock) {
+        this.clock = clock;
+        this.tokens = new ExpiringMap<>(MAX_TOKENS, 1000L, 512, clock);
+    }
+
+    @Override
+    public void saveToken(String token, TokenRecord record) {
+        tokens.put(token, record, record.expiryTime() - clock.getAsLong());
+    }
+
+    @Override
+    public TokenRecord findToken(String token) {
+        return token == null ? null : tokens.get(token);
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        if (token != null) {
+            tokens.remove(token);
+        }
+    }
+
+    @Override
+    public void revokeUserTokens(String username) {
+        if (username == null) {
+            return;
+        }
+        tokens.removeIf((token, record) -> record.username().equalsIgnoreCase(username));
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        return tokens.purgeExpired();
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        tokens.registerMetrics(metrics, "sessions");
+    }
+}
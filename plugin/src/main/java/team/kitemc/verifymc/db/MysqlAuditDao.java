@@ -48,6 +48,38 @@ public class MysqlAuditDao implements AuditDao, AutoCloseable {
         }
     }
 
+    @Override
+    public void addAudits(List<AuditRecord> audits) {
+        if (audits.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO audits (action, operator, target, detail, timestamp) VALUES (?, ?, ?, ?, ?)";
+        try {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (AuditRecord audit : audits) {
+                    ps.setString(1, audit.action());
+                    ps.setString(2, audit.operator());
+                    ps.setString(3, audit.target());
+                    ps.setString(4, audit.detail());
+                    ps.setLong(5, audit.timestamp());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException ignored) {}
+            plugin.getLogger().log(Level.WARNING, "Failed to add audit records", e);
+        } finally {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException ignored) {}
+        }
+    }
+
     @Override
     public List<AuditRecord> getAllAudits() {
         List<AuditRecord> result = new ArrayList<>();
@@ -0,0 +1,151 @@
+package team.kitemc.verifymc.db;
+
+import org.bukkit.plugin.Plugin;
+
+import java.sql.*;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ * MySQL-backed token store shared by every VerifyMC node that points at the same database.
+ */
+public class MysqlTokenStore implements TokenStore, AutoCloseable {
+    private Connection conn;
+    private final String jdbcUrl;
+    private final String jdbcUser;
+    private final String jdbcPassword;
+    private final Plugin plugin;
+
+    public MysqlTokenStore(Properties mysqlConfig, Plugin plugin) throws SQLException {
+        this.plugin = plugin;
+        String useSSL = mysqlConfig.getProperty("useSSL", "true");
+        String allowPublicKeyRetrieval = mysqlConfig.getProperty("allowPublicKeyRetrieval", "false");
+        this.jdbcUrl = "jdbc:mysql://" + mysqlConfig.getProperty("host") + ":" +
+                mysqlConfig.getProperty("port") + "/" +
+                mysqlConfig.getProperty("database") +
+                "?useSSL=" + useSSL +
+                "&allowPublicKeyRetrieval=" + allowPublicKeyRetrieval +
+                "&characterEncoding=utf8&autoReconnect=true";
+        this.jdbcUser = mysqlConfig.getProperty("user");
+        this.jdbcPassword = mysqlConfig.getProperty("password");
+        conn = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+        try (Statement stmt = getConnection().createStatement()) {
+            // username_key is the lower-cased name, so revoking a user's tokens is an index lookup
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS web_tokens (" +
+                    "token VARCHAR(128) PRIMARY KEY," +
+                    "username VARCHAR(32)," +
+                    "username_key VARCHAR(32)," +
+                    "expiry BIGINT," +
+                    "INDEX idx_web_tokens_username_key (username_key)," +
+                    "INDEX idx_web_tokens_expiry (expiry))");
+
+            try {
+                stmt.executeQuery("SELECT username_key FROM web_tokens LIMIT 1");
+            } catch (SQLException e) {
+                stmt.executeUpdate("ALTER TABLE web_tokens ADD COLUMN username_key VARCHAR(32)," +
+                        " DROP INDEX idx_web_tokens_username," +
+                        " ADD INDEX idx_web_tokens_username_key (username_key)");
+                stmt.executeUpdate("UPDATE web_tokens SET username_key = LOWER(username)");
+            }
+        }
+    }
+
+    /**
+     * Get a valid connection, reconnecting if the current one is closed or invalid.
+     */
+    private synchronized Connection getConnection() throws SQLException {
+        if (conn == null || conn.isClosed() || !conn.isValid(2)) {
+            try {
+                if (conn != null && !conn.isClosed()) {
+                    conn.close();
+                }
+            } catch (SQLException ignored) {}
+            conn = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+        }
+        return conn;
+    }
+
+    @Override
+    public void saveToken(String token, TokenRecord record) {
+        String sql = "REPLACE INTO web_tokens (token, username, username_key, expiry) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            ps.setString(1, token);
+            ps.setString(2, record.username());
+            ps.setString(3, usernameKey(record.username()));
+            ps.setLong(4, record.expiryTime());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to save web token", e);
+        }
+    }
+
+    @Override
+    public TokenRecord findToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String sql = "SELECT username, expiry FROM web_tokens WHERE token=?";
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            ps.setString(1, token);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new TokenRecord(rs.getString("username"), rs.getLong("expiry"));
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to look up web token", e);
+        }
+        return null;
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        String sql = "DELETE FROM web_tokens WHERE token=?";
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            ps.setString(1, token);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to revoke web token", e);
+        }
+    }
+
+    @Override
+    public void revokeUserTokens(String username) {
+        if (username == null) {
+            return;
+        }
+        String sql = "DELETE FROM web_tokens WHERE username_key=?";
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            ps.setString(1, usernameKey(username));
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to revoke web tokens for user " + username, e);
+        }
+    }
+
+    @Override
+    public int purgeExpired(long now) {
+        String sql = "DELETE FROM web_tokens WHERE expiry < ?";
+        try (PreparedStatement ps = getConnection().prepareStatement(sql)) {
+            ps.setLong(1, now);
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to purge expired web tokens", e);
+            return -1;
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {}
+        }
+    }
+}
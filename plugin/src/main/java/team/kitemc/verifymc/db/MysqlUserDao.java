@@ -314,6 +314,78 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         }
     }
 
+    @Override
+    public Set<String> updateUserStatuses(Collection<String> usernames, String status, String operator) {
+        return executeUsernameBatch("UPDATE users SET status=? WHERE username=?", usernames, status);
+    }
+
+    @Override
+    public Set<String> deleteUsers(Collection<String> usernames) {
+        return executeUsernameBatch("DELETE FROM users WHERE username=?", usernames, null);
+    }
+
+    /**
+     * Runs the statement once per username as one JDBC batch in a single transaction.
+     * A non-null {@code value} is bound before the username.
+     *
+     * @return the usernames whose row was affected, or none if the batch failed
+     */
+    private Set<String> executeUsernameBatch(String sql, Collection<String> usernames, String value) {
+        List<String> names = new ArrayList<>(usernames);
+        Set<String> affected = new LinkedHashSet<>();
+        if (names.isEmpty()) {
+            return affected;
+        }
+
+        Connection connection = null;
+        boolean previousAutoCommit = true;
+        try {
+            connection = getConnection();
+            previousAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            int[] counts;
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (String username : names) {
+                    int index = 1;
+                    if (value != null) {
+                        ps.setString(index++, value);
+                    }
+                    ps.setString(index, username);
+                    ps.addBatch();
+                }
+                counts = ps.executeBatch();
+            }
+
+            connection.commit();
+            for (int i = 0; i < counts.length && i < names.size(); i++) {
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    affected.add(names.get(i));
+                }
+            }
+            debugLog("Batch affected " + affected.size() + " of " + names.size() + " users: " + sql);
+            return affected;
+        } catch (SQLException e) {
+            debugLog("Error running user batch: " + e.getMessage());
+            if (connection != null) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    debugLog("Rollback failed while running user batch: " + rollbackError.getMessage());
+                }
+            }
+            return new LinkedHashSet<>();
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.setAutoCommit(previousAutoCommit);
+                } catch (SQLException e) {
+                    debugLog("Failed to restore auto-commit after user batch: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     @Override
     public boolean updateUserStoredPassword(String username, String storedPassword) {
         String sql = "UPDATE users SET password=? WHERE username=?";
@@ -387,6 +459,34 @@ public class MysqlUserDao implements UserDao, AutoCloseable {
         return result;
     }
 
+    /**
+     * Streams the users over a connection of its own: MySQL Connector/J sends rows one
+     * at a time when the fetch size is {@link Integer#MIN_VALUE}, and the connection
+     * cannot run other statements until the result set is closed.
+     */
+    @Override
+    public void forEachUser(String status, UserVisitor visitor) throws java.io.IOException {
+        boolean all = status == null || status.isEmpty() || "all".equalsIgnoreCase(status);
+        String sql = all
+                ? "SELECT * FROM users ORDER BY username"
+                : "SELECT * FROM users WHERE status=? ORDER BY username";
+        try (Connection streaming = DriverManager.getConnection(jdbcUrl, jdbcUser, jdbcPassword);
+             PreparedStatement ps = streaming.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (!all) {
+                ps.setString(1, status);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(mapUserFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            debugLog("Error streaming users: " + e.getMessage());
+            throw new java.io.IOException("Failed to read users", e);
+        }
+    }
+
     private Map<String, Object> mapUserFromResultSet(ResultSet rs) throws SQLException {
         Map<String, Object> user = new HashMap<>();
         user.put("username", rs.getString("username"));
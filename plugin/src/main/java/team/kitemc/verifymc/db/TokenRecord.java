@@ -0,0 +1,11 @@
+package team.kitemc.verifymc.db;
+
+public record TokenRecord(String username, long expiryTime) {
+    public TokenRecord {
+        username = username == null ? "" : username;
+    }
+
+    public boolean isExpired(long now) {
+        return now > expiryTime;
+    }
+}
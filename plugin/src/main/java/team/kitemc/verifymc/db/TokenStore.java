@@ -0,0 +1,37 @@
+package team.kitemc.verifymc.db;
+
+/**
+ * Storage for web bearer tokens issued by {@link team.kitemc.verifymc.web.WebAuthHelper}.
+ * <p>
+ * The in-memory store keeps sessions local to one plugin instance; a shared
+ * backend (e.g. {@link MysqlTokenStore}) lets several web frontends behind a
+ * load balancer accept each other's tokens and keeps admins logged in across restarts.
+ * Implementations must be thread-safe.
+ */
+public interface TokenStore {
+    void saveToken(String token, TokenRecord record);
+
+    /**
+     * @return the stored record, or null if the token is unknown or has been revoked.
+     * Expired records may still be returned; callers check {@link TokenRecord#isExpired(long)}.
+     */
+    TokenRecord findToken(String token);
+
+    void revokeToken(String token);
+
+    void revokeUserTokens(String username);
+
+    /**
+     * Removes all records that expired before {@code now}.
+     * @return number of removed records, or -1 if the backend does not report it
+     */
+    int purgeExpired(long now);
+
+    /**
+     * Closes any resources held by this store (e.g., database connections).
+     * Default implementation does nothing.
+     */
+    default void close() {
+        // Default: no-op
+    }
+}
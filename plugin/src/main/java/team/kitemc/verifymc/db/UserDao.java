@@ -1,8 +1,11 @@
 package team.kitemc.verifymc.db;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface UserDao {
     boolean registerUser(String username, String email, String status, String password);
@@ -243,6 +246,61 @@ public interface UserDao {
         return true;
     }
 
+    /**
+     * Sets the status of several users in one batch.
+     *
+     * @return the usernames that were found and updated
+     */
+    default Set<String> updateUserStatuses(Collection<String> usernames, String status, String operator) {
+        Set<String> updated = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (updateUserStatus(username, status, operator)) {
+                updated.add(username);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes several users in one batch.
+     *
+     * @return the usernames that were found and deleted
+     */
+    default Set<String> deleteUsers(Collection<String> usernames) {
+        Set<String> deleted = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (deleteUser(username)) {
+                deleted.add(username);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Receives users one at a time from {@link #forEachUser(String, UserVisitor)}.
+     */
+    @FunctionalInterface
+    interface UserVisitor {
+        void visit(Map<String, Object> user) throws IOException;
+    }
+
+    /**
+     * Passes every user with the given status, or all users if it is null, empty or
+     * {@code "all"}, to the visitor in username order. Backends that can read
+     * incrementally do so instead of loading the whole table; the maps passed in must
+     * not be modified.
+     *
+     * @throws IOException if the visitor fails or the users cannot be read
+     */
+    default void forEachUser(String status, UserVisitor visitor) throws IOException {
+        boolean all = status == null || status.isEmpty() || "all".equalsIgnoreCase(status);
+        List<Map<String, Object>> users = new java.util.ArrayList<>(all ? getAllUsers() : getUsersByStatus(status));
+        users.sort(java.util.Comparator.comparing(user -> String.valueOf(user.get("username")).toLowerCase()));
+        for (Map<String, Object> user : users) {
+            visitor.visit(user);
+        }
+    }
+
     /**
      * Closes any resources held by this DAO (e.g., database connections).
      * Default implementation does nothing.
@@ -2,6 +2,7 @@ package team.kitemc.verifymc.mail;
 
 import jakarta.mail.Authenticator;
 import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
 import jakarta.mail.PasswordAuthentication;
 import jakarta.mail.Session;
 import jakarta.mail.Transport;
@@ -16,18 +17,21 @@ import java.util.Properties;
 import java.util.function.BiFunction;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 
 public class MailService {
     private final Plugin plugin;
     private final BiFunction<String, String, String> getMessage;
     private final boolean debug;
+    private final MetricsRegistry metrics;
     private Session session;
     private String from;
 
-    public MailService(Plugin plugin, BiFunction<String, String, String> getMessage) {
+    public MailService(Plugin plugin, BiFunction<String, String, String> getMessage, MetricsRegistry metrics) {
         this.plugin = plugin;
         this.getMessage = getMessage;
         this.debug = plugin.getConfig().getBoolean("debug", false);
+        this.metrics = metrics;
         init();
     }
 
@@ -122,7 +126,7 @@ public class MailService {
             message.setSubject(subject);
             message.setContent(content, "text/html; charset=utf-8");
 
-            Transport.send(message);
+            send(message, "verify_code");
             debugLog("Email sent successfully");
             return true;
         } catch (Exception e) {
@@ -133,6 +137,22 @@ public class MailService {
         }
     }
 
+    /**
+     * Send through SMTP, counting the outcome and timing the transport under {@code type}.
+     */
+    private void send(Message message, String type) throws MessagingException {
+        long start = System.nanoTime();
+        try {
+            Transport.send(message);
+            metrics.counter("mail_sent_total", "type", type).increment();
+        } catch (MessagingException | RuntimeException e) {
+            metrics.counter("mail_failed_total", "type", type).increment();
+            throw e;
+        } finally {
+            metrics.timer("mail_send_seconds", "type", type).recordSince(start);
+        }
+    }
+
     private String getDefaultVerifyCodeTemplate(String lang) {
         if ("zh".equals(lang)) {
             return "<!DOCTYPE html><html><head><meta charset=\"UTF-8\"></head><body style=\"font-family: Arial, sans-serif; padding: 20px;\">"
@@ -209,7 +229,7 @@ public class MailService {
             message.setSubject(subject);
             message.setContent(content, "text/html; charset=utf-8");
 
-            Transport.send(message);
+            send(message, "review_result");
             debugLog("Review result notification sent successfully");
             return true;
         } catch (Exception e) {
@@ -0,0 +1,184 @@
+package team.kitemc.verifymc.metrics;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histogram over a rolling time window, bucketed like HdrHistogram: every
+ * power of two of microseconds is split into {@value #SUB_BUCKETS} linear buckets, so
+ * a reported value is within 12.5% of the recorded one. Recording is two atomic
+ * updates and never allocates once a slice is in use.
+ * <p>
+ * The window is a ring of time slices. A slice is cleared when time comes round to it
+ * again; counts recorded by another thread during that instant may be lost, which is
+ * acceptable for monitoring.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = 3;
+    // Values above 2^28 microseconds (about 4.5 minutes) are counted in the last bucket
+    private static final int MAX_EXPONENT = 27;
+    static final int BUCKETS = (MAX_EXPONENT - 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private static final long DEFAULT_SLICE_MILLIS = 15_000L;
+    private static final int DEFAULT_SLICES = 20;
+
+    private final long sliceMillis;
+    private final Slice[] slices;
+    private final LongSupplier clock;
+
+    /**
+     * A five minute window in slices of fifteen seconds.
+     */
+    public LatencyHistogram() {
+        this(DEFAULT_SLICE_MILLIS, DEFAULT_SLICES, System::currentTimeMillis);
+    }
+
+    LatencyHistogram(long sliceMillis, int sliceCount, LongSupplier clock) {
+        this.sliceMillis = Math.max(1L, sliceMillis);
+        this.slices = new Slice[Math.max(1, sliceCount)];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = new Slice();
+        }
+        this.clock = clock;
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(MAX_VALUE, Math.max(0L, nanos / 1000L));
+        long epoch = clock.getAsLong() / sliceMillis;
+        Slice slice = slices[(int) (epoch % slices.length)];
+        if (slice.epoch != epoch) {
+            slice.reset(epoch);
+        }
+        slice.counts.incrementAndGet(bucketIndex(micros));
+        slice.max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Merge the slices of the last {@code windowMillis} (the current slice included,
+     * capped at the whole ring).
+     */
+    public Snapshot snapshot(long windowMillis) {
+        int wanted = (int) Math.min(slices.length, Math.max(1L, (windowMillis + sliceMillis - 1) / sliceMillis));
+        long current = clock.getAsLong() / sliceMillis;
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long max = 0;
+        for (Slice slice : slices) {
+            long epoch = slice.epoch;
+            if (epoch < 0 || epoch > current || current - epoch >= wanted) {
+                continue;
+            }
+            AtomicIntegerArray counts = slice.counts;
+            for (int i = 0; i < BUCKETS; i++) {
+                int n = counts.get(i);
+                merged[i] += n;
+                count += n;
+            }
+            max = Math.max(max, slice.max.get());
+        }
+        return new Snapshot(merged, count, max);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * The largest value counted in a bucket.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private static final class Slice {
+        private volatile long epoch = -1;
+        private volatile AtomicIntegerArray counts;
+        private final AtomicLong max = new AtomicLong();
+
+        private synchronized void reset(long newEpoch) {
+            if (epoch == newEpoch) {
+                return;
+            }
+            if (counts == null) {
+                counts = new AtomicIntegerArray(BUCKETS);
+            } else {
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts.set(i, 0);
+                }
+            }
+            max.set(0);
+            epoch = newEpoch;
+        }
+    }
+
+    /**
+     * Merged counts of a window, in microseconds.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        /**
+         * The value below which {@code quantile} of the recorded values fall, e.g. 0.99,
+         * or 0 if nothing was recorded.
+         */
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("count", count);
+            json.put("p50_ms", millis(valueAt(0.5)));
+            json.put("p90_ms", millis(valueAt(0.9)));
+            json.put("p99_ms", millis(valueAt(0.99)));
+            json.put("max_ms", millis(maxMicros));
+            return json;
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000d;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package team.kitemc.verifymc.metrics;
+
+import org.json.JSONObject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and timers recorded by the plugin's services, exported by the
+ * admin metrics endpoint and {@code /vmc stats}.
+ * <p>
+ * A metric is identified by its name and label pairs, e.g.
+ * {@code counter("mail_sent_total", "type", "verify_code")}. Looking one up builds its
+ * key, so services keep the instances they record into on hot paths. Timers report
+ * p50/p90/p99 over the last five minutes besides their running count, mean and max.
+ */
+public class MetricsRegistry {
+    private static final String PROMETHEUS_PREFIX = "verifymc_";
+    private static final long TIMER_WINDOW_MILLIS = 300_000L;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * The counter with this name and labels, created on first use.
+     *
+     * @param labels alternating label names and values
+     */
+    public Counter counter(String name, String... labels) {
+        return counters.computeIfAbsent(key(name, labels), k -> new Counter());
+    }
+
+    /**
+     * The timer with this name and labels, created on first use. Names end in
+     * {@code _seconds}, the unit of the Prometheus export.
+     */
+    public Timer timer(String name, String... labels) {
+        return timers.computeIfAbsent(key(name, labels), k -> new Timer());
+    }
+
+    /**
+     * Report the current value of {@code value} under this name, replacing an earlier
+     * gauge of the same name and labels.
+     */
+    public void gauge(String name, LongSupplier value, String... labels) {
+        gauges.put(key(name, labels), value);
+    }
+
+    /**
+     * Wrap {@code target} so every call through {@code type} is timed in
+     * {@code <name>{method="..."}}. Exceptions thrown by the target pass through unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T instrument(Class<T> type, T target, String name, String... labels) {
+        Map<Method, Timer> methodTimers = new ConcurrentHashMap<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            Timer timer = methodTimers.computeIfAbsent(method, m -> timer(name, withLabel(labels, "method", m.getName())));
+            long start = System.nanoTime();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                timer.recordSince(start);
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    public JSONObject toJson() {
+        JSONObject counterJson = new JSONObject();
+        sorted(counters).forEach((key, counter) -> counterJson.put(key, counter.get()));
+        JSONObject gaugeJson = new JSONObject();
+        sorted(gauges).forEach((key, gauge) -> gaugeJson.put(key, readGauge(gauge)));
+        JSONObject timerJson = new JSONObject();
+        sorted(timers).forEach((key, timer) -> timerJson.put(key, timer.toJson()));
+
+        JSONObject json = new JSONObject();
+        json.put("counters", counterJson);
+        json.put("gauges", gaugeJson);
+        json.put("timers", timerJson);
+        return json;
+    }
+
+    /**
+     * One line per metric, for {@code /vmc stats}.
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        sorted(counters).forEach((key, counter) -> lines.add(key + " = " + counter.get()));
+        sorted(gauges).forEach((key, gauge) -> lines.add(key + " = " + readGauge(gauge)));
+        sorted(timers).forEach((key, timer) -> {
+            LatencyHistogram.Snapshot recent = timer.histogram.snapshot(TIMER_WINDOW_MILLIS);
+            lines.add(key + " = " + timer.getCount() + " calls, mean " + formatMillis(timer.getMeanMillis())
+                    + " ms, p99 " + formatMillis(recent.valueAt(0.99) / 1000d) + " ms, max " + formatMillis(timer.getMaxMillis()) + " ms");
+        });
+        return lines;
+    }
+
+    /**
+     * Write every metric in the Prometheus text exposition format, names prefixed with
+     * {@code verifymc_}. Timers are summaries whose quantiles cover the last five minutes.
+     */
+    public void writePrometheus(StringBuilder out) {
+        String[] lastName = {null};
+        sorted(counters).forEach((key, counter) -> {
+            typeLine(out, lastName, key, "counter");
+            out.append(PROMETHEUS_PREFIX).append(key).append(' ').append(counter.get()).append('\n');
+        });
+        lastName[0] = null;
+        sorted(gauges).forEach((key, gauge) -> {
+            typeLine(out, lastName, key, "gauge");
+            out.append(PROMETHEUS_PREFIX).append(key).append(' ').append(readGauge(gauge)).append('\n');
+        });
+        lastName[0] = null;
+        sorted(timers).forEach((key, timer) -> {
+            typeLine(out, lastName, key, "summary");
+            String name = PROMETHEUS_PREFIX + metricName(key);
+            String labels = labelPart(key);
+            LatencyHistogram.Snapshot recent = timer.histogram.snapshot(TIMER_WINDOW_MILLIS);
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{').append(labels).append(labels.isEmpty() ? "" : ",")
+                        .append("quantile=\"").append(quantile).append("\"} ")
+                        .append(recent.valueAt(quantile) / 1_000_000d).append('\n');
+            }
+            String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+            out.append(name).append("_count").append(suffixLabels).append(' ').append(timer.getCount()).append('\n');
+            out.append(name).append("_sum").append(suffixLabels).append(' ')
+                    .append(timer.totalNanos.sum() / 1_000_000_000d).append('\n');
+        });
+    }
+
+    /**
+     * Keys ordered by metric name first, so every series of a name is contiguous.
+     */
+    private static <V> Map<String, V> sorted(Map<String, V> metrics) {
+        Map<String, V> sorted = new TreeMap<>(Comparator.comparing(MetricsRegistry::metricName)
+                .thenComparing(Comparator.naturalOrder()));
+        sorted.putAll(metrics);
+        return sorted;
+    }
+
+    private static void typeLine(StringBuilder out, String[] lastName, String key, String type) {
+        String name = metricName(key);
+        if (!name.equals(lastName[0])) {
+            out.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(type).append('\n');
+            lastName[0] = name;
+        }
+    }
+
+    private static long readGauge(LongSupplier gauge) {
+        try {
+            return gauge.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    static String key(String name, String... labels) {
+        if (labels.length == 0) {
+            return name;
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        StringBuilder key = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+        }
+        return key.append('}').toString();
+    }
+
+    private static String[] withLabel(String[] labels, String name, String value) {
+        String[] extended = new String[labels.length + 2];
+        System.arraycopy(labels, 0, extended, 0, labels.length);
+        extended[labels.length] = name;
+        extended[labels.length + 1] = value;
+        return extended;
+    }
+
+    private static String metricName(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? key : key.substring(0, brace);
+    }
+
+    private static String labelPart(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? "" : key.substring(brace + 1, key.length() - 1);
+    }
+
+    private static String escapeLabel(String value) {
+        String text = value == null ? "" : value;
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String formatMillis(double millis) {
+        return String.valueOf(Math.round(millis * 1000d) / 1000d);
+    }
+
+    /**
+     * A running total.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Count, mean and maximum of a duration, plus a rolling histogram for percentiles.
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            histogram.recordNanos(nanos);
+        }
+
+        /**
+         * Record the time since {@code startNanos}, a value of {@link System#nanoTime()}.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000d;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000d;
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("count", getCount());
+            json.put("mean_ms", Math.round(getMeanMillis() * 1000d) / 1000d);
+            json.put("max_ms", Math.round(getMaxMillis() * 1000d) / 1000d);
+            json.put("5m", histogram.snapshot(TIMER_WINDOW_MILLIS).toJson());
+            return json;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package team.kitemc.verifymc.security;
+
+/**
+ * How many requests a {@link RateLimiter} admits per key, and what the key is.
+ *
+ * @param algorithm    token bucket (bursts up to {@code limit}, then a steady rate) or
+ *                     sliding window (at most {@code limit} in any {@code windowMillis})
+ * @param key          what requests are counted against
+ * @param limit        requests admitted per window
+ * @param windowMillis length of the window
+ */
+public record RateLimitPolicy(Algorithm algorithm, Key key, int limit, long windowMillis) {
+    public RateLimitPolicy {
+        limit = Math.max(1, Math.min(limit, RateLimiter.MAX_LIMIT));
+        windowMillis = Math.max(1L, windowMillis);
+    }
+
+    public enum Algorithm {
+        TOKEN_BUCKET,
+        SLIDING_WINDOW;
+
+        public static Algorithm fromConfig(String rawValue) {
+            if (rawValue == null) {
+                return TOKEN_BUCKET;
+            }
+            return "sliding_window".equalsIgnoreCase(rawValue.trim()) ? SLIDING_WINDOW : TOKEN_BUCKET;
+        }
+    }
+
+    public enum Key {
+        /** The client address. */
+        IP,
+        /** The client's network (IPv4 /24 and IPv6 /64 by default). */
+        SUBNET,
+        /** All clients of the route together. */
+        ROUTE,
+        /** The signed-in user, or the client address for anonymous requests. */
+        USER;
+
+        public static Key fromConfig(String rawValue) {
+            if (rawValue == null) {
+                return IP;
+            }
+            return switch (rawValue.trim().toLowerCase()) {
+                case "subnet" -> SUBNET;
+                case "route" -> ROUTE;
+                case "user" -> USER;
+                default -> IP;
+            };
+        }
+    }
+}
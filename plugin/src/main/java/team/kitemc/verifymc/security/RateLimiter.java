@@ -0,0 +1,271 @@
+package team.kitemc.verifymc.security;
+
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rate limiter with one packed {@code long} of state per key.
+ * <p>
+ * The token bucket is kept as a theoretical arrival time (GCRA): each request moves it
+ * forward by {@code window / limit}, and a request is refused while that would put it
+ * more than a window ahead of now. The sliding window keeps the counts of the current
+ * and previous fixed window and weighs the previous one by how much of it still
+ * overlaps the sliding window. Both are updated with a single compare-and-set.
+ * <p>
+ * Memory is bounded by {@code maxKeys}. When the table is full, keys whose state has
+ * decayed back to "no requests" are dropped, then the least recently seen tenth of the
+ * rest. A client that keeps sending, allowed or not, is never the one forgotten, and a
+ * flood of distinct addresses cannot push new clients into a shared budget.
+ */
+public class RateLimiter {
+    /** Largest limit the sliding window can count per window. */
+    public static final int MAX_LIMIT = 0xFFFF;
+    // Requests without a key share one state
+    private static final String UNKNOWN_KEY = "";
+    private static final int EVICT_DIVISOR = 10;
+
+    private final String name;
+    private final RateLimitPolicy policy;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final long emissionInterval;
+    private final ConcurrentHashMap<String, Entry> states = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public RateLimiter(String name, RateLimitPolicy policy, int maxKeys) {
+        this(name, policy, maxKeys, System::currentTimeMillis);
+    }
+
+    RateLimiter(String name, RateLimitPolicy policy, int maxKeys, LongSupplier clock) {
+        this.name = name;
+        this.policy = policy;
+        this.maxKeys = Math.max(1, maxKeys);
+        this.clock = clock;
+        this.emissionInterval = Math.max(1L, policy.windowMillis() / policy.limit());
+    }
+
+    /**
+     * Take one permit for the key.
+     *
+     * @return 0 if the request is admitted, otherwise the milliseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong state = stateFor(key == null ? UNKNOWN_KEY : key, now);
+        long wait = policy.algorithm() == RateLimitPolicy.Algorithm.SLIDING_WINDOW
+                ? acquireSlidingWindow(state, now)
+                : acquireTokenBucket(state, now);
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            limited.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Milliseconds until the key would be admitted, without taking a permit.
+     */
+    public long peek(String key) {
+        Entry entry = states.get(key == null ? UNKNOWN_KEY : key);
+        if (entry == null) {
+            return 0;
+        }
+        long now = clock.getAsLong();
+        long packed = entry.state.get();
+        return policy.algorithm() == RateLimitPolicy.Algorithm.SLIDING_WINDOW
+                ? slidingWindowWait(packed, now)
+                : Math.max(0, packed + emissionInterval - now - policy.windowMillis());
+    }
+
+    /**
+     * Whether a refusal of the key should be logged: true for the first refusal in each
+     * window, so a client hammering a route leaves one log line per window.
+     */
+    public boolean shouldReport(String key) {
+        Entry entry = states.get(key == null ? UNKNOWN_KEY : key);
+        if (entry == null) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        long reported = entry.reportedAt.get();
+        return (reported == 0L || now - reported >= policy.windowMillis())
+                && entry.reportedAt.compareAndSet(reported, now);
+    }
+
+    /**
+     * Forget the key, e.g. once the limited action succeeded and should not count.
+     */
+    public void reset(String key) {
+        states.remove(key);
+    }
+
+    private long acquireTokenBucket(AtomicLong state, long now) {
+        long window = policy.windowMillis();
+        while (true) {
+            long tat = state.get();
+            long next = Math.max(tat, now) + emissionInterval;
+            long ahead = next - now - window;
+            if (ahead > 0) {
+                return ahead;
+            }
+            if (state.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // State layout: window index (high 32 bits), previous count (16 bits), current count (low 16 bits)
+    private long acquireSlidingWindow(AtomicLong state, long now) {
+        while (true) {
+            long current = state.get();
+            long rolled = roll(current, now);
+            long wait = slidingWindowWait(rolled, now);
+            if (wait > 0) {
+                if (rolled == current || state.compareAndSet(current, rolled)) {
+                    return wait;
+                }
+                continue;
+            }
+            if (state.compareAndSet(current, rolled + 1)) {
+                return 0;
+            }
+        }
+    }
+
+    private long roll(long packed, long now) {
+        long index = now / policy.windowMillis();
+        long stateIndex = packed >>> 32;
+        if (stateIndex == (index & 0xFFFFFFFFL)) {
+            return packed;
+        }
+        long previous = stateIndex == ((index - 1) & 0xFFFFFFFFL) ? packed & 0xFFFF : 0;
+        return (index << 32) | (previous << 16);
+    }
+
+    private long slidingWindowWait(long packed, long now) {
+        long window = policy.windowMillis();
+        int limit = policy.limit();
+        long rolled = roll(packed, now);
+        long previous = (rolled >>> 16) & 0xFFFF;
+        long current = rolled & 0xFFFF;
+        long elapsed = now % window;
+        // Weighted count: previous * (window - elapsed) / window + current, compared in window units
+        if (previous * (window - elapsed) + (current + 1) * window <= (long) limit * window) {
+            return 0;
+        }
+        long windowEnd = window - elapsed;
+        if (current + 1 <= limit) {
+            // Wait until enough of the previous window has slid out
+            long needed = window - (limit - 1 - current) * window / previous;
+            return Math.max(1, needed - elapsed);
+        }
+        // Wait into the next window, where this window's count becomes the previous one
+        long needed = window - (long) (limit - 1) * window / current;
+        return windowEnd + needed;
+    }
+
+    private AtomicLong stateFor(String key, long now) {
+        Entry entry = states.get(key);
+        if (entry == null) {
+            if (states.size() >= maxKeys) {
+                makeRoom(now);
+            }
+            entry = states.computeIfAbsent(key, k -> new Entry());
+        }
+        entry.lastSeen = now;
+        return entry.state;
+    }
+
+    /**
+     * Drop idle keys, then the least recently seen ones until a tenth of the table is free.
+     * Only one thread sweeps; others insert meanwhile, so the table may briefly exceed
+     * {@code maxKeys} by the number of concurrent callers.
+     */
+    private void makeRoom(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> it = states.values().iterator();
+            while (it.hasNext()) {
+                if (isIdle(it.next().state.get(), now)) {
+                    it.remove();
+                }
+            }
+            int excess = states.size() - maxKeys + Math.max(1, maxKeys / EVICT_DIVISOR);
+            if (excess <= 0) {
+                return;
+            }
+            long[] lastSeen = states.values().stream().mapToLong(entry -> entry.lastSeen).sorted().toArray();
+            if (lastSeen.length == 0) {
+                return;
+            }
+            long cutoff = lastSeen[Math.min(excess, lastSeen.length) - 1];
+            for (Iterator<Map.Entry<String, Entry>> entries = states.entrySet().iterator(); entries.hasNext() && excess > 0; ) {
+                if (entries.next().getValue().lastSeen <= cutoff) {
+                    entries.remove();
+                    evicted.increment();
+                    excess--;
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private boolean isIdle(long packed, long now) {
+        if (policy.algorithm() == RateLimitPolicy.Algorithm.SLIDING_WINDOW) {
+            return (roll(packed, now) & 0xFFFFFFFFL) == 0;
+        }
+        return packed <= now;
+    }
+
+    /**
+     * Whole seconds for a Retry-After header, at least one.
+     */
+    public static long toRetryAfterSeconds(long waitMillis) {
+        return Math.max(1L, (waitMillis + 999L) / 1000L);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RateLimitPolicy getPolicy() {
+        return policy;
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("algorithm", policy.algorithm().name().toLowerCase());
+        json.put("key", policy.key().name().toLowerCase());
+        json.put("limit", policy.limit());
+        json.put("window_ms", policy.windowMillis());
+        json.put("keys", size());
+        json.put("allowed", allowed.sum());
+        json.put("limited", limited.sum());
+        json.put("evicted", evicted.sum());
+        return json;
+    }
+
+    private static final class Entry {
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicLong reportedAt = new AtomicLong();
+        private volatile long lastSeen;
+    }
+}
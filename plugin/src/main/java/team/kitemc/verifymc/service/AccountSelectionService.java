@@ -6,13 +6,15 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+import team.kitemc.verifymc.util.ExpiringMap;
 
 public class AccountSelectionService {
     private static final String TOKEN_CHARS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
     private static final int TOKEN_LENGTH = 32;
+    private static final int MAX_SELECTIONS = 10_000;
 
-    private final ConcurrentHashMap<String, SelectionEntry> selections = new ConcurrentHashMap<>();
+    private final ExpiringMap<String, SelectionEntry> selections = new ExpiringMap<>(MAX_SELECTIONS);
     private final SecureRandom secureRandom = new SecureRandom();
     private final long expireMillis;
 
@@ -21,7 +23,6 @@ public class AccountSelectionService {
     }
 
     public String issueToken(Purpose purpose, String identifierType, String identifier, Collection<String> usernames) {
-        cleanupExpiredSelections();
         Set<String> normalizedUsers = new LinkedHashSet<>();
         if (usernames != null) {
             for (String username : usernames) {
@@ -40,12 +41,11 @@ public class AccountSelectionService {
                 identifierType == null ? "" : identifierType,
                 identifier == null ? "" : identifier,
                 new ArrayList<>(normalizedUsers),
-                System.currentTimeMillis() + expireMillis));
+                System.currentTimeMillis() + expireMillis), expireMillis);
         return token;
     }
 
     public ConsumeResult consume(String token, Purpose purpose, String identifierType, String identifier, String selectedUsername) {
-        cleanupExpiredSelections();
         if (token == null || token.isBlank() || selectedUsername == null || selectedUsername.isBlank()) {
             return ConsumeResult.invalid();
         }
@@ -72,8 +72,11 @@ public class AccountSelectionService {
     }
 
     public void cleanupExpiredSelections() {
-        long now = System.currentTimeMillis();
-        selections.entrySet().removeIf(entry -> entry.getValue().expireAt < now);
+        selections.purgeExpired();
+    }
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        selections.registerMetrics(metrics, "account_selections");
     }
 
     private String generateToken() {
@@ -8,8 +8,8 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.security.SecureRandom;
 import java.util.Base64;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+import team.kitemc.verifymc.util.ExpiringMap;
 
 /**
  * Captcha service for generating and validating image-based captcha
@@ -19,23 +19,21 @@ public class CaptchaService {
     private final Plugin plugin;
     private final boolean debug;
     private final SecureRandom random = new SecureRandom();
-    private volatile boolean running = true;
     
     // Store captcha tokens and their answers: token -> CaptchaData
-    private final Map<String, CaptchaData> captchaStore = new ConcurrentHashMap<>();
+    private final ExpiringMap<String, CaptchaData> captchaStore = new ExpiringMap<>(MAX_CAPTCHAS);
     
     // Captcha configuration
     private static final int IMAGE_WIDTH = 150;
     private static final int IMAGE_HEIGHT = 50;
     private static final String CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
     
-    // Cleanup interval in milliseconds (5 minutes)
-    private static final long CLEANUP_INTERVAL = 300000;
+    // Unanswered captchas kept at most; the oldest are dropped first
+    private static final int MAX_CAPTCHAS = 50_000;
     
     public CaptchaService(Plugin plugin) {
         this.plugin = plugin;
         this.debug = plugin.getConfig().getBoolean("debug", false);
-        startCleanupTask();
     }
     
     /**
@@ -83,8 +81,7 @@ public class CaptchaService {
         String token = generateToken();
         
         // Store captcha data
-        long expireTime = System.currentTimeMillis() + (expireSeconds * 1000L);
-        captchaStore.put(token, new CaptchaData(answer, expireTime));
+        captchaStore.put(token, new CaptchaData(answer), expireSeconds * 1000L);
         
         debugLog("Generated captcha: token=" + token + ", answer=" + answer);
         
@@ -106,25 +103,16 @@ public class CaptchaService {
             return false;
         }
         
-        CaptchaData data = captchaStore.get(token);
+        // Remove token on validation (one-time use)
+        CaptchaData data = captchaStore.remove(token);
         if (data == null) {
-            debugLog("Captcha validation failed: token not found - " + token);
-            return false;
-        }
-        
-        // Check expiration
-        if (System.currentTimeMillis() > data.expireTime) {
-            captchaStore.remove(token);
-            debugLog("Captcha validation failed: token expired - " + token);
+            debugLog("Captcha validation failed: token not found or expired - " + token);
             return false;
         }
         
         // Validate answer (case insensitive)
         boolean valid = data.answer.equalsIgnoreCase(answer.trim());
         
-        // Remove token after validation (one-time use)
-        captchaStore.remove(token);
-        
         debugLog("Captcha validation: token=" + token + ", answer=" + answer + ", expected=" + data.answer + ", valid=" + valid);
         
         return valid;
@@ -237,39 +225,29 @@ public class CaptchaService {
     }
     
     /**
-     * Start background cleanup task for expired captchas
+     * Number of captchas issued and not yet used or cleaned up.
      */
-    private void startCleanupTask() {
-        Thread cleanupThread = new Thread(() -> {
-            while (running) {
-                try {
-                    Thread.sleep(CLEANUP_INTERVAL);
-                    long currentTime = System.currentTimeMillis();
-                    int removed = 0;
-                    for (Map.Entry<String, CaptchaData> entry : captchaStore.entrySet()) {
-                        if (currentTime > entry.getValue().expireTime) {
-                            captchaStore.remove(entry.getKey());
-                            removed++;
-                        }
-                    }
-                    if (removed > 0) {
-                        debugLog("Cleaned up " + removed + " expired captcha tokens");
-                    }
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        }, "CaptchaCleanup");
-        cleanupThread.setDaemon(true);
-        cleanupThread.start();
+    public int getActiveCount() {
+        return captchaStore.size();
     }
-    
+
+    public void registerMetrics(MetricsRegistry metrics) {
+        captchaStore.registerMetrics(metrics, "captchas");
+    }
+
+    /**
+     * Release captchas that expired while no new ones were issued.
+     */
+    public void purgeExpired() {
+        captchaStore.purgeExpired();
+    }
+
     /**
-     * Stop the cleanup task gracefully
+     * Drop all pending captchas
      */
     public void stop() {
-        running = false;
-        debugLog("Cleanup task stopped");
+        captchaStore.clear();
+        debugLog("Captcha store cleared");
     }
     
     private void debugLog(String msg) {
@@ -283,11 +261,9 @@ public class CaptchaService {
      */
     private static class CaptchaData {
         final String answer;
-        final long expireTime;
         
-        CaptchaData(String answer, long expireTime) {
+        CaptchaData(String answer) {
             this.answer = answer;
-            this.expireTime = expireTime;
         }
     }
     
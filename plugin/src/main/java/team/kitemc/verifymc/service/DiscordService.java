@@ -4,7 +4,8 @@ import org.bukkit.plugin.Plugin;
 import org.json.JSONObject;
 import org.json.JSONArray;
 import team.kitemc.verifymc.db.UserDao;
-import team.kitemc.verifymc.util.FoliaCompat;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+import team.kitemc.verifymc.util.ExpiringMap;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -14,9 +15,7 @@ import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Discord OAuth2 integration service
@@ -35,12 +34,10 @@ public class DiscordService {
     private boolean required;
     
     // State tokens for OAuth2 flow (state -> StateData)
-    private final Map<String, StateData> stateTokens = new ConcurrentHashMap<>();
+    private final ExpiringMap<String, StateData> stateTokens = new ExpiringMap<>(MAX_STATES);
     
     // Token cache (username -> DiscordToken) - temporary cache for active sessions
-    private final Map<String, TokenData> tokenCache = new ConcurrentHashMap<>();
-    
-    private Object cleanupTaskHandle;
+    private final ExpiringMap<String, TokenData> tokenCache = new ExpiringMap<>(MAX_CACHED_TOKENS);
     
     private static final String DISCORD_API_BASE = "https://discord.com/api/v10";
     private static final String DISCORD_OAUTH_AUTHORIZE = "https://discord.com/oauth2/authorize";
@@ -50,14 +47,14 @@ public class DiscordService {
     private static final long STATE_EXPIRY_MS = 600000;
     // Token cache expiry: 1 hour
     private static final long TOKEN_CACHE_EXPIRY_MS = 3600000;
-    // Cleanup interval: 5 minutes
-    private static final long CLEANUP_INTERVAL_TICKS = 6000;
+    // Pending OAuth2 flows and cached tokens kept at most; the oldest are dropped first
+    private static final int MAX_STATES = 10_000;
+    private static final int MAX_CACHED_TOKENS = 10_000;
     
     public DiscordService(Plugin plugin) {
         this.plugin = plugin;
         this.debug = plugin.getConfig().getBoolean("debug", false);
         loadConfig();
-        startCleanupTask();
     }
     
     /**
@@ -69,47 +66,6 @@ public class DiscordService {
         debugLog("UserDao set for Discord service");
     }
     
-    /**
-     * Start periodic cleanup task for expired state tokens and token cache
-     */
-    private void startCleanupTask() {
-        cleanupTaskHandle = FoliaCompat.runTaskTimerAsync(plugin, this::cleanupExpiredTokens, CLEANUP_INTERVAL_TICKS, CLEANUP_INTERVAL_TICKS);
-        debugLog("Started cleanup task for expired tokens");
-    }
-    
-    /**
-     * Cleanup expired state tokens and token cache
-     */
-    private void cleanupExpiredTokens() {
-        long now = System.currentTimeMillis();
-        int statesCleaned = 0;
-        int tokensCleaned = 0;
-        
-        // Cleanup expired state tokens
-        Iterator<Map.Entry<String, StateData>> stateIterator = stateTokens.entrySet().iterator();
-        while (stateIterator.hasNext()) {
-            Map.Entry<String, StateData> entry = stateIterator.next();
-            if (entry.getValue().isExpired()) {
-                stateIterator.remove();
-                statesCleaned++;
-            }
-        }
-        
-        // Cleanup expired token cache
-        Iterator<Map.Entry<String, TokenData>> tokenIterator = tokenCache.entrySet().iterator();
-        while (tokenIterator.hasNext()) {
-            Map.Entry<String, TokenData> entry = tokenIterator.next();
-            if (now - entry.getValue().cacheTime > TOKEN_CACHE_EXPIRY_MS) {
-                tokenIterator.remove();
-                tokensCleaned++;
-            }
-        }
-        
-        if (statesCleaned > 0 || tokensCleaned > 0) {
-            debugLog("Cleanup completed: " + statesCleaned + " state tokens, " + tokensCleaned + " cached tokens removed");
-        }
-    }
-    
     /**
      * Load Discord configuration from plugin config
      */
@@ -153,7 +109,7 @@ public class DiscordService {
         
         // Generate state token
         String state = generateState();
-        stateTokens.put(state, new StateData(username, System.currentTimeMillis()));
+        stateTokens.put(state, new StateData(username, System.currentTimeMillis()), STATE_EXPIRY_MS);
         
         // Build authorization URL
         StringBuilder url = new StringBuilder(DISCORD_OAUTH_AUTHORIZE);
@@ -228,7 +184,7 @@ public class DiscordService {
             }
             
             // Store token in cache
-            tokenCache.put(username.toLowerCase(), new TokenData(token, System.currentTimeMillis()));
+            tokenCache.put(username.toLowerCase(), new TokenData(token, System.currentTimeMillis()), TOKEN_CACHE_EXPIRY_MS);
             
             // Persist Discord ID to database
             if (userDao != null) {
@@ -346,7 +302,7 @@ public class DiscordService {
             debugLog("Token expired or expiring soon for " + username + ", refreshing...");
             DiscordToken newToken = refreshAccessToken(token.refreshToken);
             if (newToken != null) {
-                tokenCache.put(username.toLowerCase(), new TokenData(newToken, System.currentTimeMillis()));
+                tokenCache.put(username.toLowerCase(), new TokenData(newToken, System.currentTimeMillis()), TOKEN_CACHE_EXPIRY_MS);
                 debugLog("Token refreshed successfully for " + username);
                 return newToken.accessToken;
             } else {
@@ -639,8 +595,21 @@ public class DiscordService {
         }
     }
     
+    public void registerMetrics(MetricsRegistry metrics) {
+        stateTokens.registerMetrics(metrics, "discord_states");
+        tokenCache.registerMetrics(metrics, "discord_tokens");
+    }
+
+    /**
+     * Release OAuth2 states and cached tokens that expired while nothing new was stored.
+     */
+    public void purgeExpired() {
+        stateTokens.purgeExpired();
+        tokenCache.purgeExpired();
+    }
+
     public void stop() {
-        FoliaCompat.cancelTask(cleanupTaskHandle);
-        cleanupTaskHandle = null;
+        stateTokens.clear();
+        tokenCache.clear();
     }
 }
@@ -3,6 +3,7 @@ package team.kitemc.verifymc.service;
 import org.bukkit.plugin.Plugin;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 
 import java.io.IOException;
 import java.net.URI;
@@ -22,14 +23,23 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
     private final Semaphore concurrentLimiter;
     private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
     private volatile long circuitOpenUntil = 0L;
+    private final MetricsRegistry metrics;
+    private final MetricsRegistry.Timer requestTimer;
+    private final MetricsRegistry.Counter retries;
 
-    public OpenAICompatibleScoringProvider(Plugin plugin, LlmScoringConfig config) {
+    public OpenAICompatibleScoringProvider(Plugin plugin, LlmScoringConfig config, MetricsRegistry metrics) {
         this.plugin = plugin;
         this.config = config;
         this.client = HttpClient.newBuilder()
             .connectTimeout(Duration.ofMillis(config.getTimeoutMs()))
             .build();
         this.concurrentLimiter = new Semaphore(config.getMaxConcurrency());
+        this.metrics = metrics;
+        this.requestTimer = metrics.timer("llm_request_seconds", "provider", config.getProviderName());
+        this.retries = metrics.counter("llm_retries_total", "provider", config.getProviderName());
+        metrics.gauge("llm_circuit_open", () -> System.currentTimeMillis() < circuitOpenUntil ? 1 : 0,
+            "provider", config.getProviderName());
+        metrics.gauge("llm_consecutive_failures", consecutiveFailures::get, "provider", config.getProviderName());
     }
 
     @Override
@@ -38,11 +48,13 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
         String requestId = UUID.randomUUID().toString();
 
         if (!config.isReady()) {
+            countRequest("not_configured");
             return manualReview("LLM config incomplete, requires manual review", requestId, started, 0);
         }
 
         long now = System.currentTimeMillis();
         if (now < circuitOpenUntil) {
+            countRequest("circuit_open");
             return manualReview("LLM circuit breaker open, requires manual review", requestId, started, 0);
         }
 
@@ -51,15 +63,17 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
         try {
             acquired = concurrentLimiter.tryAcquire(config.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
             if (!acquired) {
+                countRequest("saturated");
                 return manualReview("LLM queue saturated, requires manual review", requestId, started, 0);
             }
 
             int attempts = Math.max(0, config.getRetry()) + 1;
             for (int i = 1; i <= attempts; i++) {
                 try {
-                    String content = callModel(request, requestId);
+                    String content = timedCall(request, requestId);
                     EssayScoringResult parsed = parseResult(content, request.getMaxScore(), requestId, started, retryCount);
                     consecutiveFailures.set(0);
+                    countRequest("scored");
                     return parsed;
                 } catch (Exception e) {
                     retryCount = i;
@@ -71,8 +85,10 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
                     if (i == attempts) {
                         plugin.getLogger().warning("[VerifyMC] LLM scoring failed requestId=" + requestId
                             + ", attempts=" + attempts + ", reason=" + safeError(e));
+                        countRequest("failed");
                         return manualReview("LLM scoring unavailable, requires manual review", requestId, started, retryCount);
                     }
+                    retries.increment();
                     long delayMs = backoffDelayMs(i);
                     plugin.getLogger().warning("[VerifyMC] LLM scoring retry requestId=" + requestId
                         + ", attempt=" + i + ", nextDelayMs=" + delayMs + ", reason=" + safeError(e));
@@ -81,6 +97,7 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            countRequest("interrupted");
             return manualReview("LLM interrupted, requires manual review", requestId, started, retryCount);
         } finally {
             if (acquired) {
@@ -90,6 +107,19 @@ public class OpenAICompatibleScoringProvider implements EssayScoringService {
         return manualReview("LLM scoring unavailable, requires manual review", requestId, started, retryCount);
     }
 
+    private String timedCall(EssayScoringRequest request, String requestId) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            return callModel(request, requestId);
+        } finally {
+            requestTimer.recordSince(start);
+        }
+    }
+
+    private void countRequest(String result) {
+        metrics.counter("llm_requests_total", "provider", config.getProviderName(), "result", result).increment();
+    }
+
     private EssayScoringResult manualReview(String reason, String requestId, long started, int retryCount) {
         long latency = System.currentTimeMillis() - started;
         return new EssayScoringResult(0, reason, 0.0D, true,
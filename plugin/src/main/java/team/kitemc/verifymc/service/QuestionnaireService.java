@@ -5,6 +5,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 
 import java.io.File;
 import java.io.InputStream;
@@ -24,16 +25,16 @@ public class QuestionnaireService {
     private final String llmScoringRule;
     private final boolean llmScoringEnabled;
 
-    public QuestionnaireService(Plugin plugin) {
+    public QuestionnaireService(Plugin plugin, MetricsRegistry metrics) {
         this.plugin = plugin;
         this.debug = plugin.getConfig().getBoolean("debug", false);
-        this.essayScoringService = buildScoringService();
+        this.essayScoringService = buildScoringService(metrics);
         this.llmScoringRule = plugin.getConfig().getString("llm.scoring_rule", "Evaluate relevance, detail and rule-awareness.");
         this.llmScoringEnabled = plugin.getConfig().getBoolean("llm.enabled", true);
         loadQuestionnaireConfig();
     }
 
-    private EssayScoringService buildScoringService() {
+    private EssayScoringService buildScoringService(MetricsRegistry metrics) {
         String provider = plugin.getConfig().getString("llm.provider", "deepseek").toLowerCase(Locale.ROOT);
         OpenAICompatibleScoringProvider.LlmScoringConfig config = new OpenAICompatibleScoringProvider.LlmScoringConfig(
             provider,
@@ -53,7 +54,7 @@ public class QuestionnaireService {
             plugin.getConfig().getInt("llm.input_max_length", 2000)
         );
 
-        return new OpenAICompatibleScoringProvider(plugin, config);
+        return new OpenAICompatibleScoringProvider(plugin, config, metrics);
     }
 
     /**
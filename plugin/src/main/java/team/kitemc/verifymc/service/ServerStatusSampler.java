@@ -0,0 +1,119 @@
+package team.kitemc.verifymc.service;
+
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Samples players, TPS, memory and MOTD on the server thread and publishes them as an
+ * immutable {@link ServerStatusSnapshot}, so web threads never touch the Bukkit API.
+ * <p>
+ * {@link #run()} must be scheduled on the main thread (the global region on Folia).
+ * The last {@code historySize} TPS samples are kept in a ring and copied, oldest
+ * first, into each snapshot.
+ */
+public class ServerStatusSampler implements Runnable {
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final Plugin plugin;
+    private final double[] tpsRing;
+    private int ringStart;
+    private int ringSize;
+    private Method getTpsMethod;
+    private boolean getTpsResolved;
+    private volatile ServerStatusSnapshot latest;
+
+    public ServerStatusSampler(Plugin plugin, int historySize) {
+        this.plugin = plugin;
+        this.tpsRing = new double[Math.max(1, historySize)];
+    }
+
+    @Override
+    public void run() {
+        try {
+            latest = sample(plugin.getServer());
+        } catch (Exception e) {
+            plugin.getLogger().warning("[VerifyMC] Failed to sample server status: " + e.getMessage());
+        }
+    }
+
+    private ServerStatusSnapshot sample(Server server) {
+        Collection<? extends Player> onlinePlayers = server.getOnlinePlayers();
+        List<ServerStatusSnapshot.PlayerEntry> players = new ArrayList<>(onlinePlayers.size());
+        for (Player player : onlinePlayers) {
+            players.add(new ServerStatusSnapshot.PlayerEntry(player.getName(), player.getUniqueId().toString()));
+        }
+
+        double tps = readTps(server);
+        if (tps >= 0) {
+            record(tps);
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+        String motd = server.getMotd();
+        motd = motd != null ? motd.replace("\n", " ").trim() : "";
+
+        return new ServerStatusSnapshot(players, server.getMaxPlayers(), server.getBukkitVersion(), tps,
+                history(), heap.getUsed() / BYTES_PER_MB, heap.getMax() / BYTES_PER_MB, motd,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * The one-minute TPS rounded to two decimals, or -1 on servers without {@code getTPS}.
+     * The method is looked up once.
+     */
+    private double readTps(Server server) {
+        if (!getTpsResolved) {
+            getTpsResolved = true;
+            try {
+                getTpsMethod = server.getClass().getMethod("getTPS");
+            } catch (NoSuchMethodException e) {
+                plugin.getLogger().info("[VerifyMC] Server does not report TPS; server status will show -1.");
+            }
+        }
+        if (getTpsMethod == null) {
+            return -1.0;
+        }
+        try {
+            double[] tpsArray = (double[]) getTpsMethod.invoke(server);
+            if (tpsArray != null && tpsArray.length > 0) {
+                return Math.round(tpsArray[0] * 100.0) / 100.0;
+            }
+        } catch (Exception ignored) {
+        }
+        return -1.0;
+    }
+
+    private void record(double tps) {
+        int index = (ringStart + ringSize) % tpsRing.length;
+        tpsRing[index] = tps;
+        if (ringSize < tpsRing.length) {
+            ringSize++;
+        } else {
+            ringStart = (ringStart + 1) % tpsRing.length;
+        }
+    }
+
+    private double[] history() {
+        double[] history = new double[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            history[i] = tpsRing[(ringStart + i) % tpsRing.length];
+        }
+        return history;
+    }
+
+    /**
+     * The most recent snapshot, or null before the first sample.
+     */
+    public ServerStatusSnapshot getLatest() {
+        return latest;
+    }
+}
@@ -0,0 +1,93 @@
+package team.kitemc.verifymc.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Immutable view of the server taken by {@link ServerStatusSampler} on the server thread.
+ * Safe to read from any thread.
+ */
+public final class ServerStatusSnapshot {
+    private final List<PlayerEntry> players;
+    private final int maxPlayers;
+    private final String version;
+    private final double tps;
+    private final double[] tpsHistory;
+    private final long memoryUsedMb;
+    private final long memoryMaxMb;
+    private final String motd;
+    private final long sampledAt;
+
+    public ServerStatusSnapshot(List<PlayerEntry> players, int maxPlayers, String version, double tps,
+                                double[] tpsHistory, long memoryUsedMb, long memoryMaxMb, String motd,
+                                long sampledAt) {
+        this.players = List.copyOf(players);
+        this.maxPlayers = maxPlayers;
+        this.version = version;
+        this.tps = tps;
+        this.tpsHistory = tpsHistory.clone();
+        this.memoryUsedMb = memoryUsedMb;
+        this.memoryMaxMb = memoryMaxMb;
+        this.motd = motd;
+        this.sampledAt = sampledAt;
+    }
+
+    /**
+     * The {@code data} object of /api/server/status.
+     *
+     * @param includePlayerList whether to list player names and UUIDs, which only signed-in users may see
+     */
+    public JSONObject toJson(boolean includePlayerList) {
+        JSONObject data = new JSONObject();
+        data.put("online", true);
+
+        JSONObject playersJson = new JSONObject();
+        playersJson.put("online", players.size());
+        playersJson.put("max", maxPlayers);
+        if (includePlayerList && !players.isEmpty()) {
+            JSONArray list = new JSONArray();
+            for (PlayerEntry player : players) {
+                JSONObject playerInfo = new JSONObject();
+                playerInfo.put("name", player.name());
+                playerInfo.put("uuid", player.uuid());
+                list.put(playerInfo);
+            }
+            playersJson.put("list", list);
+        }
+        data.put("players", playersJson);
+
+        data.put("version", version);
+        data.put("tps", tps);
+        JSONArray history = new JSONArray();
+        for (double sample : tpsHistory) {
+            history.put(sample);
+        }
+        data.put("tpsHistory", history);
+
+        JSONObject memory = new JSONObject();
+        memory.put("used", memoryUsedMb);
+        memory.put("max", memoryMaxMb);
+        data.put("memory", memory);
+
+        data.put("motd", motd);
+        data.put("sampledAt", sampledAt);
+        return data;
+    }
+
+    public int getOnlinePlayers() {
+        return players.size();
+    }
+
+    public double getTps() {
+        return tps;
+    }
+
+    public long getSampledAt() {
+        return sampledAt;
+    }
+
+    public record PlayerEntry(String name, String uuid) {
+    }
+}
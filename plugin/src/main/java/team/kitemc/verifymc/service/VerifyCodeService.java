@@ -1,10 +1,13 @@
 package team.kitemc.verifymc.service;
 
 import java.security.SecureRandom;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import org.bukkit.plugin.Plugin;
 import team.kitemc.verifymc.core.ConfigManager;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+import team.kitemc.verifymc.security.RateLimitPolicy;
+import team.kitemc.verifymc.security.RateLimiter;
+import team.kitemc.verifymc.util.ExpiringMap;
 import team.kitemc.verifymc.util.EmailAddressUtil;
 import team.kitemc.verifymc.util.PhoneNumberUtil;
 
@@ -12,66 +15,64 @@ public class VerifyCodeService {
     private static final int DEFAULT_EMAIL_MAX_ATTEMPTS = 5;
     private static final long DEFAULT_EMAIL_EXPIRE_MILLIS = 5 * 60 * 1000L;
     private static final long DEFAULT_EMAIL_RATE_LIMIT_MILLIS = 60 * 1000L;
-
-    private final ConcurrentHashMap<String, CodeEntry> codeMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Long> targetRateLimitMap = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, IpRateEntry> ipRateLimitMap = new ConcurrentHashMap<>();
+    private static final int MAX_ENTRIES = 100_000;
+    // Expired codes stay this long so a late attempt is told the code expired
+    private static final long EXPIRED_CODE_RETENTION_MILLIS = 5 * 60 * 1000L;
+
+    private final ExpiringMap<String, CodeEntry> codeMap = new ExpiringMap<>(MAX_ENTRIES);
+    // Last send time per target, kept for the cooldown of its channel
+    private final ExpiringMap<String, Long> targetRateLimitMap = new ExpiringMap<>(MAX_ENTRIES);
+    private volatile RateLimiter ipRateLimiter;
     private final Plugin plugin;
     private final ConfigManager configManager;
     private final boolean debug;
     private final SecureRandom secureRandom = new SecureRandom();
-    private volatile boolean running = true;
+    private final ChannelMetrics[] channelMetrics = new ChannelMetrics[Channel.values().length];
 
     public VerifyCodeService(Plugin plugin) {
         this(plugin, plugin instanceof org.bukkit.plugin.java.JavaPlugin javaPlugin ? new ConfigManager(javaPlugin) : null);
     }
 
     public VerifyCodeService(Plugin plugin, ConfigManager configManager) {
+        this(plugin, configManager, new MetricsRegistry());
+    }
+
+    public VerifyCodeService(Plugin plugin, ConfigManager configManager, MetricsRegistry metrics) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.debug = plugin.getConfig().getBoolean("debug", false);
-        startCleanupTask();
+        initMetrics(metrics);
     }
 
     public VerifyCodeService() {
         this.plugin = null;
         this.configManager = null;
         this.debug = false;
-        startCleanupTask();
-    }
-
-    private void startCleanupTask() {
-        Thread cleanupThread = new Thread(() -> {
-            while (running) {
-                try {
-                    Thread.sleep(300000);
-                    cleanupExpiredEntries();
-                } catch (InterruptedException e) {
-                    debugLog("Cleanup task interrupted");
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-        });
-        cleanupThread.setDaemon(true);
-        cleanupThread.setName("VerifyCodeService-Cleanup");
-        cleanupThread.start();
-        debugLog("Cleanup task started");
+        initMetrics(new MetricsRegistry());
     }
 
-    public void stop() {
-        running = false;
-        debugLog("Cleanup task stopped");
+    private void initMetrics(MetricsRegistry metrics) {
+        for (Channel channel : Channel.values()) {
+            channelMetrics[channel.ordinal()] = new ChannelMetrics(metrics, channel.name().toLowerCase());
+        }
+        metrics.gauge("verify_codes_active", codeMap::size);
+        metrics.gauge("verify_code_cooldowns_active", targetRateLimitMap::size);
+        codeMap.registerMetrics(metrics, "verify_codes");
+        targetRateLimitMap.registerMetrics(metrics, "verify_code_cooldowns");
     }
 
-    private void cleanupExpiredEntries() {
-        long currentTime = System.currentTimeMillis();
-        codeMap.entrySet().removeIf(entry -> entry.getValue().expire < currentTime);
-        targetRateLimitMap.entrySet().removeIf(entry -> (currentTime - entry.getValue()) > getRateLimitMillis(channelFromStoredKey(entry.getKey()), purposeFromStoredKey(entry.getKey())));
-        ipRateLimitMap.entrySet().removeIf(entry -> entry.getValue().windowStart + getSmsRateLimitIpWindowMs() < currentTime);
-        debugLog("Cleanup completed. Active codes: " + codeMap.size()
-                + ", target limits: " + targetRateLimitMap.size()
-                + ", ip limits: " + ipRateLimitMap.size());
+    /**
+     * Release codes and cooldowns that expired while no new ones were issued.
+     */
+    public void purgeExpired() {
+        codeMap.purgeExpired();
+        targetRateLimitMap.purgeExpired();
+    }
+
+    public void stop() {
+        codeMap.clear();
+        targetRateLimitMap.clear();
+        debugLog("Code store cleared");
     }
 
     private void debugLog(String msg) {
@@ -105,24 +106,11 @@ public class VerifyCodeService {
         if (ip == null || ip.isEmpty()) {
             return true;
         }
-        IpRateEntry entry = ipRateLimitMap.get(ip);
-        if (entry == null) {
-            return true;
-        }
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - entry.windowStart >= getSmsRateLimitIpWindowMs()) {
-            ipRateLimitMap.remove(ip);
-            return true;
-        }
-        return entry.count < getSmsRateLimitIpMax();
+        return ipRateLimiter().peek(ip) == 0;
     }
 
     public long getRemainingIpCooldownSeconds(String ip) {
-        IpRateEntry entry = ipRateLimitMap.get(ip);
-        if (entry == null) {
-            return 0;
-        }
-        return toRemainingSeconds(getSmsRateLimitIpWindowMs() - (System.currentTimeMillis() - entry.windowStart));
+        return toRemainingSeconds(ipRateLimiter().peek(ip));
     }
 
     public CodeIssueResult issueCode(String email) {
@@ -135,7 +123,9 @@ public class VerifyCodeService {
 
     public CodeIssueResult issueCode(Channel channel, Purpose purpose, String target, String ip) {
         String normalizedTarget = normalize(channel, target);
+        ChannelMetrics metrics = channelMetrics[channel.ordinal()];
         if (channel == Channel.SMS && ip != null && !canSendFromIp(ip)) {
+            metrics.ipLimited.increment();
             return CodeIssueResult.rateLimited(getRemainingIpCooldownSeconds(ip));
         }
 
@@ -154,17 +144,20 @@ public class VerifyCodeService {
             }
 
             String code = generateNumericCode(getCodeLength(channel, purpose));
-            long expireTime = currentTime + getExpireMillis(channel, purpose);
-            codeMap.put(key, new CodeEntry(code, expireTime, getMaxAttempts(channel, purpose)));
+            long expireMillis = getExpireMillis(channel, purpose);
+            codeMap.put(key, new CodeEntry(code, currentTime + expireMillis, getMaxAttempts(channel, purpose)),
+                    expireMillis + EXPIRED_CODE_RETENTION_MILLIS);
             if (channel == Channel.SMS && ip != null && !ip.isEmpty()) {
-                recordIpSend(ip, currentTime);
+                ipRateLimiter().tryAcquire(ip);
             }
             resultRef.set(CodeIssueResult.issued(code, toRemainingSeconds(getRateLimitMillis(channel, purpose))));
             debugLog("Issued " + channel + " code for key: " + key);
             return currentTime;
-        });
+        }, getRateLimitMillis(channel, purpose));
 
-        return resultRef.get();
+        CodeIssueResult result = resultRef.get();
+        (result.issued() ? metrics.issued : metrics.targetLimited).increment();
+        return result;
     }
 
     public String generateCode(String key) {
@@ -197,18 +190,22 @@ public class VerifyCodeService {
 
     public VerifyResult verifyCode(Channel channel, Purpose purpose, String target, String code) {
         String storedKey = storedKey(channel, purpose, target);
+        ChannelMetrics metrics = channelMetrics[channel.ordinal()];
         CodeEntry entry = codeMap.get(storedKey);
         if (entry == null) {
+            metrics.checkMissing.increment();
             return VerifyResult.failure(0, false, false);
         }
 
         if (entry.expire < System.currentTimeMillis()) {
             codeMap.remove(storedKey);
+            metrics.checkExpired.increment();
             return VerifyResult.failure(0, true, false);
         }
 
         if (entry.attempts >= entry.maxAttempts) {
             codeMap.remove(storedKey);
+            metrics.checkTooMany.increment();
             return VerifyResult.failure(0, false, true);
         }
 
@@ -220,22 +217,35 @@ public class VerifyCodeService {
         } else if (remainingAttempts <= 0) {
             codeMap.remove(storedKey);
         }
+        (ok ? metrics.checkSuccess : metrics.checkInvalid).increment();
         return new VerifyResult(ok, remainingAttempts, false, !ok && remainingAttempts <= 0);
     }
 
-    private void recordIpSend(String ip, long currentTime) {
-        ipRateLimitMap.compute(ip, (ignored, entry) -> {
-            if (entry == null || currentTime - entry.windowStart >= getSmsRateLimitIpWindowMs()) {
-                return new IpRateEntry(currentTime, 1);
-            }
-            entry.count++;
-            return entry;
-        });
+    /**
+     * SMS sends per client address, rebuilt when sms.rate_limit.ip changes on reload.
+     */
+    private RateLimiter ipRateLimiter() {
+        RateLimitPolicy policy = new RateLimitPolicy(RateLimitPolicy.Algorithm.SLIDING_WINDOW,
+                RateLimitPolicy.Key.IP, getSmsRateLimitIpMax(), getSmsRateLimitIpWindowMs());
+        RateLimiter limiter = ipRateLimiter;
+        if (limiter == null || !limiter.getPolicy().equals(policy)) {
+            limiter = new RateLimiter("sms-ip", policy,
+                    configManager != null ? configManager.getHttpRateLimitMaxKeys() : 10000);
+            ipRateLimiter = limiter;
+        }
+        return limiter;
     }
 
     private String generateNumericCode(int length) {
-        int bound = (int) Math.pow(10, length);
-        return String.format("%0" + length + "d", secureRandom.nextInt(bound));
+        return generateNumericCode(secureRandom, length);
+    }
+
+    static String generateNumericCode(SecureRandom random, int length) {
+        char[] digits = new char[length];
+        for (int i = 0; i < length; i++) {
+            digits[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(digits);
     }
 
     private String storedKey(Channel channel, String target) {
@@ -252,28 +262,6 @@ public class VerifyCodeService {
                 : EmailAddressUtil.normalize(target);
     }
 
-    private Channel channelFromStoredKey(String key) {
-        if (key != null && (key.startsWith("sms:") || key.contains(":sms:"))) {
-            return Channel.SMS;
-        }
-        return Channel.EMAIL;
-    }
-
-    private Purpose purposeFromStoredKey(String key) {
-        if (key == null) {
-            return Purpose.REGISTER;
-        }
-        int split = key.indexOf(':');
-        if (split <= 0) {
-            return Purpose.REGISTER;
-        }
-        try {
-            return Purpose.valueOf(key.substring(0, split).toUpperCase());
-        } catch (IllegalArgumentException ignored) {
-            return Purpose.REGISTER;
-        }
-    }
-
     private int getCodeLength(Channel channel, Purpose purpose) {
         if (channel == Channel.EMAIL && configManager != null) {
             return configManager.getEmailCodeLength();
@@ -348,6 +336,31 @@ public class VerifyCodeService {
         }
     }
 
+    /**
+     * Counters of one channel, looked up once so issuing a code does not build metric keys.
+     */
+    private static final class ChannelMetrics {
+        private final MetricsRegistry.Counter issued;
+        private final MetricsRegistry.Counter targetLimited;
+        private final MetricsRegistry.Counter ipLimited;
+        private final MetricsRegistry.Counter checkSuccess;
+        private final MetricsRegistry.Counter checkInvalid;
+        private final MetricsRegistry.Counter checkExpired;
+        private final MetricsRegistry.Counter checkTooMany;
+        private final MetricsRegistry.Counter checkMissing;
+
+        private ChannelMetrics(MetricsRegistry metrics, String channel) {
+            issued = metrics.counter("verify_codes_issued_total", "channel", channel);
+            targetLimited = metrics.counter("verify_codes_rate_limited_total", "channel", channel, "scope", "target");
+            ipLimited = metrics.counter("verify_codes_rate_limited_total", "channel", channel, "scope", "ip");
+            checkSuccess = metrics.counter("verify_code_checks_total", "channel", channel, "result", "success");
+            checkInvalid = metrics.counter("verify_code_checks_total", "channel", channel, "result", "invalid");
+            checkExpired = metrics.counter("verify_code_checks_total", "channel", channel, "result", "expired");
+            checkTooMany = metrics.counter("verify_code_checks_total", "channel", channel, "result", "too_many_attempts");
+            checkMissing = metrics.counter("verify_code_checks_total", "channel", channel, "result", "missing");
+        }
+    }
+
     static class CodeEntry {
         String code;
         long expire;
@@ -361,14 +374,4 @@ public class VerifyCodeService {
             this.maxAttempts = maxAttempts;
         }
     }
-
-    static class IpRateEntry {
-        long windowStart;
-        int count;
-
-        IpRateEntry(long windowStart, int count) {
-            this.windowStart = windowStart;
-            this.count = count;
-        }
-    }
 }
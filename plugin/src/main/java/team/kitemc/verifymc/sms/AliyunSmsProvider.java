@@ -7,7 +7,6 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
@@ -15,10 +14,9 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.ConfigManager;
+import team.kitemc.verifymc.util.CryptoUtil;
 import team.kitemc.verifymc.util.PhoneNumberUtil;
 
 public class AliyunSmsProvider implements SmsProvider {
@@ -144,23 +142,12 @@ public class AliyunSmsProvider implements SmsProvider {
                 .replace("%7E", "~");
     }
 
-    static String sha256Hex(String value) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        return bytesToHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    static String sha256Hex(String value) {
+        return CryptoUtil.sha256Hex(value);
     }
 
-    private static String hmacSha256Hex(String key, String value) throws Exception {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-        return bytesToHex(mac.doFinal(value.getBytes(StandardCharsets.UTF_8)));
-    }
-
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder builder = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            builder.append(String.format("%02x", b));
-        }
-        return builder.toString();
+    private static String hmacSha256Hex(String key, String value) {
+        return CryptoUtil.hexEncode(CryptoUtil.hmacSha256(key.getBytes(StandardCharsets.UTF_8), value));
     }
 
     record AuthorizationData(
@@ -2,6 +2,7 @@ package team.kitemc.verifymc.sms;
 
 import org.bukkit.plugin.Plugin;
 import team.kitemc.verifymc.core.ConfigManager;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
 import team.kitemc.verifymc.util.PhoneNumberUtil;
 
 public class SmsService {
@@ -9,20 +10,29 @@ public class SmsService {
     private final SmsProvider provider;
     private final boolean debug;
     private final Plugin plugin;
+    private final MetricsRegistry.Counter sent;
+    private final MetricsRegistry.Counter failed;
+    private final MetricsRegistry.Timer sendTimer;
 
-    public SmsService(Plugin plugin, ConfigManager config) {
+    public SmsService(Plugin plugin, ConfigManager config, MetricsRegistry metrics) {
         this.plugin = plugin;
         this.config = config;
         this.debug = config.isDebug();
-        this.provider = "tencent".equalsIgnoreCase(config.getSmsProvider())
-                ? new TencentSmsProvider(config)
-                : new AliyunSmsProvider(config);
+        boolean tencent = "tencent".equalsIgnoreCase(config.getSmsProvider());
+        this.provider = tencent ? new TencentSmsProvider(config) : new AliyunSmsProvider(config);
+        String providerName = tencent ? "tencent" : "aliyun";
+        this.sent = metrics.counter("sms_sent_total", "provider", providerName, "result", "success");
+        this.failed = metrics.counter("sms_sent_total", "provider", providerName, "result", "failure");
+        this.sendTimer = metrics.timer("sms_send_seconds", "provider", providerName);
     }
 
     public SmsSendResult sendVerificationCode(String phone, String code) {
         String normalizedPhone = PhoneNumberUtil.normalize(phone);
         int expireMinutes = Math.max(1, (config.getSmsExpireSeconds() + 59) / 60);
+        long start = System.nanoTime();
         SmsSendResult result = provider.sendVerificationCode(normalizedPhone, code, expireMinutes);
+        sendTimer.recordSince(start);
+        (result.success() ? sent : failed).increment();
         if (!result.success()) {
             debugLog("SMS send failed for " + normalizedPhone + ": " + result.message());
         }
@@ -6,16 +6,14 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.ConfigManager;
+import team.kitemc.verifymc.util.CryptoUtil;
 
 public class TencentSmsProvider implements SmsProvider {
     private static final String SERVICE = "sms";
@@ -88,33 +86,14 @@ public class TencentSmsProvider implements SmsProvider {
 
     private String buildAuthorization(String body, long timestamp, String date) throws Exception {
         String canonicalRequest = "POST\n/\n\ncontent-type:application/json; charset=utf-8\nhost:" + config.getTencentSmsEndpoint()
-                + "\n\ncontent-type;host\n" + sha256Hex(body);
+                + "\n\ncontent-type;host\n" + CryptoUtil.sha256Hex(body);
         String credentialScope = date + "/" + SERVICE + "/tc3_request";
-        String stringToSign = "TC3-HMAC-SHA256\n" + timestamp + "\n" + credentialScope + "\n" + sha256Hex(canonicalRequest);
-        byte[] secretDate = hmacSha256(("TC3" + config.getTencentSmsSecretKey()).getBytes(StandardCharsets.UTF_8), date);
-        byte[] secretService = hmacSha256(secretDate, SERVICE);
-        byte[] secretSigning = hmacSha256(secretService, "tc3_request");
-        String signature = bytesToHex(hmacSha256(secretSigning, stringToSign));
+        String stringToSign = "TC3-HMAC-SHA256\n" + timestamp + "\n" + credentialScope + "\n" + CryptoUtil.sha256Hex(canonicalRequest);
+        byte[] secretDate = CryptoUtil.hmacSha256(("TC3" + config.getTencentSmsSecretKey()).getBytes(StandardCharsets.UTF_8), date);
+        byte[] secretService = CryptoUtil.hmacSha256(secretDate, SERVICE);
+        byte[] secretSigning = CryptoUtil.hmacSha256(secretService, "tc3_request");
+        String signature = CryptoUtil.hexEncode(CryptoUtil.hmacSha256(secretSigning, stringToSign));
         return "TC3-HMAC-SHA256 Credential=" + config.getTencentSmsSecretId() + "/" + credentialScope
                 + ", SignedHeaders=content-type;host, Signature=" + signature;
     }
-
-    private byte[] hmacSha256(byte[] key, String value) throws Exception {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(key, "HmacSHA256"));
-        return mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
-    }
-
-    private String sha256Hex(String value) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        return bytesToHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
-    }
-
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder builder = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            builder.append(String.format("%02x", b));
-        }
-        return builder.toString();
-    }
 }
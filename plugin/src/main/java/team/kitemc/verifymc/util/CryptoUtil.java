@@ -2,30 +2,111 @@ package team.kitemc.verifymc.util;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
+/**
+ * Digest, HMAC and hex helpers for hot paths. Digest and MAC instances are kept per
+ * thread instead of being looked up from the provider list on every call, and hex is
+ * encoded from a table.
+ */
 public class CryptoUtil {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 algorithm not available", e);
+        }
+    });
+    private static final ThreadLocal<Mac> HMAC_SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance("HmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("HmacSHA256 algorithm not available", e);
+        }
+    });
+
+    /**
+     * The calling thread's SHA-256 digest, reset. Finish with it before calling another
+     * method of this class, which may reuse it.
+     */
+    public static MessageDigest sha256() {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return digest;
+    }
 
-    public static String sha256Hex(String data) throws Exception {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-        return hexEncode(hash);
+    public static String sha256Hex(String data) {
+        return hexEncode(sha256().digest(data.getBytes(StandardCharsets.UTF_8)));
     }
 
-    public static byte[] hmacSha256(byte[] key, String data) throws Exception {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+    public static byte[] hmacSha256(byte[] key, String data) {
+        Mac mac = HMAC_SHA256.get();
+        try {
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException("Invalid HMAC key", e);
+        }
         return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
     }
 
     public static String hexEncode(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Write {@code bytes} as lower-case ASCII hex into {@code out} from {@code offset}.
+     */
+    public static void hexEncode(byte[] bytes, byte[] out, int offset) {
+        for (int i = 0; i < bytes.length; i++) {
+            out[offset + i * 2] = (byte) HEX[(bytes[i] >> 4) & 0xF];
+            out[offset + i * 2 + 1] = (byte) HEX[bytes[i] & 0xF];
+        }
+    }
+
+    /**
+     * @return the decoded bytes, or null if {@code hex} is not an even-length hex string
+     */
+    public static byte[] hexDecode(CharSequence hex, int start, int end) {
+        int length = end - start;
+        if (length < 0 || (length & 1) != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(start + i * 2), 16);
+            int low = Character.digit(hex.charAt(start + i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * Compare {@code expected} with the hex text in {@code hex[start, end)}, ignoring
+     * case. Takes the same time wherever the first difference is.
+     */
+    public static boolean hexEquals(byte[] expected, CharSequence hex, int start, int end) {
+        if (end - start != expected.length * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < expected.length; i++) {
+            diff |= Character.toLowerCase(hex.charAt(start + i * 2)) ^ HEX[(expected[i] >> 4) & 0xF];
+            diff |= Character.toLowerCase(hex.charAt(start + i * 2 + 1)) ^ HEX[expected[i] & 0xF];
         }
-        return sb.toString();
+        return diff == 0;
     }
 
     public static String percentEncode(String value) {
@@ -0,0 +1,379 @@
+package team.kitemc.verifymc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+
+/**
+ * A concurrent map whose entries expire after a per-entry time to live.
+ * <p>
+ * Deadlines are filed in a hashed timing wheel of {@code wheelSize} buckets, one per
+ * {@code tickMillis}. Writes advance the wheel and only visit the buckets whose tick
+ * has passed, so expiring an entry costs O(1) amortized instead of a periodic full scan.
+ * Reads never take the lock and treat an entry past its deadline as absent, even before
+ * the wheel has removed it. Once {@code maxSize} entries are held, the oldest write is
+ * evicted.
+ */
+public class ExpiringMap<K, V> {
+    private static final long DEFAULT_TICK_MILLIS = 1000L;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    public enum RemovalCause {
+        EXPIRED,
+        EVICTED
+    }
+
+    /**
+     * Told about entries the map dropped on its own; explicit removals are not reported.
+     * Called without the map's lock held.
+     */
+    @FunctionalInterface
+    public interface RemovalListener<K, V> {
+        void onRemoval(K key, V value, RemovalCause cause);
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> nodes = new ConcurrentHashMap<>();
+    private final Node<K, V>[] wheel;
+    private final Node<K, V> order = new Node<>(null, null, Long.MAX_VALUE);
+    private final long tickMillis;
+    private final int mask;
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final Object lock = new Object();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private long currentTick;
+    private volatile RemovalListener<K, V> listener;
+    private volatile MetricsRegistry.Counter expiredCounter;
+    private volatile MetricsRegistry.Counter evictedCounter;
+
+    public ExpiringMap(int maxSize) {
+        this(maxSize, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE, System::currentTimeMillis);
+    }
+
+    /**
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiringMap(int maxSize, long tickMillis, int wheelSize, LongSupplier clock) {
+        if (maxSize < 1 || tickMillis < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("maxSize, tickMillis and wheelSize must be positive");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Node[buckets];
+        for (int i = 0; i < buckets; i++) {
+            Node<K, V> head = new Node<>(null, null, Long.MAX_VALUE);
+            head.prev = head;
+            head.next = head;
+            wheel[i] = head;
+        }
+        order.before = order;
+        order.after = order;
+        this.mask = buckets - 1;
+        this.maxSize = maxSize;
+        this.tickMillis = tickMillis;
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        this.currentTick = clock.getAsLong() / tickMillis;
+    }
+
+    public void setRemovalListener(RemovalListener<K, V> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Report this map as {@code expiring_map_entries{map=name}} and count what it drops
+     * in {@code expiring_map_removals_total{map=name,cause=expired|evicted}}.
+     */
+    public void registerMetrics(MetricsRegistry metrics, String name) {
+        metrics.gauge("expiring_map_entries", this::size, "map", name);
+        MetricsRegistry.Counter expiredTotal = metrics.counter("expiring_map_removals_total", "map", name, "cause", "expired");
+        MetricsRegistry.Counter evictedTotal = metrics.counter("expiring_map_removals_total", "map", name, "cause", "evicted");
+        expiredTotal.add(expired.sum());
+        evictedTotal.add(evicted.sum());
+        expiredCounter = expiredTotal;
+        evictedCounter = evictedTotal;
+    }
+
+    /**
+     * @return the value, or null if absent or past its deadline
+     */
+    public V get(K key) {
+        Node<K, V> node = key == null ? null : nodes.get(key);
+        return node != null && node.isLive(clock.getAsLong()) ? node.value : null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the previous live value, or null
+     */
+    public V put(K key, V value, long ttlMillis) {
+        Objects.requireNonNull(key, "key cannot be null");
+        Objects.requireNonNull(value, "value cannot be null");
+        List<Node<K, V>> dropped;
+        V previous;
+        synchronized (lock) {
+            long now = clock.getAsLong();
+            dropped = advance(now);
+            Node<K, V> old = nodes.get(key);
+            if (old != null) {
+                unlink(old);
+            } else {
+                dropped = evictIfFull(dropped);
+            }
+            insert(new Node<>(key, value, deadline(now, ttlMillis)));
+            previous = old != null && old.isLive(now) ? old.value : null;
+        }
+        notifyRemoved(dropped);
+        return previous;
+    }
+
+    /**
+     * Recompute the value for {@code key} under the map's lock. The function sees null
+     * for an absent or expired entry and returns null to remove it. Returning the current
+     * value unchanged keeps its deadline; any other value gets {@code ttlMillis}.
+     * The function must not access this map.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function, long ttlMillis) {
+        Objects.requireNonNull(key, "key cannot be null");
+        List<Node<K, V>> dropped;
+        V result;
+        synchronized (lock) {
+            long now = clock.getAsLong();
+            dropped = advance(now);
+            Node<K, V> old = nodes.get(key);
+            V current = old != null && old.isLive(now) ? old.value : null;
+            result = function.apply(key, current);
+            if (result == null) {
+                if (old != null) {
+                    nodes.remove(key);
+                    unlink(old);
+                }
+            } else if (result != current) {
+                if (old != null) {
+                    unlink(old);
+                } else {
+                    dropped = evictIfFull(dropped);
+                }
+                insert(new Node<>(key, result, deadline(now, ttlMillis)));
+            }
+        }
+        notifyRemoved(dropped);
+        return result;
+    }
+
+    /**
+     * @return the removed live value, or null
+     */
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (lock) {
+            Node<K, V> node = nodes.remove(key);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.isLive(clock.getAsLong()) ? node.value : null;
+        }
+    }
+
+    /**
+     * Remove {@code key} only while it maps to {@code value}.
+     */
+    public boolean remove(K key, V value) {
+        if (key == null) {
+            return false;
+        }
+        synchronized (lock) {
+            Node<K, V> node = nodes.get(key);
+            if (node == null || !Objects.equals(node.value, value)) {
+                return false;
+            }
+            nodes.remove(key);
+            unlink(node);
+            return node.isLive(clock.getAsLong());
+        }
+    }
+
+    /**
+     * @return number of removed entries
+     */
+    public int removeIf(BiPredicate<? super K, ? super V> predicate) {
+        int removed = 0;
+        synchronized (lock) {
+            for (Node<K, V> node : nodes.values()) {
+                if (predicate.test(node.key, node.value)) {
+                    nodes.remove(node.key);
+                    unlink(node);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Drop every entry whose deadline has passed. Writes do this as they go; call it to
+     * release memory of a map that is no longer written to.
+     *
+     * @return number of expired entries removed
+     */
+    public int purgeExpired() {
+        List<Node<K, V>> dropped;
+        long before = expired.sum();
+        synchronized (lock) {
+            dropped = advance(clock.getAsLong());
+        }
+        notifyRemoved(dropped);
+        return (int) (expired.sum() - before);
+    }
+
+    /**
+     * Entries held, including ones past their deadline the wheel has not reached yet.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            for (Node<K, V> node : nodes.values()) {
+                unlink(node);
+            }
+            nodes.clear();
+        }
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    public long evictedCount() {
+        return evicted.sum();
+    }
+
+    private long deadline(long now, long ttlMillis) {
+        long ttl = Math.max(0L, ttlMillis);
+        return now > Long.MAX_VALUE - ttl ? Long.MAX_VALUE : now + ttl;
+    }
+
+    private void insert(Node<K, V> node) {
+        long tick = node.deadline / tickMillis + (node.deadline % tickMillis == 0 ? 0 : 1);
+        Node<K, V> head = wheel[(int) (Math.max(tick, currentTick + 1) & mask)];
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+        node.before = order.before;
+        node.after = order;
+        order.before.after = node;
+        order.before = node;
+        nodes.put(node.key, node);
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.before.after = node.after;
+        node.after.before = node.before;
+    }
+
+    /**
+     * Visit the buckets of every tick since the last call, at most one full turn.
+     */
+    private List<Node<K, V>> advance(long now) {
+        long nowTick = now / tickMillis;
+        if (nowTick <= currentTick) {
+            return null;
+        }
+        long ticks = Math.min(nowTick - currentTick, wheel.length);
+        List<Node<K, V>> dropped = null;
+        for (long i = 1; i <= ticks; i++) {
+            Node<K, V> head = wheel[(int) ((currentTick + i) & mask)];
+            for (Node<K, V> node = head.next; node != head; ) {
+                Node<K, V> next = node.next;
+                if (node.deadline <= now) {
+                    nodes.remove(node.key, node);
+                    unlink(node);
+                    expired.increment();
+                    MetricsRegistry.Counter counter = expiredCounter;
+                    if (counter != null) {
+                        counter.increment();
+                    }
+                    dropped = collect(dropped, node, RemovalCause.EXPIRED);
+                }
+                node = next;
+            }
+        }
+        currentTick = nowTick;
+        return dropped;
+    }
+
+    private List<Node<K, V>> evictIfFull(List<Node<K, V>> dropped) {
+        while (nodes.size() >= maxSize && order.after != order) {
+            Node<K, V> oldest = order.after;
+            nodes.remove(oldest.key, oldest);
+            unlink(oldest);
+            evicted.increment();
+            MetricsRegistry.Counter counter = evictedCounter;
+            if (counter != null) {
+                counter.increment();
+            }
+            dropped = collect(dropped, oldest, RemovalCause.EVICTED);
+        }
+        return dropped;
+    }
+
+    private List<Node<K, V>> collect(List<Node<K, V>> dropped, Node<K, V> node, RemovalCause cause) {
+        if (listener == null) {
+            return dropped;
+        }
+        List<Node<K, V>> list = dropped != null ? dropped : new ArrayList<>();
+        node.cause = cause;
+        list.add(node);
+        return list;
+    }
+
+    private void notifyRemoved(List<Node<K, V>> dropped) {
+        RemovalListener<K, V> current = listener;
+        if (dropped == null || current == null) {
+            return;
+        }
+        for (Node<K, V> node : dropped) {
+            current.onRemoval(node.key, node.value, node.cause);
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long deadline;
+        // Wheel bucket links
+        Node<K, V> prev;
+        Node<K, V> next;
+        // Write order links, oldest first, for eviction
+        Node<K, V> before;
+        Node<K, V> after;
+        RemovalCause cause;
+
+        Node(K key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        boolean isLive(long now) {
+            return now < deadline;
+        }
+    }
+}
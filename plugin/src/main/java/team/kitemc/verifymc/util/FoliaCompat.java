@@ -14,16 +14,20 @@ public final class FoliaCompat {
     private static final boolean FOLIA;
     private static final Method GET_ASYNC_SCHEDULER;
     private static final Method ASYNC_RUN_AT_FIXED_RATE;
+    private static final Method ASYNC_RUN_NOW;
     private static final Method GET_GLOBAL_REGION_SCHEDULER;
     private static final Method GLOBAL_RUN;
+    private static final Method GLOBAL_RUN_AT_FIXED_RATE;
     private static final Method SCHEDULED_TASK_CANCEL;
 
     static {
         boolean folia = false;
         Method getAsyncScheduler = null;
         Method asyncRunAtFixedRate = null;
+        Method asyncRunNow = null;
         Method getGlobalRegionScheduler = null;
         Method globalRun = null;
+        Method globalRunAtFixedRate = null;
         Method scheduledTaskCancel = null;
 
         try {
@@ -33,10 +37,12 @@ public final class FoliaCompat {
             getAsyncScheduler = Bukkit.class.getMethod("getAsyncScheduler");
             Class<?> asyncSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.AsyncScheduler");
             asyncRunAtFixedRate = asyncSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+            asyncRunNow = asyncSchedulerClass.getMethod("runNow", Plugin.class, Consumer.class);
 
             getGlobalRegionScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler");
             Class<?> globalRegionSchedulerClass = Class.forName("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
             globalRun = globalRegionSchedulerClass.getMethod("run", Plugin.class, Consumer.class);
+            globalRunAtFixedRate = globalRegionSchedulerClass.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
 
             Class<?> scheduledTaskClass = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask");
             scheduledTaskCancel = scheduledTaskClass.getMethod("cancel");
@@ -46,8 +52,10 @@ public final class FoliaCompat {
         FOLIA = folia;
         GET_ASYNC_SCHEDULER = getAsyncScheduler;
         ASYNC_RUN_AT_FIXED_RATE = asyncRunAtFixedRate;
+        ASYNC_RUN_NOW = asyncRunNow;
         GET_GLOBAL_REGION_SCHEDULER = getGlobalRegionScheduler;
         GLOBAL_RUN = globalRun;
+        GLOBAL_RUN_AT_FIXED_RATE = globalRunAtFixedRate;
         SCHEDULED_TASK_CANCEL = scheduledTaskCancel;
     }
 
@@ -75,6 +83,20 @@ public final class FoliaCompat {
         }
     }
 
+    public static void runTaskAsync(Plugin plugin, Runnable task) {
+        if (FOLIA) {
+            try {
+                Object asyncScheduler = GET_ASYNC_SCHEDULER.invoke(null);
+                Consumer<Object> wrappedTask = scheduledTask -> task.run();
+                ASYNC_RUN_NOW.invoke(asyncScheduler, plugin, wrappedTask);
+            } catch (Exception e) {
+                plugin.getLogger().severe("[VerifyMC] Folia async scheduler failed: " + e.getMessage());
+            }
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        }
+    }
+
     public static void runTaskGlobal(Plugin plugin, Runnable task) {
         if (FOLIA) {
             try {
@@ -89,6 +111,25 @@ public final class FoliaCompat {
         }
     }
 
+    /**
+     * Repeating task on the main thread, or on the global region thread on Folia.
+     */
+    public static Object runTaskTimerGlobal(Plugin plugin, Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            try {
+                Object globalScheduler = GET_GLOBAL_REGION_SCHEDULER.invoke(null);
+                Consumer<Object> wrappedTask = scheduledTask -> task.run();
+                // Folia rejects an initial delay below one tick
+                return GLOBAL_RUN_AT_FIXED_RATE.invoke(globalScheduler, plugin, wrappedTask, Math.max(1L, delayTicks), periodTicks);
+            } catch (Exception e) {
+                plugin.getLogger().severe("[VerifyMC] Folia global scheduler failed: " + e.getMessage());
+                return null;
+            }
+        } else {
+            return Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        }
+    }
+
     public static void cancelTasks(Plugin plugin, List<Object> tasks) {
         if (tasks == null) return;
         for (Object task : tasks) {
@@ -0,0 +1,30 @@
+package team.kitemc.verifymc.util;
+
+/**
+ * One stored password format. {@link PasswordUtil} hashes new passwords with the
+ * configured hasher and verifies a stored value with whichever hasher recognizes it,
+ * so older formats keep working after the algorithm is changed.
+ */
+public interface PasswordHasher {
+    /**
+     * Name used for {@code password_hashing.algorithm}.
+     */
+    String getName();
+
+    /**
+     * Whether {@code storedPassword} is in this hasher's format.
+     */
+    boolean recognizes(String storedPassword);
+
+    String hash(String plainPassword);
+
+    boolean verify(String plainPassword, String storedPassword);
+
+    /**
+     * Whether a value in this hasher's format was made with a lower cost than the
+     * hasher now uses and should be replaced on the next successful login.
+     */
+    default boolean needsRehash(String storedPassword) {
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package team.kitemc.verifymc.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+
+/**
+ * The threads that compute password hashes. A slow hash makes every login CPU bound, so
+ * hashing is confined to {@code maxConcurrent} threads with at most {@code maxQueue}
+ * callers waiting; further callers get a {@link RejectedExecutionException}, which the
+ * web layer answers with 503, instead of a login flood taking every web thread.
+ */
+public class PasswordHashingExecutor {
+    private static final long WAIT_TIMEOUT_MILLIS = 10_000L;
+
+    private final ThreadPoolExecutor pool;
+    // Running plus waiting calls; the pool's own queue cannot tell a thread that is just
+    // finishing from a busy one, so admission is counted here
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private volatile MetricsRegistry.Counter rejectedCounter;
+
+    public PasswordHashingExecutor(int maxConcurrent, int maxQueue) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.permits = new Semaphore(this.maxConcurrent + this.maxQueue);
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(this.maxConcurrent, this.maxConcurrent, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "VerifyMC-PasswordHashing-" + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Report queue depth as {@code password_hashing_queued} and refusals in
+     * {@code password_hashing_rejected_total}.
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("password_hashing_queued", () -> pool.getQueue().size());
+        rejectedCounter = metrics.counter("password_hashing_rejected_total");
+    }
+
+    /**
+     * Run {@code work} on a hashing thread and wait for its result.
+     *
+     * @throws RejectedExecutionException if the threads and queue are full, or the result
+     *                                    did not arrive in time
+     */
+    public <T> T call(Callable<T> work) {
+        if (!permits.tryAcquire()) {
+            countRejected();
+            throw new RejectedExecutionException("Password hashing is saturated");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+        // Released before the result is published, so a caller that got its result can
+        // call again at once; done() covers a task cancelled before it ran
+        FutureTask<T> task = new FutureTask<>(() -> {
+            try {
+                return work.call();
+            } finally {
+                release.run();
+            }
+        }) {
+            @Override
+            protected void done() {
+                release.run();
+            }
+        };
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down
+            release.run();
+            countRejected();
+            throw e;
+        }
+        try {
+            return task.get(WAIT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            countRejected();
+            throw new RejectedExecutionException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void countRejected() {
+        MetricsRegistry.Counter counter = rejectedCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -1,21 +1,41 @@
 package team.kitemc.verifymc.util;
 
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
+/**
+ * Hashes and verifies stored passwords. New hashes use the hasher set with
+ * {@link #configure}; values in any format listed in {@link #KNOWN_HASHERS} still verify.
+ * With an executor configured, the work runs on its bounded threads.
+ */
 public final class PasswordUtil {
     private static final Logger LOGGER = Logger.getLogger(PasswordUtil.class.getName());
-    private static final int SALT_LENGTH = 16;
-    private static final String HASH_PREFIX = "$SHA$";
-    private static final String DELIMITER = "$";
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final List<PasswordHasher> KNOWN_HASHERS = List.of(
+            new Sha256PasswordHasher(),
+            new Pbkdf2PasswordHasher(Pbkdf2PasswordHasher.MIN_ITERATIONS));
+
+    private static volatile PasswordHasher hasher = KNOWN_HASHERS.get(0);
+    private static volatile PasswordHashingExecutor executor;
 
     private PasswordUtil() {
     }
 
+    /**
+     * @param newExecutor threads to hash on, or null to hash on the calling thread
+     */
+    public static void configure(PasswordHasher newHasher, PasswordHashingExecutor newExecutor) {
+        hasher = newHasher;
+        executor = newExecutor;
+    }
+
+    public static PasswordHasher getHasher() {
+        return hasher;
+    }
+
     public static String hash(String plainPassword) {
         if (plainPassword == null || plainPassword.isEmpty()) {
             throw new IllegalArgumentException("Password cannot be null or empty");
@@ -23,9 +43,8 @@ public final class PasswordUtil {
         if (isHashed(plainPassword)) {
             return plainPassword;
         }
-        String salt = generateHexSalt();
-        String hash = sha256Hex(sha256Hex(plainPassword) + salt);
-        return HASH_PREFIX + salt + DELIMITER + hash;
+        PasswordHasher current = hasher;
+        return run(() -> current.hash(plainPassword));
     }
 
     public static boolean verify(String plainPassword, String storedPassword) {
@@ -36,46 +55,35 @@ public final class PasswordUtil {
             return false;
         }
 
-        if (storedPassword.startsWith(HASH_PREFIX)) {
-            return verifySaltedHash(plainPassword, storedPassword);
+        PasswordHasher format = findHasher(storedPassword);
+        if (format != null) {
+            return run(() -> format.verify(plainPassword, storedPassword));
         }
 
         if (isUnsaltedSha256(storedPassword)) {
-            String computedHash = sha256Hex(plainPassword);
+            byte[] computedHash = CryptoUtil.sha256().digest(plainPassword.getBytes(StandardCharsets.UTF_8));
             // Use constant-time comparison to prevent timing attacks
-            return MessageDigest.isEqual(
-                    computedHash.toLowerCase().getBytes(StandardCharsets.UTF_8),
-                    storedPassword.toLowerCase().getBytes(StandardCharsets.UTF_8)
-            );
+            return CryptoUtil.hexEquals(computedHash, storedPassword, 0, storedPassword.length());
         }
 
         LOGGER.severe("[VerifyMC] SECURITY WARNING: Plaintext password detected in storage for user. Please trigger a password migration immediately.");
         return plainPassword.equals(storedPassword);
     }
 
-    private static boolean verifySaltedHash(String plainPassword, String storedPassword) {
-        String[] parts = storedPassword.split("\\" + DELIMITER);
-        if (parts.length < 4) {
-            return false;
-        }
-        if (!"SHA".equals(parts[1])) {
-            LOGGER.warning("[VerifyMC] Unknown hash algorithm: " + parts[1]);
-            return false;
-        }
-        String salt = parts[2];
-        String storedHash = parts[3];
-        if (salt.isEmpty() || storedHash.isEmpty()) {
+    /**
+     * Whether a stored value that just verified should be replaced by a fresh hash: it is
+     * not in the configured format, or was made with a lower cost than now configured.
+     */
+    public static boolean needsRehash(String storedPassword) {
+        if (storedPassword == null || storedPassword.isEmpty()) {
             return false;
         }
-        String computedHash = sha256Hex(sha256Hex(plainPassword) + salt);
-        return MessageDigest.isEqual(
-                computedHash.getBytes(StandardCharsets.UTF_8),
-                storedHash.toLowerCase().getBytes(StandardCharsets.UTF_8)
-        );
+        PasswordHasher current = hasher;
+        return !current.recognizes(storedPassword) || current.needsRehash(storedPassword);
     }
 
     public static boolean isHashed(String password) {
-        return password != null && password.startsWith(HASH_PREFIX);
+        return findHasher(password) != null;
     }
 
     public static boolean isUnsaltedSha256(String password) {
@@ -95,39 +103,50 @@ public final class PasswordUtil {
         if (storedPassword == null || storedPassword.isEmpty()) {
             return false;
         }
-        return isUnsaltedSha256(storedPassword) || !storedPassword.startsWith(HASH_PREFIX);
+        return isUnsaltedSha256(storedPassword) || !isHashed(storedPassword);
     }
 
     public static boolean isPlaintext(String storedPassword) {
         if (storedPassword == null || storedPassword.isEmpty()) {
             return false;
         }
-        return !storedPassword.startsWith(HASH_PREFIX) && !isUnsaltedSha256(storedPassword);
+        return !isHashed(storedPassword) && !isUnsaltedSha256(storedPassword);
     }
 
-    private static String generateHexSalt() {
-        StringBuilder sb = new StringBuilder(SALT_LENGTH);
-        for (int i = 0; i < SALT_LENGTH; i++) {
-            sb.append(Integer.toHexString(SECURE_RANDOM.nextInt(16)));
+    private static PasswordHasher findHasher(String storedPassword) {
+        if (storedPassword == null) {
+            return null;
         }
-        return sb.toString();
+        PasswordHasher current = hasher;
+        if (current.recognizes(storedPassword)) {
+            return current;
+        }
+        for (PasswordHasher known : KNOWN_HASHERS) {
+            if (known.recognizes(storedPassword)) {
+                return known;
+            }
+        }
+        return null;
     }
 
-    private static String sha256Hex(String data) {
+    private static <T> T run(Callable<T> work) {
+        PasswordHashingExecutor current = executor;
+        if (current != null) {
+            return current.call(work);
+        }
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(hash);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("SHA-256 algorithm not available", e);
+            return work.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+    static String generateHexSalt(int length) {
+        byte[] salt = new byte[(length + 1) / 2];
+        SECURE_RANDOM.nextBytes(salt);
+        String hex = CryptoUtil.hexEncode(salt);
+        return hex.length() == length ? hex : hex.substring(0, length);
     }
 }
@@ -0,0 +1,153 @@
+package team.kitemc.verifymc.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.function.IntToLongFunction;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * PBKDF2-HMAC-SHA256 in AuthMe's {@code PBKDF2} format:
+ * {@code pbkdf2_sha256$iterations$salt$HEX(64 byte key)} with a 16 hex character salt.
+ * <p>
+ * The iteration count is stored with each hash, so it can be raised at any time: older
+ * hashes still verify and are replaced on the next login once they fall well behind.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    public static final String NAME = "pbkdf2";
+    /** AuthMe's default and the lowest count this hasher will use. */
+    public static final int MIN_ITERATIONS = 10_000;
+    static final String PREFIX = "pbkdf2_sha256$";
+
+    private static final int MAX_ITERATIONS = 10_000_000;
+    private static final int SALT_LENGTH = 16;
+    private static final int KEY_BITS = 512;
+    private static final int CALIBRATION_ROUNDS = 3;
+    // Hashes with at least this share of the current iterations are not worth replacing,
+    // so small differences between startup calibrations do not rehash everyone
+    private static final int REHASH_PERCENT = 75;
+
+    private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        }
+    });
+
+    private final int iterations;
+
+    public Pbkdf2PasswordHasher(int iterations) {
+        this.iterations = Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations));
+    }
+
+    /**
+     * A hasher whose iteration count takes about {@code targetMillis} on this machine.
+     */
+    public static Pbkdf2PasswordHasher calibrated(long targetMillis) {
+        derive("calibration", "0000000000000000", MIN_ITERATIONS);
+        return new Pbkdf2PasswordHasher(calibrate(targetMillis, candidate -> {
+            long start = System.nanoTime();
+            derive("calibration", "0000000000000000", candidate);
+            return System.nanoTime() - start;
+        }));
+    }
+
+    /**
+     * @param timer returns the nanoseconds one hash with the given iterations took
+     */
+    static int calibrate(long targetMillis, IntToLongFunction timer) {
+        long targetNanos = Math.max(1L, targetMillis) * 1_000_000L;
+        long iterations = MIN_ITERATIONS;
+        for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+            long elapsed = Math.max(1L, timer.applyAsLong((int) iterations));
+            iterations = Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations * targetNanos / elapsed));
+        }
+        return (int) (iterations / 1000 * 1000);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean recognizes(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith(PREFIX);
+    }
+
+    @Override
+    public String hash(String plainPassword) {
+        String salt = PasswordUtil.generateHexSalt(SALT_LENGTH);
+        return PREFIX + iterations + "$" + salt + "$"
+                + CryptoUtil.hexEncode(derive(plainPassword, salt, iterations)).toUpperCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean verify(String plainPassword, String storedPassword) {
+        // pbkdf2_sha256$iterations$salt$hex
+        int iterationsEnd = storedPassword.indexOf('$', PREFIX.length());
+        int saltEnd = iterationsEnd < 0 ? -1 : storedPassword.indexOf('$', iterationsEnd + 1);
+        if (saltEnd <= iterationsEnd + 1 || storedPassword.indexOf('$', saltEnd + 1) >= 0) {
+            return false;
+        }
+        int storedIterations = parseIterations(storedPassword, PREFIX.length(), iterationsEnd);
+        byte[] expected = CryptoUtil.hexDecode(storedPassword, saltEnd + 1, storedPassword.length());
+        if (storedIterations <= 0 || expected == null || expected.length == 0) {
+            return false;
+        }
+        byte[] actual = derive(plainPassword, storedPassword.substring(iterationsEnd + 1, saltEnd),
+                storedIterations, expected.length * 8);
+        return MessageDigest.isEqual(actual, expected);
+    }
+
+    @Override
+    public boolean needsRehash(String storedPassword) {
+        int iterationsEnd = storedPassword.indexOf('$', PREFIX.length());
+        if (iterationsEnd < 0) {
+            return true;
+        }
+        return (long) parseIterations(storedPassword, PREFIX.length(), iterationsEnd) * 100
+                < (long) iterations * REHASH_PERCENT;
+    }
+
+    /**
+     * @return the decimal number in {@code text[start, end)}, or -1 if it is not one or too large
+     */
+    private static int parseIterations(String text, int start, int end) {
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > MAX_ITERATIONS ? -1 : value;
+    }
+
+    private static byte[] derive(String password, String salt, int iterations) {
+        return derive(password, salt, iterations, KEY_BITS);
+    }
+
+    private static byte[] derive(String password, String salt, int iterations, int keyBits) {
+        // AuthMe uses the salt's characters as the salt bytes
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), iterations, keyBits);
+        try {
+            return KEY_FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 key derivation failed", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package team.kitemc.verifymc.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * AuthMe's {@code SHA256} format: {@code $SHA$salt$sha256(sha256(password) + salt)}
+ * with a 16 hex character salt. Fast to compute, so only kept for AuthMe setups that
+ * still use it.
+ */
+public class Sha256PasswordHasher implements PasswordHasher {
+    public static final String NAME = "sha256";
+    static final String PREFIX = "$SHA$";
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HEX_LENGTH = 64;
+    // Hex of the inner digest, fed to the outer digest without building a String
+    private static final ThreadLocal<byte[]> HEX_BUFFER = ThreadLocal.withInitial(() -> new byte[HEX_LENGTH]);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean recognizes(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith(PREFIX);
+    }
+
+    @Override
+    public String hash(String plainPassword) {
+        String salt = PasswordUtil.generateHexSalt(SALT_LENGTH);
+        return PREFIX + salt + "$" + CryptoUtil.hexEncode(saltedDigest(plainPassword, salt, 0, salt.length()));
+    }
+
+    @Override
+    public boolean verify(String plainPassword, String storedPassword) {
+        int saltStart = PREFIX.length();
+        int saltEnd = storedPassword.indexOf('$', saltStart);
+        if (saltEnd <= saltStart) {
+            return false;
+        }
+        int hashEnd = storedPassword.indexOf('$', saltEnd + 1);
+        if (hashEnd < 0) {
+            hashEnd = storedPassword.length();
+        }
+        if (hashEnd == saltEnd + 1) {
+            return false;
+        }
+        return CryptoUtil.hexEquals(saltedDigest(plainPassword, storedPassword, saltStart, saltEnd),
+                storedPassword, saltEnd + 1, hashEnd);
+    }
+
+    /**
+     * {@code sha256(hex(sha256(password)) + salt)} where the salt is {@code text[start, end)}.
+     */
+    private static byte[] saltedDigest(String password, String text, int start, int end) {
+        MessageDigest digest = CryptoUtil.sha256();
+        byte[] hex = HEX_BUFFER.get();
+        CryptoUtil.hexEncode(digest.digest(password.getBytes(StandardCharsets.UTF_8)), hex, 0);
+        digest.update(hex);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                digest.update(text.substring(i, end).getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            digest.update((byte) c);
+        }
+        return digest.digest();
+    }
+}
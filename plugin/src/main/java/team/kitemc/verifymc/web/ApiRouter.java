@@ -1,12 +1,32 @@
 package team.kitemc.verifymc.web;
 
 import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.security.AdminAction;
+import team.kitemc.verifymc.security.RateLimitPolicy;
+import team.kitemc.verifymc.security.RateLimiter;
 import team.kitemc.verifymc.util.EmailAddressUtil;
 import team.kitemc.verifymc.util.PhoneNumberUtil;
+import team.kitemc.verifymc.web.engine.HttpEngine;
+import team.kitemc.verifymc.web.filter.AdminAuthFilter;
+import team.kitemc.verifymc.web.filter.BodyLimitFilter;
+import team.kitemc.verifymc.web.filter.BulkheadFilter;
+import team.kitemc.verifymc.web.filter.CorsFilter;
+import team.kitemc.verifymc.web.filter.LoadSheddingFilter;
+import team.kitemc.verifymc.web.filter.MethodFilter;
+import team.kitemc.verifymc.web.filter.OverloadGuardFilter;
+import team.kitemc.verifymc.web.filter.RateLimitFilter;
+import team.kitemc.verifymc.web.filter.ResponseCacheFilter;
+import team.kitemc.verifymc.web.filter.RouteMetrics;
+import team.kitemc.verifymc.web.filter.RoutePipeline;
 import team.kitemc.verifymc.web.handler.*;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -19,35 +39,65 @@ import java.util.concurrent.ConcurrentHashMap;
  * routing topology visible at a glance and each handler independently testable.
  */
 public class ApiRouter {
+    // Bulkheads for routes doing slow outbound I/O; all other routes run on the shared executor
+    static final String BULKHEAD_REGISTER = "register";
+    static final String BULKHEAD_MAIL = "mail";
+    static final String BULKHEAD_QUESTIONNAIRE = "questionnaire";
+    static final String BULKHEAD_DISCORD = "discord";
+    // Long-running streamed responses
+    static final String BULKHEAD_EXPORT = "export";
+
+    // Routes refused first while the server is overloaded; status, login and admin routes are always admitted
+    static final Set<String> LOW_PRIORITY_ROUTES = Set.of(
+            "/api/captcha/generate",
+            "/api/captcha",
+            "/api/verify/send",
+            "/api/forgot-password/send",
+            "/api/questionnaire/submit",
+            "/api/register");
+
     private final PluginContext ctx;
+    private final LoadShedder loadShedder;
+    private final Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+    private final Map<String, RateLimiter> rateLimiters = new LinkedHashMap<>();
+    private final RouteMetrics routeMetrics = new RouteMetrics();
+    private final ResponseCache responseCache;
+    private final Runnable invalidateResponseCache;
     private final ConcurrentHashMap<String, RegistrationProcessingHandler.QuestionnaireSubmissionRecord> questionnaireSubmissionStore;
 
-    public ApiRouter(PluginContext ctx) {
+    public ApiRouter(PluginContext ctx, LoadShedder loadShedder) {
         this.ctx = ctx;
+        this.loadShedder = loadShedder;
         this.questionnaireSubmissionStore = new ConcurrentHashMap<>();
+        this.responseCache = new ResponseCache(ctx.getConfigManager().getHttpResponseCacheMaxEntries());
+        this.invalidateResponseCache = responseCache::invalidateAll;
+        ctx.getConfigManager().addReloadListener(invalidateResponseCache);
     }
 
     /**
-     * Register all API routes on the given HttpServer.
+     * Register all API routes on the given HTTP engine.
      */
-    public void registerRoutes(HttpServer server) {
+    public void registerRoutes(HttpEngine engine) {
         // --- Configuration endpoint ---
-        registerApiRoute(server, "/api/config", new ConfigHandler(ctx));
+        route("/api/config", new ConfigHandler(ctx)).method("GET").register(engine);
 
         // --- Captcha endpoints ---
-        registerApiRoute(server, "/api/captcha/generate", new CaptchaHandler(ctx));
-        registerApiRoute(server, "/api/captcha", new CaptchaHandler(ctx));
+        route("/api/captcha/generate", new CaptchaHandler(ctx)).method("GET").register(engine);
+        route("/api/captcha", new CaptchaHandler(ctx)).method("GET").register(engine);
 
         // --- Email verification ---
-        registerApiRoute(server, "/api/verify/send", new VerifyCodeHandler(ctx));
-        registerApiRoute(server, "/api/forgot-password/send", new ForgotPasswordHandler(ctx, true));
-        registerApiRoute(server, "/api/forgot-password/reset", new ForgotPasswordHandler(ctx, false));
+        route("/api/verify/send", new VerifyCodeHandler(ctx)).method("POST").bulkhead(BULKHEAD_MAIL).register(engine);
+        route("/api/forgot-password/send", new ForgotPasswordHandler(ctx, true))
+                .method("POST").bulkhead(BULKHEAD_MAIL).register(engine);
+        route("/api/forgot-password/reset", new ForgotPasswordHandler(ctx, false)).method("POST").register(engine);
         // --- Questionnaire endpoints ---
-        registerApiRoute(server, "/api/questionnaire/config", new QuestionnaireConfigHandler(ctx));
-        registerApiRoute(server, "/api/questionnaire/submit", new QuestionnaireSubmitHandler(ctx, questionnaireSubmissionStore));
+        route("/api/questionnaire/config", new QuestionnaireConfigHandler(ctx))
+                .method("GET").cacheKey("language").register(engine);
+        route("/api/questionnaire/submit", new QuestionnaireSubmitHandler(ctx, questionnaireSubmissionStore))
+                .method("POST").bulkhead(BULKHEAD_QUESTIONNAIRE).register(engine);
 
         // --- Registration ---
-        registerApiRoute(server, "/api/register", new RegistrationProcessingHandler(
+        route("/api/register", new RegistrationProcessingHandler(
                 ctx.getPlugin(),
                 ctx.getVerifyCodeService(),
                 ctx.getUserDao(),
@@ -67,58 +117,197 @@ public class ApiRouter {
                 (email) -> isValidEmail(email),
                 (phone) -> isValidPhone(phone),
                 (msg) -> ctx.debugLog(msg)
-        ));
+        )).method("POST").bulkhead(BULKHEAD_REGISTER).register(engine);
 
         // --- Review status check ---
-        registerApiRoute(server, "/api/review/status", new ReviewStatusHandler(ctx));
+        route("/api/review/status", new ReviewStatusHandler(ctx)).method("GET").register(engine);
 
         // --- Login endpoints ---
-        registerApiRoute(server, "/api/login", new LoginHandler(ctx, false));
-        registerApiRoute(server, "/api/admin/login", new LoginHandler(ctx, true));
+        route("/api/login", new LoginHandler(ctx, false)).method("POST").register(engine);
+        route("/api/admin/login", new LoginHandler(ctx, true)).method("POST").register(engine);
 
         // --- Admin endpoints ---
-        registerApiRoute(server, "/api/admin/verify", new AdminVerifyHandler(ctx));
-        registerApiRoute(server, "/api/admin/users", new AdminUserListHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/approve", new AdminUserApproveHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/reject", new AdminUserRejectHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/delete", new AdminUserDeleteHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/ban", new AdminUserBanHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/unban", new AdminUserUnbanHandler(ctx));
-        registerApiRoute(server, "/api/admin/user/password", new AdminUserPasswordHandler(ctx));
-        registerApiRoute(server, "/api/admin/audits", new AdminAuditHandler(ctx));
-        registerApiRoute(server, "/api/admin/sync", new AdminSyncHandler(ctx));
+        route("/api/admin/verify", new AdminVerifyHandler(ctx)).method("POST").register(engine);
+        route("/api/admin/users", new AdminUserListHandler(ctx)).method("GET").admin(AdminAction.LIST).register(engine);
+        route("/api/admin/user/approve", new AdminUserApproveHandler(ctx))
+                .method("POST").admin(AdminAction.APPROVE).register(engine);
+        route("/api/admin/user/reject", new AdminUserRejectHandler(ctx))
+                .method("POST").admin(AdminAction.REJECT).register(engine);
+        route("/api/admin/user/delete", new AdminUserDeleteHandler(ctx))
+                .method("POST").admin(AdminAction.DELETE).register(engine);
+        route("/api/admin/user/ban", new AdminUserBanHandler(ctx))
+                .method("POST").admin(AdminAction.BAN).register(engine);
+        route("/api/admin/user/unban", new AdminUserUnbanHandler(ctx))
+                .method("POST").admin(AdminAction.UNBAN).register(engine);
+        route("/api/admin/users/bulk", new AdminUserBulkHandler(ctx))
+                .method("POST").admin(AdminAction.LIST).register(engine);
+        route("/api/admin/users/export", new AdminUserExportHandler(ctx))
+                .method("GET").admin(AdminAction.LIST).bulkhead(BULKHEAD_EXPORT).register(engine);
+        route("/api/admin/user/password", new AdminUserPasswordHandler(ctx))
+                .method("POST").admin(AdminAction.PASSWORD).register(engine);
+        route("/api/admin/events", new AdminEventsHandler(ctx)).method("GET").register(engine);
+        route("/api/admin/audits", new AdminAuditHandler(ctx)).method("GET").admin(AdminAction.AUDIT).register(engine);
+        route("/api/admin/sync", new AdminSyncHandler(ctx)).method("POST").admin(AdminAction.SYNC).register(engine);
+        route("/api/admin/metrics", new AdminMetricsHandler(ctx))
+                .method("GET").admin(AdminAction.AUDIT).register(engine);
 
         // --- Discord endpoints ---
-        registerApiRoute(server, "/api/discord/auth", new DiscordAuthHandler(ctx));
-        registerApiRoute(server, "/api/discord/callback", new DiscordCallbackHandler(ctx));
-        registerApiRoute(server, "/api/discord/status", new DiscordStatusHandler(ctx));
-        registerApiRoute(server, "/api/discord/unlink", new DiscordUnlinkHandler(ctx));
+        route("/api/discord/auth", new DiscordAuthHandler(ctx)).method("GET").register(engine);
+        route("/api/discord/callback", new DiscordCallbackHandler(ctx)).bulkhead(BULKHEAD_DISCORD).register(engine);
+        route("/api/discord/status", new DiscordStatusHandler(ctx)).method("GET").register(engine);
+        route("/api/discord/unlink", new DiscordUnlinkHandler(ctx)).method("POST").register(engine);
 
         // --- Version check ---
-        registerApiRoute(server, "/api/version", new VersionHandler(ctx));
+        route("/api/version", new VersionHandler(ctx)).method("GET").register(engine);
 
         // --- User status query ---
-        registerApiRoute(server, "/api/user/status", new UserStatusHandler(ctx));
+        route("/api/user/status", new UserStatusHandler(ctx)).method("GET").register(engine);
 
         // --- Server status ---
-        registerApiRoute(server, "/api/server/status", new ServerStatusHandler(ctx));
+        route("/api/server/status", new ServerStatusHandler(ctx)).method("GET").register(engine);
 
         // --- Downloads ---
-        registerApiRoute(server, "/api/downloads", new DownloadsHandler(ctx));
+        route("/api/downloads", new DownloadsHandler(ctx)).method("GET").register(engine);
 
         // --- User profile management ---
-        registerApiRoute(server, "/api/user/update", new UserUpdateHandler(ctx));
-        registerApiRoute(server, "/api/user/password/code", new UserPasswordCodeHandler(ctx));
-        registerApiRoute(server, "/api/user/password", new UserPasswordHandler(ctx));
+        route("/api/user/update", new UserUpdateHandler(ctx)).method("POST").register(engine);
+        route("/api/user/password/code", new UserPasswordCodeHandler(ctx))
+                .method("POST").bulkhead(BULKHEAD_MAIL).register(engine);
+        route("/api/user/password", new UserPasswordHandler(ctx)).method("POST").register(engine);
 
         // --- Static files (front-end) ---
         if (ctx.getConfigManager().isServeStaticEnabled()) {
-            server.createContext("/", new CorsHandler(ctx, new StaticFileHandler(ctx)));
+            engine.createContext("/", RoutePipeline.builder("/", routeMetrics)
+                    .stage(RoutePipeline.STAGE_CORS, new CorsFilter(ctx))
+                    .stage(RoutePipeline.STAGE_OVERLOAD, new OverloadGuardFilter())
+                    .handler(new StaticFileHandler(ctx)));
+        }
+    }
+
+    private RouteBuilder route(String path, HttpHandler handler) {
+        return new RouteBuilder(path, handler);
+    }
+
+    private Bulkhead getOrCreateBulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, n -> new Bulkhead(n,
+                ctx.getConfigManager().getBulkheadMaxConcurrent(n),
+                ctx.getConfigManager().getBulkheadMaxQueue(n),
+                loadShedder.queue("bulkhead:" + n)));
+    }
+
+    /**
+     * Declares what an API route requires; {@link #register(HttpEngine)} turns it into a
+     * {@link RoutePipeline} with the stages in a fixed order: CORS, overload guard,
+     * load shedding (low-priority routes), method, admin auth, rate limit, response cache
+     * (public GET routes), bulkhead, body limit.
+     * Cheap checks run first so rejected requests never reach a bulkhead queue.
+     */
+    private final class RouteBuilder {
+        private final String path;
+        private final HttpHandler handler;
+        private String method;
+        private AdminAction adminAction;
+        private String bulkheadName;
+        private List<String> cacheKeyParams = List.of();
+
+        private RouteBuilder(String path, HttpHandler handler) {
+            this.path = path;
+            this.handler = handler;
+        }
+
+        RouteBuilder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+        RouteBuilder admin(AdminAction action) {
+            this.adminAction = action;
+            return this;
+        }
+
+        RouteBuilder bulkhead(String name) {
+            this.bulkheadName = name;
+            return this;
+        }
+
+        /**
+         * Query parameters the handler reads, if its response may be cached; all others
+         * are left out of the cache key.
+         */
+        RouteBuilder cacheKey(String... queryParams) {
+            this.cacheKeyParams = List.of(queryParams);
+            return this;
+        }
+
+        // The http.* limits are read once here; config.yml marks them restart-only
+        void register(HttpEngine engine) {
+            RoutePipeline.Builder pipeline = RoutePipeline.builder(path, routeMetrics)
+                    .stage(RoutePipeline.STAGE_CORS, new CorsFilter(ctx))
+                    .stage(RoutePipeline.STAGE_OVERLOAD, new OverloadGuardFilter());
+            if (LOW_PRIORITY_ROUTES.contains(path)) {
+                pipeline.stage(RoutePipeline.STAGE_LOAD_SHEDDING, new LoadSheddingFilter(loadShedder));
+            }
+            if (method != null) {
+                pipeline.stage(RoutePipeline.STAGE_METHOD, new MethodFilter(method));
+            }
+            if (adminAction != null) {
+                pipeline.stage(RoutePipeline.STAGE_AUTH, new AdminAuthFilter(ctx, adminAction));
+            }
+            RateLimitPolicy rateLimit = ctx.getConfigManager().getHttpRateLimit(path);
+            if (rateLimit != null) {
+                RateLimiter limiter = new RateLimiter(path, rateLimit, ctx.getConfigManager().getHttpRateLimitMaxKeys());
+                rateLimiters.put(path, limiter);
+                pipeline.stage(RoutePipeline.STAGE_RATE_LIMIT, new RateLimitFilter(ctx, limiter));
+            }
+            long cacheTtl = ctx.getConfigManager().getHttpResponseCacheTtlMillis(path);
+            if (cacheTtl > 0 && "GET".equals(method) && adminAction == null) {
+                pipeline.stage(RoutePipeline.STAGE_CACHE, new ResponseCacheFilter(responseCache, cacheTtl, cacheKeyParams));
+            }
+            if (bulkheadName != null) {
+                pipeline.stage(RoutePipeline.STAGE_BULKHEAD,
+                        new BulkheadFilter(getOrCreateBulkhead(bulkheadName), ctx.getPlugin().getLogger()));
+            }
+            // Last, so a body overflow is answered on whichever thread runs the handler
+            pipeline.stage(RoutePipeline.STAGE_BODY_LIMIT,
+                    new BodyLimitFilter(ctx.getConfigManager().getHttpMaxBodyBytes(path)));
+            engine.createContext(path, pipeline.handler(handler));
         }
     }
 
-    private void registerApiRoute(HttpServer server, String path, HttpHandler handler) {
-        server.createContext(path, new CorsHandler(ctx, handler));
+    /**
+     * Bulkheads created while registering routes, in registration order.
+     */
+    public Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    /**
+     * Rate limiters of the routes limited in http.rate_limits, by path.
+     */
+    public Map<String, RateLimiter> getRateLimiters() {
+        return Collections.unmodifiableMap(rateLimiters);
+    }
+
+    /**
+     * Cached responses of the GET routes listed in http.response_cache.routes.
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Latency of every registered route and of its pipeline stages.
+     */
+    public RouteMetrics getRouteMetrics() {
+        return routeMetrics;
+    }
+
+    /**
+     * Stop the worker threads of all bulkheads.
+     */
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+        ctx.getConfigManager().removeReloadListener(invalidateResponseCache);
     }
 
     // --- Utility methods used by route wiring (delegated from WebServer) ---
@@ -0,0 +1,103 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Named compartment with its own worker threads and waiting queue.
+ * <p>
+ * Routes doing slow outbound I/O (SMTP, SMS, LLM, Discord) are handed off to a
+ * bulkhead so they can only ever occupy {@code maxConcurrent} threads. When a
+ * bulkhead is saturated its routes are refused while cheap routes keep being
+ * served by the shared HTTP executor.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongConsumer queueDelayListener;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue) {
+        this(name, maxConcurrent, maxQueue, delayMillis -> { });
+    }
+
+    /**
+     * @param queueDelayListener receives, in milliseconds, how long each task waited in the queue
+     */
+    public Bulkhead(String name, int maxConcurrent, int maxQueue, LongConsumer queueDelayListener) {
+        this.name = name;
+        this.queueDelayListener = queueDelayListener;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.pool = new ThreadPoolExecutor(this.maxConcurrent, this.maxConcurrent, 60L, TimeUnit.SECONDS,
+                this.maxQueue > 0 ? new ArrayBlockingQueue<>(this.maxQueue) : new SynchronousQueue<>(),
+                new NamedThreadFactory("VerifyMC-Bulkhead-" + name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run the task inside this bulkhead.
+     *
+     * @return false if the bulkhead and its queue are full; the task was not accepted
+     */
+    public boolean tryExecute(Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                queueDelayListener.accept((System.nanoTime() - enqueuedAt) / 1_000_000L);
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueuedCount() {
+        return pool.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("max_concurrent", maxConcurrent);
+        json.put("max_queue", maxQueue);
+        json.put("active", getActiveCount());
+        json.put("queued", getQueuedCount());
+        json.put("rejected", getRejectedCount());
+        return json;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.ConfigManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Connection-level limits of the embedded HTTP(S) server.
+ * <p>
+ * The JDK server only reads its limits from system properties, once per JVM, when the
+ * first server is created. {@link #applyToJdkServer(Logger)} therefore has to run before
+ * {@code HttpServer.create}; properties already given on the command line win. The
+ * properties are JVM-wide, so they also apply to other plugins' JDK servers, and a
+ * changed value only takes effect after a restart.
+ * <p>
+ * Open connections and the reasons connections were closed are only counted by engines
+ * that own their connections (netty, see {@link #trackConnections()}); for the JDK
+ * server they are reported as unsupported.
+ */
+public final class HttpConnectionLimits {
+    // Remembers, JVM-wide like the properties themselves, which values this plugin set
+    private static final String APPLIED_PREFIX = "verifymc.applied.";
+
+    private final int backlog;
+    private final int maxConnections;
+    private final int maxIdleConnections;
+    private final int requestTimeoutSeconds;
+    private final int responseTimeoutSeconds;
+    private final int idleTimeoutSeconds;
+
+    private final LongAdder closedRequestTimeout = new LongAdder();
+    private final LongAdder closedResponseTimeout = new LongAdder();
+    private final LongAdder closedIdle = new LongAdder();
+    private final LongAdder refusedMaxConnections = new LongAdder();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean tracked;
+
+    public HttpConnectionLimits(int backlog, int maxConnections, int maxIdleConnections,
+                                int requestTimeoutSeconds, int responseTimeoutSeconds, int idleTimeoutSeconds) {
+        this.backlog = backlog;
+        this.maxConnections = maxConnections;
+        this.maxIdleConnections = maxIdleConnections;
+        this.requestTimeoutSeconds = requestTimeoutSeconds;
+        this.responseTimeoutSeconds = responseTimeoutSeconds;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    public static HttpConnectionLimits fromConfig(ConfigManager config) {
+        return new HttpConnectionLimits(
+                config.getHttpBacklog(),
+                config.getHttpMaxConnections(),
+                config.getHttpMaxIdleConnections(),
+                config.getHttpRequestTimeoutSeconds(),
+                config.getHttpResponseTimeoutSeconds(),
+                config.getHttpIdleTimeoutSeconds());
+    }
+
+    /**
+     * Publish the limits as JDK server properties.
+     */
+    public void applyToJdkServer(Logger logger) {
+        setDefault("jdk.httpserver.maxConnections", maxConnections, logger);
+        setDefault("sun.net.httpserver.maxIdleConnections", maxIdleConnections, logger);
+        setDefault("sun.net.httpserver.maxReqTime", requestTimeoutSeconds, logger);
+        setDefault("sun.net.httpserver.maxRspTime", responseTimeoutSeconds, logger);
+        setDefault("sun.net.httpserver.idleInterval", idleTimeoutSeconds, logger);
+    }
+
+    private static void setDefault(String property, int value, Logger logger) {
+        String configured = String.valueOf(value);
+        String existing = System.getProperty(property);
+        String applied = System.getProperty(APPLIED_PREFIX + property);
+        if (existing != null && !existing.equals(applied)) {
+            if (!existing.equals(configured)) {
+                logger.info("[VerifyMC] Using -D" + property + "=" + existing + " instead of the configured " + value);
+            }
+            return;
+        }
+        if (existing != null && !existing.equals(configured)) {
+            // Set by an earlier start of this plugin; the JDK server has already read it
+            logger.warning("[VerifyMC] " + property + " changed from " + existing + " to " + value
+                    + "; restart the server for it to take effect");
+        }
+        System.setProperty(property, configured);
+        System.setProperty(APPLIED_PREFIX + property, configured);
+    }
+
+    /**
+     * Called by engines that report {@link #connectionOpened()}, {@link #connectionClosed()}
+     * and close reasons, so they are shown instead of "unsupported".
+     */
+    public void trackConnections() {
+        tracked = true;
+    }
+
+    /**
+     * Count a newly accepted connection.
+     *
+     * @return the connections now open, this one included
+     */
+    public int connectionOpened() {
+        return openConnections.incrementAndGet();
+    }
+
+    public void connectionClosed() {
+        openConnections.decrementAndGet();
+    }
+
+    /**
+     * Count a connection refused because {@code max_connections} was reached.
+     * Only engines that own their accept loop can report this.
+     */
+    public void recordRefused() {
+        refusedMaxConnections.increment();
+    }
+
+    public void recordRequestTimeout() {
+        closedRequestTimeout.increment();
+    }
+
+    public void recordResponseTimeout() {
+        closedResponseTimeout.increment();
+    }
+
+    public void recordIdleClose() {
+        closedIdle.increment();
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public int getRequestTimeoutSeconds() {
+        return requestTimeoutSeconds;
+    }
+
+    public int getResponseTimeoutSeconds() {
+        return responseTimeoutSeconds;
+    }
+
+    public int getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    public JSONObject toJson() {
+        JSONObject limits = new JSONObject();
+        limits.put("backlog", backlog);
+        limits.put("max_connections", maxConnections);
+        limits.put("max_idle_connections", maxIdleConnections);
+        limits.put("request_timeout_seconds", requestTimeoutSeconds);
+        limits.put("response_timeout_seconds", responseTimeoutSeconds);
+        limits.put("idle_timeout_seconds", idleTimeoutSeconds);
+
+        JSONObject closed = new JSONObject();
+        closed.put("request_timeout", closedRequestTimeout.sum());
+        closed.put("response_timeout", closedResponseTimeout.sum());
+        closed.put("idle_timeout", closedIdle.sum());
+        closed.put("max_connections", refusedMaxConnections.sum());
+
+        JSONObject json = new JSONObject();
+        json.put("limits", limits);
+        if (tracked) {
+            json.put("open", openConnections.get());
+            json.put("closed", closed);
+        } else {
+            json.put("open", "unsupported");
+            json.put("closed", "unsupported");
+        }
+        return json;
+    }
+}
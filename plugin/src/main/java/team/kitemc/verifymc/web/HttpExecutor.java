@@ -0,0 +1,171 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Executor used by the embedded HTTP server to run exchanges.
+ * <p>
+ * Two modes are supported:
+ * <ul>
+ *   <li>{@code virtual} – one virtual thread per exchange (Java 21+), falling back to
+ *   {@code bounded} on older runtimes.</li>
+ *   <li>{@code bounded} – a fixed pool with a bounded queue. When both are full the
+ *   exchange is not dropped; it runs on the dispatcher thread flagged as rejected so
+ *   {@link team.kitemc.verifymc.web.filter.OverloadGuardFilter} answers it with a cheap 503 instead.</li>
+ * </ul>
+ */
+public class HttpExecutor implements Executor {
+    public static final String MODE_VIRTUAL = "virtual";
+    public static final String MODE_BOUNDED = "bounded";
+
+    private static final ThreadLocal<Boolean> REJECTED_DISPATCH = new ThreadLocal<>();
+
+    private final String mode;
+    private final ExecutorService delegate;
+    private final ThreadPoolExecutor pool;
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongConsumer queueDelayListener;
+
+    private HttpExecutor(ExecutorService virtual, LongConsumer queueDelayListener) {
+        this.mode = MODE_VIRTUAL;
+        this.queueDelayListener = queueDelayListener;
+        this.delegate = virtual;
+        this.pool = null;
+    }
+
+    private HttpExecutor(int threads, int queueSize, LongConsumer queueDelayListener) {
+        int workers = Math.max(1, threads);
+        this.mode = MODE_BOUNDED;
+        this.queueDelayListener = queueDelayListener;
+        this.pool = new ThreadPoolExecutor(workers, workers, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new NamedThreadFactory("VerifyMC-Http-"),
+                (task, executor) -> runRejected(task));
+        this.delegate = pool;
+    }
+
+    /**
+     * Create an executor for the given mode.
+     *
+     * @param mode      {@code virtual} or {@code bounded}; anything else is treated as {@code bounded}
+     * @param threads   worker threads for the bounded pool
+     * @param queueSize maximum exchanges waiting for a worker in the bounded pool
+     * @param queueDelayListener receives, in milliseconds, how long each exchange waited for a thread
+     * @param logger    logger used to report a virtual-thread fallback
+     */
+    public static HttpExecutor create(String mode, int threads, int queueSize,
+                                      LongConsumer queueDelayListener, Logger logger) {
+        if (MODE_VIRTUAL.equals(mode)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                return new HttpExecutor(virtual, queueDelayListener);
+            }
+            logger.warning("[VerifyMC] Virtual threads are not available on this Java runtime, using a bounded pool");
+        }
+        return new HttpExecutor(threads, queueSize, queueDelayListener);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(new Timed(command, System.nanoTime()));
+    }
+
+    // Rejected exchanges never waited in the queue, so they are neither sampled nor counted
+    private void runRejected(Runnable task) {
+        rejected.increment();
+        REJECTED_DISPATCH.set(Boolean.TRUE);
+        try {
+            (task instanceof Timed timed ? timed.command : task).run();
+        } finally {
+            REJECTED_DISPATCH.remove();
+        }
+    }
+
+    private final class Timed implements Runnable {
+        private final Runnable command;
+        private final long enqueuedAt;
+
+        private Timed(Runnable command, long enqueuedAt) {
+            this.command = command;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            queueDelayListener.accept((System.nanoTime() - enqueuedAt) / 1_000_000L);
+            active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+            }
+        }
+    }
+
+    /**
+     * Whether the exchange on the current thread was rejected by the executor
+     * and must be answered without doing any real work.
+     */
+    public static boolean isRejectedDispatch() {
+        return Boolean.TRUE.equals(REJECTED_DISPATCH.get());
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueuedCount() {
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("mode", mode);
+        json.put("active", getActiveCount());
+        json.put("queued", getQueuedCount());
+        json.put("rejected", getRejectedCount());
+        json.put("completed", getCompletedCount());
+        if (pool != null) {
+            json.put("threads", pool.getMaximumPoolSize());
+            json.put("queue_capacity", pool.getQueue().size() + pool.getQueue().remainingCapacity());
+        }
+        return json;
+    }
+
+    public void shutdown() {
+        delegate.shutdownNow();
+    }
+}
@@ -0,0 +1,228 @@
+package team.kitemc.verifymc.web;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads JSON request bodies straight from the exchange's stream.
+ * <p>
+ * The body is never collected into a string first: it is decoded token by token,
+ * either into a typed value by a {@link JsonDecoder} or into a {@link JSONObject}
+ * for handlers that still work on one. Reading stops with a
+ * {@link RequestBodyTooLargeException} as soon as the route's limit (set by
+ * {@link team.kitemc.verifymc.web.filter.BodyLimitFilter}) is crossed. Malformed input is reported as a
+ * {@link JSONException}, as with {@code new JSONObject(String)}.
+ */
+public final class JsonBodyReader {
+    public static final String MAX_BODY_ATTRIBUTE = "verifymc.maxBodyBytes";
+    public static final int DEFAULT_MAX_BODY_BYTES = 16 * 1024;
+    private static final int MAX_DEPTH = 64;
+
+    private JsonBodyReader() {}
+
+    /**
+     * Decodes a value from a JSON document.
+     */
+    @FunctionalInterface
+    public interface JsonDecoder<T> {
+        T decode(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Decode the request body with the given decoder. An empty body is decoded as {@code {}}.
+     */
+    public static <T> T read(HttpExchange exchange, JsonDecoder<T> decoder) throws IOException, JSONException {
+        try (InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxBodyBytes(exchange))) {
+            return decode(body, decoder);
+        }
+    }
+
+    /**
+     * Read the request body as a JSONObject; an empty body yields an empty object.
+     */
+    public static JSONObject readObject(HttpExchange exchange) throws IOException, JSONException {
+        return read(exchange, JsonBodyReader::readObject);
+    }
+
+    static <T> T decode(InputStream body, JsonDecoder<T> decoder) throws IOException, JSONException {
+        PushbackInputStream in = new PushbackInputStream(body, 1);
+        int first = skipWhitespace(in);
+        JsonReader reader;
+        if (first == -1) {
+            reader = new JsonReader(new StringReader("{}"));
+        } else {
+            in.unread(first);
+            reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        try {
+            return decoder.decode(reader);
+        } catch (MalformedJsonException | EOFException e) {
+            throw new JSONException("Invalid JSON: " + e.getMessage(), e);
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JSONException("Unexpected JSON at " + reader.getPath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int skipWhitespace(InputStream in) throws IOException {
+        int b;
+        do {
+            b = in.read();
+        } while (b == ' ' || b == '\t' || b == '\r' || b == '\n');
+        return b;
+    }
+
+    private static int maxBodyBytes(HttpExchange exchange) {
+        Object limit = exchange.getAttribute(MAX_BODY_ATTRIBUTE);
+        return limit instanceof Integer value ? value : DEFAULT_MAX_BODY_BYTES;
+    }
+
+    /**
+     * Read a JSON object from the reader.
+     */
+    public static JSONObject readObject(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JSONException("A JSONObject text must begin with '{' at " + reader.getPath());
+        }
+        return (JSONObject) readValue(reader, 0);
+    }
+
+    /**
+     * Read any JSON value as its org.json representation
+     * ({@link JSONObject}, {@link JSONArray}, String, Number, Boolean or {@link JSONObject#NULL}).
+     */
+    public static Object readValue(JsonReader reader) throws IOException {
+        return readValue(reader, 0);
+    }
+
+    private static Object readValue(JsonReader reader, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new JSONException("JSON nested too deeply at " + reader.getPath());
+        }
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT -> {
+                JSONObject object = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    object.put(name, readValue(reader, depth + 1));
+                }
+                reader.endObject();
+                return object;
+            }
+            case BEGIN_ARRAY -> {
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readValue(reader, depth + 1));
+                }
+                reader.endArray();
+                return array;
+            }
+            case STRING -> {
+                return reader.nextString();
+            }
+            case NUMBER -> {
+                return JSONObject.stringToValue(reader.nextString());
+            }
+            case BOOLEAN -> {
+                return reader.nextBoolean();
+            }
+            case NULL -> {
+                reader.nextNull();
+                return JSONObject.NULL;
+            }
+            default -> throw new JSONException("Unexpected " + token + " at " + reader.getPath());
+        }
+    }
+
+    /**
+     * Read a value the way {@link JSONObject#optString(String)} would present it:
+     * strings as-is, numbers and booleans as text, null as {@code null}.
+     */
+    public static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case STRING, NUMBER -> {
+                return reader.nextString();
+            }
+            case BOOLEAN -> {
+                return String.valueOf(reader.nextBoolean());
+            }
+            case NULL -> {
+                reader.nextNull();
+                return null;
+            }
+            default -> {
+                return String.valueOf(readValue(reader));
+            }
+        }
+    }
+
+    /**
+     * Stops reading with {@link RequestBodyTooLargeException} once more than
+     * {@code limit} bytes have been read.
+     */
+    static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // Ask for at most one byte past the limit, enough to detect an overflow
+            long remaining = limit - count + 1;
+            int n = super.read(b, off, (int) Math.min(len, Math.max(1, remaining)));
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, limit - count + 1));
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws RequestBodyTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new RequestBodyTooLargeException(limit);
+            }
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
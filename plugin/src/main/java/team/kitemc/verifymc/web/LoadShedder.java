@@ -0,0 +1,135 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * CoDel-style overload detector fed with queueing delays of HTTP exchanges.
+ * <p>
+ * Each queue (the HTTP executor, every bulkhead) is watched on its own, so fast
+ * samples from an idle queue cannot hide a standing queue elsewhere. A single slow
+ * request does not trigger shedding: a queue's delay has to stay above
+ * {@code targetMillis} for a whole {@code intervalMillis}. Shedding runs while any
+ * queue is in that state and stops once every queue dequeues within the target again
+ * or has been idle for an interval.
+ */
+public class LoadShedder {
+    private final boolean enabled;
+    private final long targetMillis;
+    private final long intervalMillis;
+    private final LongSupplier clock;
+    private final LongAdder shed = new LongAdder();
+    private final Map<String, Queue> queues = new ConcurrentHashMap<>();
+
+    private volatile long lastDelayMillis;
+
+    public LoadShedder(boolean enabled, long targetMillis, long intervalMillis) {
+        this(enabled, targetMillis, intervalMillis, System::currentTimeMillis);
+    }
+
+    LoadShedder(boolean enabled, long targetMillis, long intervalMillis, LongSupplier clock) {
+        this.enabled = enabled;
+        this.targetMillis = Math.max(1L, targetMillis);
+        this.intervalMillis = Math.max(1L, intervalMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * The listener for one queue. It receives, in milliseconds, how long each exchange
+     * waited between being accepted and starting to run.
+     */
+    public LongConsumer queue(String name) {
+        return queues.computeIfAbsent(name, n -> new Queue());
+    }
+
+    /**
+     * Whether a low-priority request should be refused now. Counts the refusal.
+     */
+    public boolean shouldShed() {
+        if (enabled && isShedding()) {
+            shed.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isShedding() {
+        long now = clock.getAsLong();
+        for (Queue queue : queues.values()) {
+            if (queue.isDropping(now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Seconds a shed client is asked to wait, at least one interval.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1L, (intervalMillis + 999L) / 1000L);
+    }
+
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    public JSONObject toJson() {
+        long now = clock.getAsLong();
+        JSONObject json = new JSONObject();
+        json.put("enabled", enabled);
+        json.put("shedding", isShedding());
+        json.put("target_ms", targetMillis);
+        json.put("interval_ms", intervalMillis);
+        json.put("last_queue_delay_ms", lastDelayMillis);
+        json.put("shed", getShedCount());
+        JSONObject perQueue = new JSONObject();
+        queues.forEach((name, queue) -> {
+            JSONObject item = new JSONObject();
+            item.put("shedding", queue.isDropping(now));
+            item.put("last_queue_delay_ms", queue.lastDelayMillis);
+            perQueue.put(name, item);
+        });
+        json.put("queues", perQueue);
+        return json;
+    }
+
+    private final class Queue implements LongConsumer {
+        private long firstAboveTime;
+        private volatile boolean dropping;
+        private volatile long lastSampleTime;
+        private volatile long lastDelayMillis;
+
+        @Override
+        public void accept(long delayMillis) {
+            lastDelayMillis = delayMillis;
+            LoadShedder.this.lastDelayMillis = delayMillis;
+            if (!enabled) {
+                return;
+            }
+            long now = clock.getAsLong();
+            synchronized (this) {
+                lastSampleTime = now;
+                if (delayMillis < targetMillis) {
+                    firstAboveTime = 0L;
+                    dropping = false;
+                } else if (firstAboveTime == 0L) {
+                    firstAboveTime = now + intervalMillis;
+                } else if (now >= firstAboveTime) {
+                    dropping = true;
+                }
+            }
+        }
+
+        // Nothing taken from the queue for an interval, or for as long as its last exchange
+        // waited if that was longer, means the queue has drained
+        private boolean isDropping(long now) {
+            return dropping && now - lastSampleTime < Math.max(intervalMillis, lastDelayMillis);
+        }
+    }
+}
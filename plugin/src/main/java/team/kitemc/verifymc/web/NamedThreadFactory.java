@@ -0,0 +1,23 @@
+package team.kitemc.verifymc.web;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates numbered daemon threads so web worker pools are easy to spot in thread dumps.
+ */
+final class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, prefix + counter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    }
+}
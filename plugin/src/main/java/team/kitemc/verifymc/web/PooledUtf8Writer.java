@@ -0,0 +1,138 @@
+package team.kitemc.verifymc.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * UTF-8 writer that encodes into a pooled byte buffer and hands full buffers to the
+ * underlying stream, so a streamed response needs no per-request encoder or buffer
+ * allocation and never holds more than {@link #BUFFER_SIZE} bytes of output.
+ */
+final class PooledUtf8Writer extends Writer {
+    static final int BUFFER_SIZE = 16 * 1024;
+    private static final BlockingQueue<byte[]> POOL =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int count;
+    private char pendingHighSurrogate;
+
+    PooledUtf8Writer(OutputStream out) {
+        this.out = out;
+        byte[] pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            writeChar(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            writeChar(str.charAt(i));
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        ensureOpen();
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            writeCodePoint('?');
+        }
+        if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            writeCodePoint('?');
+        } else {
+            writeCodePoint(c);
+        }
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        if (count + 4 > buffer.length) {
+            flushBuffer();
+        }
+        if (cp < 0x80) {
+            buffer[count++] = (byte) cp;
+        } else if (cp < 0x800) {
+            buffer[count++] = (byte) (0xc0 | (cp >> 6));
+            buffer[count++] = (byte) (0x80 | (cp & 0x3f));
+        } else if (cp < 0x10000) {
+            buffer[count++] = (byte) (0xe0 | (cp >> 12));
+            buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+            buffer[count++] = (byte) (0x80 | (cp & 0x3f));
+        } else {
+            buffer[count++] = (byte) (0xf0 | (cp >> 18));
+            buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+            buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+            buffer[count++] = (byte) (0x80 | (cp & 0x3f));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("writer is closed");
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Give the buffer back without writing what is left or closing the stream, for a
+     * response that is being aborted.
+     */
+    void discard() {
+        if (buffer != null) {
+            POOL.offer(buffer);
+            buffer = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                writeCodePoint('?');
+            }
+            flushBuffer();
+        } finally {
+            POOL.offer(buffer);
+            buffer = null;
+            out.close();
+        }
+    }
+}
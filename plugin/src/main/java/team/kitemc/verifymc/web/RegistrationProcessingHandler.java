@@ -24,6 +24,7 @@ import team.kitemc.verifymc.service.RegistrationApplicationService;
 import team.kitemc.verifymc.service.VerifyCodeService;
 import team.kitemc.verifymc.util.EmailAddressUtil;
 import team.kitemc.verifymc.util.FoliaCompat;
+import team.kitemc.verifymc.util.PasswordUtil;
 import team.kitemc.verifymc.util.PhoneNumberUtil;
 
 public class RegistrationProcessingHandler implements HttpHandler {
@@ -96,19 +97,14 @@ public class RegistrationProcessingHandler implements HttpHandler {
         String requestId = java.util.UUID.randomUUID().toString();
         logRegistrationStage(requestId, "start", null);
 
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) {
-            return;
-        }
-
-        JSONObject req;
+        RegistrationRequest request;
         try {
-            req = WebResponseHelper.readJson(exchange);
+            request = JsonBodyReader.read(exchange, in -> RegistrationRequest.read(in, usernameNormalizer));
         } catch (JSONException e) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
                     messageResolver.apply("error.invalid_json", "en")), 400);
             return;
         }
-        RegistrationRequest request = RegistrationRequest.fromJson(req, usernameNormalizer);
 
         RegistrationValidationResult basicResult = validateBasicInput(request, requestId);
         if (!basicResult.passed()) {
@@ -389,7 +385,9 @@ public class RegistrationProcessingHandler implements HttpHandler {
         String questionnaireReviewSummary = submissionRecord != null ? buildQuestionnaireReviewSummary(submissionRecord.details()) : null;
         Long questionnaireScoredAt = submissionRecord != null ? submissionRecord.submittedAt() : null;
 
-        boolean ok = userDao.registerUser(request.normalizedUsername(), request.email(), PhoneNumberUtil.normalize(request.phone()), status, request.password(),
+        // Hashed here so the DAO stores it as is, and a busy hashing pool answers 503
+        String storedPassword = PasswordUtil.hash(request.password());
+        boolean ok = userDao.registerUser(request.normalizedUsername(), request.email(), PhoneNumberUtil.normalize(request.phone()), status, storedPassword,
                 questionnaireScore, questionnairePassedValue, questionnaireReviewSummary, questionnaireScoredAt);
 
         RegistrationApplicationService.RegistrationDecision decision =
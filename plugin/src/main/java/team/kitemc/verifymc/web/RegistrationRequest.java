@@ -1,6 +1,10 @@
 package team.kitemc.verifymc.web;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
 import java.util.function.BiFunction;
+import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.util.EmailAddressUtil;
 import team.kitemc.verifymc.web.handler.AuthFlowSupport;
@@ -20,21 +24,70 @@ public record RegistrationRequest(
         JSONObject questionnaire
 ) {
     public static RegistrationRequest fromJson(JSONObject req, BiFunction<String, String, String> usernameNormalizer) {
-        String email = EmailAddressUtil.normalize(req.optString("email", ""));
-        String code = req.optString("code");
-        String rawPhone = req.optString("phone", "");
-        String countryCode = req.optString("countryCode", "");
+        return of(req.optString("email", ""), req.optString("code"), req.optString("phone", ""),
+                req.optString("countryCode", ""), req.optString("smsCode", req.optString("phoneCode", "")),
+                req.optString("username"), req.optString("password", ""), req.optString("captchaToken", ""),
+                req.optString("captchaAnswer", ""), req.optString("language", "en"), req.optString("platform", "java"),
+                req.optJSONObject("questionnaire"), usernameNormalizer);
+    }
+
+    /**
+     * Decode a registration request field by field from the request body, with the same
+     * defaults as {@link #fromJson(JSONObject, BiFunction)}. Unknown fields are skipped.
+     */
+    public static RegistrationRequest read(JsonReader in, BiFunction<String, String, String> usernameNormalizer)
+            throws IOException {
+        String email = null, code = null, phone = null, countryCode = null, smsCode = null, phoneCode = null;
+        String username = null, password = null, captchaToken = null, captchaAnswer = null;
+        String language = null, platform = null;
+        JSONObject questionnaire = null;
+
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new JSONException("A JSONObject text must begin with '{'");
+        }
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "email" -> email = JsonBodyReader.readString(in);
+                case "code" -> code = JsonBodyReader.readString(in);
+                case "phone" -> phone = JsonBodyReader.readString(in);
+                case "countryCode" -> countryCode = JsonBodyReader.readString(in);
+                case "smsCode" -> smsCode = JsonBodyReader.readString(in);
+                case "phoneCode" -> phoneCode = JsonBodyReader.readString(in);
+                case "username" -> username = JsonBodyReader.readString(in);
+                case "password" -> password = JsonBodyReader.readString(in);
+                case "captchaToken" -> captchaToken = JsonBodyReader.readString(in);
+                case "captchaAnswer" -> captchaAnswer = JsonBodyReader.readString(in);
+                case "language" -> language = JsonBodyReader.readString(in);
+                case "platform" -> platform = JsonBodyReader.readString(in);
+                case "questionnaire" -> {
+                    Object value = JsonBodyReader.readValue(in);
+                    questionnaire = value instanceof JSONObject object ? object : null;
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return of(orDefault(email, ""), orDefault(code, ""), orDefault(phone, ""), orDefault(countryCode, ""),
+                smsCode != null ? smsCode : orDefault(phoneCode, ""), orDefault(username, ""),
+                orDefault(password, ""), orDefault(captchaToken, ""), orDefault(captchaAnswer, ""),
+                orDefault(language, "en"), orDefault(platform, "java"), questionnaire, usernameNormalizer);
+    }
+
+    private static String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private static RegistrationRequest of(String rawEmail, String code, String rawPhone, String countryCode,
+                                          String smsCode, String username, String password, String captchaToken,
+                                          String captchaAnswer, String language, String platform,
+                                          JSONObject questionnaire,
+                                          BiFunction<String, String, String> usernameNormalizer) {
+        String email = EmailAddressUtil.normalize(rawEmail);
         String phone = AuthFlowSupport.missingRequiredCountryCode(rawPhone, countryCode)
                 ? ""
                 : AuthFlowSupport.normalizePhone(countryCode, rawPhone);
-        String smsCode = req.optString("smsCode", req.optString("phoneCode", ""));
-        String username = req.optString("username");
-        String password = req.optString("password", "");
-        String captchaToken = req.optString("captchaToken", "");
-        String captchaAnswer = req.optString("captchaAnswer", "");
-        String language = req.optString("language", "en");
-        String platform = req.optString("platform", "java");
-        JSONObject questionnaire = req.optJSONObject("questionnaire");
         String normalizedUsername = usernameNormalizer.apply(username, platform);
         return new RegistrationRequest(email, code, phone, smsCode, username, normalizedUsername, password,
                 captchaToken, captchaAnswer, language, platform, questionnaire);
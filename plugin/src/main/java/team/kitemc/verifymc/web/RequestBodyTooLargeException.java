@@ -0,0 +1,20 @@
+package team.kitemc.verifymc.web;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a request body that exceeds the route's size limit.
+ * {@link team.kitemc.verifymc.web.filter.BodyLimitFilter} turns it into a 413 response.
+ */
+public class RequestBodyTooLargeException extends IOException {
+    private final long limit;
+
+    public RequestBodyTooLargeException(long limit) {
+        super("Request body exceeds " + limit + " bytes");
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
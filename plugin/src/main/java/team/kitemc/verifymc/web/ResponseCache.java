@@ -0,0 +1,155 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of serialised JSON responses of idempotent GET routes.
+ * <p>
+ * Entries hold the uncompressed body and a strong ETag and expire after the route's
+ * TTL; when the cache is full the oldest entry makes room. {@link #invalidateAll()} drops every entry and also discards responses that
+ * were still being rendered from the old configuration when it was called.
+ */
+public class ResponseCache {
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ResponseCache(int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    ResponseCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    /**
+     * The fresh entry for the key, or null. Counts a hit or a miss.
+     */
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > clock.getAsLong()) {
+            hits.increment();
+            return entry;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Current generation; pass it to {@link #put} so a response rendered before an
+     * invalidation is not stored after it.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Store a response body, unless the cache was invalidated since {@code generation}
+     * was read. A full cache first drops expired entries, then the oldest ones.
+     */
+    public Entry put(String key, byte[] body, long ttlMillis, long generation) {
+        long now = clock.getAsLong();
+        Entry entry = new Entry(body, etag(body), now, now + ttlMillis);
+        if (generation != this.generation.get()) {
+            return entry;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            entries.values().removeIf(existing -> existing.expiresAt <= now);
+            while (entries.size() >= maxEntries && evictOldest()) {
+                evictions.increment();
+            }
+        }
+        entries.put(key, entry);
+        if (generation != this.generation.get()) {
+            entries.remove(key, entry);
+        }
+        return entry;
+    }
+
+    private boolean evictOldest() {
+        Map.Entry<String, Entry> oldest = null;
+        for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+            if (oldest == null || candidate.getValue().storedAt < oldest.getValue().storedAt) {
+                oldest = candidate;
+            }
+        }
+        return oldest != null && entries.remove(oldest.getKey(), oldest.getValue());
+    }
+
+    /**
+     * Drop every entry, e.g. after the configuration was reloaded.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("entries", size());
+        json.put("max_entries", maxEntries);
+        json.put("hits", hits.sum());
+        json.put("misses", misses.sum());
+        json.put("invalidations", invalidations.sum());
+        json.put("evictions", evictions.sum());
+        return json;
+    }
+
+    /**
+     * A cached response body and its ETag.
+     */
+    public static final class Entry {
+        private final byte[] body;
+        private final String etag;
+        private final long storedAt;
+        private final long expiresAt;
+
+        private Entry(byte[] body, String etag, long storedAt, long expiresAt) {
+            this.body = body;
+            this.etag = etag;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
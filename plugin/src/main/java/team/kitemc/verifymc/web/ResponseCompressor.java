@@ -0,0 +1,295 @@
+package team.kitemc.verifymc.web;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip compression of API responses.
+ * <p>
+ * Bodies smaller than the configured threshold are sent as-is, since the gzip framing
+ * and CPU cost outweigh the saving. {@link Deflater} instances hold native memory, so a
+ * bounded pool of them is reused instead of allocating one per response.
+ */
+public final class ResponseCompressor {
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private final int minSize;
+    private final int level;
+    private final BlockingQueue<Deflater> pool;
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public ResponseCompressor(int minSize, int level) {
+        this(minSize, level, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    ResponseCompressor(int minSize, int level, int poolSize) {
+        this.minSize = Math.max(0, minSize);
+        this.level = Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, level));
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    /**
+     * Compress a response body if the client accepts gzip and the body is large enough.
+     * Sets {@code Content-Encoding} and {@code Vary} on the exchange accordingly.
+     *
+     * @return the bytes to send, either {@code body} itself or its gzip encoding
+     */
+    public byte[] encode(HttpExchange exchange, byte[] body) {
+        Headers headers = exchange.getResponseHeaders();
+        addVary(headers, "Accept-Encoding");
+        if (body.length < minSize || headers.containsKey("Content-Encoding")
+                || !acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            return body;
+        }
+        byte[] gzipped = gzip(body);
+        if (gzipped.length >= body.length) {
+            return body;
+        }
+        headers.set("Content-Encoding", "gzip");
+        compressed.increment();
+        bytesIn.add(body.length);
+        bytesOut.add(gzipped.length);
+        return gzipped;
+    }
+
+    /**
+     * Decide whether a streamed response of unknown length is gzip-compressed; sets the
+     * response headers accordingly. Must be called before the headers are sent.
+     */
+    public boolean negotiateStream(HttpExchange exchange) {
+        Headers headers = exchange.getResponseHeaders();
+        addVary(headers, "Accept-Encoding");
+        if (headers.containsKey("Content-Encoding")
+                || !acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            return false;
+        }
+        headers.set("Content-Encoding", "gzip");
+        compressed.increment();
+        return true;
+    }
+
+    /**
+     * Wrap a response body in a gzip encoder using a pooled {@link Deflater}.
+     * Closing the returned stream writes the gzip trailer and closes {@code out}.
+     */
+    public OutputStream gzipStream(OutputStream out) throws IOException {
+        return new GzipStream(out, true);
+    }
+
+    /**
+     * Return the deflater of a stream from {@link #gzipStream} without writing the gzip
+     * trailer or closing the underlying stream.
+     */
+    void discard(OutputStream stream) {
+        if (stream instanceof GzipStream gzip) {
+            gzip.discard();
+        }
+    }
+
+    byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                GZIP_HEADER.length + data.length / 2 + GZIP_TRAILER_LENGTH + 64);
+        try (GzipStream gzip = new GzipStream(out, false)) {
+            gzip.write(data, 0, data.length);
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private Deflater borrow() {
+        Deflater deflater = pool.poll();
+        // nowrap: the gzip header and trailer are written by hand
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip, honouring {@code q=0}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                return !refused;
+            }
+            if ("*".equals(coding)) {
+                wildcard = !refused;
+            }
+        }
+        return wildcard;
+    }
+
+    /**
+     * Add a token to the Vary header unless it is already listed.
+     */
+    public static void addVary(Headers headers, String token) {
+        List<String> values = headers.get("Vary");
+        if (values != null) {
+            for (String value : values) {
+                for (String existing : value.split(",")) {
+                    String name = existing.trim();
+                    if (name.equalsIgnoreCase(token) || "*".equals(name)) {
+                        return;
+                    }
+                }
+            }
+        }
+        headers.add("Vary", token);
+    }
+
+    public void shutdown() {
+        Deflater deflater;
+        while ((deflater = pool.poll()) != null) {
+            deflater.end();
+        }
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("min_size", minSize);
+        json.put("level", level);
+        json.put("compressed", compressed.sum());
+        json.put("bytes_in", bytesIn.sum());
+        json.put("bytes_out", bytesOut.sum());
+        return json;
+    }
+
+    /**
+     * Gzip encoder writing through a pooled deflater; the deflater goes back to the
+     * pool when the stream is closed.
+     */
+    private final class GzipStream extends OutputStream {
+        private final OutputStream out;
+        private final boolean countBytes;
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[8192];
+        private Deflater deflater;
+        private long written;
+        private long uncompressed;
+
+        private GzipStream(OutputStream out, boolean countBytes) throws IOException {
+            this.out = out;
+            this.countBytes = countBytes;
+            this.deflater = borrow();
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            written = GZIP_HEADER.length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (deflater == null) {
+                throw new IOException("stream is closed");
+            }
+            if (len == 0) {
+                return;
+            }
+            crc.update(b, off, len);
+            uncompressed += len;
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) {
+                drain(Deflater.NO_FLUSH);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (deflater != null) {
+                drain(Deflater.SYNC_FLUSH);
+            }
+            out.flush();
+        }
+
+        private void drain(int flush) throws IOException {
+            int n;
+            while ((n = deflater.deflate(buffer, 0, buffer.length, flush)) > 0) {
+                out.write(buffer, 0, n);
+                written += n;
+            }
+        }
+
+        private void discard() {
+            if (deflater != null) {
+                release(deflater);
+                deflater = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (deflater == null) {
+                return;
+            }
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    out.write(buffer, 0, n);
+                    written += n;
+                }
+                writeIntLE(out, (int) crc.getValue());
+                writeIntLE(out, (int) uncompressed);
+                written += GZIP_TRAILER_LENGTH;
+                if (countBytes) {
+                    bytesIn.add(uncompressed);
+                    bytesOut.add(written);
+                }
+            } finally {
+                release(deflater);
+                deflater = null;
+                out.close();
+            }
+        }
+    }
+}
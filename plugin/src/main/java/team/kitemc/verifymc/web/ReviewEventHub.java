@@ -0,0 +1,411 @@
+package team.kitemc.verifymc.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Server-Sent Events stream of review notifications on the main HTTP port.
+ * <p>
+ * Events get an id of the form {@code <boot>-<sequence>} and the last
+ * {@code historySize} are kept, so a client reconnecting with Last-Event-ID receives
+ * what it missed. An id from an earlier server start or older than the kept history
+ * gets a {@code reset} event instead, after which the client should reload its data.
+ * <p>
+ * History and the client list are kept on one thread, which also queues a comment line
+ * every heartbeat so proxies keep idle streams open. Each client has its own bounded
+ * queue of frames, written by a delivery thread of its own while frames are pending, so
+ * a client that stops reading only stalls itself; once {@link #MAX_PENDING_BYTES} are
+ * waiting it is dropped. Streams are ended before the HTTP server's response timeout
+ * would cut them off; EventSource reconnects on its own.
+ */
+public class ReviewEventHub {
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final long RETRY_MILLIS = 3000L;
+    static final int MAX_PENDING_BYTES = 256 * 1024;
+
+    private final int historySize;
+    private final int maxClients;
+    private final long maxStreamMillis;
+    private final int maxPendingBytes;
+    private final Logger logger;
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final ScheduledExecutorService writer;
+    private final ExecutorService delivery;
+    private final List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    // Only touched on the hub thread
+    private final ArrayDeque<Event> history = new ArrayDeque<>();
+    private final List<Client> clients = new ArrayList<>();
+    private long sequence;
+
+    public ReviewEventHub(int historySize, int maxClients, int heartbeatSeconds, long maxStreamMillis, Logger logger) {
+        this(historySize, maxClients, heartbeatSeconds, maxStreamMillis, MAX_PENDING_BYTES, logger);
+    }
+
+    ReviewEventHub(int historySize, int maxClients, int heartbeatSeconds, long maxStreamMillis,
+                   int maxPendingBytes, Logger logger) {
+        this.historySize = Math.max(1, historySize);
+        this.maxPendingBytes = Math.max(1, maxPendingBytes);
+        this.maxClients = Math.max(1, maxClients);
+        this.maxStreamMillis = Math.max(1000L, maxStreamMillis);
+        this.logger = logger;
+        this.writer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("VerifyMC-Events-"));
+        // At most one running task per client, so the thread count is bounded by max clients
+        this.delivery = Executors.newCachedThreadPool(new NamedThreadFactory("VerifyMC-Events-Out-"));
+        long heartbeat = Math.max(1, heartbeatSeconds);
+        writer.scheduleAtFixedRate(this::heartbeat, heartbeat, heartbeat, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Also deliver every published event to another channel, e.g. the WebSocket server.
+     */
+    public void addSink(Consumer<String> sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Send an event to every open stream and every sink.
+     */
+    public void publish(JSONObject event) {
+        String data = event.toString();
+        for (Consumer<String> sink : sinks) {
+            try {
+                sink.accept(data);
+            } catch (RuntimeException e) {
+                logger.warning("[VerifyMC] Review event sink failed: " + e.getMessage());
+            }
+        }
+        submit(() -> {
+            Event next = new Event(++sequence, data);
+            history.addLast(next);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            published.increment();
+            byte[] frame = next.frame(bootId);
+            for (Client client : new ArrayList<>(clients)) {
+                write(client, frame);
+            }
+        });
+    }
+
+    /**
+     * Answer the exchange with an event stream, replaying events after {@code lastEventId}.
+     *
+     * @return false if the client limit is reached and nothing was sent
+     */
+    public boolean subscribe(HttpExchange exchange, String lastEventId) throws IOException {
+        if (!reserve()) {
+            return false;
+        }
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+            exchange.sendResponseHeaders(200, 0);
+        } catch (IOException e) {
+            clientCount.decrementAndGet();
+            throw e;
+        }
+        attach(exchange.getResponseBody(), exchange::close, lastEventId);
+        return true;
+    }
+
+    boolean reserve() {
+        while (true) {
+            int current = clientCount.get();
+            if (current >= maxClients) {
+                rejected.increment();
+                return false;
+            }
+            if (clientCount.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Register a stream whose slot was taken with {@link #reserve()}.
+     */
+    void attach(OutputStream out, Runnable onClose, String lastEventId) {
+        Client client = new Client(out, onClose);
+        boolean accepted = submit(() -> {
+            write(client, ("retry: " + RETRY_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+            replay(client, lastEventId);
+            if (client.open) {
+                clients.add(client);
+                writer.schedule(() -> end(client), maxStreamMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        if (!accepted) {
+            clientCount.decrementAndGet();
+            client.close(true);
+        }
+    }
+
+    private void replay(Client client, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long after = parseSequence(lastEventId.trim());
+        long oldestKept = history.isEmpty() ? sequence + 1 : history.peekFirst().sequence;
+        if (after < 0 || after > sequence || after < oldestKept - 1) {
+            resets.increment();
+            String frame = "id: " + bootId + "-" + sequence + "\nevent: reset\ndata: {\"type\":\"reset\"}\n\n";
+            write(client, frame.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        for (Event event : history) {
+            if (event.sequence > after && client.open) {
+                replayed.increment();
+                write(client, event.frame(bootId));
+            }
+        }
+    }
+
+    /**
+     * The sequence number of an id issued since this server started, or -1.
+     */
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash <= 0 || !eventId.substring(0, dash).equals(bootId)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void heartbeat() {
+        for (Client client : new ArrayList<>(clients)) {
+            write(client, HEARTBEAT);
+        }
+    }
+
+    private void write(Client client, byte[] bytes) {
+        if (!client.open) {
+            return;
+        }
+        if (!client.offer(bytes)) {
+            slow.increment();
+            end(client, true);
+        }
+    }
+
+    private void end(Client client) {
+        end(client, false);
+    }
+
+    /**
+     * Remove the client; its stream is closed once the frames already queued are written,
+     * or right after the write in progress when {@code discard} is set.
+     */
+    private void end(Client client, boolean discard) {
+        if (!client.open) {
+            return;
+        }
+        client.open = false;
+        clients.remove(client);
+        clientCount.decrementAndGet();
+        client.close(discard);
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            writer.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * End all streams and stop the writer thread. Run before the HTTP engine stops so
+     * it does not wait for open streams.
+     */
+    public void shutdown() {
+        submit(() -> {
+            for (Client client : new ArrayList<>(clients)) {
+                end(client);
+            }
+        });
+        writer.shutdown();
+        awaitOrStop(writer);
+        delivery.shutdown();
+        awaitOrStop(delivery);
+    }
+
+    private static void awaitOrStop(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("clients", getClientCount());
+        json.put("max_clients", maxClients);
+        json.put("published", published.sum());
+        json.put("replayed", replayed.sum());
+        json.put("resets", resets.sum());
+        json.put("rejected", rejected.sum());
+        json.put("dropped", dropped.sum());
+        json.put("slow", slow.sum());
+        return json;
+    }
+
+    private record Event(long sequence, String data) {
+        byte[] frame(String bootId) {
+            StringBuilder frame = new StringBuilder(data.length() + 32);
+            frame.append("id: ").append(bootId).append('-').append(sequence).append('\n');
+            for (String line : data.split("\n", -1)) {
+                frame.append("data: ").append(line).append('\n');
+            }
+            return frame.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private final class Client {
+        private final OutputStream out;
+        private final Runnable onClose;
+        // Hub thread only
+        private boolean open = true;
+        // Guarded by this
+        private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+        private int pendingBytes;
+        private boolean draining;
+        private boolean closing;
+
+        private Client(OutputStream out, Runnable onClose) {
+            this.out = out;
+            this.onClose = onClose;
+        }
+
+        /**
+         * Queue a frame for delivery.
+         *
+         * @return false if the frame would take the client over its pending byte limit
+         */
+        private boolean offer(byte[] frame) {
+            synchronized (this) {
+                if (closing) {
+                    return true;
+                }
+                if (pendingBytes + frame.length > maxPendingBytes) {
+                    return false;
+                }
+                pending.addLast(frame);
+                pendingBytes += frame.length;
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            startDrain();
+            return true;
+        }
+
+        private void close(boolean discard) {
+            synchronized (this) {
+                if (closing) {
+                    return;
+                }
+                closing = true;
+                if (discard) {
+                    pending.clear();
+                    pendingBytes = 0;
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            startDrain();
+        }
+
+        private void startDrain() {
+            try {
+                delivery.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                closeStream();
+            }
+        }
+
+        // Runs on a delivery thread; only one drain per client runs at a time
+        private void drain() {
+            while (true) {
+                byte[] frame;
+                synchronized (this) {
+                    frame = pending.pollFirst();
+                    if (frame != null) {
+                        pendingBytes -= frame.length;
+                    } else {
+                        if (closing) {
+                            break;
+                        }
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    out.write(frame);
+                    out.flush();
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    synchronized (this) {
+                        closing = true;
+                        pending.clear();
+                        pendingBytes = 0;
+                    }
+                    submit(() -> end(this));
+                    break;
+                }
+            }
+            closeStream();
+        }
+
+        private void closeStream() {
+            try {
+                onClose.run();
+            } catch (RuntimeException ignored) {
+            }
+        }
+    }
+}
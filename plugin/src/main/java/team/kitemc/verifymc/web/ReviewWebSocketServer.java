@@ -80,13 +80,15 @@ public class ReviewWebSocketServer extends WebSocketServer {
                 return;
             }
 
-            if (!authHelper.validateToken(token)) {
+            // Same check as the HTTP API: signed tokens verify locally, others hit the store
+            String username = authHelper.getUsername(token);
+            if (username == null) {
                 debugLog("Connection rejected: invalid or expired token");
                 conn.close(CLOSE_CODE_POLICY_VIOLATION, "Invalid or expired token");
                 return;
             }
 
-            debugLog("Connection authenticated successfully");
+            debugLog("Connection authenticated successfully as " + username);
         }
 
         clients.add(conn);
@@ -0,0 +1,227 @@
+package team.kitemc.verifymc.web;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Self-contained web tokens: {@code base64url(payload) "." base64url(HMAC-SHA256(payload))}.
+ * <p>
+ * The payload holds a version byte, issue time, expiry, key id and username, so any node
+ * configured with the same keys validates a token with no store lookup. New tokens are
+ * signed with the active key; tokens signed with any other configured key stay valid until
+ * they expire, which is how keys are rotated.
+ * <p>
+ * Revocation is a small local list: revoked signatures until their expiry, and per-user
+ * cut-off times that reject every token the user was issued earlier. Once the list holds
+ * {@code maxRevocations} entries, every token issued so far is rejected instead.
+ */
+public class SignedTokenCodec {
+    private static final byte VERSION = 1;
+    private static final int MAC_LENGTH = 32;
+    private static final int MAX_TOKEN_LENGTH = 512;
+    private static final int MAX_KEY_ID_LENGTH = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Map<String, SigningKey> keys;
+    private final SigningKey activeKey;
+    private final long maxTtlMillis;
+    private final int maxRevocations;
+    private final LongSupplier clock;
+    private final Map<String, Long> revokedSignatures = new ConcurrentHashMap<>();
+    private final Map<String, Long> userCutoffs = new ConcurrentHashMap<>();
+    private volatile long globalCutoff = Long.MIN_VALUE;
+
+    /**
+     * @param keys secrets by key id, at least one
+     * @param activeKeyId key that signs new tokens
+     * @param maxTtlMillis longest lifetime of an issued token, used to expire revocations
+     */
+    public SignedTokenCodec(Map<String, byte[]> keys, String activeKeyId, long maxTtlMillis, int maxRevocations) {
+        this(keys, activeKeyId, maxTtlMillis, maxRevocations, System::currentTimeMillis);
+    }
+
+    SignedTokenCodec(Map<String, byte[]> keys, String activeKeyId, long maxTtlMillis, int maxRevocations,
+                     LongSupplier clock) {
+        Map<String, SigningKey> signingKeys = new LinkedHashMap<>();
+        keys.forEach((id, secret) -> {
+            if (id.isEmpty() || id.length() > MAX_KEY_ID_LENGTH || !StandardCharsets.US_ASCII.newEncoder().canEncode(id)) {
+                throw new IllegalArgumentException("Invalid signing key id: " + id);
+            }
+            signingKeys.put(id, new SigningKey(id, secret));
+        });
+        this.keys = Map.copyOf(signingKeys);
+        this.activeKey = Objects.requireNonNull(this.keys.get(activeKeyId), "Unknown active signing key: " + activeKeyId);
+        this.maxTtlMillis = maxTtlMillis;
+        this.maxRevocations = Math.max(1, maxRevocations);
+        this.clock = clock;
+    }
+
+    /**
+     * Whether {@code token} has the signed form; random store tokens never contain a dot.
+     */
+    public static boolean isSignedToken(String token) {
+        return token != null && token.indexOf('.') > 0;
+    }
+
+    public String issue(String username, long ttlMillis) {
+        long now = clock.getAsLong();
+        byte[] keyId = activeKey.id.getBytes(StandardCharsets.US_ASCII);
+        byte[] user = username.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 8 + 1 + keyId.length + user.length);
+        payload.put(VERSION).putLong(now).putLong(now + Math.min(ttlMillis, maxTtlMillis))
+                .put((byte) keyId.length).put(keyId).put(user);
+        String body = ENCODER.encodeToString(payload.array());
+        return body + "." + ENCODER.encodeToString(activeKey.sign(body));
+    }
+
+    /**
+     * @return the username of a correctly signed, unexpired and unrevoked token, else null
+     */
+    public String verify(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (now > claims.expiresAt || claims.issuedAt <= globalCutoff) {
+            return null;
+        }
+        Long cutoff = userCutoffs.get(claims.username.toLowerCase(Locale.ROOT));
+        if (cutoff != null && claims.issuedAt <= cutoff) {
+            return null;
+        }
+        if (!revokedSignatures.isEmpty() && revokedSignatures.containsKey(claims.signature)) {
+            return null;
+        }
+        return claims.username;
+    }
+
+    public void revoke(String token) {
+        Claims claims = parse(token);
+        if (claims == null || clock.getAsLong() > claims.expiresAt) {
+            return;
+        }
+        if (!makeRoom()) {
+            return;
+        }
+        revokedSignatures.put(claims.signature, claims.expiresAt);
+    }
+
+    /**
+     * Reject every token issued to {@code username} up to now.
+     */
+    public void revokeUser(String username) {
+        if (username == null || !makeRoom()) {
+            return;
+        }
+        userCutoffs.put(username.toLowerCase(Locale.ROOT), clock.getAsLong());
+    }
+
+    /**
+     * Drop revocations whose tokens have expired anyway.
+     *
+     * @return number of removed entries
+     */
+    public int purgeExpired(long now) {
+        int before = revocationCount();
+        revokedSignatures.values().removeIf(expiresAt -> expiresAt < now);
+        userCutoffs.values().removeIf(revokedAt -> revokedAt + maxTtlMillis < now);
+        return before - revocationCount();
+    }
+
+    public int revocationCount() {
+        return revokedSignatures.size() + userCutoffs.size();
+    }
+
+    /**
+     * @return false if the list was full and every current token was rejected instead
+     */
+    private boolean makeRoom() {
+        if (revocationCount() < maxRevocations) {
+            return true;
+        }
+        purgeExpired(clock.getAsLong());
+        if (revocationCount() < maxRevocations) {
+            return true;
+        }
+        globalCutoff = clock.getAsLong();
+        revokedSignatures.clear();
+        userCutoffs.clear();
+        return false;
+    }
+
+    private Claims parse(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || token.indexOf('.', dot + 1) >= 0) {
+            return null;
+        }
+        String body = token.substring(0, dot);
+        String signature = token.substring(dot + 1);
+        ByteBuffer payload;
+        byte[] mac;
+        try {
+            payload = ByteBuffer.wrap(DECODER.decode(body));
+            mac = DECODER.decode(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (mac.length != MAC_LENGTH || payload.remaining() < 18 || payload.get() != VERSION) {
+            return null;
+        }
+        long issuedAt = payload.getLong();
+        long expiresAt = payload.getLong();
+        int keyIdLength = payload.get() & 0xFF;
+        if (keyIdLength > payload.remaining()) {
+            return null;
+        }
+        byte[] keyId = new byte[keyIdLength];
+        payload.get(keyId);
+        SigningKey key = keys.get(new String(keyId, StandardCharsets.US_ASCII));
+        if (key == null || !MessageDigest.isEqual(mac, key.sign(body))) {
+            return null;
+        }
+        String username = new String(payload.array(), payload.position(), payload.remaining(), StandardCharsets.UTF_8);
+        return new Claims(username, issuedAt, expiresAt, signature);
+    }
+
+    private record Claims(String username, long issuedAt, long expiresAt, String signature) {
+    }
+
+    private static final class SigningKey {
+        private final String id;
+        private final ThreadLocal<Mac> mac;
+
+        SigningKey(String id, byte[] secret) {
+            this.id = id;
+            SecretKeySpec spec = new SecretKeySpec(secret.clone(), "HmacSHA256");
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance("HmacSHA256");
+                    instance.init(spec);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HmacSHA256 is not available", e);
+                }
+            });
+        }
+
+        byte[] sign(String body) {
+            return mac.get().doFinal(body.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
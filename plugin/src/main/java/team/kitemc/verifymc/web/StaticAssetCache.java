@@ -0,0 +1,337 @@
+package team.kitemc.verifymc.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of static front-end files, keyed by path and validated against the file's
+ * size and modification time.
+ * <p>
+ * Files up to {@link #MEMORY_LIMIT} bytes are kept on the heap; larger ones only keep
+ * their metadata and are streamed from disk on every request. Each file carries a
+ * strong ETag derived from its content, and its precompressed {@code .br}/{@code .gz}
+ * siblings are picked up next to it. A file is checked on disk at most once per
+ * {@link #REVALIDATE_MILLIS}, so replacing the theme directory is noticed without a
+ * reload.
+ */
+public final class StaticAssetCache {
+    public static final int MEMORY_LIMIT = 256 * 1024;
+    static final long REVALIDATE_MILLIS = 1000L;
+
+    public static final String ENCODING_BROTLI = "br";
+    public static final String ENCODING_GZIP = "gzip";
+
+    // Bundler output such as index-BkZ3x9aF.js (Vite) or app.5f2c9e1a0b.css (webpack)
+    private static final Pattern HASHED_NAME = Pattern.compile("[.-]([A-Za-z0-9_-]{8}|[a-f0-9]{8,32})\\.[A-Za-z0-9]+$");
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private final Map<Path, Asset> assets = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public StaticAssetCache() {
+        this(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    StaticAssetCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Look up a regular file, loading or refreshing it when it changed on disk.
+     *
+     * @return the asset, or null if the path does not exist or is a directory
+     */
+    public Asset get(Path path) throws IOException {
+        long now = clock.getAsLong();
+        Asset cached = assets.get(path);
+        if (cached != null && now - cached.checkedAt < REVALIDATE_MILLIS) {
+            return cached;
+        }
+        Asset current = refresh(cached, path, now);
+        if (current == null) {
+            // Misses are not cached: SPA routes would otherwise fill the map
+            assets.remove(path);
+            return null;
+        }
+        if (current != cached || now - current.variantsCheckedAt >= REVALIDATE_MILLIS) {
+            current.brotli = refresh(current.brotli, siblingOf(path, ".br"), now);
+            current.gzip = refresh(current.gzip, siblingOf(path, ".gz"), now);
+            current.variantsCheckedAt = now;
+        }
+        if (current != cached) {
+            assets.put(path, current);
+        }
+        return current;
+    }
+
+    public int size() {
+        return assets.size();
+    }
+
+    public void clear() {
+        assets.clear();
+    }
+
+    private static Path siblingOf(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName().toString() + suffix);
+    }
+
+    private static Asset refresh(Asset existing, Path path, long now) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attrs.isRegularFile()) {
+            return null;
+        }
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        if (existing != null && existing.size == attrs.size() && existing.lastModified == lastModified) {
+            existing.checkedAt = now;
+            return existing;
+        }
+        return load(path, attrs.size(), lastModified, now);
+    }
+
+    private static Asset load(Path path, long size, long lastModified, long now) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] data = null;
+        if (size <= MEMORY_LIMIT) {
+            data = Files.readAllBytes(path);
+            digest.update(data);
+            size = data.length;
+        } else {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(path)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+        }
+        // 128 bits of the content hash are plenty to tell two versions apart
+        byte[] hash = digest.digest();
+        String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        return new Asset(path, size, lastModified, etag, data, now);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Whether the file name carries a content hash, i.e. its content never changes: a
+     * Vite hash of 8 base64url characters with upper-case, lower-case and digits, or a
+     * webpack hash of 8 to 32 lower-case hex characters with both digits and letters.
+     * Words, dates and versions such as {@code jquery-validate.js},
+     * {@code app-20240101.js} or {@code logo-DarkMode.svg} do not qualify. A real hash
+     * that happens to miss a class is only cached briefly, so the check errs that way.
+     */
+    public static boolean isHashedName(String fileName) {
+        Matcher matcher = HASHED_NAME.matcher(fileName);
+        if (!matcher.find()) {
+            return false;
+        }
+        String hash = matcher.group(1);
+        boolean digit = false;
+        boolean lower = false;
+        boolean upper = false;
+        boolean hexLetter = false;
+        boolean other = false;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (c >= 'a' && c <= 'z') {
+                lower = true;
+                hexLetter |= c <= 'f';
+                other |= c > 'f';
+            } else {
+                upper |= c >= 'A' && c <= 'Z';
+                other = true;
+            }
+        }
+        boolean hex = !other && digit && hexLetter;
+        return hex || (hash.length() == 8 && digit && lower && upper);
+    }
+
+    /**
+     * Cache-Control for a file: entry pages are always revalidated, hashed bundles are
+     * immutable, and everything else (logos, favicons) is cached briefly.
+     */
+    public static String cacheControl(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".html")) {
+            return "no-cache";
+        }
+        if (isHashedName(fileName)) {
+            return "public, max-age=31536000, immutable";
+        }
+        return "public, max-age=300";
+    }
+
+    /**
+     * Pick the best precompressed representation the client accepts, or null for identity.
+     */
+    public static String negotiateEncoding(String acceptEncoding, Asset asset) {
+        if (acceptEncoding == null || (asset.brotli == null && asset.gzip == null)) {
+            return null;
+        }
+        boolean br = false;
+        boolean gzip = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            if (isRefused(tokens)) {
+                continue;
+            }
+            if (ENCODING_BROTLI.equals(coding)) {
+                br = true;
+            } else if (ENCODING_GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                gzip = true;
+            } else if ("*".equals(coding)) {
+                br = true;
+                gzip = true;
+            }
+        }
+        if (br && asset.brotli != null) {
+            return ENCODING_BROTLI;
+        }
+        if (gzip && asset.gzip != null) {
+            return ENCODING_GZIP;
+        }
+        return null;
+    }
+
+    private static boolean isRefused(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluate If-None-Match, or If-Modified-Since when no entity tag was sent.
+     */
+    public static boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String etag, long lastModified) {
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if ("*".equals(tag) || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince.trim(), HTTP_DATE).toInstant().toEpochMilli();
+                return lastModified / 1000 <= since / 1000;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public static String formatHttpDate(long epochMillis) {
+        return HTTP_DATE.format(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * One file on disk. {@link #getData()} is null when the file is too large to keep
+     * in memory and has to be streamed from {@link #getPath()}.
+     */
+    public static final class Asset {
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+        private final String etag;
+        private final byte[] data;
+        private volatile long checkedAt;
+        private volatile long variantsCheckedAt;
+        private volatile Asset brotli;
+        private volatile Asset gzip;
+
+        private Asset(Path path, long size, long lastModified, String etag, byte[] data, long checkedAt) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.data = data;
+            this.checkedAt = checkedAt;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public boolean hasVariants() {
+            return brotli != null || gzip != null;
+        }
+
+        /**
+         * The precompressed sibling for a content coding, or null if there is none.
+         */
+        public Asset getVariant(String encoding) {
+            if (ENCODING_BROTLI.equals(encoding)) {
+                return brotli;
+            }
+            if (ENCODING_GZIP.equals(encoding)) {
+                return gzip;
+            }
+            return null;
+        }
+    }
+}
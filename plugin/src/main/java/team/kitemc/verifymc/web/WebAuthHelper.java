@@ -2,39 +2,53 @@ package team.kitemc.verifymc.web;
 
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import org.bukkit.plugin.Plugin;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.I18nManager;
+import team.kitemc.verifymc.db.InMemoryTokenStore;
+import team.kitemc.verifymc.db.TokenRecord;
+import team.kitemc.verifymc.db.TokenStore;
 
 public class WebAuthHelper {
-    private static final long TOKEN_EXPIRY_TIME = 3600000;
+    public static final long TOKEN_EXPIRY_TIME = 3600000;
+    private static final int TOKEN_BYTES = 32;
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getEncoder();
     @SuppressWarnings("unused")
     private final Plugin plugin;
     private final I18nManager i18nManager;
-    private final ConcurrentHashMap<String, TokenInfo> validTokens = new ConcurrentHashMap<>();
+    private final TokenStore tokenStore;
+    private final SignedTokenCodec signedTokens;
     private final SecureRandom secureRandom = new SecureRandom();
-    private volatile Thread cleanupThread;
 
-    private static class TokenInfo {
-        final long expiryTime;
-        final String username;
+    public WebAuthHelper(Plugin plugin, I18nManager i18nManager) {
+        this(plugin, i18nManager, new InMemoryTokenStore());
+    }
 
-        TokenInfo(long expiryTime, String username) {
-            this.expiryTime = expiryTime;
-            this.username = username;
-        }
+    public WebAuthHelper(Plugin plugin, I18nManager i18nManager, TokenStore tokenStore) {
+        this(plugin, i18nManager, tokenStore, null);
     }
 
-    public WebAuthHelper(Plugin plugin, I18nManager i18nManager) {
+    /**
+     * @param signedTokens when set, new tokens are signed instead of stored; tokens already
+     *                     in the store keep working until they expire
+     */
+    public WebAuthHelper(Plugin plugin, I18nManager i18nManager, TokenStore tokenStore, SignedTokenCodec signedTokens) {
         this.plugin = plugin;
         this.i18nManager = Objects.requireNonNull(i18nManager, "i18nManager cannot be null");
+        this.tokenStore = Objects.requireNonNull(tokenStore, "tokenStore cannot be null");
+        this.signedTokens = signedTokens;
+    }
+
+    public TokenStore getTokenStore() {
+        return tokenStore;
+    }
+
+    public SignedTokenCodec getSignedTokens() {
+        return signedTokens;
     }
 
     public boolean isAuthenticated(HttpExchange exchange) {
@@ -47,21 +61,21 @@ public class WebAuthHelper {
     }
 
     public String generateSecureToken(String username) {
-        byte[] randomBytes = new byte[32];
-        secureRandom.nextBytes(randomBytes);
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(randomBytes);
-            md.update(Long.toString(System.currentTimeMillis()).getBytes());
-            byte[] hash = md.digest();
-            String token = Base64.getEncoder().encodeToString(hash);
-            validTokens.put(token, new TokenInfo(System.currentTimeMillis() + TOKEN_EXPIRY_TIME, username));
-            return token;
-        } catch (NoSuchAlgorithmException e) {
-            String token = Base64.getEncoder().encodeToString(randomBytes);
-            validTokens.put(token, new TokenInfo(System.currentTimeMillis() + TOKEN_EXPIRY_TIME, username));
-            return token;
+        if (signedTokens != null) {
+            return signedTokens.issue(username, TOKEN_EXPIRY_TIME);
         }
+        String token = randomToken(secureRandom);
+        tokenStore.saveToken(token, new TokenRecord(username, System.currentTimeMillis() + TOKEN_EXPIRY_TIME));
+        return token;
+    }
+
+    /**
+     * {@value #TOKEN_BYTES} random bytes in Base64; hashing them would add no entropy.
+     */
+    static String randomToken(SecureRandom random) {
+        byte[] randomBytes = new byte[TOKEN_BYTES];
+        random.nextBytes(randomBytes);
+        return TOKEN_ENCODER.encodeToString(randomBytes);
     }
 
     public String generateSecureToken() {
@@ -76,50 +90,74 @@ public class WebAuthHelper {
         return generateSecureToken("system");
     }
 
-    public void startTokenCleanupTask() {
-        Thread t = new Thread(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    Thread.sleep(300000);
-                    long currentTime = System.currentTimeMillis();
-                    validTokens.entrySet().removeIf(entry -> entry.getValue().expiryTime < currentTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-        });
-        t.setDaemon(true);
-        t.setName("VerifyMC-TokenCleanup");
-        t.start();
-        this.cleanupThread = t;
+    /**
+     * Drop expired tokens and signed-token revocations; run periodically by the plugin's
+     * housekeeping scheduler.
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tokenStore.purgeExpired(now);
+        if (signedTokens != null) {
+            signedTokens.purgeExpired(now);
+        }
     }
 
-    public void stopTokenCleanupTask() {
-        Thread t = this.cleanupThread;
-        if (t != null) {
-            t.interrupt();
-        }
+    /**
+     * Release the token store (e.g. close its database connection).
+     */
+    public void close() {
+        tokenStore.close();
     }
 
     public boolean validateToken(String token) {
-        TokenInfo tokenInfo = validTokens.get(token);
-        if (tokenInfo == null) {
+        if (SignedTokenCodec.isSignedToken(token)) {
+            return signedTokens != null && signedTokens.verify(token) != null;
+        }
+        TokenRecord tokenRecord = tokenStore.findToken(token);
+        if (tokenRecord == null) {
             return false;
         }
-        if (System.currentTimeMillis() > tokenInfo.expiryTime) {
-            validTokens.remove(token);
+        if (tokenRecord.isExpired(System.currentTimeMillis())) {
+            tokenStore.revokeToken(token);
             return false;
         }
         return true;
     }
 
     public String getUsername(String token) {
-        TokenInfo tokenInfo = validTokens.get(token);
-        if (tokenInfo == null || System.currentTimeMillis() > tokenInfo.expiryTime) {
+        if (SignedTokenCodec.isSignedToken(token)) {
+            return signedTokens != null ? signedTokens.verify(token) : null;
+        }
+        TokenRecord tokenRecord = tokenStore.findToken(token);
+        if (tokenRecord == null || tokenRecord.isExpired(System.currentTimeMillis())) {
             return null;
         }
-        return tokenInfo.username;
+        return tokenRecord.username();
+    }
+
+    /**
+     * Invalidate a single token. With a shared store, other nodes stop accepting it
+     * once their near-cache entry refreshes.
+     */
+    public void revokeToken(String token) {
+        if (SignedTokenCodec.isSignedToken(token)) {
+            if (signedTokens != null) {
+                signedTokens.revoke(token);
+            }
+            return;
+        }
+        tokenStore.revokeToken(token);
+    }
+
+    /**
+     * Invalidate every token issued to the given user, e.g. after a ban or deletion.
+     * Signed tokens are only revoked on this node.
+     */
+    public void revokeUserTokens(String username) {
+        tokenStore.revokeUserTokens(username);
+        if (signedTokens != null) {
+            signedTokens.revokeUser(username);
+        }
     }
 
     /**
@@ -150,17 +188,24 @@ public class WebAuthHelper {
         }
         
         String token = authHeader.substring(7);
-        TokenInfo tokenInfo = validTokens.get(token);
+        if (SignedTokenCodec.isSignedToken(token)) {
+            String username = getUsername(token);
+            if (username == null) {
+                sendAuthError(exchange, "auth.invalid_token", language);
+            }
+            return username;
+        }
+        TokenRecord tokenRecord = tokenStore.findToken(token);
         
-        if (tokenInfo == null || System.currentTimeMillis() > tokenInfo.expiryTime) {
-            if (tokenInfo != null) {
-                validTokens.remove(token);
+        if (tokenRecord == null || tokenRecord.isExpired(System.currentTimeMillis())) {
+            if (tokenRecord != null) {
+                tokenStore.revokeToken(token);
             }
             sendAuthError(exchange, "auth.invalid_token", language);
             return null;
         }
         
-        return tokenInfo.username;
+        return tokenRecord.username();
     }
 
     private void sendAuthError(HttpExchange exchange, String messageKey, String language) throws IOException {
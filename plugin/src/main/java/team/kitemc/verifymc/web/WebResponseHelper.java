@@ -1,11 +1,14 @@
 package team.kitemc.verifymc.web;
 
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Utility class for HTTP response handling.
@@ -13,29 +16,40 @@ import java.nio.charset.StandardCharsets;
  * (Preserved from original for backward compatibility.)
  */
 public final class WebResponseHelper {
+    private static volatile ResponseCompressor compressor;
+    // Stands in for the response body of an aborted exchange; closing it fails
+    private static final OutputStream ABORTED = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("response aborted");
+        }
+
+        @Override
+        public void close() throws IOException {
+            throw new IOException("response aborted");
+        }
+    };
+
     private WebResponseHelper() {}
 
+    /**
+     * Set the compressor applied to JSON responses, or null to send them uncompressed.
+     */
+    public static void setCompressor(ResponseCompressor responseCompressor) {
+        compressor = responseCompressor;
+    }
+
     /**
      * Read the request body as a JSONObject.
+     * The body is decoded directly from the stream and limited to the route's maximum size.
      * @param exchange the HTTP exchange
      * @return JSONObject parsed from request body, or empty JSONObject if body is empty
      * @throws IOException if an I/O error occurs
+     * @throws RequestBodyTooLargeException if the body exceeds the route's limit
      * @throws JSONException if the request body contains invalid JSON
      */
     public static JSONObject readJson(HttpExchange exchange) throws IOException, JSONException {
-        try (InputStream is = exchange.getRequestBody();
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
-            String body = sb.toString().trim();
-            if (body.isEmpty()) {
-                return new JSONObject();
-            }
-            return new JSONObject(body);  // Let JSONException propagate to caller
-        }
+        return JsonBodyReader.readObject(exchange);
     }
 
     /**
@@ -49,10 +63,20 @@ public final class WebResponseHelper {
      * Send a JSON response with the specified HTTP status code.
      */
     public static void sendJson(HttpExchange exchange, JSONObject json, int statusCode) throws IOException {
-        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        sendJsonBytes(exchange, json.toString().getBytes(StandardCharsets.UTF_8), statusCode);
+    }
+
+    /**
+     * Send an already serialised UTF-8 JSON body, compressed if the client accepts it.
+     */
+    public static void sendJsonBytes(HttpExchange exchange, byte[] bytes, int statusCode) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
         exchange.getResponseHeaders().set("X-Content-Type-Options", "nosniff");
         exchange.getResponseHeaders().set("X-Frame-Options", "DENY");
+        ResponseCompressor current = compressor;
+        if (current != null) {
+            bytes = current.encode(exchange, bytes);
+        }
         exchange.sendResponseHeaders(statusCode, bytes.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(bytes);
@@ -60,14 +84,125 @@ public final class WebResponseHelper {
     }
 
     /**
-     * Enforce the HTTP method. If the exchange does not match, sends 405 and returns false.
+     * Send a text body with the given content type, compressed if the client accepts it.
      */
-    public static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
-        if (exchange.getRequestMethod().equalsIgnoreCase(method)) {
-            return true;
+    public static void sendText(HttpExchange exchange, String body, String contentType, int statusCode) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("X-Content-Type-Options", "nosniff");
+        ResponseCompressor current = compressor;
+        if (current != null) {
+            bytes = current.encode(exchange, bytes);
+        }
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the body of a streamed JSON response.
+     */
+    @FunctionalInterface
+    public interface JsonBody {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Send a JSON response that is written straight to the client with chunked transfer
+     * encoding, for bodies too large to build in memory first. The output goes through
+     * one pooled buffer; gzip is applied when the client accepts it.
+     * <p>
+     * Load everything that can fail before calling this: once the body has started,
+     * the status code can no longer be changed. A failure while writing the body drops
+     * the connection, so the client cannot mistake a cut-off body for a complete one.
+     */
+    public static void sendJsonStream(HttpExchange exchange, int statusCode, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("X-Frame-Options", "DENY");
+        sendTextStream(exchange, statusCode, "application/json; charset=utf-8", chars -> {
+            JsonWriter writer = new JsonWriter(chars);
+            body.write(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Writes the body of a streamed text response.
+     */
+    @FunctionalInterface
+    public interface TextBody {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Send a UTF-8 text response of any content type with chunked transfer encoding,
+     * the same way as {@link #sendJsonStream}.
+     */
+    public static void sendTextStream(HttpExchange exchange, int statusCode, String contentType, TextBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("X-Content-Type-Options", "nosniff");
+        ResponseCompressor current = compressor;
+        boolean gzip = current != null && current.negotiateStream(exchange);
+        exchange.sendResponseHeaders(statusCode, 0);
+
+        OutputStream out = gzip ? current.gzipStream(exchange.getResponseBody()) : exchange.getResponseBody();
+        PooledUtf8Writer chars = new PooledUtf8Writer(out);
+        boolean complete = false;
+        try {
+            body.write(chars);
+            chars.close();
+            complete = true;
+        } finally {
+            if (!complete) {
+                // Closing would write the gzip trailer and the last chunk
+                chars.discard();
+                if (gzip) {
+                    current.discard(out);
+                }
+                abort(exchange);
+            }
+        }
+    }
+
+    /**
+     * End the exchange by dropping the connection instead of completing the response.
+     * Both engines close the connection when closing the response stream fails.
+     */
+    public static void abort(HttpExchange exchange) {
+        exchange.setStreams(null, ABORTED);
+        exchange.close();
+    }
+
+    /**
+     * Write a plain Java value (as returned by the DAOs) to a streamed JSON response.
+     * Null map entries are skipped, matching {@code new JSONObject(map)}.
+     */
+    public static void writeJsonValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null || value == JSONObject.NULL) {
+            writer.nullValue();
+        } else if (value instanceof String string) {
+            writer.value(string);
+        } else if (value instanceof Boolean bool) {
+            writer.value(bool.booleanValue());
+        } else if (value instanceof Number number) {
+            writer.value(number);
+        } else if (value instanceof Map<?, ?> map) {
+            writer.beginObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() != null) {
+                    writer.name(String.valueOf(entry.getKey()));
+                    writeJsonValue(writer, entry.getValue());
+                }
+            }
+            writer.endObject();
+        } else if (value instanceof Collection<?> collection) {
+            writer.beginArray();
+            for (Object item : collection) {
+                writeJsonValue(writer, item);
+            }
+            writer.endArray();
+        } else {
+            writer.value(String.valueOf(value));
         }
-        JSONObject error = new JSONObject().put("success", false).put("msg", "Method Not Allowed");
-        sendJson(exchange, error, 405);
-        return false;
     }
 }
@@ -1,28 +1,31 @@
 package team.kitemc.verifymc.web;
 
-import com.sun.net.httpserver.HttpsConfigurator;
-import com.sun.net.httpserver.HttpsParameters;
-import com.sun.net.httpserver.HttpsServer;
-import com.sun.net.httpserver.HttpServer;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.engine.HttpEngine;
+import team.kitemc.verifymc.web.engine.JdkHttpEngine;
+import team.kitemc.verifymc.web.engine.NettyHttpEngine;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLParameters;
 
 /**
  * Lightweight web server wrapper. Reduced from 1862 lines to ~80 lines.
  * <p>
- * All routing logic is delegated to {@link ApiRouter}. This class is
- * responsible only for server lifecycle: start, stop, and thread pool setup.
+ * All routing logic is delegated to {@link ApiRouter} and the transport to an
+ * {@link HttpEngine}. This class is responsible only for server lifecycle:
+ * start, stop, engine selection and thread pool setup.
  */
 public class WebServer {
+    private static final String NETTY_ENGINE = "netty";
+
     private final PluginContext ctx;
     private final SSLContext sslContext;
-    private HttpServer server;
+    private HttpEngine engine;
+    private HttpExecutor executor;
     private final ApiRouter router;
+    private final LoadShedder loadShedder;
+    private final HttpConnectionLimits connectionLimits;
+    private ResponseCompressor compressor;
 
     public WebServer(PluginContext ctx) {
         this(ctx, null);
@@ -31,7 +34,12 @@ public class WebServer {
     public WebServer(PluginContext ctx, SSLContext sslContext) {
         this.ctx = ctx;
         this.sslContext = sslContext;
-        this.router = new ApiRouter(ctx);
+        this.loadShedder = new LoadShedder(
+                ctx.getConfigManager().isLoadSheddingEnabled(),
+                ctx.getConfigManager().getLoadSheddingTargetDelayMillis(),
+                ctx.getConfigManager().getLoadSheddingIntervalMillis());
+        this.connectionLimits = HttpConnectionLimits.fromConfig(ctx.getConfigManager());
+        this.router = new ApiRouter(ctx, loadShedder);
     }
 
     /**
@@ -40,52 +48,109 @@ public class WebServer {
     public void start() {
         int port = ctx.getConfigManager().getWebPort();
         boolean sslEnabled = ctx.getConfigManager().isSslEnabled();
+        if (sslEnabled && sslContext == null) {
+            throw new IllegalStateException("SSL is enabled but no SSLContext was provided");
+        }
+        boolean started = false;
         try {
-            server = sslEnabled ? createHttpsServer(port) : HttpServer.create(new InetSocketAddress(port), 0);
-            server.setExecutor(Executors.newFixedThreadPool(
-                    Runtime.getRuntime().availableProcessors() * 2));
+            executor = HttpExecutor.create(
+                    ctx.getConfigManager().getHttpExecutorMode(),
+                    ctx.getConfigManager().getHttpExecutorThreads(),
+                    ctx.getConfigManager().getHttpExecutorQueueSize(),
+                    loadShedder.queue("http"),
+                    ctx.getPlugin().getLogger());
+            engine = createEngine(port, sslEnabled ? sslContext : null);
+            if (ctx.getConfigManager().isHttpCompressionEnabled()) {
+                compressor = new ResponseCompressor(
+                        ctx.getConfigManager().getHttpCompressionMinSize(),
+                        ctx.getConfigManager().getHttpCompressionLevel());
+            }
+            WebResponseHelper.setCompressor(compressor);
 
             // Register all API routes via the router
-            router.registerRoutes(server);
+            router.registerRoutes(engine);
 
-            server.start();
+            engine.start();
+            started = true;
             String protocol = sslEnabled ? "HTTPS" : "HTTP";
-            ctx.getPlugin().getLogger().info("[VerifyMC] " + protocol + " web server started on port " + port);
+            ctx.getPlugin().getLogger().info("[VerifyMC] " + protocol + " web server started on port " + port
+                    + " (" + engine.getName() + " engine, " + executor.getMode() + " executor)");
         } catch (IOException e) {
             ctx.getPlugin().getLogger().severe("[VerifyMC] Failed to start web server: " + e.getMessage());
+        } finally {
+            if (!started) {
+                // Threads and the bound port of a half-started server would otherwise leak
+                release();
+            }
         }
     }
 
-    private HttpsServer createHttpsServer(int port) throws IOException {
-        if (sslContext == null) {
-            throw new IllegalStateException("SSL is enabled but no SSLContext was provided");
+    private HttpEngine createEngine(int port, SSLContext ssl) throws IOException {
+        if (NETTY_ENGINE.equals(ctx.getConfigManager().getHttpEngine())) {
+            return new NettyHttpEngine(port, ssl, executor, connectionLimits,
+                    ctx.getConfigManager().getHttpMaxBodyBytesCeiling(), ctx.getPlugin().getLogger());
         }
-
-        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress(port), 0);
-        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
-            @Override
-            public void configure(HttpsParameters params) {
-                SSLParameters sslParameters = getSSLContext().getDefaultSSLParameters();
-                params.setSSLParameters(sslParameters);
-            }
-        });
-        return httpsServer;
+        return new JdkHttpEngine(port, ssl, executor, connectionLimits, ctx.getPlugin().getLogger());
     }
 
     /**
      * Stop the HTTP server gracefully.
      */
     public void stop() {
-        if (server != null) {
-            server.stop(0);
+        boolean running = engine != null;
+        release();
+        if (running) {
             ctx.getPlugin().getLogger().info("[VerifyMC] Web server stopped.");
         }
     }
 
+    private void release() {
+        if (engine != null) {
+            engine.stop();
+            engine = null;
+        }
+        router.shutdown();
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        WebResponseHelper.setCompressor(null);
+        if (compressor != null) {
+            compressor.shutdown();
+            compressor = null;
+        }
+    }
+
+    /**
+     * Get the executor running HTTP exchanges, or null while the server is not running.
+     */
+    public HttpExecutor getExecutor() {
+        return executor;
+    }
+
+    public HttpConnectionLimits getConnectionLimits() {
+        return connectionLimits;
+    }
+
+    public LoadShedder getLoadShedder() {
+        return loadShedder;
+    }
+
+    /**
+     * Get the JSON response compressor, or null when compression is disabled.
+     */
+    public ResponseCompressor getCompressor() {
+        return compressor;
+    }
+
+    public ApiRouter getRouter() {
+        return router;
+    }
+
     /**
-     * Get the underlying HTTP server instance (for tests or advanced usage).
+     * Get the HTTP engine serving requests, or null before {@link #start()}.
      */
-    public HttpServer getServer() {
-        return server;
+    public HttpEngine getEngine() {
+        return engine;
     }
 }
@@ -0,0 +1,106 @@
+package team.kitemc.verifymc.web.engine;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.concurrent.ScheduledFuture;
+import team.kitemc.verifymc.web.HttpConnectionLimits;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closes connections that stay too long in one phase, with the same meaning as the
+ * JDK engine's limits: receiving a request, producing its response, or idling.
+ * Sits first in the connection pipeline so the request timer starts on the first
+ * byte, before headers are parsed. All methods run on the connection's event loop.
+ */
+final class ConnectionTimeoutHandler extends ChannelInboundHandlerAdapter {
+    private enum Phase { IDLE, REQUEST, RESPONSE }
+
+    private final HttpConnectionLimits limits;
+    private ChannelHandlerContext ctx;
+    private ScheduledFuture<?> timer;
+    private Phase phase = Phase.IDLE;
+    private int pendingResponses;
+
+    ConnectionTimeoutHandler(HttpConnectionLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        enter(Phase.IDLE);
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (phase == Phase.IDLE) {
+            enter(Phase.REQUEST);
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        cancelTimer();
+        super.channelInactive(ctx);
+    }
+
+    /**
+     * A complete request was received; its response is now being produced.
+     */
+    void requestReceived() {
+        pendingResponses++;
+        enter(Phase.RESPONSE);
+    }
+
+    /**
+     * The last byte of a response was written.
+     */
+    void responseCompleted() {
+        if (pendingResponses > 0) {
+            pendingResponses--;
+        }
+        if (pendingResponses == 0) {
+            enter(Phase.IDLE);
+        }
+    }
+
+    private void enter(Phase next) {
+        phase = next;
+        cancelTimer();
+        if (ctx == null || !ctx.channel().isActive()) {
+            return;
+        }
+        long seconds = switch (next) {
+            case IDLE -> limits.getIdleTimeoutSeconds();
+            case REQUEST -> limits.getRequestTimeoutSeconds();
+            case RESPONSE -> limits.getResponseTimeoutSeconds();
+        };
+        timer = ctx.executor().schedule(() -> expire(next), seconds, TimeUnit.SECONDS);
+    }
+
+    private void expire(Phase expired) {
+        if (phase != expired || !ctx.channel().isActive()) {
+            return;
+        }
+        switch (expired) {
+            case IDLE -> limits.recordIdleClose();
+            case REQUEST -> limits.recordRequestTimeout();
+            case RESPONSE -> limits.recordResponseTimeout();
+        }
+        ctx.close();
+    }
+
+    private void cancelTimer() {
+        if (timer != null) {
+            timer.cancel(false);
+            timer = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package team.kitemc.verifymc.web.engine;
+
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+/**
+ * Transport behind {@link team.kitemc.verifymc.web.WebServer}.
+ * <p>
+ * Handlers are registered by path prefix with the same matching rules as
+ * {@code HttpServer#createContext}: the longest registered prefix of the request
+ * path wins. Every engine runs handlers on the executor it was given, so handlers
+ * may block.
+ */
+public interface HttpEngine {
+    /**
+     * Short name used in logs and config ({@code jdk} or {@code netty}).
+     */
+    String getName();
+
+    void createContext(String path, HttpHandler handler);
+
+    /**
+     * Bind the configured port and start accepting connections.
+     */
+    void start() throws IOException;
+
+    /**
+     * Stop accepting connections and close the open ones.
+     */
+    void stop();
+}
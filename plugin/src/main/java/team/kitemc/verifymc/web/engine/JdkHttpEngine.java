@@ -0,0 +1,67 @@
+package team.kitemc.verifymc.web.engine;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import team.kitemc.verifymc.web.HttpConnectionLimits;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * Engine backed by the JDK's built-in {@code com.sun.net.httpserver} implementation.
+ * One executor thread is occupied per in-flight exchange.
+ */
+public class JdkHttpEngine implements HttpEngine {
+    private final HttpServer server;
+
+    public JdkHttpEngine(int port, SSLContext sslContext, Executor executor,
+                         HttpConnectionLimits limits, Logger logger) throws IOException {
+        // Must happen before the first server of this JVM is created
+        limits.applyToJdkServer(logger);
+        InetSocketAddress address = new InetSocketAddress(port);
+        this.server = sslContext != null
+                ? createHttpsServer(address, sslContext, limits.getBacklog())
+                : HttpServer.create(address, limits.getBacklog());
+        this.server.setExecutor(executor);
+    }
+
+    private static HttpsServer createHttpsServer(InetSocketAddress address, SSLContext sslContext, int backlog)
+            throws IOException {
+        HttpsServer httpsServer = HttpsServer.create(address, backlog);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+            @Override
+            public void configure(HttpsParameters params) {
+                SSLParameters sslParameters = getSSLContext().getDefaultSSLParameters();
+                params.setSSLParameters(sslParameters);
+            }
+        });
+        return httpsServer;
+    }
+
+    @Override
+    public String getName() {
+        return "jdk";
+    }
+
+    @Override
+    public void createContext(String path, HttpHandler handler) {
+        server.createContext(path, handler);
+    }
+
+    @Override
+    public void start() {
+        server.start();
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+    }
+}
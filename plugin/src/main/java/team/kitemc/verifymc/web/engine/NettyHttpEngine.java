@@ -0,0 +1,240 @@
+package team.kitemc.verifymc.web.engine;
+
+import com.sun.net.httpserver.HttpHandler;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpServerKeepAliveHandler;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2SecurityUtil;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.ClientAuth;
+import io.netty.handler.ssl.JdkSslContext;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SupportedCipherSuiteFilter;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import team.kitemc.verifymc.web.HttpConnectionLimits;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Event-loop engine built on Netty.
+ * <p>
+ * A small number of I/O threads parse requests and write responses; handlers are
+ * offloaded to the shared executor, so a slow handler never blocks a socket. Supports
+ * HTTP/1.1 keep-alive with pipelining (responses are sent in request order) and, when
+ * TLS is enabled, HTTP/2 negotiated through ALPN. Response bodies are streamed in
+ * chunks and a writer waits while the client is not reading.
+ */
+public class NettyHttpEngine implements HttpEngine {
+    static final int CHUNK_SIZE = 16 * 1024;
+
+    private final int port;
+    private final SSLContext sslContext;
+    private final Executor executor;
+    private final HttpConnectionLimits limits;
+    private final int maxContentLength;
+    private final Logger logger;
+    private final List<NettyHttpContext> contexts = new CopyOnWriteArrayList<>();
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel serverChannel;
+
+    /**
+     * @param maxContentLength largest request body any route accepts; bodies are held in
+     *                         memory up to this size before the route's own limit applies
+     */
+    public NettyHttpEngine(int port, SSLContext sslContext, Executor executor,
+                           HttpConnectionLimits limits, int maxContentLength, Logger logger) {
+        this.port = port;
+        this.sslContext = sslContext;
+        this.executor = executor;
+        this.limits = limits;
+        limits.trackConnections();
+        this.maxContentLength = maxContentLength;
+        this.logger = logger;
+    }
+
+    @Override
+    public String getName() {
+        return "netty";
+    }
+
+    @Override
+    public void createContext(String path, HttpHandler handler) {
+        NettyHttpContext context = new NettyHttpContext(path, handler);
+        contexts.add(context);
+        // Longest prefix first, matching HttpServer#createContext semantics
+        contexts.sort((a, b) -> Integer.compare(b.getPath().length(), a.getPath().length()));
+    }
+
+    NettyHttpContext findContext(String path) {
+        for (NettyHttpContext context : contexts) {
+            if (path.startsWith(context.getPath())) {
+                return context;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void start() throws IOException {
+        SslContext nettySslContext = sslContext != null ? createSslContext(sslContext) : null;
+        bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("VerifyMC-Netty-Boss", true));
+        workerGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("VerifyMC-Netty-IO", true));
+
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, limits.getBacklog())
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(CHUNK_SIZE * 2, CHUNK_SIZE * 4))
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        if (!admit(ch)) {
+                            return;
+                        }
+                        ChannelPipeline pipeline = ch.pipeline();
+                        pipeline.addLast("timeouts", new ConnectionTimeoutHandler(limits));
+                        if (nettySslContext == null) {
+                            configureHttp1(pipeline);
+                            return;
+                        }
+                        pipeline.addLast("ssl", nettySslContext.newHandler(ch.alloc()));
+                        pipeline.addLast("alpn", new ApplicationProtocolNegotiationHandler(ApplicationProtocolNames.HTTP_1_1) {
+                            @Override
+                            protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+                                if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+                                    configureHttp2(ctx.pipeline());
+                                } else {
+                                    configureHttp1(ctx.pipeline());
+                                }
+                            }
+                        });
+                    }
+                });
+
+        try {
+            serverChannel = bootstrap.bind(port).sync().channel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+            throw new IOException("Interrupted while binding port " + port, e);
+        } catch (RuntimeException e) {
+            stop();
+            throw new IOException("Failed to bind port " + port + ": " + e.getMessage(), e);
+        }
+    }
+
+    private boolean admit(SocketChannel ch) {
+        int open = limits.connectionOpened();
+        int max = limits.getMaxConnections();
+        if (max > 0 && open > max) {
+            limits.connectionClosed();
+            limits.recordRefused();
+            ch.close();
+            return false;
+        }
+        ch.closeFuture().addListener(future -> limits.connectionClosed());
+        return true;
+    }
+
+    void configureHttp1(ChannelPipeline pipeline) {
+        pipeline.addLast("http", new HttpServerCodec());
+        pipeline.addLast("keep-alive", new HttpServerKeepAliveHandler());
+        pipeline.addLast("aggregator", new BodyLimitAggregator(maxContentLength));
+        pipeline.addLast("handler", new NettyRequestHandler(this, "HTTP/1.1"));
+    }
+
+    private void configureHttp2(ChannelPipeline pipeline) {
+        pipeline.addLast("http2", Http2FrameCodecBuilder.forServer().build());
+        pipeline.addLast("multiplex", new Http2MultiplexHandler(new ChannelInitializer<Channel>() {
+            @Override
+            protected void initChannel(Channel stream) {
+                stream.pipeline().addLast("http", new Http2StreamFrameToHttpObjectCodec(true));
+                stream.pipeline().addLast("aggregator", new BodyLimitAggregator(maxContentLength));
+                stream.pipeline().addLast("handler", new NettyRequestHandler(NettyHttpEngine.this, "HTTP/2"));
+            }
+        }));
+    }
+
+    private static SslContext createSslContext(SSLContext sslContext) {
+        ApplicationProtocolConfig alpn = new ApplicationProtocolConfig(
+                ApplicationProtocolConfig.Protocol.ALPN,
+                ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                ApplicationProtocolNames.HTTP_2,
+                ApplicationProtocolNames.HTTP_1_1);
+        return new JdkSslContext(sslContext, false, Http2SecurityUtil.CIPHERS, SupportedCipherSuiteFilter.INSTANCE,
+                alpn, ClientAuth.NONE, null, false);
+    }
+
+    /**
+     * Run the exchange's handler on the executor. Called on the connection's event loop.
+     */
+    void dispatch(NettyHttpExchange exchange) {
+        NettyHttpContext context = findContext(exchange.getRequestURI().getPath());
+        if (context == null) {
+            exchange.sendEmpty(404);
+            return;
+        }
+        exchange.setHttpContext(context);
+        try {
+            executor.execute(() -> run(exchange, context));
+        } catch (RejectedExecutionException e) {
+            exchange.sendEmpty(503);
+        }
+    }
+
+    private void run(NettyHttpExchange exchange, NettyHttpContext context) {
+        try {
+            context.getHandler().handle(exchange);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "[VerifyMC] Error handling " + exchange.getRequestURI().getPath(), e);
+            exchange.abort();
+        }
+    }
+
+    HttpConnectionLimits getLimits() {
+        return limits;
+    }
+
+    @Override
+    public void stop() {
+        if (serverChannel != null) {
+            serverChannel.close().awaitUninterruptibly();
+            serverChannel = null;
+        }
+        if (bossGroup != null) {
+            bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+            bossGroup = null;
+        }
+        if (workerGroup != null) {
+            workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+            workerGroup = null;
+        }
+    }
+}
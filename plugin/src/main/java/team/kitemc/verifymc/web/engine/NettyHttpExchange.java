@@ -0,0 +1,344 @@
+package team.kitemc.verifymc.web.engine;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.handler.codec.DateFormatter;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link HttpExchange} backed by a Netty channel, so existing handlers run unchanged.
+ * <p>
+ * Follows the JDK contract for {@link #sendResponseHeaders(int, long)}: a positive
+ * length is sent as Content-Length, 0 streams the body in chunks and -1 means no body.
+ * The response body is written in {@link NettyHttpEngine#CHUNK_SIZE} pieces; when the
+ * client stops reading, the writing thread waits instead of buffering without bound.
+ */
+final class NettyHttpExchange extends HttpExchange {
+    private final Channel channel;
+    private final String method;
+    private final URI uri;
+    private final String protocol;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final long writeTimeoutMillis;
+    private final Runnable onFinished;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private volatile HttpContext context;
+    private volatile int responseCode = -1;
+    private volatile boolean headersSent;
+
+    NettyHttpExchange(Channel channel, FullHttpRequest request, URI uri, String protocol,
+                      long writeTimeoutMillis, Runnable onFinished) {
+        this.channel = channel;
+        this.method = request.method().name();
+        this.uri = uri;
+        this.protocol = "HTTP/2".equals(protocol) ? protocol : request.protocolVersion().text();
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        this.onFinished = onFinished;
+        for (Map.Entry<String, String> header : request.headers()) {
+            requestHeaders.add(header.getKey(), header.getValue());
+        }
+        // The request is released by the pipeline once read; keep our own copy of the body
+        this.requestBody = new ByteArrayInputStream(ByteBufUtil.getBytes(request.content()));
+        this.responseBody = new ResponseStream();
+    }
+
+    void setHttpContext(HttpContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (headersSent) {
+            throw new IOException("headers already sent");
+        }
+        headersSent = true;
+        responseCode = rCode;
+
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.valueOf(rCode));
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            response.headers().add(header.getKey(), header.getValue());
+        }
+        if (!response.headers().contains(HttpHeaderNames.DATE)) {
+            response.headers().set(HttpHeaderNames.DATE, DateFormatter.format(new Date()));
+        }
+
+        boolean noBody = responseLength < 0 || "HEAD".equals(method) || rCode == 204 || rCode == 304;
+        if (noBody) {
+            if (rCode != 204 && rCode != 304 && !"HEAD".equals(method)) {
+                HttpUtil.setContentLength(response, 0);
+            }
+            channel.write(response);
+            finish(null);
+        } else if (responseLength == 0) {
+            HttpUtil.setTransferEncodingChunked(response, true);
+            channel.write(response);
+        } else {
+            HttpUtil.setContentLength(response, responseLength);
+            channel.write(response);
+        }
+    }
+
+    /**
+     * Send a bodiless response without going through a handler.
+     */
+    void sendEmpty(int rCode) {
+        try {
+            sendResponseHeaders(rCode, -1);
+        } catch (IOException e) {
+            abort();
+        }
+    }
+
+    /**
+     * The handler failed: answer 500 if nothing was sent yet, otherwise drop the connection.
+     */
+    void abort() {
+        if (!headersSent) {
+            sendEmpty(500);
+            return;
+        }
+        if (finished.compareAndSet(false, true)) {
+            channel.close().addListener(future -> onFinished.run());
+        }
+    }
+
+    private void finish(ByteBuf tail) {
+        if (!finished.compareAndSet(false, true)) {
+            if (tail != null) {
+                tail.release();
+            }
+            return;
+        }
+        LastHttpContent last = tail != null ? new DefaultLastHttpContent(tail) : LastHttpContent.EMPTY_LAST_CONTENT;
+        channel.writeAndFlush(last).addListener(future -> onFinished.run());
+    }
+
+    private void writeChunk(ByteBuf chunk) throws IOException {
+        if (!channel.isActive()) {
+            chunk.release();
+            throw new IOException("Connection closed by client");
+        }
+        ChannelFuture future = channel.writeAndFlush(new DefaultHttpContent(chunk));
+        // Backpressure: let the socket drain before producing more, never on the event loop itself
+        if (!channel.isWritable() && !channel.eventLoop().inEventLoop()) {
+            if (!future.awaitUninterruptibly(writeTimeoutMillis) || !future.isSuccess()) {
+                channel.close();
+                throw new IOException("Client did not read the response in time");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            requestBody.close();
+        } catch (IOException ignored) {
+        }
+        if (!headersSent) {
+            // Same as the JDK server: an exchange closed without a response drops the connection
+            if (finished.compareAndSet(false, true)) {
+                channel.close().addListener(future -> onFinished.run());
+            }
+            return;
+        }
+        try {
+            responseBody.close();
+        } catch (IOException e) {
+            abort();
+        }
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return (InetSocketAddress) connection().remoteAddress();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) connection().localAddress();
+    }
+
+    private Channel connection() {
+        return channel instanceof Http2StreamChannel ? channel.parent() : channel;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+        if (o != null) {
+            responseBody = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Buffers up to one chunk and hands full chunks to the channel.
+     */
+    private final class ResponseStream extends OutputStream {
+        private ByteBuf buffer;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureWritable();
+            buffer.writeByte(b);
+            if (buffer.readableBytes() >= NettyHttpEngine.CHUNK_SIZE) {
+                flushBuffer();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ensureWritable();
+                int n = Math.min(len, NettyHttpEngine.CHUNK_SIZE - buffer.readableBytes());
+                buffer.writeBytes(b, off, n);
+                off += n;
+                len -= n;
+                if (buffer.readableBytes() >= NettyHttpEngine.CHUNK_SIZE) {
+                    flushBuffer();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!closed && buffer != null && buffer.isReadable()) {
+                flushBuffer();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ByteBuf tail = buffer != null && buffer.isReadable() ? buffer : null;
+            if (tail == null && buffer != null) {
+                buffer.release();
+            }
+            buffer = null;
+            finish(tail);
+        }
+
+        private void ensureWritable() throws IOException {
+            if (closed) {
+                throw new IOException("stream is closed");
+            }
+            if (!headersSent) {
+                throw new IOException("response headers not sent yet");
+            }
+            if (finished.get()) {
+                throw new IOException("response already complete");
+            }
+            if (buffer == null) {
+                buffer = channel.alloc().buffer(NettyHttpEngine.CHUNK_SIZE);
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            ByteBuf chunk = buffer;
+            buffer = null;
+            writeChunk(chunk);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package team.kitemc.verifymc.web.engine;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Turns aggregated requests into {@link NettyHttpExchange}s, one channel at a time.
+ * <p>
+ * Pipelined HTTP/1.1 requests are queued and dispatched only after the previous
+ * response has been fully written, so responses leave in request order. With HTTP/2
+ * each stream has its own channel and handler instance.
+ */
+final class NettyRequestHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+    private final NettyHttpEngine engine;
+    private final String protocol;
+    private final Deque<NettyHttpExchange> pending = new ArrayDeque<>();
+    private boolean inFlight;
+
+    NettyRequestHandler(NettyHttpEngine engine, String protocol) {
+        this.engine = engine;
+        this.protocol = protocol;
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+        ConnectionTimeoutHandler timeouts = timeouts(ctx.channel());
+        if (timeouts != null) {
+            timeouts.requestReceived();
+        }
+
+        URI uri = parseUri(request.uri());
+        if (!request.decoderResult().isSuccess() || uri == null) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST);
+            HttpUtil.setContentLength(response, 0);
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            return;
+        }
+
+        long writeTimeoutMillis = engine.getLimits().getResponseTimeoutSeconds() * 1000L;
+        pending.add(new NettyHttpExchange(ctx.channel(), request, uri, protocol, writeTimeoutMillis,
+                () -> exchangeFinished(ctx)));
+        if (!inFlight) {
+            dispatchNext();
+        }
+    }
+
+    private void exchangeFinished(ChannelHandlerContext ctx) {
+        ConnectionTimeoutHandler timeouts = timeouts(ctx.channel());
+        if (timeouts != null) {
+            timeouts.responseCompleted();
+        }
+        inFlight = false;
+        dispatchNext();
+    }
+
+    private void dispatchNext() {
+        NettyHttpExchange next = pending.poll();
+        if (next == null) {
+            return;
+        }
+        inFlight = true;
+        engine.dispatch(next);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        pending.clear();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        // Resets, TLS failures and malformed input; nothing useful to report to the client
+        ctx.close();
+    }
+
+    private static URI parseUri(String rawUri) {
+        try {
+            return URI.create(rawUri);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ConnectionTimeoutHandler timeouts(Channel channel) {
+        Channel connection = channel instanceof Http2StreamChannel ? channel.parent() : channel;
+        return connection.pipeline().get(ConnectionTimeoutHandler.class);
+    }
+}
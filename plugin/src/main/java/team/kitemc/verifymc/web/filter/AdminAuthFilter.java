@@ -0,0 +1,39 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.security.AdminAction;
+import team.kitemc.verifymc.web.handler.AdminAuthUtil;
+
+import java.io.IOException;
+
+/**
+ * Requires an admin token allowed to perform the route's {@link AdminAction}.
+ * The admin's username is available to the handler through
+ * {@link AdminAuthUtil#getAdmin(HttpExchange)}.
+ */
+public class AdminAuthFilter extends Filter {
+    private final PluginContext ctx;
+    private final AdminAction action;
+
+    public AdminAuthFilter(PluginContext ctx, AdminAction action) {
+        this.ctx = ctx;
+        this.action = action;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String admin = AdminAuthUtil.requireAdmin(exchange, ctx, action);
+        if (admin == null) {
+            return;
+        }
+        exchange.setAttribute(AdminAuthUtil.ADMIN_ATTRIBUTE, admin);
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Admin " + action;
+    }
+}
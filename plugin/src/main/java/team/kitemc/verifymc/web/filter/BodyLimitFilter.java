@@ -0,0 +1,70 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.JsonBodyReader;
+import team.kitemc.verifymc.web.RequestBodyTooLargeException;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+
+/**
+ * Enforces a route's maximum request body size.
+ * <p>
+ * A declared Content-Length above the limit is refused with 413 before the handler
+ * runs; chunked or under-declared bodies are cut off by {@link JsonBodyReader} once
+ * the limit is crossed, and the resulting {@link RequestBodyTooLargeException} is
+ * answered here. The connection is closed so the rest of the body is not read.
+ * Runs last, so an overflow is answered on whichever thread runs the handler.
+ */
+public class BodyLimitFilter extends Filter {
+    private final int maxBytes;
+
+    public BodyLimitFilter(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        exchange.setAttribute(JsonBodyReader.MAX_BODY_ATTRIBUTE, maxBytes);
+        if (declaredLength(exchange) > maxBytes) {
+            reject(exchange);
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } catch (RequestBodyTooLargeException e) {
+            if (exchange.getResponseCode() != -1) {
+                throw e;
+            }
+            reject(exchange);
+        }
+    }
+
+    private static long declaredLength(HttpExchange exchange) {
+        String value = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void reject(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Connection", "close");
+        WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Request body too large"), 413);
+    }
+
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String description() {
+        return "Body limit " + maxBytes;
+    }
+}
@@ -0,0 +1,59 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.web.Bulkhead;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Continues the chain on a {@link Bulkhead} and frees the HTTP executor thread.
+ * Answers 503 with Retry-After when the bulkhead cannot accept more work.
+ */
+public class BulkheadFilter extends Filter {
+    private final Bulkhead bulkhead;
+    private final Logger logger;
+
+    public BulkheadFilter(Bulkhead bulkhead, Logger logger) {
+        this.bulkhead = bulkhead;
+        this.logger = logger;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        RoutePipeline.setAsync(exchange, true);
+        if (bulkhead.tryExecute(() -> runChain(exchange, chain))) {
+            return;
+        }
+        RoutePipeline.setAsync(exchange, false);
+        OverloadGuardFilter.sendBusy(exchange);
+    }
+
+    private void runChain(HttpExchange exchange, Chain chain) {
+        try {
+            chain.doFilter(exchange);
+        } catch (RejectedExecutionException e) {
+            // Refused by a pool the handler uses, e.g. password hashing
+            try {
+                OverloadGuardFilter.sendBusy(exchange);
+            } catch (IOException sendError) {
+                exchange.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            // The server only cleans up after exceptions thrown on its own thread; closing
+            // normally would end a half-written response as if it were complete
+            logger.log(Level.WARNING, "[VerifyMC] Error handling " + exchange.getRequestURI().getPath()
+                    + " in bulkhead " + bulkhead.getName(), e);
+            WebResponseHelper.abort(exchange);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Bulkhead " + bulkhead.getName();
+    }
+}
@@ -1,32 +1,36 @@
-package team.kitemc.verifymc.web;
+package team.kitemc.verifymc.web.filter;
 
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpExchange;
-import com.sun.net.httpserver.HttpHandler;
 import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.CorsSupport;
 
 import java.io.IOException;
 import java.util.List;
 
 /**
- * Wraps API handlers with the configured CORS policy.
+ * Applies the configured CORS policy and answers preflight requests.
  */
-public class CorsHandler implements HttpHandler {
+public class CorsFilter extends Filter {
     private final PluginContext ctx;
-    private final HttpHandler delegate;
 
-    public CorsHandler(PluginContext ctx, HttpHandler delegate) {
+    public CorsFilter(PluginContext ctx) {
         this.ctx = ctx;
-        this.delegate = delegate;
     }
 
     @Override
-    public void handle(HttpExchange exchange) throws IOException {
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
         List<String> allowedOrigins = ctx.getConfigManager().getAllowedOrigins();
         if (CorsSupport.handlePreflight(ctx, exchange, allowedOrigins)) {
             return;
         }
 
         CorsSupport.applyCorsHeaders(ctx, exchange, allowedOrigins);
-        delegate.handle(exchange);
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "CORS policy";
     }
 }
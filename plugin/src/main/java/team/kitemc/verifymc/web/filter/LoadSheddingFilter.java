@@ -0,0 +1,36 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.LoadShedder;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+
+/**
+ * Refuses a low-priority route with 503 while the {@link LoadShedder} reports
+ * sustained queueing delay, so higher-priority routes keep bounded latency.
+ */
+public class LoadSheddingFilter extends Filter {
+    private final LoadShedder shedder;
+
+    public LoadSheddingFilter(LoadShedder shedder) {
+        this.shedder = shedder;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (shedder.shouldShed()) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(shedder.getRetryAfterSeconds()));
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Server busy, please retry"), 503);
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Load shedding";
+    }
+}
@@ -0,0 +1,35 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONObject;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+
+/**
+ * Answers 405 with an Allow header unless the request uses the route's method.
+ */
+public class MethodFilter extends Filter {
+    private final String method;
+
+    public MethodFilter(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            JSONObject error = new JSONObject().put("success", false).put("msg", "Method Not Allowed");
+            WebResponseHelper.sendJson(exchange, error, 405);
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    @Override
+    public String description() {
+        return "Method " + method;
+    }
+}
@@ -0,0 +1,44 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.HttpExecutor;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Answers exchanges rejected by {@link HttpExecutor} with 503 before any
+ * real work (body parsing, DAO or network calls) is attempted. Handlers refused
+ * by a bounded pool further in, such as password hashing, also get a 503.
+ */
+public class OverloadGuardFilter extends Filter {
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (HttpExecutor.isRejectedDispatch()) {
+            exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+            exchange.getResponseHeaders().set("Connection", "close");
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Server busy, please retry"), 503);
+            return;
+        }
+        try {
+            chain.doFilter(exchange);
+        } catch (RejectedExecutionException e) {
+            sendBusy(exchange);
+        }
+    }
+
+    static void sendBusy(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER_SECONDS);
+        WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Server busy, please retry"), 503);
+    }
+
+    @Override
+    public String description() {
+        return "Overload guard";
+    }
+}
@@ -0,0 +1,95 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.security.RateLimitPolicy;
+import team.kitemc.verifymc.security.RateLimiter;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+import team.kitemc.verifymc.web.handler.AdminAuthUtil;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Answers 429 with Retry-After once a client exceeds the route's {@link RateLimiter}.
+ * Requests are counted against the client address, its subnet, the signed-in user or
+ * the route as a whole, as the route's {@link RateLimitPolicy} says. The first refusal
+ * of a key in each window is logged, so brute-force attempts leave a trace.
+ */
+public class RateLimitFilter extends Filter {
+    private final PluginContext ctx;
+    private final RateLimiter limiter;
+    private final int ipv4Prefix;
+    private final int ipv6Prefix;
+
+    public RateLimitFilter(PluginContext ctx, RateLimiter limiter) {
+        this.ctx = ctx;
+        this.limiter = limiter;
+        this.ipv4Prefix = ctx.getConfigManager().getHttpRateLimitSubnetPrefix(false);
+        this.ipv6Prefix = ctx.getConfigManager().getHttpRateLimitSubnetPrefix(true);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String key = key(exchange);
+        long waitMillis = limiter.tryAcquire(key);
+        if (waitMillis > 0) {
+            if (limiter.shouldReport(key)) {
+                ctx.getPlugin().getLogger().warning("[Security] Rate limit exceeded on " + limiter.getName()
+                        + " for " + (key != null ? key : "unknown client"));
+            }
+            exchange.getResponseHeaders().set("Retry-After",
+                    String.valueOf(RateLimiter.toRetryAfterSeconds(waitMillis)));
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Too many requests, please retry later"), 429);
+            return;
+        }
+        chain.doFilter(exchange);
+    }
+
+    private String key(HttpExchange exchange) {
+        InetSocketAddress remote = exchange.getRemoteAddress();
+        InetAddress address = remote != null ? remote.getAddress() : null;
+        return switch (limiter.getPolicy().key()) {
+            case ROUTE -> "route";
+            case SUBNET -> address != null ? subnet(address, ipv4Prefix, ipv6Prefix) : null;
+            case USER -> {
+                String user = AdminAuthUtil.getAuthenticatedUserQuietly(exchange, ctx);
+                if (user != null) {
+                    yield "user:" + user.toLowerCase();
+                }
+                yield address != null ? address.getHostAddress() : null;
+            }
+            case IP -> address != null ? address.getHostAddress() : null;
+        };
+    }
+
+    /**
+     * The network of an address in CIDR notation, e.g. {@code 203.0.113.0/24}.
+     */
+    static String subnet(InetAddress address, int ipv4Prefix, int ipv6Prefix) {
+        byte[] bytes = address.getAddress();
+        int prefix = bytes.length == 4 ? ipv4Prefix : ipv6Prefix;
+        for (int i = 0; i < bytes.length; i++) {
+            int keep = Math.max(0, Math.min(8, prefix - i * 8));
+            bytes[i] &= (byte) (0xFF << (8 - keep));
+        }
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress() + "/" + prefix;
+        } catch (UnknownHostException e) {
+            return address.getHostAddress();
+        }
+    }
+
+    public RateLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public String description() {
+        return "Rate limit " + limiter.getName();
+    }
+}
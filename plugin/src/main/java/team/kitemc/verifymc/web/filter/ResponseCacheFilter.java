@@ -0,0 +1,156 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.json.JSONException;
+import org.json.JSONObject;
+import team.kitemc.verifymc.web.ResponseCache;
+import team.kitemc.verifymc.web.StaticAssetCache;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Serves a JSON GET route from the {@link ResponseCache} while its entry is fresh.
+ * <p>
+ * Entries are keyed by path and the query parameters the route's handler reads, so
+ * unrelated query strings cannot fill the cache with copies of one response. A miss runs the handler against a capturing
+ * exchange, stores a 200 response and sends it; other statuses, and 200 bodies reporting
+ * {@code "success": false}, are passed through uncached. Hits carry an ETag and answer a matching
+ * If-None-Match with 304. Requests with an Authorization header bypass the cache,
+ * since a signed-in user may see more than an anonymous one.
+ */
+public class ResponseCacheFilter extends Filter {
+    private final ResponseCache cache;
+    private final long ttlMillis;
+    private final List<String> keyParams;
+
+    /**
+     * @param keyParams query parameters the handler's response depends on
+     */
+    public ResponseCacheFilter(ResponseCache cache, long ttlMillis, List<String> keyParams) {
+        this.cache = cache;
+        this.ttlMillis = ttlMillis;
+        this.keyParams = List.copyOf(keyParams);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        if (exchange.getRequestHeaders().containsKey("Authorization")) {
+            chain.doFilter(exchange);
+            return;
+        }
+        String key = key(exchange, keyParams);
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            long generation = cache.generation();
+            CapturingExchange capture = new CapturingExchange(exchange);
+            chain.doFilter(capture);
+            if (capture.status == -1) {
+                return;
+            }
+            byte[] body = capture.body.toByteArray();
+            if (capture.status != 200 || !succeeded(body)) {
+                WebResponseHelper.sendJsonBytes(exchange, body, capture.status);
+                return;
+            }
+            entry = cache.put(key, body, ttlMillis, generation);
+        }
+
+        exchange.getResponseHeaders().set("ETag", entry.getEtag());
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (StaticAssetCache.isNotModified(ifNoneMatch, null, entry.getEtag(), 0L)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        WebResponseHelper.sendJsonBytes(exchange, entry.getBody(), 200);
+    }
+
+    /**
+     * Handlers report some failures, e.g. a backend that could not be reached, as a 200
+     * with {@code "success": false}; those must not be served again until the TTL runs out.
+     */
+    static boolean succeeded(byte[] body) {
+        try {
+            return new JSONObject(new String(body, StandardCharsets.UTF_8)).optBoolean("success", true);
+        } catch (JSONException e) {
+            // Not an object, so there is no success flag to check
+            return true;
+        }
+    }
+
+    /**
+     * Path plus the declared parameters, read the way handlers read them: decoded, and
+     * the last occurrence wins.
+     */
+    static String key(HttpExchange exchange, List<String> keyParams) {
+        StringBuilder key = new StringBuilder(exchange.getRequestURI().getPath());
+        String query = exchange.getRequestURI().getQuery();
+        for (String name : keyParams) {
+            String value = "";
+            if (query != null) {
+                for (String param : query.split("&")) {
+                    String[] kv = param.split("=", 2);
+                    if (kv.length == 2 && name.equals(kv[0])) {
+                        value = kv[1];
+                    }
+                }
+            }
+            key.append('&').append(name).append('=').append(value);
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String description() {
+        return "Response cache";
+    }
+
+    /**
+     * Collects the handler's response instead of sending it. The handler sees no
+     * Accept-Encoding, so the body is captured uncompressed and compressed per client
+     * when it is sent.
+     */
+    private static final class CapturingExchange extends DelegatingExchange {
+        private final Headers requestHeaders = new Headers();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private int status = -1;
+
+        private CapturingExchange(HttpExchange delegate) {
+            super(delegate);
+            requestHeaders.putAll(delegate.getRequestHeaders());
+            requestHeaders.remove("Accept-Encoding");
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) {
+            status = rCode;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return status;
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
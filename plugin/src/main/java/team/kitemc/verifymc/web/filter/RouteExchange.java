@@ -0,0 +1,65 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The exchange seen by a route's filters and handler.
+ * <p>
+ * Delegates everything to the server's exchange except attributes: the JDK server
+ * keeps exchange attributes in the {@link HttpContext}'s map, which every concurrent
+ * request to the same path shares, so per-request state (the authenticated admin,
+ * the body limit) lives here instead. Also carries the pipeline's timing state.
+ */
+final class RouteExchange extends DelegatingExchange {
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final long startNanos;
+    private volatile boolean async;
+
+    RouteExchange(HttpExchange delegate, long startNanos) {
+        super(delegate);
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * The route exchange an exchange passed down the pipeline wraps, or null outside a pipeline.
+     */
+    static RouteExchange find(HttpExchange exchange) {
+        while (exchange instanceof DelegatingExchange wrapper) {
+            if (wrapper instanceof RouteExchange routed) {
+                return routed;
+            }
+            exchange = wrapper.getDelegate();
+        }
+        return null;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    boolean isAsync() {
+        return async;
+    }
+
+    void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+}
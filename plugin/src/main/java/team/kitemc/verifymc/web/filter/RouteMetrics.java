@@ -0,0 +1,237 @@
+package team.kitemc.verifymc.web.filter;
+
+import org.json.JSONObject;
+import team.kitemc.verifymc.metrics.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of every registered route, end to end and per pipeline stage.
+ * <p>
+ * A stage's time is the time spent in it before it passed the exchange on (or
+ * answered it), so the stages of a request add up to roughly its total latency.
+ * End-to-end latency is also kept per status class in a {@link LatencyHistogram},
+ * reported as p50/p90/p99/max over the last minute and the last five minutes.
+ */
+public class RouteMetrics {
+    private static final String[] WINDOW_NAMES = {"1m", "5m"};
+    private static final long[] WINDOW_MILLIS = {60_000L, 300_000L};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, RouteStats> routes = new ConcurrentHashMap<>();
+
+    RouteStats register(String path, List<String> stages) {
+        return routes.computeIfAbsent(path, p -> new RouteStats(stages));
+    }
+
+    public RouteStats get(String path) {
+        return routes.get(path);
+    }
+
+    public Map<String, RouteStats> getRoutes() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        routes.forEach((path, stats) -> json.put(path, stats.toJson()));
+        return json;
+    }
+
+    /**
+     * Write the route latencies in the Prometheus text exposition format: a summary
+     * per route, status class and window, the maximum of each window as a gauge, and
+     * the running count and sum of each status class.
+     */
+    public void writePrometheus(StringBuilder out) {
+        Map<String, RouteStats> sorted = new TreeMap<>(routes);
+        out.append("# HELP verifymc_http_request_duration_seconds Request latency by route and status class.\n");
+        out.append("# TYPE verifymc_http_request_duration_seconds summary\n");
+        sorted.forEach((path, stats) -> stats.forEachClass((statusClass, histogram, count, sumNanos) -> {
+            for (int w = 0; w < WINDOW_NAMES.length; w++) {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot(WINDOW_MILLIS[w]);
+                for (double quantile : QUANTILES) {
+                    sample(out, "verifymc_http_request_duration_seconds", path, statusClass,
+                            ",window=\"" + WINDOW_NAMES[w] + "\",quantile=\"" + quantile + "\"",
+                            snapshot.valueAt(quantile) / 1_000_000d);
+                }
+            }
+            sample(out, "verifymc_http_request_duration_seconds_count", path, statusClass, "", count);
+            sample(out, "verifymc_http_request_duration_seconds_sum", path, statusClass, "", sumNanos / 1_000_000_000d);
+        }));
+        out.append("# HELP verifymc_http_request_duration_max_seconds Slowest request by route and status class in the window.\n");
+        out.append("# TYPE verifymc_http_request_duration_max_seconds gauge\n");
+        sorted.forEach((path, stats) -> stats.forEachClass((statusClass, histogram, count, sumNanos) -> {
+            for (int w = 0; w < WINDOW_NAMES.length; w++) {
+                sample(out, "verifymc_http_request_duration_max_seconds", path, statusClass,
+                        ",window=\"" + WINDOW_NAMES[w] + "\"",
+                        histogram.snapshot(WINDOW_MILLIS[w]).getMaxMicros() / 1_000_000d);
+            }
+        }));
+        out.append("# HELP verifymc_http_requests_aborted_total Requests dropped before a response was sent.\n");
+        out.append("# TYPE verifymc_http_requests_aborted_total counter\n");
+        sorted.forEach((path, stats) -> out.append("verifymc_http_requests_aborted_total{route=\"")
+                .append(escapeLabel(path)).append("\"} ").append(stats.aborted.sum()).append('\n'));
+    }
+
+    private static void sample(StringBuilder out, String name, String path, String statusClass,
+                               String extraLabels, double value) {
+        out.append(name).append("{route=\"").append(escapeLabel(path))
+                .append("\",status=\"").append(statusClass).append('"')
+                .append(extraLabels).append("} ").append(value).append('\n');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Count, mean and maximum of a latency in nanoseconds.
+     */
+    public static final class Latency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000d;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000d;
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("count", getCount());
+            json.put("mean_ms", Math.round(getMeanMillis() * 1000d) / 1000d);
+            json.put("max_ms", Math.round(getMaxMillis() * 1000d) / 1000d);
+            return json;
+        }
+    }
+
+    /**
+     * Latency of one route and of each of its stages, plus responses and latency
+     * histograms by status class.
+     */
+    public static final class RouteStats {
+        private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+        private final Latency total = new Latency();
+        private final Map<String, Latency> stages;
+        private final LongAdder[] statuses = new LongAdder[STATUS_CLASSES.length];
+        private final LongAdder[] statusNanos = new LongAdder[STATUS_CLASSES.length];
+        private final LatencyHistogram[] histograms = new LatencyHistogram[STATUS_CLASSES.length];
+        private final LongAdder aborted = new LongAdder();
+
+        private RouteStats(List<String> stageNames) {
+            Map<String, Latency> map = new LinkedHashMap<>();
+            for (String stage : stageNames) {
+                map.put(stage, new Latency());
+            }
+            this.stages = Collections.unmodifiableMap(map);
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+                statusNanos[i] = new LongAdder();
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        Latency stage(String name) {
+            return stages.get(name);
+        }
+
+        void recordTotal(long nanos, int status) {
+            total.record(nanos);
+            int statusClass = status / 100 - 1;
+            if (statusClass >= 0 && statusClass < statuses.length) {
+                statuses[statusClass].increment();
+                statusNanos[statusClass].add(nanos);
+                histograms[statusClass].recordNanos(nanos);
+            } else {
+                // Handler failed before sending a response; the server dropped the exchange
+                aborted.increment();
+            }
+        }
+
+        public Latency getTotal() {
+            return total;
+        }
+
+        public Map<String, Latency> getStages() {
+            return stages;
+        }
+
+        /**
+         * The latency histogram of a status class such as {@code "2xx"}, or null.
+         */
+        public LatencyHistogram getHistogram(String statusClass) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                if (STATUS_CLASSES[i].equals(statusClass)) {
+                    return histograms[i];
+                }
+            }
+            return null;
+        }
+
+        private void forEachClass(ClassVisitor visitor) {
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                long n = statuses[i].sum();
+                if (n > 0) {
+                    visitor.visit(STATUS_CLASSES[i], histograms[i], n, statusNanos[i].sum());
+                }
+            }
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = total.toJson();
+            JSONObject status = new JSONObject();
+            for (int i = 0; i < statuses.length; i++) {
+                long n = statuses[i].sum();
+                if (n > 0) {
+                    status.put(STATUS_CLASSES[i], n);
+                }
+            }
+            if (aborted.sum() > 0) {
+                status.put("aborted", aborted.sum());
+            }
+            json.put("status", status);
+            JSONObject histogramJson = new JSONObject();
+            forEachClass((statusClass, histogram, count, sumNanos) -> {
+                JSONObject windows = new JSONObject();
+                for (int w = 0; w < WINDOW_NAMES.length; w++) {
+                    windows.put(WINDOW_NAMES[w], histogram.snapshot(WINDOW_MILLIS[w]).toJson());
+                }
+                histogramJson.put(statusClass, windows);
+            });
+            json.put("latency", histogramJson);
+            JSONObject stageJson = new JSONObject();
+            stages.forEach((name, latency) -> stageJson.put(name, latency.toJson()));
+            json.put("stages", stageJson);
+            return json;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClassVisitor {
+        void visit(String statusClass, LatencyHistogram histogram, long count, long sumNanos);
+    }
+}
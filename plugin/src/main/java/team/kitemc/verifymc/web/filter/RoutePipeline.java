@@ -0,0 +1,174 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The handler registered for a route: its declared {@link Filter} stages followed by
+ * the route's own handler.
+ * <p>
+ * Every stage and the handler are timed into {@link RouteMetrics}. The route's total
+ * latency is recorded when the handler returns, also when a stage such as
+ * {@link BulkheadFilter} moved the rest of the chain to another thread.
+ */
+public final class RoutePipeline implements HttpHandler {
+    public static final String STAGE_CORS = "cors";
+    public static final String STAGE_OVERLOAD = "overload";
+    public static final String STAGE_LOAD_SHEDDING = "load_shedding";
+    public static final String STAGE_METHOD = "method";
+    public static final String STAGE_AUTH = "auth";
+    public static final String STAGE_RATE_LIMIT = "rate_limit";
+    public static final String STAGE_CACHE = "cache";
+    public static final String STAGE_BULKHEAD = "bulkhead";
+    public static final String STAGE_BODY_LIMIT = "body_limit";
+    public static final String STAGE_HANDLER = "handler";
+
+    private final String path;
+    private final List<Filter> filters;
+    private final HttpHandler terminal;
+    private final RouteMetrics.RouteStats stats;
+
+    private RoutePipeline(String path, List<String> stageNames, List<Filter> stages, HttpHandler handler,
+                          RouteMetrics metrics) {
+        this.path = path;
+        List<String> names = new ArrayList<>(stageNames);
+        names.add(STAGE_HANDLER);
+        this.stats = metrics.register(path, names);
+        List<Filter> timed = new ArrayList<>(stages.size());
+        for (int i = 0; i < stages.size(); i++) {
+            timed.add(new TimedFilter(stages.get(i), stats.stage(stageNames.get(i))));
+        }
+        this.filters = Collections.unmodifiableList(timed);
+        this.terminal = new TimedHandler(handler, stats);
+    }
+
+    public static Builder builder(String path, RouteMetrics metrics) {
+        return new Builder(path, metrics);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        RouteExchange routed = new RouteExchange(exchange, System.nanoTime());
+        try {
+            new Filter.Chain(filters, terminal).doFilter(routed);
+        } finally {
+            // Handed off to another thread: the handler records the total when it is done
+            if (!routed.isAsync()) {
+                stats.recordTotal(System.nanoTime() - routed.getStartNanos(), routed.getResponseCode());
+            }
+        }
+    }
+
+    /**
+     * Mark that the rest of the chain continues on another thread. Called by a stage
+     * before it hands the exchange off; pass {@code false} if the hand-off failed.
+     */
+    static void setAsync(HttpExchange exchange, boolean async) {
+        RouteExchange routed = RouteExchange.find(exchange);
+        if (routed != null) {
+            routed.setAsync(async);
+        }
+    }
+
+    /**
+     * Declares the stages of a route in the order they run.
+     */
+    public static final class Builder {
+        private final String path;
+        private final RouteMetrics metrics;
+        private final List<String> names = new ArrayList<>();
+        private final List<Filter> stages = new ArrayList<>();
+
+        private Builder(String path, RouteMetrics metrics) {
+            this.path = path;
+            this.metrics = metrics;
+        }
+
+        public Builder stage(String name, Filter filter) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("Duplicate stage " + name + " on " + path);
+            }
+            names.add(name);
+            stages.add(filter);
+            return this;
+        }
+
+        public RoutePipeline handler(HttpHandler handler) {
+            return new RoutePipeline(path, names, stages, handler, metrics);
+        }
+    }
+
+    /**
+     * Times a stage up to the point where it passes the exchange on or answers it.
+     */
+    private static final class TimedFilter extends Filter {
+        private final Filter delegate;
+        private final RouteMetrics.Latency latency;
+
+        private TimedFilter(Filter delegate, RouteMetrics.Latency latency) {
+            this.delegate = delegate;
+            this.latency = latency;
+        }
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            delegate.doFilter(exchange, new Chain(List.of(), null) {
+                @Override
+                public void doFilter(HttpExchange next) throws IOException {
+                    if (recorded.compareAndSet(false, true)) {
+                        latency.record(System.nanoTime() - start);
+                    }
+                    chain.doFilter(next);
+                }
+            });
+            if (recorded.compareAndSet(false, true)) {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public String description() {
+            return delegate.description();
+        }
+    }
+
+    private static final class TimedHandler implements HttpHandler {
+        private final HttpHandler delegate;
+        private final RouteMetrics.RouteStats stats;
+        private final RouteMetrics.Latency latency;
+
+        private TimedHandler(HttpHandler delegate, RouteMetrics.RouteStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+            this.latency = stats.stage(STAGE_HANDLER);
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            long start = System.nanoTime();
+            try {
+                delegate.handle(exchange);
+            } finally {
+                long end = System.nanoTime();
+                latency.record(end - start);
+                RouteExchange routed = RouteExchange.find(exchange);
+                if (routed != null && routed.isAsync()) {
+                    stats.recordTotal(end - routed.getStartNanos(), routed.getResponseCode());
+                }
+            }
+        }
+    }
+}
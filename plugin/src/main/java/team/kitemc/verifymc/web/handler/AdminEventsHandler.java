@@ -0,0 +1,71 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.security.AdminAction;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.ReviewEventHub;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams review notifications as Server-Sent Events, the same messages the
+ * WebSocket server broadcasts.
+ * <p>
+ * EventSource cannot set headers, so besides the Authorization header the token may be
+ * passed as {@code ?token=}. A reconnecting client sends Last-Event-ID itself; it may
+ * also be given as {@code ?lastEventId=}.
+ */
+public class AdminEventsHandler implements HttpHandler {
+    private final PluginContext ctx;
+
+    public AdminEventsHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String token = bearerToken(exchange);
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv.length != 2) continue;
+                switch (kv[0]) {
+                    case "token" -> { if (token == null) token = URLDecoder.decode(kv[1], StandardCharsets.UTF_8); }
+                    case "lastEventId" -> { if (lastEventId == null) lastEventId = URLDecoder.decode(kv[1], StandardCharsets.UTF_8); }
+                }
+            }
+        }
+
+        if (AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.LIST, token) == null) {
+            return;
+        }
+
+        ReviewEventHub events = ctx.getReviewEvents();
+        if (events == null) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Event stream not available"), 503);
+            return;
+        }
+        if (!events.subscribe(exchange, lastEventId)) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Too many event streams"), 503);
+        }
+    }
+
+    /**
+     * The token of a {@code Bearer} Authorization header; other schemes are not tokens.
+     */
+    static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            return header.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.Bulkhead;
+import team.kitemc.verifymc.web.HttpExecutor;
+import team.kitemc.verifymc.web.WebResponseHelper;
+import team.kitemc.verifymc.web.WebServer;
+
+import java.io.IOException;
+
+/**
+ * Returns runtime counters of the embedded web server and the metrics the services
+ * record into {@link PluginContext#getMetrics()}.
+ * <p>
+ * With {@code ?format=prometheus}, or an Accept header asking for plain text, the
+ * route latency histograms and service metrics are returned in the Prometheus text
+ * format instead.
+ */
+public class AdminMetricsHandler implements HttpHandler {
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PluginContext ctx;
+
+    public AdminMetricsHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        WebServer webServer = ctx.getWebServer();
+        if (wantsPrometheus(exchange)) {
+            StringBuilder out = new StringBuilder(8192);
+            if (webServer != null) {
+                webServer.getRouter().getRouteMetrics().writePrometheus(out);
+            }
+            ctx.getMetrics().writePrometheus(out);
+            WebResponseHelper.sendText(exchange, out.toString(), PROMETHEUS_CONTENT_TYPE, 200);
+            return;
+        }
+
+        JSONObject http = new JSONObject();
+        HttpExecutor executor = webServer != null ? webServer.getExecutor() : null;
+        if (executor != null) {
+            http.put("executor", executor.toJson());
+        }
+        if (webServer != null) {
+            JSONObject bulkheads = new JSONObject();
+            for (Bulkhead bulkhead : webServer.getRouter().getBulkheads()) {
+                bulkheads.put(bulkhead.getName(), bulkhead.toJson());
+            }
+            http.put("bulkheads", bulkheads);
+            http.put("load_shedding", webServer.getLoadShedder().toJson());
+            http.put("connections", webServer.getConnectionLimits().toJson());
+            if (webServer.getCompressor() != null) {
+                http.put("compression", webServer.getCompressor().toJson());
+            }
+            JSONObject rateLimits = new JSONObject();
+            webServer.getRouter().getRateLimiters().forEach((path, limiter) -> rateLimits.put(path, limiter.toJson()));
+            http.put("rate_limits", rateLimits);
+            http.put("response_cache", webServer.getRouter().getResponseCache().toJson());
+            http.put("routes", webServer.getRouter().getRouteMetrics().toJson());
+        }
+        if (ctx.getReviewEvents() != null) {
+            http.put("events", ctx.getReviewEvents().toJson());
+        }
+
+        JSONObject resp = new JSONObject();
+        resp.put("success", true);
+        resp.put("http", http);
+        resp.put("services", ctx.getMetrics().toJson());
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+
+    private static boolean wantsPrometheus(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.equalsIgnoreCase("format=prometheus")) {
+                    return true;
+                }
+            }
+        }
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return accept != null && accept.contains("text/plain") && !accept.contains("application/json");
+    }
+}
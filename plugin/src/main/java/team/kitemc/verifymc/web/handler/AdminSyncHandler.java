@@ -5,7 +5,6 @@ import com.sun.net.httpserver.HttpHandler;
 import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
@@ -21,11 +20,6 @@ public class AdminSyncHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
-        // Require admin privileges
-        if (AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.SYNC) == null) return;
-
         JSONObject req;
         try {
             req = WebResponseHelper.readJson(exchange);
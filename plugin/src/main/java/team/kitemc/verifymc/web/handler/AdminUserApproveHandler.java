@@ -6,7 +6,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.util.FoliaCompat;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
@@ -28,11 +27,7 @@ public class AdminUserApproveHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
-        // Require admin privileges and get operator username
-        String operator = AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.APPROVE);
-        if (operator == null) return;
+        String operator = AdminAuthUtil.getAdmin(exchange);
 
         JSONObject req;
         try {
@@ -78,11 +73,9 @@ public class AdminUserApproveHandler implements HttpHandler {
 
             ctx.getAuditDao().addAudit(new AuditRecord("approve", operator, target, "", System.currentTimeMillis()));
 
-            if (ctx.getWsServer() != null) {
-                ctx.getWsServer().broadcastMessage(new JSONObject()
-                        .put("type", "user_approved")
-                        .put("username", target).toString());
-            }
+            ctx.publishReviewEvent(new JSONObject()
+                    .put("type", "user_approved")
+                    .put("username", target));
 
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.success(
                     ctx.getMessage("review.approve_success", language)));
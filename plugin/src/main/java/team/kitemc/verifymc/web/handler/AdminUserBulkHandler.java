@@ -0,0 +1,206 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.AuditRecord;
+import team.kitemc.verifymc.security.AdminAction;
+import team.kitemc.verifymc.util.FoliaCompat;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Approves, rejects, bans, unbans or deletes a list of users in one request.
+ * <p>
+ * The users are written in one DAO batch and one audit batch. Whitelist commands run
+ * as a single main-thread task, AuthMe syncs and review emails are queued on one
+ * async task, and a single {@code users_bulk_updated} WebSocket event is broadcast.
+ * The route requires {@link AdminAction#LIST}; the permission of the requested
+ * action is checked here.
+ */
+public class AdminUserBulkHandler implements HttpHandler {
+    private static final Pattern VALID_USERNAME = Pattern.compile("^[a-zA-Z0-9_.\\-\\s]{1,32}$");
+    private static final int MAX_USERS = 500;
+
+    private final PluginContext ctx;
+
+    public AdminUserBulkHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String operator = AdminAuthUtil.getAdmin(exchange);
+
+        JSONObject req;
+        try {
+            req = WebResponseHelper.readJson(exchange);
+        } catch (JSONException e) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("error.invalid_json", "en")), 400);
+            return;
+        }
+        String language = req.optString("language", "en");
+        String reason = req.optString("reason", "");
+
+        BulkAction action = BulkAction.fromKey(req.optString("action", ""));
+        if (action == null) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("admin.bulk_invalid_action", language)), 400);
+            return;
+        }
+        if (!ctx.getAdminAccessManager().canAccess(operator, action.adminAction)) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("admin.forbidden", language)), 403);
+            return;
+        }
+
+        JSONArray requested = req.optJSONArray("usernames");
+        if (requested == null || requested.length() == 0) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("admin.missing_user_identifier", language)));
+            return;
+        }
+        if (requested.length() > MAX_USERS) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
+                    ctx.getMessage("admin.bulk_too_many", language).replace("{max}", String.valueOf(MAX_USERS))), 400);
+            return;
+        }
+
+        // Validate usernames to prevent command injection; duplicates are processed once
+        Map<String, String> targets = new LinkedHashMap<>();
+        JSONArray failed = new JSONArray();
+        for (int i = 0; i < requested.length(); i++) {
+            String target = requested.optString(i, "").trim();
+            if (!VALID_USERNAME.matcher(target).matches()) {
+                failed.put(new JSONObject().put("username", target).put("reason", "invalid_username"));
+                continue;
+            }
+            targets.putIfAbsent(target.toLowerCase(), target);
+        }
+
+        Collection<String> names = targets.values();
+        Set<String> done = names.isEmpty() ? Set.of()
+                : action == BulkAction.DELETE
+                ? ctx.getUserDao().deleteUsers(names)
+                : ctx.getUserDao().updateUserStatuses(names, action.status, operator);
+        for (String target : names) {
+            if (!done.contains(target)) {
+                failed.put(new JSONObject().put("username", target).put("reason", "failed"));
+            }
+        }
+
+        if (!done.isEmpty()) {
+            applySideEffects(action, List.copyOf(done), operator, reason);
+        }
+
+        JSONObject resp = ApiResponseFactory.create(!done.isEmpty(), ctx.getMessage("admin.bulk_result", language)
+                .replace("{succeeded}", String.valueOf(done.size()))
+                .replace("{total}", String.valueOf(requested.length())));
+        resp.put("succeeded", new JSONArray(done));
+        resp.put("failed", failed);
+        WebResponseHelper.sendJson(exchange, resp);
+    }
+
+    private void applySideEffects(BulkAction action, List<String> users, String operator, String reason) {
+        if (action.whitelistCommand != null) {
+            FoliaCompat.runTaskGlobal(ctx.getPlugin(), () -> {
+                for (String user : users) {
+                    org.bukkit.Bukkit.dispatchCommand(org.bukkit.Bukkit.getConsoleSender(), action.whitelistCommand + user);
+                }
+            });
+        }
+
+        if (action == BulkAction.BAN || action == BulkAction.DELETE) {
+            for (String user : users) {
+                ctx.getWebAuthHelper().revokeUserTokens(user);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        String detail = action == BulkAction.REJECT || action == BulkAction.BAN ? reason : "";
+        List<AuditRecord> audits = new ArrayList<>(users.size());
+        for (String user : users) {
+            audits.add(new AuditRecord(action.key, operator, user, detail, now));
+        }
+        ctx.getAuditDao().addAudits(audits);
+
+        FoliaCompat.runTaskAsync(ctx.getPlugin(), () -> notifyUsers(action, users, reason));
+
+        ctx.publishReviewEvent(new JSONObject()
+                .put("type", "users_bulk_updated")
+                .put("action", action.key)
+                .put("usernames", new JSONArray(users)));
+    }
+
+    /**
+     * AuthMe sync and review emails, one user after another off the request thread.
+     */
+    private void notifyUsers(BulkAction action, List<String> users, String reason) {
+        boolean authme = ctx.getAuthmeService() != null && ctx.getAuthmeService().isAuthmeEnabled();
+        boolean mail = action == BulkAction.APPROVE || action == BulkAction.REJECT;
+        for (String user : users) {
+            try {
+                if (authme) {
+                    if (action == BulkAction.APPROVE || action == BulkAction.UNBAN) {
+                        ctx.getAuthmeService().syncApprovedUserToAuthme(user);
+                    } else if (action == BulkAction.BAN || action == BulkAction.DELETE) {
+                        ctx.getAuthmeService().removeUserFromAuthme(user);
+                    }
+                }
+                if (mail) {
+                    var record = ctx.getUserDao().getUserByUsername(user);
+                    String email = record != null ? (String) record.get("email") : null;
+                    if (email != null && !email.isEmpty()) {
+                        ctx.getMailService().sendReviewResult(email, user, action == BulkAction.APPROVE,
+                                action == BulkAction.REJECT ? reason : "", ctx.getConfigManager().getLanguage());
+                    }
+                }
+            } catch (Exception e) {
+                ctx.getPlugin().getLogger().warning("[VerifyMC] Bulk " + action.key + " follow-up failed for "
+                        + user + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private enum BulkAction {
+        APPROVE("approve", AdminAction.APPROVE, "approved", "whitelist add "),
+        REJECT("reject", AdminAction.REJECT, "rejected", null),
+        BAN("ban", AdminAction.BAN, "banned", "whitelist remove "),
+        UNBAN("unban", AdminAction.UNBAN, "approved", "whitelist add "),
+        DELETE("delete", AdminAction.DELETE, null, "whitelist remove ");
+
+        private final String key;
+        private final AdminAction adminAction;
+        private final String status;
+        private final String whitelistCommand;
+
+        BulkAction(String key, AdminAction adminAction, String status, String whitelistCommand) {
+            this.key = key;
+            this.adminAction = adminAction;
+            this.status = status;
+            this.whitelistCommand = whitelistCommand;
+        }
+
+        static BulkAction fromKey(String key) {
+            for (BulkAction action : values()) {
+                if (action.key.equalsIgnoreCase(key.trim())) {
+                    return action;
+                }
+            }
+            return null;
+        }
+    }
+}
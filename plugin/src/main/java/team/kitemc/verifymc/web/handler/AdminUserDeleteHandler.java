@@ -6,7 +6,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.util.FoliaCompat;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
@@ -27,11 +26,7 @@ public class AdminUserDeleteHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
-        // Require admin privileges and get operator username
-        String operator = AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.DELETE);
-        if (operator == null) return;
+        String operator = AdminAuthUtil.getAdmin(exchange);
 
         JSONObject req;
         try {
@@ -66,6 +61,7 @@ public class AdminUserDeleteHandler implements HttpHandler {
                 ctx.getAuthmeService().removeUserFromAuthme(target);
             }
 
+            ctx.getWebAuthHelper().revokeUserTokens(target);
             ctx.getAuditDao().addAudit(new AuditRecord("delete", operator, target, "", System.currentTimeMillis()));
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.success(
                     ctx.getMessage("admin.delete_success", language)));
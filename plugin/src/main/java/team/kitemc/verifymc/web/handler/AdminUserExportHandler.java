@@ -0,0 +1,142 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.web.ApiResponseFactory;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams every user matching {@code ?status=} as NDJSON (default) or CSV
+ * ({@code ?format=csv}), one row per user as the DAO reads it.
+ * <p>
+ * Only the columns below are written, so the password hash never leaves the server.
+ * Once the first row is sent the status code is fixed; a read error drops the connection,
+ * so the download fails instead of ending early as if it were complete.
+ */
+public class AdminUserExportHandler implements HttpHandler {
+    private static final List<String> COLUMNS = List.of(
+            "username", "email", "phone", "status", "regTime", "discordId",
+            "questionnaireScore", "questionnairePassed", "questionnaireReviewSummary", "questionnaireScoredAt");
+    private static final List<String> STATUSES = List.of("all", "pending", "approved", "rejected", "banned");
+
+    private final PluginContext ctx;
+
+    public AdminUserExportHandler(PluginContext ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String format = "ndjson";
+        String status = "all";
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv.length != 2) continue;
+                switch (kv[0]) {
+                    case "format" -> format = URLDecoder.decode(kv[1], StandardCharsets.UTF_8).toLowerCase();
+                    case "status" -> status = URLDecoder.decode(kv[1], StandardCharsets.UTF_8).toLowerCase();
+                }
+            }
+        }
+        if (!STATUSES.contains(status)) {
+            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure("Unknown status: " + status), 400);
+            return;
+        }
+
+        String filter = status;
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        switch (format) {
+            case "ndjson" -> {
+                attachment(exchange, filter, "ndjson");
+                WebResponseHelper.sendTextStream(exchange, 200, "application/x-ndjson; charset=utf-8",
+                        out -> writeNdjson(out, filter));
+            }
+            case "csv" -> {
+                attachment(exchange, filter, "csv");
+                WebResponseHelper.sendTextStream(exchange, 200, "text/csv; charset=utf-8",
+                        out -> writeCsv(out, filter));
+            }
+            default -> WebResponseHelper.sendJson(exchange,
+                    ApiResponseFactory.failure("Unknown format: " + format), 400);
+        }
+    }
+
+    private void writeNdjson(Writer out, String status) throws IOException {
+        ctx.getUserDao().forEachUser(status, user -> {
+            // A writer holds a single top-level value, so each line gets its own
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginObject();
+            for (String column : COLUMNS) {
+                Object value = normalize(user.get(column));
+                if (value != null) {
+                    writer.name(column);
+                    WebResponseHelper.writeJsonValue(writer, value);
+                }
+            }
+            writer.endObject();
+            out.write('\n');
+        });
+    }
+
+    private void writeCsv(Writer out, String status) throws IOException {
+        out.write(String.join(",", COLUMNS));
+        out.write("\r\n");
+        ctx.getUserDao().forEachUser(status, user -> {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = normalize(user.get(COLUMNS.get(i)));
+                if (value != null) {
+                    writeCsvField(out, value instanceof String text ? text : String.valueOf(value), value instanceof String);
+                }
+            }
+            out.write("\r\n");
+        });
+    }
+
+    /**
+     * Quote a field if needed (RFC 4180). Text starting like a spreadsheet formula gets
+     * a leading apostrophe so opening the file cannot run it.
+     */
+    static void writeCsvField(Writer out, String value, boolean text) throws IOException {
+        String field = value;
+        if (text && !field.isEmpty() && "=+-@\t\r".indexOf(field.charAt(0)) >= 0) {
+            field = "'" + field;
+        }
+        boolean quote = field.indexOf(',') >= 0 || field.indexOf('"') >= 0
+                || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * Whole numbers read back from the JSON file as doubles are written without a fraction.
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Double number && number == Math.rint(number) && !Double.isInfinite(number)) {
+            return number.longValue();
+        }
+        return value;
+    }
+
+    private static void attachment(HttpExchange exchange, String status, String extension) {
+        exchange.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"users-" + status + "." + extension + "\"");
+    }
+}
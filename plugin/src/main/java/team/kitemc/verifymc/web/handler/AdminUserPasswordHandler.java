@@ -6,7 +6,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
@@ -26,11 +25,7 @@ public class AdminUserPasswordHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
-        // Require admin privileges and get operator username
-        String operator = AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.PASSWORD);
-        if (operator == null) return;
+        String operator = AdminAuthUtil.getAdmin(exchange);
 
         JSONObject req;
         try {
@@ -6,7 +6,6 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import team.kitemc.verifymc.core.PluginContext;
 import team.kitemc.verifymc.db.AuditRecord;
-import team.kitemc.verifymc.security.AdminAction;
 import team.kitemc.verifymc.web.ApiResponseFactory;
 import team.kitemc.verifymc.web.WebResponseHelper;
 
@@ -25,11 +24,7 @@ public class AdminUserRejectHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
-        // Require admin privileges and get operator username
-        String operator = AdminAuthUtil.requireAdmin(exchange, ctx, AdminAction.REJECT);
-        if (operator == null) return;
+        String operator = AdminAuthUtil.getAdmin(exchange);
 
         JSONObject req;
         try {
@@ -62,11 +57,9 @@ public class AdminUserRejectHandler implements HttpHandler {
 
             ctx.getAuditDao().addAudit(new AuditRecord("reject", operator, target, reason, System.currentTimeMillis()));
 
-            if (ctx.getWsServer() != null) {
-                ctx.getWsServer().broadcastMessage(new JSONObject()
-                        .put("type", "user_rejected")
-                        .put("username", target).toString());
-            }
+            ctx.publishReviewEvent(new JSONObject()
+                    .put("type", "user_rejected")
+                    .put("username", target));
 
             WebResponseHelper.sendJson(exchange, ApiResponseFactory.success(
                     ctx.getMessage("review.reject_success", language)));
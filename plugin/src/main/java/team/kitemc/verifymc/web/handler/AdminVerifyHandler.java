@@ -23,8 +23,6 @@ public class AdminVerifyHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         JSONObject req;
         try {
             req = WebResponseHelper.readJson(exchange);
@@ -1,5 +1,6 @@
 package team.kitemc.verifymc.web.handler;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
@@ -168,13 +169,15 @@ public final class AuthFlowSupport {
         if (usernames.isEmpty()) {
             return SharedPasswordUpdateResult.failure(List.of());
         }
-        if (!ctx.getUserDao().updateSharedPasswords(usernames, plainPassword)) {
+        // Hash once for the whole group; the DAO and AuthMe store an encoded value as is
+        String storedPassword = PasswordUtil.hash(plainPassword);
+        if (!ctx.getUserDao().updateSharedPasswords(usernames, storedPassword)) {
             return SharedPasswordUpdateResult.failure(usernames);
         }
 
         if (ctx.getAuthmeService() != null && ctx.getAuthmeService().isAuthmeEnabled()) {
             for (String username : usernames) {
-                if (!ctx.getAuthmeService().syncUserPasswordToAuthme(username, plainPassword)) {
+                if (!ctx.getAuthmeService().syncUserPasswordToAuthme(username, storedPassword)) {
                     ctx.getPlugin().getLogger().warning("[VerifyMC] Failed to sync shared password to AuthMe for user: " + username);
                     recordAuthmeSyncFailure(ctx, username, usernames);
                 }
@@ -183,6 +186,24 @@ public final class AuthFlowSupport {
         return SharedPasswordUpdateResult.success(usernames);
     }
 
+    /**
+     * After a successful password login, store a fresh hash for the group only if one of
+     * its stored values is in an older format or cost, or the group's values differ.
+     */
+    public static SharedPasswordUpdateResult upgradeSharedPasswords(PluginContext ctx, List<Map<String, Object>> users, String plainPassword) {
+        Set<String> storedPasswords = new HashSet<>();
+        boolean stale = false;
+        for (Map<String, Object> user : users) {
+            String storedPassword = String.valueOf(user.getOrDefault("password", ""));
+            storedPasswords.add(storedPassword);
+            stale = stale || storedPassword.isEmpty() || PasswordUtil.needsRehash(storedPassword);
+        }
+        if (!stale && storedPasswords.size() <= 1) {
+            return SharedPasswordUpdateResult.skippedResult();
+        }
+        return synchronizeSharedPasswords(ctx, users, plainPassword);
+    }
+
     public static List<Map<String, Object>> resolveSharedPasswordGroup(UserDao userDao, Map<String, Object> seedUser) {
         if (seedUser == null) {
             return List.of();
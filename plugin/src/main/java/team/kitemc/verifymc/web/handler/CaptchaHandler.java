@@ -18,8 +18,6 @@ public class CaptchaHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
         String query = exchange.getRequestURI().getQuery();
         String language = "en";
         if (query != null) {
@@ -17,8 +17,6 @@ public class DiscordAuthHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
         String query = exchange.getRequestURI().getQuery();
         String username = null;
         String language = "en";
@@ -24,8 +24,6 @@ public class DiscordUnlinkHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         // Step 1: Authenticate the request
         String authenticatedUser = AdminAuthUtil.getAuthenticatedUser(exchange, ctx);
         if (authenticatedUser == null) {
@@ -20,8 +20,6 @@ public class DownloadsHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
         JSONObject resp = new JSONObject();
         
         try {
@@ -27,8 +27,6 @@ public class ForgotPasswordHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         JSONObject req;
         try {
             req = WebResponseHelper.readJson(exchange);
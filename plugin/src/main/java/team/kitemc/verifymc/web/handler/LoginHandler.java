@@ -18,21 +18,10 @@ import team.kitemc.verifymc.web.WebResponseHelper;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class LoginHandler implements HttpHandler {
-    private static final int MAX_ATTEMPTS_PER_IP = 5;
-    private static final long RATE_LIMIT_WINDOW_MS = 60_000L;
-
     private final PluginContext ctx;
     private final boolean isAdminLogin;
-    private final ConcurrentHashMap<String, LoginAttempt> loginAttempts = new ConcurrentHashMap<>();
-
-    private static class LoginAttempt {
-        final AtomicInteger count = new AtomicInteger(0);
-        volatile long windowStart = System.currentTimeMillis();
-    }
 
     public LoginHandler(PluginContext ctx) {
         this(ctx, false);
@@ -43,32 +32,10 @@ public class LoginHandler implements HttpHandler {
         this.isAdminLogin = isAdminLogin;
     }
 
-    private boolean isRateLimited(String ip) {
-        long now = System.currentTimeMillis();
-        LoginAttempt attempt = loginAttempts.compute(ip, (k, v) -> {
-            if (v == null || (now - v.windowStart) > RATE_LIMIT_WINDOW_MS) {
-                LoginAttempt fresh = new LoginAttempt();
-                fresh.windowStart = now;
-                fresh.count.set(1);
-                return fresh;
-            }
-            v.count.incrementAndGet();
-            return v;
-        });
-        return attempt.count.get() > MAX_ATTEMPTS_PER_IP;
-    }
-
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
+        // Attempts per client are limited by the route's rate_limit stage (http.rate_limits)
         String clientIp = exchange.getRemoteAddress().getAddress().getHostAddress();
-        if (isRateLimited(clientIp)) {
-            ctx.getPlugin().getLogger().warning("[Security] Login rate limit exceeded for IP: " + clientIp);
-            WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
-                    "Too many login attempts. Please try again later."), 429);
-            return;
-        }
 
         JSONObject req;
         try {
@@ -177,7 +144,7 @@ public class LoginHandler implements HttpHandler {
             }
 
             List<Map<String, Object>> sharedUsers = AuthFlowSupport.resolveSharedPasswordGroup(userDao, verifiedUser);
-            AuthFlowSupport.SharedPasswordUpdateResult syncResult = AuthFlowSupport.synchronizeSharedPasswords(ctx, sharedUsers, password);
+            AuthFlowSupport.SharedPasswordUpdateResult syncResult = AuthFlowSupport.upgradeSharedPasswords(ctx, sharedUsers, password);
             if (!syncResult.success()) {
                 ctx.getPlugin().getLogger().warning("[Security] Shared password synchronization failed - Identifier: " + identifier + ", IP: " + clientIp);
                 WebResponseHelper.sendJson(exchange, ApiResponseFactory.failure(
@@ -4,6 +4,8 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import team.kitemc.verifymc.core.PluginContext;
 
+import team.kitemc.verifymc.web.StaticAssetCache;
+
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -12,9 +14,17 @@ import java.nio.file.Path;
 /**
  * Serves static files (front-end HTML/CSS/JS) from the plugin data directory.
  * This replaces the inline StaticHandler class from the original WebServer.
+ * <p>
+ * Files are served from a {@link StaticAssetCache}: conditional requests are answered
+ * with 304, precompressed {@code .br}/{@code .gz} siblings are sent to clients that
+ * accept them, and files too large to cache are streamed from disk.
  */
 public class StaticFileHandler implements HttpHandler {
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+
     private final PluginContext ctx;
+    private final StaticAssetCache assets = new StaticAssetCache();
+    private volatile ThemeDir themeDir;
 
     public StaticFileHandler(PluginContext ctx) {
         this.ctx = ctx;
@@ -24,35 +34,24 @@ public class StaticFileHandler implements HttpHandler {
     public void handle(HttpExchange exchange) throws IOException {
         String relativePath = toRelativePath(exchange.getRequestURI().getPath());
 
-        // Determine the theme directory
-        String theme = ctx.getConfigManager().getTheme();
-        File staticDir = ctx.getResourceManager().getStaticDir();
-        File themeDir = new File(staticDir, theme);
-
-        // If theme dir doesn't exist, fall back to the static root
-        if (!themeDir.exists()) {
-            themeDir = staticDir;
-        }
-
-        Path themeDirPath = themeDir.toPath().toAbsolutePath().normalize();
+        Path themeDirPath = resolveThemeDir();
         Path requestPath = resolveWithinBase(themeDirPath, relativePath);
         if (requestPath == null) {
             exchange.sendResponseHeaders(403, -1);
             return;
         }
 
-        File file = requestPath.toFile();
-
-        if (!file.exists() || file.isDirectory()) {
+        StaticAssetCache.Asset asset = assets.get(requestPath);
+        if (asset == null) {
             // Try serving index.html for SPA routing
             Path indexPath = resolveWithinBase(themeDirPath, "index.html");
             if (indexPath == null) {
                 exchange.sendResponseHeaders(403, -1);
                 return;
             }
-            File indexFile = indexPath.toFile();
-            if (indexFile.exists()) {
-                serveFile(exchange, indexFile);
+            StaticAssetCache.Asset index = assets.get(indexPath);
+            if (index != null) {
+                serveFile(exchange, index);
             } else {
                 String msg = "404 Not Found";
                 byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
@@ -64,7 +63,30 @@ public class StaticFileHandler implements HttpHandler {
             return;
         }
 
-        serveFile(exchange, file);
+        serveFile(exchange, asset);
+    }
+
+    /**
+     * The configured theme directory, or the static root if the theme does not exist.
+     * Re-checked at most once a second instead of on every request.
+     */
+    private Path resolveThemeDir() {
+        String theme = ctx.getConfigManager().getTheme();
+        long now = System.currentTimeMillis();
+        ThemeDir current = themeDir;
+        if (current != null && current.theme.equals(theme) && now - current.checkedAt < 1000L) {
+            return current.path;
+        }
+        File staticDir = ctx.getResourceManager().getStaticDir();
+        File dir = new File(staticDir, theme);
+
+        // If theme dir doesn't exist, fall back to the static root
+        if (!dir.isDirectory()) {
+            dir = staticDir;
+        }
+        Path path = dir.toPath().toAbsolutePath().normalize();
+        themeDir = new ThemeDir(theme, path, now);
+        return path;
     }
 
     static String toRelativePath(String uriPath) {
@@ -86,15 +108,59 @@ public class StaticFileHandler implements HttpHandler {
         return candidate;
     }
 
-    private void serveFile(HttpExchange exchange, File file) throws IOException {
-        String contentType = determineContentType(file.getName());
-        exchange.getResponseHeaders().set("Content-Type", contentType);
-        exchange.getResponseHeaders().set("Cache-Control", determineCacheControl(file.getName()));
+    private void serveFile(HttpExchange exchange, StaticAssetCache.Asset asset) throws IOException {
+        String fileName = asset.getPath().getFileName().toString();
+        String encoding = StaticAssetCache.negotiateEncoding(
+                exchange.getRequestHeaders().getFirst("Accept-Encoding"), asset);
+        StaticAssetCache.Asset representation = encoding != null ? asset.getVariant(encoding) : asset;
+
+        exchange.getResponseHeaders().set("Content-Type", determineContentType(fileName));
+        exchange.getResponseHeaders().set("Cache-Control", StaticAssetCache.cacheControl(fileName));
+        exchange.getResponseHeaders().set("ETag", representation.getEtag());
+        exchange.getResponseHeaders().set("Last-Modified", StaticAssetCache.formatHttpDate(asset.getLastModified()));
+        if (asset.hasVariants()) {
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        }
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+
+        if (StaticAssetCache.isNotModified(exchange.getRequestHeaders().getFirst("If-None-Match"),
+                exchange.getRequestHeaders().getFirst("If-Modified-Since"),
+                representation.getEtag(), asset.getLastModified())) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        if ("HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(200, -1);
+            return;
+        }
+
+        byte[] data = representation.getData();
+        if (data != null) {
+            exchange.sendResponseHeaders(200, data.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(data);
+            }
+            return;
+        }
 
-        byte[] data = Files.readAllBytes(file.toPath());
-        exchange.sendResponseHeaders(200, data.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(data);
+        // Too large to keep in memory: copy from disk through one small buffer
+        try (InputStream in = Files.newInputStream(representation.getPath())) {
+            long size = Math.min(representation.getSize(), Files.size(representation.getPath()));
+            exchange.sendResponseHeaders(200, size);
+            try (OutputStream os = exchange.getResponseBody()) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long remaining = size;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        break;
+                    }
+                    os.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
         }
     }
 
@@ -115,11 +181,15 @@ public class StaticFileHandler implements HttpHandler {
         return "application/octet-stream";
     }
 
-    private String determineCacheControl(String fileName) {
-        String lower = fileName.toLowerCase();
-        if (lower.endsWith(".html")) {
-            return "no-cache";
+    private static final class ThemeDir {
+        private final String theme;
+        private final Path path;
+        private final long checkedAt;
+
+        private ThemeDir(String theme, Path path, long checkedAt) {
+            this.theme = theme;
+            this.path = path;
+            this.checkedAt = checkedAt;
         }
-        return "public, max-age=31536000, immutable";
     }
 }
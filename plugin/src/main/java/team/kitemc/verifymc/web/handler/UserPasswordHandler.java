@@ -22,8 +22,6 @@ public class UserPasswordHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         String username = AdminAuthUtil.getAuthenticatedUser(exchange, ctx);
         if (username == null) return;
 
@@ -23,8 +23,6 @@ public class UserUpdateHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         String username = AdminAuthUtil.getAuthenticatedUser(exchange, ctx);
         if (username == null) return;
 
@@ -25,8 +25,6 @@ public class VerifyCodeHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "POST")) return;
-
         JSONObject req;
         try {
             req = WebResponseHelper.readJson(exchange);
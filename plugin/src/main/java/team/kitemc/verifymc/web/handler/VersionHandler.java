@@ -20,8 +20,6 @@ public class VersionHandler implements HttpHandler {
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
-        if (!WebResponseHelper.requireMethod(exchange, "GET")) return;
-
         JSONObject resp = new JSONObject();
         resp.put("success", true);
         resp.put("currentVersion", ctx.getPlugin().getDescription().getVersion());
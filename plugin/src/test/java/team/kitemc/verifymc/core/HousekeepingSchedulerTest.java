@@ -0,0 +1,47 @@
+package team.kitemc.verifymc.core;
+
+import org.junit.jupiter.api.Test;
+import team.kitemc.verifymc.metrics.MetricsRegistry;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HousekeepingSchedulerTest {
+
+    @Test
+    void failingTaskKeepsItsScheduleAndIsCounted() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        HousekeepingScheduler scheduler = new HousekeepingScheduler(metrics, Logger.getLogger("HousekeepingSchedulerTest"));
+        CountDownLatch runs = new CountDownLatch(3);
+        scheduler.schedule("flaky", 5L, () -> {
+            runs.countDown();
+            throw new IllegalStateException("boom");
+        });
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        assertTrue(metrics.counter("housekeeping_task_failures_total", "task", "flaky").get() >= 3);
+        assertTrue(metrics.timer("housekeeping_task_seconds", "task", "flaky").getCount() >= 3);
+    }
+
+    @Test
+    void shutdownStopsEveryTask() throws Exception {
+        HousekeepingScheduler scheduler = new HousekeepingScheduler(new MetricsRegistry(), Logger.getLogger("HousekeepingSchedulerTest"));
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.schedule("tick", 5L, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        scheduler.shutdown();
+        int afterShutdown = runs.get();
+        Thread.sleep(50L);
+        assertEquals(afterShutdown, runs.get());
+    }
+}
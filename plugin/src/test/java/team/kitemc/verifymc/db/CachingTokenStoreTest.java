@@ -0,0 +1,53 @@
+package team.kitemc.verifymc.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTokenStoreTest {
+    @Test
+    void revocationOnSharedStoreIsVisibleAfterRefreshWindow() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        InMemoryTokenStore shared = new InMemoryTokenStore(clock::get);
+        CachingTokenStore nodeA = new CachingTokenStore(shared, 5_000L, 100, clock::get);
+        CachingTokenStore nodeB = new CachingTokenStore(shared, 5_000L, 100, clock::get);
+
+        nodeA.saveToken("t1", new TokenRecord("Alice", 60_000L));
+        assertEquals("Alice", nodeB.findToken("t1").username());
+
+        nodeA.revokeToken("t1");
+        assertNull(nodeA.findToken("t1"));
+        assertNotNull(nodeB.findToken("t1"));
+
+        clock.addAndGet(5_000L);
+        assertNull(nodeB.findToken("t1"));
+    }
+
+    @Test
+    void unknownTokensAreNotCached() {
+        AtomicLong clock = new AtomicLong(0L);
+        InMemoryTokenStore shared = new InMemoryTokenStore(clock::get);
+        CachingTokenStore store = new CachingTokenStore(shared, 5_000L, 100, clock::get);
+
+        assertNull(store.findToken("missing"));
+        shared.saveToken("missing", new TokenRecord("Bob", 60_000L));
+        assertEquals("Bob", store.findToken("missing").username());
+        assertEquals(1, store.cachedCount());
+    }
+
+    @Test
+    void revokeUserTokensRemovesAllTokensForUser() {
+        InMemoryTokenStore shared = new InMemoryTokenStore();
+        CachingTokenStore store = new CachingTokenStore(shared, 5_000L, 100);
+        store.saveToken("a", new TokenRecord("Alice", Long.MAX_VALUE));
+        store.saveToken("b", new TokenRecord("alice", Long.MAX_VALUE));
+        store.saveToken("c", new TokenRecord("Bob", Long.MAX_VALUE));
+
+        store.revokeUserTokens("ALICE");
+
+        assertNull(store.findToken("a"));
+        assertNull(store.findToken("b"));
+        assertNotNull(store.findToken("c"));
+    }
+}
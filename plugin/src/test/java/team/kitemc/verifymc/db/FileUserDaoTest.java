@@ -1,8 +1,10 @@
 package team.kitemc.verifymc.db;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.Plugin;
@@ -11,7 +13,9 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 import team.kitemc.verifymc.util.PasswordUtil;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -54,6 +58,44 @@ class FileUserDaoTest {
         }
     }
 
+    @Test
+    void batchUpdatesReportOnlyExistingUsers() {
+        FileUserDao userDao = createDao();
+        try {
+            assertTrue(userDao.registerUser("Alice", "alice@example.com", "pending", "password"));
+            assertTrue(userDao.registerUser("Bob", "bob@example.com", "pending", "password"));
+
+            assertEquals(Set.of("Alice", "Bob"),
+                    userDao.updateUserStatuses(List.of("Alice", "Bob", "MissingUser"), "approved", "admin"));
+            assertEquals("approved", userDao.getUserByUsername("Bob").get("status"));
+
+            assertEquals(Set.of("Bob"), userDao.deleteUsers(List.of("Bob", "MissingUser")));
+            assertNull(userDao.getUserByUsername("Bob"));
+        } finally {
+            userDao.close();
+        }
+    }
+
+    @Test
+    void forEachUserWalksInUsernameOrderWithStatusFilter() throws Exception {
+        FileUserDao userDao = createDao();
+        try {
+            assertTrue(userDao.registerUser("charlie", "c@example.com", "approved", "password"));
+            assertTrue(userDao.registerUser("Alice", "a@example.com", "approved", "password"));
+            assertTrue(userDao.registerUser("bob", "b@example.com", "pending", "password"));
+
+            List<Object> all = new ArrayList<>();
+            userDao.forEachUser("all", user -> all.add(user.get("username")));
+            assertEquals(List.of("Alice", "bob", "charlie"), all);
+
+            List<Object> approved = new ArrayList<>();
+            userDao.forEachUser("approved", user -> approved.add(user.get("username")));
+            assertEquals(List.of("Alice", "charlie"), approved);
+        } finally {
+            userDao.close();
+        }
+    }
+
     private FileUserDao createDao() {
         Plugin plugin = mock(Plugin.class);
         FileConfiguration config = mock(FileConfiguration.class);
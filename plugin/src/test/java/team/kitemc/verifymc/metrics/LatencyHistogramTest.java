@@ -0,0 +1,56 @@
+package team.kitemc.verifymc.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsKeepValuesWithinRelativeError() {
+        for (long micros : new long[]{0, 7, 8, 15, 16, 999, 1_000, 12_345, 250_000, 9_999_999}) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(index >= 0 && index < LatencyHistogram.BUCKETS);
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upper >= micros);
+            assertTrue(upper - micros <= micros / LatencyHistogram.SUB_BUCKETS, "value " + micros);
+        }
+    }
+
+    @Test
+    void reportsQuantilesOfTheWindow() {
+        AtomicLong now = new AtomicLong(0);
+        LatencyHistogram histogram = new LatencyHistogram(1000, 5, now::get);
+        for (int i = 1; i <= 100; i++) {
+            histogram.recordNanos(i * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(5000);
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100_000, snapshot.getMaxMicros());
+        assertEquals(50_000, snapshot.valueAt(0.5), 50_000 / 8);
+        assertEquals(99_000, snapshot.valueAt(0.99), 99_000 / 8);
+        assertEquals(100_000, snapshot.valueAt(1.0));
+    }
+
+    @Test
+    void oldSlicesLeaveTheWindow() {
+        AtomicLong now = new AtomicLong(0);
+        LatencyHistogram histogram = new LatencyHistogram(1000, 5, now::get);
+        histogram.recordNanos(80_000_000L);
+        now.set(3500);
+        histogram.recordNanos(2_000_000L);
+
+        assertEquals(2, histogram.snapshot(5000).getCount());
+        assertEquals(1, histogram.snapshot(1000).getCount());
+        assertEquals(2_000, histogram.snapshot(1000).getMaxMicros());
+
+        // Coming round to the first slice again clears it
+        now.set(5200);
+        histogram.recordNanos(1_000_000L);
+        assertEquals(2, histogram.snapshot(5000).getCount());
+        assertEquals(2_000, histogram.snapshot(5000).getMaxMicros());
+    }
+}
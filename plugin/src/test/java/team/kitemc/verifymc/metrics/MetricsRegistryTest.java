@@ -0,0 +1,59 @@
+package team.kitemc.verifymc.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void labelsAreAPartOfTheIdentity() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("mail_sent_total", "type", "verify_code").increment();
+        metrics.counter("mail_sent_total", "type", "verify_code").increment();
+        metrics.counter("mail_sent_total", "type", "review_result").increment();
+
+        assertEquals(2, metrics.counter("mail_sent_total", "type", "verify_code").get());
+        assertEquals(1, metrics.counter("mail_sent_total", "type", "review_result").get());
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("broken", "type"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void instrumentedCallsAreTimedAndRethrowUnchanged() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Function<String, Integer> target = value -> {
+            if (value == null) {
+                throw new IllegalStateException("no value");
+            }
+            return value.length();
+        };
+        Function<String, Integer> timed = metrics.instrument(Function.class, target, "dao_call_seconds", "dao", "test");
+
+        assertEquals(Integer.valueOf(3), timed.apply("abc"));
+        assertThrows(IllegalStateException.class, () -> timed.apply(null));
+        assertEquals(2, metrics.timer("dao_call_seconds", "dao", "test", "method", "apply").getCount());
+    }
+
+    @Test
+    void prometheusExportDeclaresEachNameOnce() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.counter("sms_sent_total", "provider", "aliyun", "result", "success").add(3);
+        metrics.counter("sms_sent_total", "provider", "aliyun", "result", "failure").increment();
+        metrics.gauge("captchas_active", () -> 7);
+        metrics.timer("sms_send_seconds", "provider", "aliyun").record(2_000_000L);
+
+        StringBuilder out = new StringBuilder();
+        metrics.writePrometheus(out);
+        String text = out.toString();
+
+        assertEquals(text.indexOf("# TYPE verifymc_sms_sent_total counter"),
+                text.lastIndexOf("# TYPE verifymc_sms_sent_total counter"));
+        assertTrue(text.contains("verifymc_sms_sent_total{provider=\"aliyun\",result=\"success\"} 3\n"));
+        assertTrue(text.contains("verifymc_captchas_active 7\n"));
+        assertTrue(text.contains("verifymc_sms_send_seconds{provider=\"aliyun\",quantile=\"0.99\"} 0.002\n"));
+        assertTrue(text.contains("verifymc_sms_send_seconds_count{provider=\"aliyun\"} 1\n"));
+    }
+}
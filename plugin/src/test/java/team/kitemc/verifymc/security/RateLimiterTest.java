@@ -0,0 +1,106 @@
+package team.kitemc.verifymc.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static RateLimiter limiter(RateLimitPolicy.Algorithm algorithm, int limit, long windowMillis,
+                                       int maxKeys, AtomicLong clock) {
+        return new RateLimiter("test", new RateLimitPolicy(algorithm, RateLimitPolicy.Key.IP, limit, windowMillis),
+                maxKeys, clock::get);
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenSteadyRate() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        RateLimiter limiter = limiter(RateLimitPolicy.Algorithm.TOKEN_BUCKET, 5, 60_000L, 100, clock);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        assertTrue(wait > 0 && wait <= 12_000L, "wait " + wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+    }
+
+    @Test
+    void refusalsAreReportedOncePerKeyPerWindow() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        RateLimiter limiter = limiter(RateLimitPolicy.Algorithm.SLIDING_WINDOW, 1, 60_000L, 100, clock);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        assertTrue(limiter.shouldReport("10.0.0.1"));
+        assertFalse(limiter.shouldReport("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+        assertTrue(limiter.tryAcquire("10.0.0.2") > 0);
+        assertTrue(limiter.shouldReport("10.0.0.2"));
+
+        clock.addAndGet(60_000L);
+        assertTrue(limiter.shouldReport("10.0.0.1"));
+    }
+
+    @Test
+    void slidingWindowWeighsPreviousWindow() {
+        AtomicLong clock = new AtomicLong(600_000L);
+        RateLimiter limiter = limiter(RateLimitPolicy.Algorithm.SLIDING_WINDOW, 4, 60_000L, 100, clock);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, limiter.tryAcquire("ip"));
+        }
+        long wait = limiter.tryAcquire("ip");
+        assertTrue(wait > 60_000L, "must wait into the next window: " + wait);
+        assertEquals(wait, limiter.peek("ip"));
+
+        // Three quarters of the previous window still count until the computed wait is over
+        clock.addAndGet(wait - 1);
+        assertTrue(limiter.tryAcquire("ip") > 0);
+        clock.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertTrue(limiter.tryAcquire("ip") > 0);
+        // Half way only two of the previous window count
+        clock.addAndGet(15_000L);
+        assertEquals(0, limiter.tryAcquire("ip"));
+        assertTrue(limiter.tryAcquire("ip") > 0);
+    }
+
+    @Test
+    void fullTableForgetsLeastRecentlySeenKeys() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        RateLimiter limiter = limiter(RateLimitPolicy.Algorithm.TOKEN_BUCKET, 1, 10_000L, 2, clock);
+        assertEquals(0, limiter.tryAcquire("a"));
+        clock.incrementAndGet();
+        assertEquals(0, limiter.tryAcquire("b"));
+        clock.incrementAndGet();
+        // "a" keeps retrying, so "b" is the least recently seen
+        assertTrue(limiter.tryAcquire("a") > 0);
+        clock.incrementAndGet();
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertEquals(2, limiter.size());
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertTrue(limiter.tryAcquire("c") > 0);
+        assertEquals(0, limiter.peek("b"));
+    }
+
+    @Test
+    void rotatingAddressesDoNotLockOutANewClient() {
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        RateLimiter limiter = limiter(RateLimitPolicy.Algorithm.SLIDING_WINDOW, 5, 60_000L, 100, clock);
+        for (int i = 0; i < 1_000; i++) {
+            String address = "2001:db8::" + Integer.toHexString(i);
+            for (int attempt = 0; attempt < 6; attempt++) {
+                limiter.tryAcquire(address);
+            }
+            clock.incrementAndGet();
+        }
+        assertTrue(limiter.size() <= 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("198.51.100.7"), "attempt " + i);
+        }
+        assertTrue(limiter.tryAcquire("198.51.100.7") > 0);
+    }
+}
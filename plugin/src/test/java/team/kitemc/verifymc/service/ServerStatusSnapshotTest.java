@@ -0,0 +1,42 @@
+package team.kitemc.verifymc.service;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerStatusSnapshotTest {
+
+    private static ServerStatusSnapshot snapshot(double[] history) {
+        return new ServerStatusSnapshot(
+                List.of(new ServerStatusSnapshot.PlayerEntry("Steve", "8667ba71-b85a-4004-af54-457a9734eed7")),
+                20, "1.21-R0.1-SNAPSHOT", 19.8, history, 512, 2048, "A server", 1000L);
+    }
+
+    @Test
+    void playerListOnlyForSignedInUsers() {
+        ServerStatusSnapshot snapshot = snapshot(new double[]{20.0});
+
+        JSONObject anonymous = snapshot.toJson(false);
+        assertEquals(1, anonymous.getJSONObject("players").getInt("online"));
+        assertFalse(anonymous.getJSONObject("players").has("list"));
+
+        JSONObject signedIn = snapshot.toJson(true);
+        assertEquals("Steve", signedIn.getJSONObject("players").getJSONArray("list").getJSONObject(0).getString("name"));
+    }
+
+    @Test
+    void historyIsCopiedOnConstruction() {
+        double[] history = {20.0, 19.5};
+        ServerStatusSnapshot snapshot = snapshot(history);
+        history[0] = 1.0;
+
+        JSONObject data = snapshot.toJson(false);
+        assertEquals(20.0, data.getJSONArray("tpsHistory").getDouble(0));
+        assertEquals(19.5, data.getJSONArray("tpsHistory").getDouble(1));
+        assertEquals(19.8, data.getDouble("tps"));
+        assertEquals(512, data.getJSONObject("memory").getLong("used"));
+    }
+}
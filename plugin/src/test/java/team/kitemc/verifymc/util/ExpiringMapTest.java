@@ -0,0 +1,63 @@
+package team.kitemc.verifymc.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringMapTest {
+
+    @Test
+    void entriesExpireOnTheirOwnDeadline() {
+        AtomicLong clock = new AtomicLong(10_000L);
+        ExpiringMap<String, String> map = new ExpiringMap<>(100, 1_000L, 8, clock::get);
+        List<String> expired = new ArrayList<>();
+        map.setRemovalListener((key, value, cause) -> expired.add(key + ":" + cause));
+        map.put("short", "a", 2_000L);
+        map.put("long", "b", 20_000L);
+
+        clock.addAndGet(2_000L);
+        assertNull(map.get("short"));
+        assertEquals("b", map.get("long"));
+
+        // Longer than a full turn of the wheel
+        clock.addAndGet(15_000L);
+        assertEquals(1, map.purgeExpired());
+        assertEquals(List.of("short:EXPIRED"), expired);
+        assertEquals("b", map.get("long"));
+
+        clock.addAndGet(3_000L);
+        assertEquals(1, map.purgeExpired());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void evictsTheOldestWriteWhenFull() {
+        AtomicLong clock = new AtomicLong(0L);
+        ExpiringMap<String, Integer> map = new ExpiringMap<>(2, 1_000L, 8, clock::get);
+        map.put("a", 1, 60_000L);
+        map.put("b", 2, 60_000L);
+        map.put("a", 3, 60_000L);
+        map.put("c", 4, 60_000L);
+
+        assertNull(map.get("b"));
+        assertEquals(Integer.valueOf(3), map.get("a"));
+        assertEquals(1, map.evictedCount());
+    }
+
+    @Test
+    void computeKeepsTheDeadlineOfAnUnchangedValue() {
+        AtomicLong clock = new AtomicLong(0L);
+        ExpiringMap<String, Long> map = new ExpiringMap<>(10, 1_000L, 8, clock::get);
+        Long sent = 0L;
+        map.compute("target", (key, current) -> sent, 5_000L);
+
+        clock.addAndGet(4_000L);
+        assertSame(sent, map.compute("target", (key, current) -> current != null ? current : clock.get(), 5_000L));
+        clock.addAndGet(1_000L);
+        assertNull(map.get("target"));
+    }
+}
@@ -0,0 +1,70 @@
+package team.kitemc.verifymc.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordUtilTest {
+
+    @AfterEach
+    void restoreDefaultHasher() {
+        PasswordUtil.configure(new Sha256PasswordHasher(), null);
+    }
+
+    @Test
+    void verifiesEveryKnownFormatAndFlagsWeakerHashesForRehash() {
+        String legacy = new Sha256PasswordHasher().hash("correct horse");
+        PasswordUtil.configure(new Pbkdf2PasswordHasher(10_000), null);
+
+        String stored = PasswordUtil.hash("correct horse");
+        assertTrue(stored.startsWith("pbkdf2_sha256$10000$"));
+        assertTrue(PasswordUtil.verify("correct horse", stored));
+        assertFalse(PasswordUtil.verify("wrong horse", stored));
+        assertTrue(PasswordUtil.verify("correct horse", legacy));
+        assertTrue(PasswordUtil.verify("correct horse",
+                "$SHA$0123456789abcdef$3bab2a92fe984d59b5b16e119a4011058fc969113fc07903c8b5e626d37c2ee6"));
+        // AuthMe's PBKDF2 format: hex salt used as text, 64 byte key in upper-case hex
+        assertTrue(PasswordUtil.verify("correct horse", "pbkdf2_sha256$10000$0123456789abcdef$"
+                + "4C8DA0AEDBD5D475B99F3DAB058E2D72D96B98E8F96D9B34770F63F0D1E94517"
+                + "DDEDAB329D756C9D8838AD55D4327B202EC9DCC6102CD241B60C87B8A5D1077D"));
+
+        assertTrue(PasswordUtil.needsRehash(legacy));
+        assertFalse(PasswordUtil.needsRehash(stored));
+        PasswordUtil.configure(new Pbkdf2PasswordHasher(20_000), null);
+        assertTrue(PasswordUtil.needsRehash(stored));
+        assertEquals(stored, PasswordUtil.hash(stored));
+    }
+
+    @Test
+    void calibrationScalesIterationsToTheTargetTime() {
+        // One microsecond per iteration
+        assertEquals(250_000, Pbkdf2PasswordHasher.calibrate(250, iterations -> iterations * 1_000L));
+        assertEquals(Pbkdf2PasswordHasher.MIN_ITERATIONS, Pbkdf2PasswordHasher.calibrate(250, iterations -> 1_000_000_000L));
+    }
+
+    @Test
+    void fullHashingExecutorRejectsInsteadOfQueueingForever() throws Exception {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> executor.call(() -> {
+            started.countDown();
+            release.await();
+            return true;
+        }));
+        busy.start();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(RejectedExecutionException.class, () -> executor.call(() -> true));
+        } finally {
+            release.countDown();
+            busy.join();
+            executor.shutdown();
+        }
+    }
+}
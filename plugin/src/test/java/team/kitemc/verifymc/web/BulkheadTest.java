@@ -0,0 +1,43 @@
+package team.kitemc.verifymc.web;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+    @Test
+    void saturatedBulkheadRejectsWithoutAffectingOthers() throws InterruptedException {
+        Bulkhead slow = new Bulkhead("register", 1, 1);
+        Bulkhead other = new Bulkhead("mail", 1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            assertTrue(slow.tryExecute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(slow.tryExecute(() -> { }));
+            assertFalse(slow.tryExecute(() -> { }));
+            assertEquals(1, slow.getRejectedCount());
+
+            CountDownLatch ran = new CountDownLatch(1);
+            assertTrue(other.tryExecute(ran::countDown));
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            slow.shutdown();
+            other.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
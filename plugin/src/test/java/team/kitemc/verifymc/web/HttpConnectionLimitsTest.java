@@ -0,0 +1,84 @@
+package team.kitemc.verifymc.web;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpConnectionLimitsTest {
+    private static final String[] PROPERTIES = {
+            "jdk.httpserver.maxConnections",
+            "sun.net.httpserver.maxIdleConnections",
+            "sun.net.httpserver.maxReqTime",
+            "sun.net.httpserver.maxRspTime",
+            "sun.net.httpserver.idleInterval"
+    };
+
+    private final Map<String, String> saved = new HashMap<>();
+
+    @BeforeEach
+    void clearProperties() {
+        for (String property : PROPERTIES) {
+            for (String name : new String[]{property, "verifymc.applied." + property}) {
+                saved.put(name, System.getProperty(name));
+                System.clearProperty(name);
+            }
+        }
+    }
+
+    @AfterEach
+    void restoreProperties() {
+        saved.forEach((property, value) -> {
+            if (value == null) {
+                System.clearProperty(property);
+            } else {
+                System.setProperty(property, value);
+            }
+        });
+    }
+
+    @Test
+    void mapsEachLimitToItsJdkProperty() {
+        new HttpConnectionLimits(50, 200, 20, 10, 60, 30).applyToJdkServer(Logger.getLogger("HttpConnectionLimitsTest"));
+
+        assertEquals("200", System.getProperty("jdk.httpserver.maxConnections"));
+        assertEquals("20", System.getProperty("sun.net.httpserver.maxIdleConnections"));
+        assertEquals("10", System.getProperty("sun.net.httpserver.maxReqTime"));
+        assertEquals("60", System.getProperty("sun.net.httpserver.maxRspTime"));
+        assertEquals("30", System.getProperty("sun.net.httpserver.idleInterval"));
+    }
+
+    @Test
+    void commandLinePropertiesWin() {
+        System.setProperty("sun.net.httpserver.maxReqTime", "99");
+
+        new HttpConnectionLimits(50, 200, 20, 10, 60, 30).applyToJdkServer(Logger.getLogger("HttpConnectionLimitsTest"));
+
+        assertEquals("99", System.getProperty("sun.net.httpserver.maxReqTime"));
+        assertEquals("60", System.getProperty("sun.net.httpserver.maxRspTime"));
+    }
+
+    @Test
+    void valuesSetByAnEarlierStartAreNotMistakenForCommandLineFlags() {
+        Logger logger = Logger.getLogger("HttpConnectionLimitsTest");
+        new HttpConnectionLimits(50, 200, 20, 10, 60, 30).applyToJdkServer(logger);
+        // Plugin reload with a new response timeout
+        new HttpConnectionLimits(50, 200, 20, 10, 300, 30).applyToJdkServer(logger);
+
+        assertEquals("300", System.getProperty("sun.net.httpserver.maxRspTime"));
+    }
+
+    @Test
+    void closeCountsAreUnsupportedUnlessTheEngineTracksThem() {
+        HttpConnectionLimits limits = new HttpConnectionLimits(50, 200, 20, 10, 60, 30);
+        assertEquals("unsupported", limits.toJson().getString("closed"));
+
+        limits.trackConnections();
+        limits.recordIdleClose();
+        assertEquals(1, limits.toJson().getJSONObject("closed").getLong("idle_timeout"));
+    }
+}
@@ -0,0 +1,62 @@
+package team.kitemc.verifymc.web;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpExecutorTest {
+    @Test
+    void rejectedExchangesDoNotResetTheLoadShedder() throws Exception {
+        AtomicLong now = new AtomicLong(1_000L);
+        LoadShedder shedder = new LoadShedder(true, 10, 50, now::get);
+        HttpExecutor executor = HttpExecutor.create(HttpExecutor.MODE_BOUNDED, 1, 1,
+                shedder.queue("http"), Logger.getLogger("HttpExecutorTest"));
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            // One worker busy, one exchange queued behind it, the next one rejected
+            executor.execute(() -> await(first));
+            executor.execute(() -> {
+                secondStarted.countDown();
+                await(second);
+            });
+            executor.execute(() -> assertTrue(HttpExecutor.isRejectedDispatch()));
+            Thread.sleep(20);
+            first.countDown();
+            assertTrue(secondStarted.await(2, TimeUnit.SECONDS));
+
+            executor.execute(done::countDown);
+            executor.execute(() -> assertTrue(HttpExecutor.isRejectedDispatch()));
+            now.addAndGet(100);
+            Thread.sleep(20);
+            second.countDown();
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+
+            assertTrue(shedder.shouldShed());
+            assertEquals(2, executor.getRejectedCount());
+            for (int i = 0; i < 200 && executor.getCompletedCount() < 3; i++) {
+                Thread.sleep(5);
+            }
+            assertEquals(3, executor.getCompletedCount());
+        } finally {
+            first.countDown();
+            assertTrue(secondStarted.await(2, TimeUnit.SECONDS));
+            second.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package team.kitemc.verifymc.web;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonBodyReaderTest {
+    private static InputStream body(String json, int limit) {
+        return new JsonBodyReader.LimitedInputStream(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), limit);
+    }
+
+    @Test
+    void keepsLineBreaksInsideStrings() throws Exception {
+        JSONObject json = JsonBodyReader.decode(body("{\"answer\":\"line one\\nline two\",\n\"n\": 3}", 1024),
+                JsonBodyReader::readObject);
+        assertEquals("line one\nline two", json.getString("answer"));
+        assertEquals(3, json.getInt("n"));
+    }
+
+    @Test
+    void emptyBodyIsEmptyObject() throws Exception {
+        assertEquals(0, JsonBodyReader.decode(body(" \n", 1024), JsonBodyReader::readObject).length());
+    }
+
+    @Test
+    void rejectsOversizedAndMalformedBodies() {
+        String large = "{\"password\":\"" + "x".repeat(2048) + "\"}";
+        assertThrows(RequestBodyTooLargeException.class,
+                () -> JsonBodyReader.decode(body(large, 1024), JsonBodyReader::readObject));
+        assertThrows(JSONException.class,
+                () -> JsonBodyReader.decode(body("{\"a\":", 1024), JsonBodyReader::readObject));
+        assertThrows(JSONException.class,
+                () -> JsonBodyReader.decode(body("[1, 2]", 1024), JsonBodyReader::readObject));
+    }
+
+    @Test
+    void decodesRegistrationRequestWithoutIntermediateObject() throws Exception {
+        String json = "{\"email\":\" Player@Example.com \",\"username\":\"Steve\",\"code\":123456,"
+                + "\"phoneCode\":\"999\",\"extra\":{\"ignored\":[1,2]},\"questionnaire\":{\"answers\":{}}}";
+        RegistrationRequest request = JsonBodyReader.decode(body(json, 4096),
+                in -> RegistrationRequest.read(in, (name, platform) -> name.toLowerCase()));
+        assertEquals("123456", request.code());
+        assertEquals("999", request.smsCode());
+        assertEquals("steve", request.normalizedUsername());
+        assertEquals("java", request.platform());
+        assertNotNull(request.questionnaire());
+        assertEquals(RegistrationRequest.fromJson(new JSONObject(json), (name, platform) -> name.toLowerCase()).email(),
+                request.email());
+    }
+}
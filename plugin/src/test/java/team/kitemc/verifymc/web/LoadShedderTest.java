@@ -0,0 +1,47 @@
+package team.kitemc.verifymc.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+    @Test
+    void fastQueuesDoNotHideAStandingQueue() {
+        AtomicLong now = new AtomicLong(1_000L);
+        LoadShedder shedder = new LoadShedder(true, 100, 1_000, now::get);
+        LongConsumer http = shedder.queue("http");
+        LongConsumer mail = shedder.queue("bulkhead:mail");
+
+        for (int i = 0; i <= 12; i++) {
+            mail.accept(500);
+            http.accept(0);
+            now.addAndGet(100);
+        }
+        assertTrue(shedder.shouldShed());
+        assertEquals(1, shedder.getShedCount());
+
+        mail.accept(20);
+        assertFalse(shedder.shouldShed());
+    }
+
+    @Test
+    void singleSlowSampleOrDrainedQueueDoesNotShed() {
+        AtomicLong now = new AtomicLong(1_000L);
+        LoadShedder shedder = new LoadShedder(true, 100, 1_000, now::get);
+        LongConsumer http = shedder.queue("http");
+
+        http.accept(500);
+        now.addAndGet(500);
+        assertFalse(shedder.isShedding());
+
+        now.addAndGet(600);
+        http.accept(500);
+        assertTrue(shedder.isShedding());
+
+        // Nothing dequeued for an interval
+        now.addAndGet(1_000);
+        assertFalse(shedder.isShedding());
+    }
+}
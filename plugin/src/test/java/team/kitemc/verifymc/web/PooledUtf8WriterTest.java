@@ -0,0 +1,29 @@
+package team.kitemc.verifymc.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledUtf8WriterTest {
+    @Test
+    void encodesLikeStringGetBytesAcrossBufferBoundaries() throws IOException {
+        String text = "玩家-player-🎉-".repeat(PooledUtf8Writer.BUFFER_SIZE / 8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            writer.write(text);
+        }
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    void replacesUnpairedSurrogates() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PooledUtf8Writer writer = new PooledUtf8Writer(out)) {
+            writer.write("a\uD83Cb\uDF89");
+        }
+        assertEquals("a?b?", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,64 @@
+package team.kitemc.verifymc.web;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private static byte[] json(String value) {
+        return ("{\"value\":\"" + value + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void servesUntilTtlExpires() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        ResponseCache cache = new ResponseCache(8, clock::get);
+        assertNull(cache.get("/api/config?#en"));
+
+        ResponseCache.Entry stored = cache.put("/api/config?#en", json("a"), 30_000L, cache.generation());
+        assertSame(stored, cache.get("/api/config?#en"));
+        assertTrue(stored.getEtag().startsWith("\"") && stored.getEtag().endsWith("\""));
+        assertNotEquals(stored.getEtag(), cache.put("/api/config?#zh", json("b"), 30_000L, cache.generation()).getEtag());
+
+        clock.addAndGet(30_000L);
+        assertNull(cache.get("/api/config?#en"));
+    }
+
+    @Test
+    void invalidationDropsEntriesAndResponsesRenderedBeforeIt() {
+        ResponseCache cache = new ResponseCache(8);
+        cache.put("/api/downloads?#", json("a"), 60_000L, cache.generation());
+        long renderedAt = cache.generation();
+
+        cache.invalidateAll();
+        assertNull(cache.get("/api/downloads?#"));
+        cache.put("/api/downloads?#", json("stale"), 60_000L, renderedAt);
+        assertNull(cache.get("/api/downloads?#"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void fullCacheDropsExpiredThenOldestEntries() {
+        AtomicLong clock = new AtomicLong(0L);
+        ResponseCache cache = new ResponseCache(2, clock::get);
+        cache.put("a", json("a"), 1_000L, cache.generation());
+        clock.set(10L);
+        cache.put("b", json("b"), 60_000L, cache.generation());
+        clock.set(20L);
+        cache.put("c", json("c"), 60_000L, cache.generation());
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+
+        clock.set(2_000L);
+        cache.put("d", json("d"), 60_000L, cache.generation());
+        // Nothing expired, so the oldest entry makes room
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.toJson().getLong("evictions"));
+    }
+}
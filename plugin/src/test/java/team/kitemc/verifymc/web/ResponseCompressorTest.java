@@ -0,0 +1,38 @@
+package team.kitemc.verifymc.web;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCompressorTest {
+    @Test
+    void gzipOutputRoundTripsWithPooledDeflaters() throws IOException {
+        ResponseCompressor compressor = new ResponseCompressor(0, 6, 1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                byte[] body = ("{\"users\":[" + "{\"name\":\"player" + i + "\"},".repeat(200) + "{}]}")
+                        .getBytes(StandardCharsets.UTF_8);
+                byte[] gzipped = compressor.gzip(body);
+                assertTrue(gzipped.length < body.length);
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                    assertArrayEquals(body, in.readAllBytes());
+                }
+            }
+        } finally {
+            compressor.shutdown();
+        }
+    }
+
+    @Test
+    void acceptEncodingHonoursQualityZero() {
+        assertTrue(ResponseCompressor.acceptsGzip("gzip, deflate, br"));
+        assertTrue(ResponseCompressor.acceptsGzip("br;q=1.0, *;q=0.5"));
+        assertFalse(ResponseCompressor.acceptsGzip("gzip;q=0, br"));
+        assertFalse(ResponseCompressor.acceptsGzip("identity"));
+        assertFalse(ResponseCompressor.acceptsGzip(null));
+    }
+}
@@ -0,0 +1,135 @@
+package team.kitemc.verifymc.web;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewEventHubTest {
+    private static final Pattern EVENT_ID = Pattern.compile("id: (\\S+)\\ndata: \\{\"n\":1}");
+
+    private static ReviewEventHub hub(int maxClients) {
+        return new ReviewEventHub(2, maxClients, 60, 60_000L, Logger.getLogger("ReviewEventHubTest"));
+    }
+
+    @Test
+    void resetsIdsFromAnotherServerStart() throws Exception {
+        ReviewEventHub hub = hub(10);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        assertTrue(hub.reserve());
+        hub.attach(first, () -> { }, null);
+        hub.publish(new JSONObject().put("n", 1));
+        hub.publish(new JSONObject().put("n", 2));
+        hub.shutdown();
+
+        Matcher matcher = EVENT_ID.matcher(first.toString(StandardCharsets.UTF_8));
+        assertTrue(matcher.find());
+        String firstId = matcher.group(1);
+
+        ReviewEventHub resumed = hub(10);
+        ByteArrayOutputStream unknown = new ByteArrayOutputStream();
+        assertTrue(resumed.reserve());
+        resumed.attach(unknown, () -> { }, firstId);
+        resumed.shutdown();
+        // Ids from another server start cannot be resumed
+        assertTrue(unknown.toString(StandardCharsets.UTF_8).contains("event: reset"));
+    }
+
+    @Test
+    void resumesWithinHistoryAndResetsBeyondIt() throws Exception {
+        ReviewEventHub hub = hub(10);
+        ByteArrayOutputStream live = new ByteArrayOutputStream();
+        assertTrue(hub.reserve());
+        hub.attach(live, () -> { }, null);
+        hub.publish(new JSONObject().put("n", 1));
+        hub.publish(new JSONObject().put("n", 2));
+        hub.publish(new JSONObject().put("n", 3));
+
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        ByteArrayOutputStream tooOld = new ByteArrayOutputStream();
+        Matcher matcher = awaitId(live);
+        String boot = matcher.group(1).substring(0, matcher.group(1).lastIndexOf('-'));
+
+        assertTrue(hub.reserve());
+        hub.attach(resumed, () -> { }, boot + "-2");
+        assertTrue(hub.reserve());
+        hub.attach(tooOld, () -> { }, boot + "-0");
+        hub.shutdown();
+
+        String resumedText = resumed.toString(StandardCharsets.UTF_8);
+        assertTrue(resumedText.contains("data: {\"n\":3}"));
+        assertFalse(resumedText.contains("data: {\"n\":2}"));
+        // Only the last two events are kept, so event 1 is gone
+        assertTrue(tooOld.toString(StandardCharsets.UTF_8).contains("event: reset"));
+    }
+
+    @Test
+    void refusesClientsBeyondLimit() {
+        ReviewEventHub hub = hub(1);
+        assertTrue(hub.reserve());
+        assertFalse(hub.reserve());
+        assertEquals(1, hub.toJson().getLong("rejected"));
+        hub.shutdown();
+    }
+
+    @Test
+    void clientThatStopsReadingIsDroppedWithoutStallingOthers() throws Exception {
+        ReviewEventHub hub = new ReviewEventHub(2, 10, 60, 60_000L, 1024, Logger.getLogger("ReviewEventHubTest"));
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        OutputStream stuck = new OutputStream() {
+            @Override
+            public void write(int b) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ByteArrayOutputStream healthy = new ByteArrayOutputStream();
+        assertTrue(hub.reserve());
+        hub.attach(stuck, closed::countDown, null);
+        assertTrue(hub.reserve());
+        hub.attach(healthy, () -> { }, null);
+
+        // Frames are about 100 bytes, so the stuck client overflows its 1 KiB queue
+        String padding = "x".repeat(80);
+        for (int i = 1; i <= 20; i++) {
+            hub.publish(new JSONObject().put("n", i + padding));
+            String sent = "\"n\":\"" + i + "x";
+            for (int wait = 0; wait < 200 && !healthy.toString(StandardCharsets.UTF_8).contains(sent); wait++) {
+                Thread.sleep(5);
+            }
+            assertTrue(healthy.toString(StandardCharsets.UTF_8).contains(sent), "event " + i);
+        }
+        assertEquals(1, hub.toJson().getLong("slow"));
+        assertEquals(1, hub.getClientCount());
+
+        // The stuck stream is closed once its blocked write returns
+        unblock.countDown();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        hub.shutdown();
+    }
+
+    private static Matcher awaitId(ByteArrayOutputStream out) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Matcher matcher = EVENT_ID.matcher(out.toString(StandardCharsets.UTF_8));
+            if (matcher.find()) {
+                return matcher;
+            }
+            Thread.sleep(10);
+        }
+        fail("event was not written");
+        return null;
+    }
+}
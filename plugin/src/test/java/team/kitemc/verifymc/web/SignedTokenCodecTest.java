@@ -0,0 +1,76 @@
+package team.kitemc.verifymc.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignedTokenCodecTest {
+    private static final byte[] OLD_KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEW_KEY = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8);
+
+    private static SignedTokenCodec codec(String activeKey, AtomicLong clock, int maxRevocations) {
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        keys.put("k1", OLD_KEY);
+        keys.put("k2", NEW_KEY);
+        return new SignedTokenCodec(keys, activeKey, 3_600_000L, maxRevocations, clock::get);
+    }
+
+    @Test
+    void tokensFromARetiredKeyStayValidUntilExpiry() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        String token = codec("k1", clock, 10).issue("Alice", 60_000L);
+        SignedTokenCodec rotated = codec("k2", clock, 10);
+
+        assertTrue(SignedTokenCodec.isSignedToken(token));
+        assertEquals("Alice", rotated.verify(token));
+        clock.addAndGet(60_001L);
+        assertNull(rotated.verify(token));
+    }
+
+    @Test
+    void rejectsTamperedTokensAndUnknownKeys() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        SignedTokenCodec codec = codec("k1", clock, 10);
+        String token = codec.issue("Alice", 60_000L);
+        // Same length and key id, different username
+        String tampered = codec.issue("Alicf", 60_000L).substring(0, token.indexOf('.')) + token.substring(token.indexOf('.'));
+
+        assertNull(codec.verify(tampered));
+        assertNull(new SignedTokenCodec(Map.of("k3", NEW_KEY), "k3", 3_600_000L, 10, clock::get).verify(token));
+    }
+
+    @Test
+    void revokesTokensAndUsers() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        SignedTokenCodec codec = codec("k1", clock, 10);
+        String first = codec.issue("Alice", 60_000L);
+        String second = codec.issue("Bob", 60_000L);
+
+        codec.revoke(first);
+        codec.revokeUser("bob");
+        assertNull(codec.verify(first));
+        assertNull(codec.verify(second));
+
+        clock.incrementAndGet();
+        assertEquals("Bob", codec.verify(codec.issue("Bob", 60_000L)));
+    }
+
+    @Test
+    void fullRevocationListRejectsEveryEarlierToken() {
+        AtomicLong clock = new AtomicLong(1_000L);
+        SignedTokenCodec codec = codec("k1", clock, 1);
+        String alice = codec.issue("Alice", 60_000L);
+        String bob = codec.issue("Bob", 60_000L);
+
+        codec.revoke(alice);
+        codec.revoke(bob);
+        assertNull(codec.verify(alice));
+        assertNull(codec.verify(bob));
+        assertEquals(0, codec.revocationCount());
+    }
+}
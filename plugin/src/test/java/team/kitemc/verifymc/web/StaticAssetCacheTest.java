@@ -0,0 +1,86 @@
+package team.kitemc.verifymc.web;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticAssetCacheTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void reloadsChangedFileAfterRevalidationInterval() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        StaticAssetCache cache = new StaticAssetCache(clock::get);
+        Path file = dir.resolve("app.js");
+        Files.write(file, "one".getBytes(StandardCharsets.UTF_8));
+
+        StaticAssetCache.Asset first = cache.get(file);
+        assertNotNull(first);
+        assertArrayEquals("one".getBytes(StandardCharsets.UTF_8), first.getData());
+
+        Files.write(file, "two!".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(first.getLastModified() + 5000));
+        assertSame(first, cache.get(file));
+
+        clock.addAndGet(StaticAssetCache.REVALIDATE_MILLIS);
+        StaticAssetCache.Asset second = cache.get(file);
+        assertNotSame(first, second);
+        assertNotEquals(first.getEtag(), second.getEtag());
+        assertNull(cache.get(dir.resolve("missing.js")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void servesPrecompressedSiblingWhenAccepted() throws IOException {
+        StaticAssetCache cache = new StaticAssetCache(() -> 0L);
+        Path file = dir.resolve("index-BkZ3x9aF.js");
+        Files.write(file, "console.log(1)".getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("index-BkZ3x9aF.js.gz"), new byte[]{1, 2, 3});
+
+        StaticAssetCache.Asset asset = cache.get(file);
+        assertTrue(asset.hasVariants());
+        assertEquals("gzip", StaticAssetCache.negotiateEncoding("gzip, deflate, br", asset));
+        assertNull(StaticAssetCache.negotiateEncoding("gzip;q=0, br", asset));
+        assertNotEquals(asset.getEtag(), asset.getVariant("gzip").getEtag());
+    }
+
+    @Test
+    void cacheControlFollowsHashedNames() {
+        assertEquals("public, max-age=31536000, immutable", StaticAssetCache.cacheControl("index-BkZ3x9aF.js"));
+        assertEquals("public, max-age=31536000, immutable", StaticAssetCache.cacheControl("app.5f2c9e1a0b.css"));
+        assertEquals("public, max-age=300", StaticAssetCache.cacheControl("jquery-validate.js"));
+        assertEquals("public, max-age=300", StaticAssetCache.cacheControl("roboto-v30-latin-regular.woff2"));
+        assertEquals("no-cache", StaticAssetCache.cacheControl("index.html"));
+    }
+
+    @Test
+    void datesVersionsAndWordsAreNotContentHashes() {
+        assertTrue(StaticAssetCache.isHashedName("vendor-5f2c9e1a.js"));
+        assertFalse(StaticAssetCache.isHashedName("app-20240101.js"));
+        assertFalse(StaticAssetCache.isHashedName("app.20240101.css"));
+        assertFalse(StaticAssetCache.isHashedName("app.202401011.js"));
+        assertFalse(StaticAssetCache.isHashedName("app-release1.js"));
+        assertFalse(StaticAssetCache.isHashedName("app-v2024010.js"));
+        assertFalse(StaticAssetCache.isHashedName("lib-1.2.3.js"));
+        assertFalse(StaticAssetCache.isHashedName("logo-DarkMode.svg"));
+        assertFalse(StaticAssetCache.isHashedName("bundle-deadbeef.js"));
+    }
+
+    @Test
+    void conditionalHeadersMatchEtagAndDate() {
+        long modified = 1_700_000_000_000L;
+        String date = StaticAssetCache.formatHttpDate(modified);
+        assertTrue(StaticAssetCache.isNotModified("W/\"abc\", \"def\"", null, "\"def\"", modified));
+        assertFalse(StaticAssetCache.isNotModified("\"abc\"", date, "\"def\"", modified));
+        assertTrue(StaticAssetCache.isNotModified(null, date, "\"def\"", modified));
+        assertFalse(StaticAssetCache.isNotModified(null, StaticAssetCache.formatHttpDate(modified - 5000), "\"def\"", modified));
+    }
+}
@@ -0,0 +1,40 @@
+package team.kitemc.verifymc.web;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebResponseHelperTest {
+    @Test
+    void failedStreamDropsTheJdkConnectionWithoutTheLastChunk() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/export", exchange -> WebResponseHelper.sendTextStream(exchange, 200,
+                "text/csv; charset=utf-8", out -> {
+                    out.write("username\r\nalice\r\n");
+                    out.flush();
+                    throw new IllegalStateException("cursor failed");
+                }));
+        server.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort())) {
+            socket.setSoTimeout(5000);
+            OutputStream request = socket.getOutputStream();
+            request.write("GET /export HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            InputStream response = socket.getInputStream();
+            String raw = new String(response.readAllBytes(), StandardCharsets.US_ASCII);
+
+            assertTrue(raw.startsWith("HTTP/1.1 200"));
+            assertTrue(raw.contains("alice"));
+            assertFalse(raw.endsWith("0\r\n\r\n"));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
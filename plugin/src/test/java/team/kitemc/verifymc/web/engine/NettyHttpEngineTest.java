@@ -0,0 +1,230 @@
+package team.kitemc.verifymc.web.engine;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseDecoder;
+import io.netty.util.ReferenceCountUtil;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import team.kitemc.verifymc.web.HttpConnectionLimits;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NettyHttpEngineTest {
+    private static final int IDLE_SECONDS = 3;
+    private static final int BODY_LIMIT = 4096;
+
+    private final HttpConnectionLimits limits = new HttpConnectionLimits(50, 0, 10, 5, 5, IDLE_SECONDS);
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private final List<String> handled = new ArrayList<>();
+    private EmbeddedChannel channel;
+
+    @AfterEach
+    void closeChannel() {
+        if (channel != null) {
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    void framesFixedLengthAndBodilessResponses() {
+        open(Runnable::run);
+        send("GET /fixed HTTP/1.1\r\nHost: x\r\n\r\n" + "GET /empty HTTP/1.1\r\nHost: x\r\n\r\n");
+
+        List<FullHttpResponse> responses = responses();
+        assertEquals(2, responses.size());
+        assertEquals(200, responses.get(0).status().code());
+        assertEquals("5", responses.get(0).headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        assertEquals("hello", body(responses.get(0)));
+        assertEquals(404, responses.get(1).status().code());
+        assertEquals("0", responses.get(1).headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        responses.forEach(FullHttpResponse::release);
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    void streamsUnknownLengthBodiesInChunks() {
+        open(Runnable::run);
+        send("GET /chunked HTTP/1.1\r\nHost: x\r\n\r\n");
+
+        EmbeddedChannel client = new EmbeddedChannel(new HttpResponseDecoder());
+        drainInto(client);
+        List<HttpObject> parts = new ArrayList<>();
+        for (Object part; (part = client.readInbound()) != null; ) {
+            parts.add((HttpObject) part);
+        }
+        int chunks = 0;
+        StringBuilder body = new StringBuilder();
+        for (HttpObject part : parts) {
+            if (part instanceof HttpResponse response) {
+                assertEquals("chunked", response.headers().get(HttpHeaderNames.TRANSFER_ENCODING));
+            }
+            if (part instanceof HttpContent content && content.content().isReadable()) {
+                chunks++;
+                body.append(content.content().toString(StandardCharsets.US_ASCII));
+            }
+            ReferenceCountUtil.release(part);
+        }
+        assertEquals(chunkedBody(), body.toString());
+        assertTrue(chunks >= 3, "40000 bytes should leave in 16 KiB chunks, got " + chunks);
+        client.finishAndReleaseAll();
+    }
+
+    @Test
+    void abortedResponseDropsTheConnectionWithoutTheLastChunk() {
+        open(Runnable::run);
+        send("GET /aborted HTTP/1.1\r\nHost: x\r\n\r\n");
+
+        StringBuilder raw = new StringBuilder();
+        for (Object out; (out = channel.readOutbound()) != null; ) {
+            raw.append(((ByteBuf) out).toString(StandardCharsets.US_ASCII));
+            ReferenceCountUtil.release(out);
+        }
+        assertTrue(raw.toString().contains("first row"));
+        assertFalse(raw.toString().endsWith("0\r\n\r\n"));
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void pipelinedRequestsAreAnsweredInRequestOrder() {
+        open(tasks::add);
+        send("GET /first HTTP/1.1\r\nHost: x\r\n\r\n" + "GET /second HTTP/1.1\r\nHost: x\r\n\r\n");
+
+        // The second request waits until the first response is written
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertTrue(tasks.isEmpty());
+
+        List<FullHttpResponse> responses = responses();
+        assertEquals(List.of("/first", "/second"), handled);
+        assertEquals(2, responses.size());
+        assertEquals("/first", body(responses.get(0)));
+        assertEquals("/second", body(responses.get(1)));
+        responses.forEach(FullHttpResponse::release);
+    }
+
+    @Test
+    void oversizedBodyIsRefusedWithJsonBeforeTheHandlerRuns() {
+        open(Runnable::run);
+        send("POST /echo HTTP/1.1\r\nHost: x\r\nContent-Length: " + (BODY_LIMIT + 1) + "\r\n\r\n");
+
+        List<FullHttpResponse> responses = responses();
+        assertEquals(1, responses.size());
+        assertEquals(413, responses.get(0).status().code());
+        assertTrue(body(responses.get(0)).contains("\"success\":false"));
+        responses.forEach(FullHttpResponse::release);
+        assertTrue(handled.isEmpty());
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void idleConnectionIsClosedAfterTheIdleTimeout() {
+        open(Runnable::run);
+        send("GET /fixed HTTP/1.1\r\nHost: x\r\n\r\n");
+        responses().forEach(FullHttpResponse::release);
+
+        channel.advanceTimeBy(IDLE_SECONDS - 1, TimeUnit.SECONDS);
+        channel.runScheduledPendingTasks();
+        assertTrue(channel.isOpen());
+
+        channel.advanceTimeBy(2, TimeUnit.SECONDS);
+        channel.runScheduledPendingTasks();
+        assertFalse(channel.isOpen());
+        assertEquals(1, limits.toJson().getJSONObject("closed").getLong("idle_timeout"));
+    }
+
+    @Test
+    void slowResponseIsClosedAfterTheResponseTimeout() {
+        open(tasks::add);
+        send("GET /fixed HTTP/1.1\r\nHost: x\r\n\r\n");
+
+        channel.advanceTimeBy(limits.getResponseTimeoutSeconds() + 1, TimeUnit.SECONDS);
+        channel.runScheduledPendingTasks();
+        assertFalse(channel.isOpen());
+        assertEquals(1, limits.toJson().getJSONObject("closed").getLong("response_timeout"));
+    }
+
+    private void open(Executor executor) {
+        NettyHttpEngine engine = new NettyHttpEngine(0, null, executor, limits, BODY_LIMIT,
+                Logger.getLogger("NettyHttpEngineTest"));
+        engine.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            handled.add(path);
+            switch (path) {
+                case "/empty" -> exchange.sendResponseHeaders(404, -1);
+                case "/aborted" -> {
+                    exchange.sendResponseHeaders(200, 0);
+                    exchange.getResponseBody().write("first row\n".getBytes(StandardCharsets.US_ASCII));
+                    exchange.getResponseBody().flush();
+                    WebResponseHelper.abort(exchange);
+                }
+                case "/chunked" -> {
+                    exchange.sendResponseHeaders(200, 0);
+                    byte[] body = chunkedBody().getBytes(StandardCharsets.US_ASCII);
+                    for (int offset = 0; offset < body.length; offset += 1000) {
+                        exchange.getResponseBody().write(body, offset, Math.min(1000, body.length - offset));
+                    }
+                }
+                default -> {
+                    byte[] body = ("/fixed".equals(path) ? "hello" : path).getBytes(StandardCharsets.US_ASCII);
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+            }
+            exchange.close();
+        });
+        channel = new EmbeddedChannel(new ConnectionTimeoutHandler(limits));
+        engine.configureHttp1(channel.pipeline());
+    }
+
+    private void send(String request) {
+        channel.writeInbound(Unpooled.copiedBuffer(request, StandardCharsets.US_ASCII));
+    }
+
+    private List<FullHttpResponse> responses() {
+        EmbeddedChannel client = new EmbeddedChannel(new HttpResponseDecoder(), new HttpObjectAggregator(1 << 20));
+        drainInto(client);
+        List<FullHttpResponse> responses = new ArrayList<>();
+        for (Object response; (response = client.readInbound()) != null; ) {
+            responses.add((FullHttpResponse) response);
+        }
+        client.finishAndReleaseAll();
+        return responses;
+    }
+
+    private void drainInto(EmbeddedChannel client) {
+        for (Object out; (out = channel.readOutbound()) != null; ) {
+            client.writeInbound((ByteBuf) out);
+        }
+    }
+
+    private static String body(FullHttpResponse response) {
+        return response.content().toString(StandardCharsets.UTF_8);
+    }
+
+    private static String chunkedBody() {
+        StringBuilder body = new StringBuilder(40_000);
+        for (int i = 0; body.length() < 40_000; i++) {
+            body.append((char) ('a' + i % 26));
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import team.kitemc.verifymc.web.ResponseCache;
+import team.kitemc.verifymc.web.WebResponseHelper;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheFilterTest {
+    @Test
+    void keysOnlyOnDeclaredQueryParameters() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ResponseCacheFilter filter = new ResponseCacheFilter(new ResponseCache(8), 60_000L, List.of("language"));
+        HttpHandler handler = respond(calls, "{\"success\":true,\"motd\":\"hi\"}");
+
+        run(filter, handler, exchange("/api/questionnaire/config?language=en", "en-US"));
+        HttpExchange second = exchange("/api/questionnaire/config?language=en&nonce=123", "zh-CN");
+        run(filter, handler, second);
+        assertEquals(1, calls.get());
+        assertNull(second.getResponseHeaders().getFirst("Vary"));
+        assertEquals("{\"success\":true,\"motd\":\"hi\"}", body(second));
+
+        run(filter, handler, exchange("/api/questionnaire/config?language=zh", "en"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void doesNotCacheFailuresSentWith200() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        ResponseCacheFilter filter = new ResponseCacheFilter(new ResponseCache(8), 60_000L, List.of());
+        HttpHandler handler = respond(calls, "{\"success\":false,\"msg\":\"Server unreachable\"}");
+
+        HttpExchange first = exchange("/api/server/status", "en");
+        run(filter, handler, first);
+        run(filter, handler, exchange("/api/server/status", "en"));
+        assertEquals(2, calls.get());
+        assertNull(first.getResponseHeaders().getFirst("ETag"));
+        assertTrue(body(first).contains("Server unreachable"));
+    }
+
+    @Test
+    void onlyTopLevelSuccessFlagCounts() {
+        assertTrue(ResponseCacheFilter.succeeded(bytes("{\"items\":[{\"success\":false}]}")));
+        assertTrue(ResponseCacheFilter.succeeded(bytes("[1,2]")));
+        assertFalse(ResponseCacheFilter.succeeded(bytes("{\"success\": false}")));
+    }
+
+    private static HttpHandler respond(AtomicInteger calls, String json) {
+        return exchange -> {
+            calls.incrementAndGet();
+            WebResponseHelper.sendJsonBytes(exchange, bytes(json), 200);
+        };
+    }
+
+    private static void run(ResponseCacheFilter filter, HttpHandler handler, HttpExchange exchange) throws IOException {
+        filter.doFilter(exchange, new Filter.Chain(List.of(), handler));
+    }
+
+    private static HttpExchange exchange(String uri, String acceptLanguage) {
+        HttpExchange exchange = mock(HttpExchange.class);
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("Accept-Language", acceptLanguage);
+        when(exchange.getRequestURI()).thenReturn(URI.create(uri));
+        when(exchange.getRequestHeaders()).thenReturn(requestHeaders);
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        return exchange;
+    }
+
+    private static String body(HttpExchange exchange) {
+        return ((ByteArrayOutputStream) exchange.getResponseBody()).toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
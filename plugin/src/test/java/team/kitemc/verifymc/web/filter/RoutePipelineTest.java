@@ -0,0 +1,182 @@
+package team.kitemc.verifymc.web.filter;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePipelineTest {
+    @Test
+    void runsStagesInOrderAndRecordsLatency() throws Exception {
+        RouteMetrics metrics = new RouteMetrics();
+        List<String> calls = new ArrayList<>();
+        RoutePipeline pipeline = RoutePipeline.builder("/api/test", metrics)
+                .stage("first", recording("first", calls))
+                .stage("second", recording("second", calls))
+                .handler(exchange -> {
+                    calls.add("handler");
+                    exchange.setAttribute("seen", Boolean.TRUE);
+                    exchange.sendResponseHeaders(204, -1);
+                });
+
+        FakeExchange exchange = new FakeExchange("GET");
+        pipeline.handle(exchange);
+
+        assertEquals(List.of("first", "second", "handler"), calls);
+        // Attributes are per request, not on the shared context map
+        assertNull(exchange.getAttribute("seen"));
+        RouteMetrics.RouteStats stats = metrics.get("/api/test");
+        assertEquals(1, stats.getTotal().getCount());
+        assertEquals(List.of("first", "second", "handler"), new ArrayList<>(stats.getStages().keySet()));
+        stats.getStages().values().forEach(latency -> assertEquals(1, latency.getCount()));
+        assertEquals(1, stats.toJson().getJSONObject("status").getLong("2xx"));
+    }
+
+    @Test
+    void shortCircuitedStageSkipsRestOfChain() throws Exception {
+        RouteMetrics metrics = new RouteMetrics();
+        RoutePipeline pipeline = RoutePipeline.builder("/api/test", metrics)
+                .stage(RoutePipeline.STAGE_METHOD, new MethodFilter("POST"))
+                .handler(exchange -> fail("handler must not run"));
+
+        FakeExchange exchange = new FakeExchange("GET");
+        pipeline.handle(exchange);
+
+        assertEquals(405, exchange.getResponseCode());
+        assertEquals("POST", exchange.getResponseHeaders().getFirst("Allow"));
+        RouteMetrics.RouteStats stats = metrics.get("/api/test");
+        assertEquals(1, stats.getStages().get(RoutePipeline.STAGE_METHOD).getCount());
+        assertEquals(0, stats.getStages().get(RoutePipeline.STAGE_HANDLER).getCount());
+        assertEquals(1, stats.toJson().getJSONObject("status").getLong("4xx"));
+    }
+
+    @Test
+    void rejectsDuplicateStages() {
+        RoutePipeline.Builder builder = RoutePipeline.builder("/api/test", new RouteMetrics())
+                .stage("a", recording("a", new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> builder.stage("a", recording("a", new ArrayList<>())));
+    }
+
+    private static Filter recording(String name, List<String> calls) {
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws java.io.IOException {
+                calls.add(name);
+                chain.doFilter(exchange);
+            }
+
+            @Override
+            public String description() {
+                return name;
+            }
+        };
+    }
+
+    private static final class FakeExchange extends HttpExchange {
+        private final String method;
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+        private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+        private final java.util.Map<String, Object> attributes = new java.util.HashMap<>();
+        private int responseCode = -1;
+
+        private FakeExchange(String method) {
+            this.method = method;
+        }
+
+        @Override
+        public Headers getRequestHeaders() {
+            return requestHeaders;
+        }
+
+        @Override
+        public Headers getResponseHeaders() {
+            return responseHeaders;
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return URI.create("/api/test");
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return method;
+        }
+
+        @Override
+        public HttpContext getHttpContext() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getRequestBody() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public OutputStream getResponseBody() {
+            return responseBody;
+        }
+
+        @Override
+        public void sendResponseHeaders(int rCode, long responseLength) {
+            this.responseCode = rCode;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return new InetSocketAddress("127.0.0.1", 40000);
+        }
+
+        @Override
+        public int getResponseCode() {
+            return responseCode;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return new InetSocketAddress("127.0.0.1", 8080);
+        }
+
+        @Override
+        public String getProtocol() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+        }
+
+        @Override
+        public HttpPrincipal getPrincipal() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.AuditDao;
+import team.kitemc.verifymc.db.AuditRecord;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdminAuditHandlerTest {
+    @Test
+    void nullFieldsAreNeverWrittenAsJsonNull() throws Exception {
+        PluginContext ctx = mock(PluginContext.class);
+        AuditDao auditDao = mock(AuditDao.class);
+        when(ctx.getAuditDao()).thenReturn(auditDao);
+        when(auditDao.getAllAudits()).thenReturn(List.of(
+                new AuditRecord(null, "approve", "admin", null, null, 1_700_000_000_000L)));
+
+        HttpExchange exchange = mock(HttpExchange.class);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/admin/audits"));
+        when(exchange.getRequestHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(body);
+
+        new AdminAuditHandler(ctx).handle(exchange);
+
+        String json = body.toString(StandardCharsets.UTF_8);
+        assertFalse(json.contains("null"));
+        JSONObject audit = new JSONObject(json).getJSONArray("audits").getJSONObject(0);
+        assertEquals("approve", audit.getString("action"));
+        assertEquals("admin", audit.getString("operator"));
+        assertEquals(1_700_000_000_000L, audit.getLong("timestamp"));
+        assertFalse(audit.has("id"));
+        // Same shape as the JSONObject-built list: missing text comes out empty
+        assertEquals("", audit.getString("target"));
+        assertEquals("", audit.getString("detail"));
+    }
+}
@@ -0,0 +1,139 @@
+package team.kitemc.verifymc.web.handler;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import team.kitemc.verifymc.core.PluginContext;
+import team.kitemc.verifymc.db.UserDao;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminUserExportHandlerTest {
+    private static final String PASSWORD_HASH = "$2a$10$secretsecretsecretsecretsecretsecretsecretsecretsecret";
+
+    @Test
+    void formulaPrefixesAreEscaped() throws IOException {
+        assertEquals("'=SUM(A1:A9)", csvField("=SUM(A1:A9)"));
+        assertEquals("'+1", csvField("+1"));
+        assertEquals("'-1", csvField("-1"));
+        assertEquals("'@cmd", csvField("@cmd"));
+        assertEquals("'\tvalue", csvField("\tvalue"));
+        assertEquals("\"'\rvalue\"", csvField("\rvalue"));
+        // Only text cells: negative numbers stay numbers
+        StringWriter out = new StringWriter();
+        AdminUserExportHandler.writeCsvField(out, "-5", false);
+        assertEquals("-5", out.toString());
+        assertEquals("a=b", csvField("a=b"));
+    }
+
+    @Test
+    void fieldsAreQuotedPerRfc4180() throws IOException {
+        assertEquals("plain", csvField("plain"));
+        assertEquals("\"a,b\"", csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", csvField("say \"hi\""));
+        assertEquals("\"line\nbreak\"", csvField("line\nbreak"));
+        assertEquals("\"line\r\nbreak\"", csvField("line\r\nbreak"));
+        assertEquals("\"'=1,2\"", csvField("=1,2"));
+    }
+
+    @Test
+    void ndjsonLeavesOutThePassword() throws IOException {
+        String body = export("ndjson");
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        JSONObject row = new JSONObject(lines[0]);
+        assertEquals("alice", row.getString("username"));
+        assertEquals(1700000000000L, row.getLong("regTime"));
+        assertFalse(row.has("password"));
+        assertFalse(body.contains(PASSWORD_HASH));
+    }
+
+    @Test
+    void csvLeavesOutThePassword() throws IOException {
+        String body = export("csv");
+        String[] lines = body.split("\r\n");
+        assertEquals(2, lines.length);
+        assertFalse(lines[0].contains("password"));
+        assertTrue(lines[1].startsWith("alice,\"a,b@example.com\","));
+        assertTrue(lines[1].contains(",1700000000000,"));
+        assertFalse(body.contains(PASSWORD_HASH));
+    }
+
+    @Test
+    void readErrorAfterTheFirstRowDoesNotEndTheResponseNormally() throws IOException {
+        PluginContext ctx = mock(PluginContext.class);
+        UserDao userDao = mock(UserDao.class);
+        when(ctx.getUserDao()).thenReturn(userDao);
+        doAnswer(invocation -> {
+            invocation.<UserDao.UserVisitor>getArgument(1).visit(Map.of("username", "alice"));
+            throw new IOException("cursor failed");
+        }).when(userDao).forEachUser(eq("all"), any());
+
+        HttpExchange exchange = mock(HttpExchange.class);
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream body = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/admin/users/export?format=csv"));
+        when(exchange.getRequestHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(body);
+
+        assertThrows(IOException.class, () -> new AdminUserExportHandler(ctx).handle(exchange));
+        // The response stream is swapped for one that fails to close, which drops the connection
+        assertFalse(closed[0]);
+        verify(exchange).setStreams(isNull(), any());
+        verify(exchange).close();
+    }
+
+    private static String csvField(String value) throws IOException {
+        StringWriter out = new StringWriter();
+        AdminUserExportHandler.writeCsvField(out, value, true);
+        return out.toString();
+    }
+
+    private static String export(String format) throws IOException {
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("username", "alice");
+        user.put("email", "a,b@example.com");
+        user.put("status", "approved");
+        user.put("regTime", 1.7e12);
+        user.put("password", PASSWORD_HASH);
+
+        PluginContext ctx = mock(PluginContext.class);
+        UserDao userDao = mock(UserDao.class);
+        when(ctx.getUserDao()).thenReturn(userDao);
+        doAnswer(invocation -> {
+            invocation.<UserDao.UserVisitor>getArgument(1).visit(user);
+            return null;
+        }).when(userDao).forEachUser(eq("all"), any());
+
+        HttpExchange exchange = mock(HttpExchange.class);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(exchange.getRequestURI()).thenReturn(URI.create("/api/admin/users/export?format=" + format));
+        when(exchange.getRequestHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(body);
+
+        new AdminUserExportHandler(ctx).handle(exchange);
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
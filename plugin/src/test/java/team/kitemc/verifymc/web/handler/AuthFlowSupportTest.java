@@ -10,9 +10,11 @@ import team.kitemc.verifymc.db.AuditDao;
 import team.kitemc.verifymc.db.AuditRecord;
 import team.kitemc.verifymc.db.UserDao;
 import team.kitemc.verifymc.service.AuthmeService;
+import team.kitemc.verifymc.util.PasswordUtil;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -34,10 +36,10 @@ class AuthFlowSupportTest {
         when(ctx.getAuditDao()).thenReturn(auditDao);
         when(ctx.getPlugin()).thenReturn(plugin);
         when(plugin.getLogger()).thenReturn(logger);
-        when(userDao.updateSharedPasswords(List.of("Alice", "Bob"), "new-password")).thenReturn(true);
+        when(userDao.updateSharedPasswords(eq(List.of("Alice", "Bob")), hashOf("new-password"))).thenReturn(true);
         when(authmeService.isAuthmeEnabled()).thenReturn(true);
-        when(authmeService.syncUserPasswordToAuthme("Alice", "new-password")).thenReturn(false);
-        when(authmeService.syncUserPasswordToAuthme("Bob", "new-password")).thenReturn(true);
+        when(authmeService.syncUserPasswordToAuthme(eq("Alice"), hashOf("new-password"))).thenReturn(false);
+        when(authmeService.syncUserPasswordToAuthme(eq("Bob"), hashOf("new-password"))).thenReturn(true);
 
         AuthFlowSupport.SharedPasswordUpdateResult result = AuthFlowSupport.synchronizeSharedPasswords(
                 ctx,
@@ -64,9 +66,9 @@ class AuthFlowSupportTest {
         when(ctx.getAuditDao()).thenReturn(auditDao);
         when(ctx.getPlugin()).thenReturn(plugin);
         when(plugin.getLogger()).thenReturn(logger);
-        when(userDao.updateSharedPasswords(List.of("Alice"), "new-password")).thenReturn(true);
+        when(userDao.updateSharedPasswords(eq(List.of("Alice")), hashOf("new-password"))).thenReturn(true);
         when(authmeService.isAuthmeEnabled()).thenReturn(true);
-        when(authmeService.syncUserPasswordToAuthme("Alice", "new-password")).thenReturn(true);
+        when(authmeService.syncUserPasswordToAuthme(eq("Alice"), hashOf("new-password"))).thenReturn(true);
 
         AuthFlowSupport.SharedPasswordUpdateResult result = AuthFlowSupport.synchronizeSharedPasswords(
                 ctx,
@@ -76,4 +78,10 @@ class AuthFlowSupportTest {
         assertTrue(result.success());
         verify(auditDao, never()).addAudit(any(AuditRecord.class));
     }
+
+    // The group is hashed once and the DAO and AuthMe receive the stored form
+    private static String hashOf(String plainPassword) {
+        return argThat(stored -> stored != null && !stored.equals(plainPassword)
+                && PasswordUtil.verify(plainPassword, stored));
+    }
 }